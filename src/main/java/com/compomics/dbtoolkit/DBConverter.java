@@ -12,8 +12,12 @@
  */
 package com.compomics.dbtoolkit;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
 import com.compomics.dbtoolkit.io.implementations.AutoDBLoader;
+import com.compomics.dbtoolkit.io.implementations.DBTKWriter;
+import com.compomics.dbtoolkit.io.implementations.ParallelDBLoader;
+import com.compomics.dbtoolkit.io.implementations.ProteinRecord;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.util.general.CommandLineParser;
@@ -43,6 +47,11 @@ public class DBConverter {
      */
     private AutoDBLoader iAutoDBLoader = null;
 
+    /**
+     * The number of threads to parse plain-text FASTA and SwissProt DBs with.
+     */
+    private int iThreads = 1;
+
     /**
      * Default constructor.
      */
@@ -74,6 +83,17 @@ public class DBConverter {
         iAutoDBLoader = new AutoDBLoader(classNames);
     }
 
+    /**
+     * This method sets the number of threads to parse the input DB with. Values larger
+     * than one result in parallel parsing of plain-text FASTA and SwissProt DBs,
+     * preserving the order of the entries.
+     *
+     * @param   aThreads    int with the number of parser threads.
+     */
+    public void setThreads(int aThreads) {
+        this.iThreads = aThreads;
+    }
+
     /**
      * This method will read a database in the specified format from the specified inputfile,
      * and output a FASTA database with the standard information as expected by most
@@ -86,9 +106,9 @@ public class DBConverter {
         // First load the original DB from file.
         // We need the correct DBLoader implementation for that...
         try {
-            DBLoader db = iAutoDBLoader.getLoaderForFile(aInputFilename);
+            DBLoader db = ParallelDBLoader.wrap(iAutoDBLoader.getLoaderForFile(aInputFilename), iThreads, true);
             // Create the DB outputfile.
-            PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(aOutputFilename)));
+            PrintWriter pw = new PrintWriter(new OutputStreamWriter(this.openOutput(aOutputFilename)));
 
             // Convert...
             String fastaLine = null;
@@ -97,6 +117,7 @@ public class DBConverter {
                 pw.print(fastaLine);
             }
             // Clear the inputDB.
+            db.close();
             db = null;
 
             // Flush and close the PrintWriter.
@@ -123,9 +144,9 @@ public class DBConverter {
         // First load the original DB from file.
         // We need the correct DBLoader implementation for that...
         try {
-            DBLoader db = iAutoDBLoader.getLoaderForFile(aInputFilename);
+            DBLoader db = ParallelDBLoader.wrap(iAutoDBLoader.getLoaderForFile(aInputFilename), iThreads, true);
             // Create the DB outputfile.
-            PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(aOutputFilename)));
+            PrintWriter pw = new PrintWriter(new OutputStreamWriter(this.openOutput(aOutputFilename)));
 
             // Convert...
             String fastaLine = null;
@@ -134,6 +155,7 @@ public class DBConverter {
                 pw.print(fastaLine);
             }
             // Clear the inputDB.
+            db.close();
             db = null;
 
             // Flush and close the PrintWriter.
@@ -147,9 +169,68 @@ public class DBConverter {
         }
     }
 
+    /**
+     * This method will read a database in the specified format from the specified inputfile,
+     * and write it to a binary '.dbtk' store, which can subsequently be read by the DBTKDBLoader.
+     *
+     * @param   aInputFilename  String  with the inputfile name.
+     * @param   aOutputFilename String  with the outputfile name.
+     * @see com.compomics.dbtoolkit.io.implementations.DBTKDBLoader
+     */
+    public void toDBTKFile(String aInputFilename, String aOutputFilename) {
+        this.toFilteredDBTKFile(null, aInputFilename, aOutputFilename);
+    }
+
+    /**
+     * This method will read a database in the specified format from the specified inputfile,
+     * and write the entries passing the filter to a binary '.dbtk' store, which can
+     * subsequently be read by the DBTKDBLoader.
+     *
+     * @param   aFilter Filter instance to apply (can be 'null' for no filtering).
+     * @param   aInputFilename  String  with the inputfile name.
+     * @param   aOutputFilename String  with the outputfile name.
+     * @see com.compomics.dbtoolkit.io.implementations.DBTKDBLoader
+     */
+    public void toFilteredDBTKFile(Filter aFilter, String aInputFilename, String aOutputFilename) {
+        try {
+            DBLoader db = ParallelDBLoader.wrap(iAutoDBLoader.getLoaderForFile(aInputFilename), iThreads, true);
+            DBTKWriter writer = new DBTKWriter(new File(aOutputFilename));
+
+            // Convert...
+            String fastaEntry = null;
+            while((fastaEntry = (aFilter == null)?db.nextFASTAEntry():db.nextFilteredFASTAEntry(aFilter)) != null) {
+                writer.addEntry(new ProteinRecord(fastaEntry));
+            }
+            // Clear the inputDB.
+            db.close();
+            db = null;
+
+            writer.close();
+        } catch(UnknownDBFormatException udfe) {
+            System.err.println(udfe.getMessage());
+        } catch(IOException ioe) {
+            System.err.println("An IOException occurred while trying to convert the '" + aInputFilename + "' DB file to DBTK format.\n");
+            ioe.printStackTrace();
+        }
+    }
+
+    /**
+     * This method opens the specified outputfile, or standard out if the name is '-'.
+     *
+     * @param   aOutputFilename String  with the outputfile name.
+     * @return  OutputStream    to the outputfile.
+     * @exception   IOException when the outputfile could not be created.
+     */
+    private OutputStream openOutput(String aOutputFilename) throws IOException {
+        if(StandardStreams.isStandardStream(aOutputFilename)) {
+            return StandardStreams.getOutput();
+        }
+        return new FileOutputStream(aOutputFilename);
+    }
 
     /**
      * The main method can be used to convert databases into FASTA format from the command line.
+     * When the outputfile has the '.dbtk' extension, a binary DBTK store is written instead.
      *
      * @param   args    String[]    with the necessary arguments.
      */
@@ -158,26 +239,51 @@ public class DBConverter {
         final int OUTPUT = 1;
         final String FILTER = "filter";
         final String FILTERPARAM = "filterParam";
+        final String THREADS = "threads";
         final String[] FORMATS = {DBLoader.SWISSPROT, DBLoader.FASTA};
 
         DBConverter dbConv = new DBConverter();
 
-        CommandLineParser clp = new CommandLineParser(args, new String[] {FILTER, FILTERPARAM, });
+        CommandLineParser clp = new CommandLineParser(args, new String[] {FILTER, FILTERPARAM, THREADS});
 
-        String[] params = clp.getParameters();
+        String[] params = StandardStreams.getParameters(args, clp);
         String filterID = clp.getOptionParameter(FILTER);
         String filterParam = clp.getOptionParameter(FILTERPARAM);
+        String threads = clp.getOptionParameter(THREADS);
 
         if( (params == null || params.length != 2) ) {
-            System.err.println("\nUsage:\n\n\tDBConverter [--filter <filterName> [--filterParam <filter_parameter>]] <inputfile> <outputfile>\n\n");
+            System.err.println("\nUsage:\n\n\tDBConverter [--filter <filterName> [--filterParam <filter_parameter>]] [--threads <number_of_parser_threads>] <inputfile> <outputfile>\n\n\tThe number of parser threads defaults to the number of processors.\n\tAn outputfile with the '" + DBTKWriter.EXTENSION + "' extension results in a binary DBTK store rather than a FASTA file.\n\tUse '-' as inputfile to read from standard in, or as outputfile to write a FASTA file to standard out.\n\n");
             System.err.println();
             System.exit(1);
         } else {
+            boolean store = params[OUTPUT].toLowerCase().endsWith(DBTKWriter.EXTENSION);
+            // Keep standard out clean for the DB when writing to it.
+            if(StandardStreams.isStandardStream(params[OUTPUT])) {
+                StandardStreams.redirectMessages();
+            }
+            if(threads != null) {
+                try {
+                    int threadCount = Integer.parseInt(threads);
+                    if(threadCount < 1) {
+                        throw new NumberFormatException();
+                    }
+                    dbConv.setThreads(threadCount);
+                } catch(NumberFormatException nfe) {
+                    flagError("The number of threads should be a positive integer, not '" + threads + "'!");
+                }
+            } else {
+                // Parse on all processors by default, so the conversion is bound by the I/O.
+                dbConv.setThreads(Runtime.getRuntime().availableProcessors());
+            }
             // See if we have a filter.
             if(filterID == null) {
                 try {
                     System.out.println("\nConverting...");
-                    dbConv.toFASTAFile(params[INPUT], params[OUTPUT]);
+                    if(store) {
+                        dbConv.toDBTKFile(params[INPUT], params[OUTPUT]);
+                    } else {
+                        dbConv.toFASTAFile(params[INPUT], params[OUTPUT]);
+                    }
                     System.out.println("Done.\n");
                 } catch(Exception e) {
                     System.err.println("\n"+e.getMessage());
@@ -238,7 +344,11 @@ public class DBConverter {
                             }
                         }
                         System.out.println("\nConverting...");
-                        dbConv.toFilteredFASTAFile(f, params[INPUT], params[OUTPUT]);
+                        if(store) {
+                            dbConv.toFilteredDBTKFile(f, params[INPUT], params[OUTPUT]);
+                        } else {
+                            dbConv.toFilteredFASTAFile(f, params[INPUT], params[OUTPUT]);
+                        }
                         System.out.println("Done.\n");
                     } catch(Exception e) {
                         e.printStackTrace();
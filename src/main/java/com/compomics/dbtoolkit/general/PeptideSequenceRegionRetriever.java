@@ -94,6 +94,11 @@ public class PeptideSequenceRegionRetriever {
      * @exception   IOException when reading the database failed.
      */
     public Vector retrieveSequenceRegions(Vector aRegions) throws IOException{
+        // With an index at hand, we can look up the proteins directly
+        // instead of cycling the entire DB.
+        if(iLoader.hasIndex()) {
+            return this.retrieveIndexedSequenceRegions(aRegions);
+        }
         iLoader.reset();
         int liSize = aRegions.size();
         HashMap all = new HashMap(liSize);
@@ -161,6 +166,37 @@ public class PeptideSequenceRegionRetriever {
         return aRegions;
     }
 
+    /**
+     * This method retrieves the sequence regions by looking up each protein
+     * through the index of the DBLoader.
+     *
+     * @param   aRegions    Vector with the SequenceRegion instances to
+     *                      query with.
+     * @return  Vector    with the filled-in SequenceRegions in the Vector.
+     * @exception   IOException when reading the database failed.
+     */
+    private Vector retrieveIndexedSequenceRegions(Vector aRegions) throws IOException {
+        // Cache the proteins, as an accession number can be queried more than once.
+        HashMap proteins = new HashMap();
+        int liSize = aRegions.size();
+        for(int i = 0; i < liSize; i++) {
+            Object o = aRegions.elementAt(i);
+            if(o instanceof SequenceRegion) {
+                SequenceRegion s = (SequenceRegion)o;
+                s.setQueried(true);
+                Protein p = (Protein)proteins.get(s.getAccession());
+                if(p == null && !proteins.containsKey(s.getAccession())) {
+                    p = iLoader.getEntryByAccession(s.getAccession());
+                    proteins.put(s.getAccession(), p);
+                }
+                if(p != null) {
+                    this.processRegionInProtein(s, p);
+                }
+            }
+        }
+        return aRegions;
+    }
+
     /**
      * This method does the real searching and retrieving per query sequence and protein.
      * The parameters are changed due to a pass by reference... Don't mess with this unless
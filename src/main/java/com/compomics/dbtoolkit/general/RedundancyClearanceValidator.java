@@ -15,8 +15,8 @@ package com.compomics.dbtoolkit.general;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
 import com.compomics.dbtoolkit.io.implementations.AutoDBLoader;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
 import com.compomics.util.general.CommandLineParser;
-import com.compomics.util.protein.Protein;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -69,11 +69,11 @@ public class RedundancyClearanceValidator {
             HashMap all = new HashMap();
             // Read all in non-red.
             int counterRead = 0;
-            Protein p = null;
+            DBRecord p = null;
             System.out.println("\n\nReading non-redundant DB '" + temp[0] + "'...");
-            while((p = loader.nextProtein()) != null) {
+            while((p = loader.nextRecord()) != null) {
                 counterRead++;
-                String tempSeq = p.getSequence().getSequence();
+                String tempSeq = p.getSequence();
                 all.put(tempSeq, "1");
             }
             loader.close();
@@ -87,9 +87,9 @@ public class RedundancyClearanceValidator {
             int foundCounter = 0;
             int missedCounter = 0;
             System.out.println("\n\nVerifying sequences in original DB '" + master + "'...");
-            while((p = loader.nextProtein()) != null) {
+            while((p = loader.nextRecord()) != null) {
                 readCounter++;
-                String tempSeq = p.getSequence().getSequence();
+                String tempSeq = p.getSequence();
                 if(all.containsKey(tempSeq)) {
                     foundCounter++;
                 } else {
@@ -16,16 +16,19 @@ import com.compomics.dbtoolkit.gui.interfaces.CursorModifiable;
 import com.compomics.dbtoolkit.gui.interfaces.StatusView;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
 import com.compomics.dbtoolkit.io.implementations.AutoDBLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
+import com.compomics.dbtoolkit.io.implementations.ProgressInputStream;
+import com.compomics.dbtoolkit.io.implementations.ShardedFASTAWriter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
 import com.compomics.util.protein.Header;
 import com.compomics.util.protein.Protein;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -66,6 +69,22 @@ public class ClearRedundancyThread implements Runnable {
      */
     private File iOutput = null;
 
+    /**
+     * Whether the output should be GZIP compressed, regardless of the output filename.
+     * Output to a file ending in '.gz' is always compressed.
+     */
+    private boolean iCompressOutput = false;
+
+    /**
+     * The number of files to split the output over.
+     */
+    private int iShards = 1;
+
+    /**
+     * The strategy to assign the entries to the shards with (see ShardedFASTAWriter).
+     */
+    private int iShardStrategy = ShardedFASTAWriter.ROUND_ROBIN;
+
     /**
      * The DBLoader to load the database from.
      */
@@ -81,6 +100,12 @@ public class ClearRedundancyThread implements Runnable {
      */
     private int iCurrentProgress = 0;
 
+    /**
+     * The combined size (in bytes) of the temporary files; the progress in
+     * these files is scaled against it.
+     */
+    private long iCombinedSize = 0;
+
     /**
      * boolean to indicate the user pressed cancel.
      */
@@ -122,6 +147,30 @@ public class ClearRedundancyThread implements Runnable {
         this.iParent = aParent;
     }
 
+    /**
+     * This method allows the caller to have the output GZIP compressed (on multiple threads),
+     * regardless of the output filename. Output to a file ending in '.gz' is always compressed.
+     * The temporary files are never compressed.
+     *
+     * @param   aCompress   boolean to indicate whether the output should be compressed.
+     */
+    public void setCompressedOutput(boolean aCompress) {
+        this.iCompressOutput = aCompress;
+    }
+
+    /**
+     * This method allows the caller to split the output over a number of files ('shards'),
+     * listed in a manifest next to them (see ShardedFASTAWriter).
+     *
+     * @param   aShards int with the number of shards (1 writes a single output file).
+     * @param   aStrategy   int with the strategy to assign the entries to the shards with
+     *                      (one of the constants on ShardedFASTAWriter).
+     */
+    public void setSharding(int aShards, int aStrategy) {
+        this.iShards = aShards;
+        this.iShardStrategy = aStrategy;
+    }
+
     /**
      * When an object implementing interface <code>Runnable</code> is used
      * to create a thread, starting the thread causes the object's
@@ -161,36 +210,37 @@ public class ClearRedundancyThread implements Runnable {
                 iCancelled = false;
             }
 
-            Protein protein = null;
+            DBRecord protein = null;
             // The HashMap with file pointers.
             HashMap files = new HashMap();
-            // The HashMap with PrintWriters.
+            // The HashMap with FASTAWriters.
             HashMap writers = new HashMap();
 
             // Counters.
             int numberOfEntriesRead = 0;
             int writtenToResultFile = 0;
             // Cycling...
-            while(((protein = iLoader.nextProtein()) != null) && (!iCancelled)) {
+            while(((protein = iLoader.nextRecord()) != null) && (!iCancelled)) {
                 // Count entry.
                 numberOfEntriesRead++;
                 // Get the length
                 long length = protein.getLength();
                 String key = Long.toString(length);
-                // See if the PrintWriter already exists,
+                // See if the FASTAWriter already exists,
                 // and if it doesn't, create it.
                 if(writers.get(key) != null) {
                     // Just write to noutput file and continue.
-                    PrintWriter out = (PrintWriter)writers.get(key);
-                    protein.writeToFASTAFile(out);
+                    FASTAWriter out = (FASTAWriter)writers.get(key);
+                    out.write(protein);
                 } else {
-                    // Create a new PrintWriter, write the entry and store
+                    // Create a new FASTAWriter, write the entry and store
                     // the wirter in the 'writers' hash.
                     // Also create the file, of course.
                     File outFile = new File(this.iTempFolder + "/" + key + ".tmp");
                     outFile.createNewFile();
-                    PrintWriter out = new PrintWriter(new FileWriter(outFile));
-                    protein.writeToFASTAFile(out);
+                    // There can be many temporary files open at once, so keep their buffers small.
+                    FASTAWriter out = new FASTAWriter(new FileOutputStream(outFile), 8*1024, 0);
+                    out.write(protein);
                     files.put(key, outFile);
                     writers.put(key, out);
                 }
@@ -217,8 +267,7 @@ public class ClearRedundancyThread implements Runnable {
             // Flush and close all streams.
             Iterator iterator = writers.values().iterator();
             while(iterator.hasNext()) {
-                PrintWriter out = (PrintWriter)iterator.next();
-                out.flush();
+                FASTAWriter out = (FASTAWriter)iterator.next();
                 out.close();
                 out = null;
             }
@@ -229,13 +278,13 @@ public class ClearRedundancyThread implements Runnable {
             String[] allFiles = new String[col.size()];
             col.toArray(allFiles);
             long[] sorted = new long[allFiles.length];
-            int combinedSize = 0;
+            long combinedSize = 0;
             for(int i=0;i<allFiles.length;i++) {
                 String lFile = allFiles[i];
                 sorted[i] = Long.parseLong(allFiles[i]);
                 allFiles[i] = null;
                 if(iParent != null) {
-                    combinedSize += (int)((File)files.get(lFile)).length();
+                    combinedSize += ((File)files.get(lFile)).length();
                 }
             }
             Arrays.sort(sorted);
@@ -243,7 +292,8 @@ public class ClearRedundancyThread implements Runnable {
             if(iParent != null) {
                 // Also factor in that the files need be deleted.
                 ProgressMonitor pm = iMonitor;
-                int max = combinedSize;
+                iCombinedSize = combinedSize;
+                int max = ProgressInputStream.scale(combinedSize, combinedSize);
                 iCurrentProgress = iMonitor.getMaximum()/2;
                 iMonitor = new ProgressMonitor(iParent, "Clearing redundancy from DB. Outputting to '" + iOutput.getAbsoluteFile() + "'...", "Initializing temporary files...", 0, iCurrentProgress+max);
                 iMonitor.setMillisToDecideToPopup(0);
@@ -254,9 +304,9 @@ public class ClearRedundancyThread implements Runnable {
                 pm.close();
             }
 
-            PrintWriter outputWriter = null;
+            FASTAWriter outputWriter = null;
             if(!iCancelled) {
-                outputWriter = new PrintWriter(new FileWriter(iOutput));
+                outputWriter = ShardedFASTAWriter.open(iOutput, iCompressOutput, iShards, iShardStrategy);
             }
             for(int i=0;(i<sorted.length && !iCancelled);i++) {
                 File temp = (File)files.get(Long.toString(sorted[i]));
@@ -265,7 +315,6 @@ public class ClearRedundancyThread implements Runnable {
 
             // Close and flush the outputwriter.
             if(outputWriter != null) {
-                outputWriter.flush();
                 outputWriter.close();
             }
 
@@ -341,12 +390,12 @@ public class ClearRedundancyThread implements Runnable {
      * This method will process the redundancy in a single file.
      *
      * @param   aFile   the File from which to clear all redundancy.
-     * @param   aOutput PrintWriter to output to.
+     * @param   aOutput FASTAWriter to output to.
      * @param   aFactor int with the number of times we should divide the progress by 1024.
      * @return  int with the number of outputted entries.
      * @exception   IOException when file IO goes wrong.
      */
-    private int processRedundancy(File aFile, PrintWriter aOutput, int aFactor) throws IOException {
+    private int processRedundancy(File aFile, FASTAWriter aOutput, int aFactor) throws IOException {
         // Counter.
         int counter = 0;
 
@@ -354,8 +403,8 @@ public class ClearRedundancyThread implements Runnable {
         try {
             DBLoader loader = iAuto.getLoaderForFile(aFile.getAbsolutePath());
 
-            // The protein we're cycling.
-            Protein protein = null;
+            // The entry we're cycling.
+            DBRecord protein = null;
             // Hash that will store the sequences.
             HashMap sequences = new HashMap();
 
@@ -364,9 +413,9 @@ public class ClearRedundancyThread implements Runnable {
             }
 
             // Now read all entries.
-            while(((protein = loader.nextProtein()) != null) && (!iCancelled)) {
+            while(((protein = loader.nextRecord()) != null) && (!iCancelled)) {
                 // Get the sequence as a String and the header as a Header.
-                String sequence = protein.getSequence().getSequence();
+                String sequence = protein.getSequence();
                 Header header = protein.getHeader();
 
                 // See if the sequence is present in the hash.
@@ -395,13 +444,13 @@ public class ClearRedundancyThread implements Runnable {
 
                 // Check to see if we should monitor progress here.
                 if(iParent != null) {
-                    iMonitor.setProgress(iCurrentProgress + loader.monitorProgress());
+                    iMonitor.setProgress(iCurrentProgress + ProgressInputStream.scale(loader.monitorLongProgress(), iCombinedSize));
                     if(iMonitor.isCanceled()) {
                         iCancelled = true;
                     }
                 }
             }
-            iCurrentProgress += loader.getMaximum();
+            iCurrentProgress += ProgressInputStream.scale(loader.getLongMaximum(), iCombinedSize);
             loader.close();
             loader = null;
             // Write all the sequences and their headers to file.
@@ -416,7 +465,7 @@ public class ClearRedundancyThread implements Runnable {
                 // We construct a new Protein so that we can output it decently.
                 Protein toWrite = new Protein(header.getFullHeaderWithAddenda(), sequence);
                 // The output.
-                toWrite.writeToFASTAFile(aOutput);
+                aOutput.write(toWrite);
                 counter++;
                 if((iParent != null) && (iMonitor.isCanceled())) {
                     iCancelled = true;
@@ -14,13 +14,12 @@ package com.compomics.dbtoolkit.gui.workerthreads;
 
 import com.compomics.dbtoolkit.gui.interfaces.CursorModifiable;
 import com.compomics.dbtoolkit.gui.interfaces.StatusView;
-import com.compomics.util.io.MonitorableFileInputStream;
-import com.compomics.util.io.MonitorableInputStream;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
-import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /*
  * CVS information:
@@ -30,28 +29,37 @@ import java.math.BigDecimal;
  */
 
 /**
- * This class implements a Threading implementation to concatenate two files into a new, third file.
- * It can also be used as a file copier if the only one source file is specified.
+ * This class implements a Threading implementation to concatenate any number of files into a new file.
+ * It can also be used as a file copier if the only one source file is specified. <br />
+ * The data is copied with FileChannel.transferTo in large chunks, which allows the operating
+ * system to copy the data without passing it through the JVM. Progress is reported and
+ * cancellation is checked after each chunk.
  *
  * @author Lennart Martens
  */
 public class ConcatenateThread implements Runnable {
 
     /**
-     * The first source file to read from.
+     * The size of the chunks transferred at once.
      */
-    private File iSource1 = null;
+    private static final long CHUNK_SIZE = 64*1024*1024;
 
     /**
-     * The second source file to read from.
+     * The source files to read from, in order.
      */
-    private File iSource2 = null;
+    private File[] iSources = null;
 
     /**
      * The destination file to append the contents of the source file to.
      */
     private File iDestination = null;
 
+    /**
+     * This boolean indicates whether a newline should be inserted after a source file
+     * that does not end in one (except for the last source file).
+     */
+    private boolean iSeparateWithNewline = false;
+
     /**
      * A possible parent (for GUI mode).
      */
@@ -84,9 +92,7 @@ public class ConcatenateThread implements Runnable {
      * @param   aParent JFrame that acts as a GUI parent for this Thread (and specifically: its progress monitor).
      */
     public ConcatenateThread(File aSource, File aDestination, JFrame aParent) {
-        this.iSource1 = aSource;
-        this.iDestination = aDestination;
-        this.iParent = aParent;
+        this(new File[] {aSource}, aDestination, aParent);
     }
 
     /**
@@ -112,12 +118,38 @@ public class ConcatenateThread implements Runnable {
      * @param   aParent JFrame that acts as a GUI parent for this Thread (and specifically: its progress monitor).
      */
     public ConcatenateThread(File aSource1, File aSource2, File aDestination, JFrame aParent) {
-        this.iSource1 = aSource1;
-        this.iSource2 = aSource2;
+        this(new File[] {aSource1, aSource2}, aDestination, aParent);
+    }
+
+    /**
+     * This constructor takes the source files and the destination file, as well as a JFrame GUI parent
+     * component. If the parent is 'null', the Thread runs in silent text mode, otherwise a progressbar
+     * is displayed.
+     *
+     * @param   aSources    File[] with the source files to read from, in order. These files should exist!
+     * @param   aDestination    File with the destination file to write to.
+     * @param   aParent JFrame that acts as a GUI parent for this Thread (can be 'null').
+     */
+    public ConcatenateThread(File[] aSources, File aDestination, JFrame aParent) {
+        if(aSources == null || aSources.length == 0) {
+            throw new IllegalArgumentException("You need to specify at least one source file!");
+        }
+        this.iSources = aSources;
         this.iDestination = aDestination;
         this.iParent = aParent;
     }
 
+    /**
+     * This method sets whether a newline should be inserted after each source file that
+     * does not end in one, so that the last line of a file is never joined to the first line
+     * of the next file. Nothing is added after the last source file.
+     *
+     * @param   aSeparateWithNewline    boolean to indicate whether to insert separating newlines.
+     */
+    public void setSeparateWithNewline(boolean aSeparateWithNewline) {
+        this.iSeparateWithNewline = aSeparateWithNewline;
+    }
+
     /**
      * When an object implementing interface <code>Runnable</code> is used
      * to create a thread, starting the thread causes the object's
@@ -130,72 +162,75 @@ public class ConcatenateThread implements Runnable {
      * @see     java.lang.Thread#run()
      */
     public void run() {
-        if(this.iSource2 == null) {
-            this.copyFile();
-        } else {
-            this.appendTwoFiles();
-        }
-    }
-
-    /**
-     * This method copies the content of iSource1 into iDestination.
-     */
-    private void copyFile() {
         try {
-            MonitorableInputStream mis = new MonitorableFileInputStream(iSource1);
-            BufferedInputStream bis = new BufferedInputStream(mis, 25600);
-            BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(iDestination), 25600);
+            // The total size determines the progress bar.
+            long total = 0;
+            for(int i = 0; i < iSources.length; i++) {
+                total += iSources[i].length();
+            }
+            // The progress monitor works with int's, so scale large totals down.
+            long unit = total/Integer.MAX_VALUE + 1;
+
+            String description = this.describeSources();
             if(iParent != null) {
                 if(iParent instanceof CursorModifiable) {
                     ((CursorModifiable)iParent).setCursorOnComponents(new Cursor(Cursor.WAIT_CURSOR));
                 } else {
                     iParent.setCursor(new Cursor(Cursor.WAIT_CURSOR));
                 }
+                String action = (iSources.length == 1)?"copying file ":"appending files ";
                 if(iParent instanceof StatusView) {
-                    ((StatusView)iParent).setStatus("Started copying file '" + iSource1.getAbsoluteFile() + "' to '" + iDestination.getAbsoluteFile() + "'...");
+                    ((StatusView)iParent).setStatus("Started " + action + description + " to '" + iDestination.getAbsoluteFile() + "'...");
                 }
 
                 // The progress monitor dialog.
-                iMonitor = new ProgressMonitor(iParent, "Copying file '" + iSource1.getAbsoluteFile() + "' to '" + iDestination.getAbsoluteFile() + "'...", "Initializing...", 0, mis.getMaximum()+1);
+                iMonitor = new ProgressMonitor(iParent, Character.toUpperCase(action.charAt(0)) + action.substring(1) + description + " to '" + iDestination.getAbsoluteFile() + "'...", "Initializing...", 0, (int)(total/unit)+1);
                 iMonitor.setMillisToDecideToPopup(500);
                 iMonitor.setMillisToPopup(500);
-                iMonitor.setNote("Copying file...");
+                iMonitor.setNote((iSources.length == 1)?"Copying file...":"Appending files...");
                 iMonitor.setProgress(1);
             }
-            int current = 0;
-            int previous = 0;
+
+            FileOutputStream fos = new FileOutputStream(iDestination);
+            FileChannel out = fos.getChannel();
+            long done = 0;
             boolean cancelled = false;
-            while(((current = bis.read()) != -1) && (!cancelled)) {
-                bos.write(current);
-                if(iParent != null) {
-                    int local = mis.monitorProgress();
-                    if(local > previous) {
-                        // Show it on the progressbar.
-                        if(local < iMonitor.getMaximum()) {
-                            iMonitor.setProgress(local);
-                        } else {
-                            int delta = local-iMonitor.getMaximum();
-                            double modulo = delta/1024;
-                            String affix = "KB";
-                            if(modulo%5 == 0.0) {
-                                double temp = modulo/1024;
-                                if(temp > 1.0) {
-                                    modulo = temp;
-                                    affix = "MB";
-                                }
-                                iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
+            for(int i = 0; i < iSources.length && !cancelled; i++) {
+                FileInputStream fis = new FileInputStream(iSources[i]);
+                try {
+                    FileChannel in = fis.getChannel();
+                    long size = in.size();
+                    long position = 0;
+                    while(position < size && !cancelled) {
+                        long transferred = in.transferTo(position, Math.min(CHUNK_SIZE, size - position), out);
+                        if(transferred == 0) {
+                            // Nothing is transferred past the end of the file, so see whether it shrank.
+                            if(in.size() < size) {
+                                throw new IOException("File '" + iSources[i] + "' shrank from " + size + " to " + in.size() + " bytes while copying it!");
+                            }
+                            throw new IOException("Unable to copy file '" + iSources[i] + "' beyond byte " + position + "!");
+                        }
+                        position += transferred;
+                        done += transferred;
+                        if(iParent != null) {
+                            iMonitor.setProgress((int)(done/unit));
+                            if(iMonitor.isCanceled()) {
+                                cancelled = true;
                             }
                         }
-                        previous = local;
                     }
-                    if(iMonitor.isCanceled()) {
-                        cancelled = true;
+                    if(iSeparateWithNewline && !cancelled && size > 0 && i < iSources.length-1) {
+                        ByteBuffer last = ByteBuffer.allocate(1);
+                        in.read(last, size-1);
+                        if(last.get(0) != '\n') {
+                            out.write(ByteBuffer.wrap(new byte[] {'\n'}));
+                        }
                     }
+                } finally {
+                    fis.close();
                 }
             }
-            bos.flush();
-            bos.close();
-            bis.close();
+            fos.close();
 
             if(iParent != null) {
                 iMonitor.setProgress(iMonitor.getMaximum());
@@ -213,11 +248,11 @@ public class ConcatenateThread implements Runnable {
                 String status = null;
                 if(cancelled) {
                     iDestination.delete();
-                    status = "Cancelled copy to file '" + iDestination + "'. Deleted unfinished output file.";
+                    status = "Cancelled " + ((iSources.length == 1)?"copy":"appending") + " to file '" + iDestination + "'. Deleted unfinished output file.";
+                } else if(iSources.length == 1) {
+                    status = "Copied file " + description + " to output file '" + iDestination + "'.";
                 } else {
-                    // Different status message.
-                    StringBuffer tempSB = new StringBuffer("Copied file '" + iSource1 + "' to output file '" + iDestination + "'.");
-                    status = tempSB.toString();
+                    status = "Appended files " + description + " to output file '" + iDestination + "'.";
                 }
 
                 // If the parent component is capable of displaying status messages,
@@ -232,133 +267,19 @@ public class ConcatenateThread implements Runnable {
     }
 
     /**
-     * This method copies the content of iSource1 into iDestination, and
-     * then appends the contents of iSource2 to iDestination.
+     * This method lists the source files for the status messages,
+     * eg.: 'a', 'b' and 'c'.
+     *
+     * @return  String  with the quoted source file names.
      */
-    private void appendTwoFiles() {
-        try {
-            MonitorableInputStream mis1 = new MonitorableFileInputStream(iSource1);
-            MonitorableInputStream mis2 = new MonitorableFileInputStream(iSource2);
-            BufferedInputStream bis1 = new BufferedInputStream(mis1, 25600);
-            BufferedInputStream bis2 = new BufferedInputStream(mis2, 25600);
-            BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(iDestination), 25600);
-
-            if(iParent != null) {
-                if(iParent instanceof CursorModifiable) {
-                    ((CursorModifiable)iParent).setCursorOnComponents(new Cursor(Cursor.WAIT_CURSOR));
-                } else {
-                    iParent.setCursor(new Cursor(Cursor.WAIT_CURSOR));
-                }
-                if(iParent instanceof StatusView) {
-                    ((StatusView)iParent).setStatus("Started appending files '" + iSource1 + "' and '" + iSource2 + "' to '" + iDestination + "'...");
-                }
-                // The progress monitor dialog.
-                iMonitor = new ProgressMonitor(iParent, "Appending files '" + iSource1 + "' and '" + iSource2 + "' to '" + iDestination + "'...", "Initializing...", 0, mis1.getMaximum()+mis2.getMaximum()+1);
-                iMonitor.setMillisToDecideToPopup(500);
-                iMonitor.setMillisToPopup(500);
-                iMonitor.setNote("Appending files...");
-                iMonitor.setProgress(1);
+    private String describeSources() {
+        StringBuffer result = new StringBuffer();
+        for(int i = 0; i < iSources.length; i++) {
+            if(i > 0) {
+                result.append((i == iSources.length-1)?" and ":", ");
             }
-            int current = 0;
-            int previous = 0;
-            boolean cancelled = false;
-            // First source file.
-            while(((current = bis1.read()) != -1) && (!cancelled)) {
-                bos.write(current);
-                if(iParent != null) {
-                    int local = mis1.monitorProgress();
-                    if(local > previous) {
-                        // Show it on the progressbar.
-                        if(local < iMonitor.getMaximum()) {
-                            iMonitor.setProgress(local);
-                        } else {
-                            int delta = local-iMonitor.getMaximum();
-                            double modulo = delta/1024;
-                            String affix = "KB";
-                            if(modulo%5 == 0.0) {
-                                double temp = modulo/1024;
-                                if(temp > 1.0) {
-                                    modulo = temp;
-                                    affix = "MB";
-                                }
-                                iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                            }
-                        }
-                        previous = local;
-                    }
-
-                    if(iMonitor.isCanceled()) {
-                        cancelled = true;
-                    }
-                }
-            }
-            // Second source file.
-            int currentProg = mis1.getMaximum();
-            while(((current = bis2.read()) != -1) && (!cancelled)) {
-                bos.write(current);
-                if(iParent != null) {
-                    int local = currentProg + mis2.monitorProgress();
-                    if(local > previous) {
-                        // Show it on the progressbar.
-                        if(local < iMonitor.getMaximum()) {
-                            iMonitor.setProgress(local);
-                        } else {
-                            int delta = local-iMonitor.getMaximum();
-                            double modulo = delta/1024;
-                            String affix = "KB";
-                            if(modulo%5 == 0.0) {
-                                double temp = modulo/1024;
-                                if(temp > 1.0) {
-                                    modulo = temp;
-                                    affix = "MB";
-                                }
-                                iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                            }
-                        }
-                        previous = local;
-                    }
-                    if(iMonitor.isCanceled()) {
-                        cancelled = true;
-                    }
-                }
-            }
-
-            bos.flush();
-            bos.close();
-            bis1.close();
-            bis2.close();
-
-            if(iParent != null) {
-                iMonitor.setProgress(iMonitor.getMaximum());
-                // Close the progress monitor.
-                iMonitor.close();
-                // BEEP!
-                //Toolkit.getDefaultToolkit().beep();
-                if(iParent instanceof CursorModifiable) {
-                    ((CursorModifiable)iParent).setCursorOnComponents(new Cursor(Cursor.DEFAULT_CURSOR));
-                } else {
-                    iParent.setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
-                }
-                // See if cancel was pressed,
-                // and if so, delete the output file!
-                String status = null;
-                if(cancelled) {
-                    iDestination.delete();
-                    status = "Cancelled appending to file '" + iDestination + "'. Deleted unfinished output file.";
-                } else {
-                    // Different status message.
-                    StringBuffer tempSB = new StringBuffer("Appended files '" + iSource1 + "' and '" + iSource2 + "' to output file '" + iDestination + "'.");
-                    status = tempSB.toString();
-                }
-
-                // If the parent component is capable of displaying status messages,
-                // set one!
-                if(iParent instanceof StatusView) {
-                    ((StatusView)iParent).setStatus(status);
-                }
-            }
-        } catch(IOException ioe) {
-            ioe.printStackTrace();
+            result.append("'" + iSources[i] + "'");
         }
+        return result.toString();
     }
 }
@@ -21,7 +21,6 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
-import java.math.BigDecimal;
 
 /*
  * CVS information:
@@ -98,26 +97,12 @@ public class CounterThread implements Runnable {
             iMonitor.setNote("Counting...");
             iMonitor.setProgress(1);
 
+            // The throughput, for the progress bar.
+            final ThroughputMonitor throughput = new ThroughputMonitor(iLoader);
             final Timer t = new Timer(500, new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    // Show it on the progressbar.
-                    int progress = iLoader.monitorProgress();
-                    // Show it on the progressbar.
-                    if(progress < iMonitor.getMaximum()) {
-                        iMonitor.setProgress(progress);
-                    } else {
-                        int delta = progress-iMonitor.getMaximum();
-                        double modulo = delta/1024;
-                        String affix = "KB";
-                        if(modulo%5 == 0.0) {
-                            double temp = modulo/1024;
-                            if(temp > 1.0) {
-                                modulo = temp;
-                                affix = "MB";
-                            }
-                            iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                        }
-                    }
+                    // Show it on the progressbar (no entry count is available while counting).
+                    throughput.update(iMonitor, -1);
                     // See if the user pressed cancel.
                     if(iMonitor.isCanceled()) {
                         iLoader.cancelCount();
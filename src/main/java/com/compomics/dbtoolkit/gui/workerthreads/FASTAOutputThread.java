@@ -14,6 +14,10 @@ package com.compomics.dbtoolkit.gui.workerthreads;
 
 import com.compomics.dbtoolkit.gui.interfaces.CursorModifiable;
 import com.compomics.dbtoolkit.gui.interfaces.StatusView;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
+import com.compomics.dbtoolkit.io.implementations.ParallelDBLoader;
+import com.compomics.dbtoolkit.io.implementations.ProteinRecord;
+import com.compomics.dbtoolkit.io.implementations.ShardedFASTAWriter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.util.protein.AASequenceImpl;
@@ -22,7 +26,6 @@ import com.compomics.util.protein.Protein;
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.text.ParseException;
@@ -77,6 +80,33 @@ public class FASTAOutputThread implements Runnable {
      */
     private double iMaxMass = -1.0;
 
+    /**
+     * The number of threads to parse the DB with. Only values larger than one
+     * result in parallel parsing.
+     */
+    private int iThreads = 1;
+
+    /**
+     * Whether parallel parsing should preserve the order of the entries in the DB.
+     */
+    private boolean iOrdered = true;
+
+    /**
+     * Whether the output should be GZIP compressed, regardless of the output filename.
+     * Output to a file ending in '.gz' is always compressed.
+     */
+    private boolean iCompressOutput = false;
+
+    /**
+     * The number of files to split the output over.
+     */
+    private int iShards = 1;
+
+    /**
+     * The strategy to assign the entries to the shards with (see ShardedFASTAWriter).
+     */
+    private int iShardStrategy = ShardedFASTAWriter.ROUND_ROBIN;
+
     /**
      * This constructor creates a FASTA output thread based upon a possible parent,
      * DBLoader and an output file.
@@ -215,9 +245,47 @@ public class FASTAOutputThread implements Runnable {
         return result;
     }
 
+    /**
+     * This method allows the caller to have the DB parsed on multiple threads.
+     * Note that this is only possible for plain-text FASTA and SwissProt DBs; other
+     * DBs are always read sequentially.
+     *
+     * @param aThreads  int with the number of parser threads.
+     * @param aOrdered  boolean to indicate whether the order of the entries in the DB
+     *                  should be preserved in the output.
+     */
+    public void setParallelism(int aThreads, boolean aOrdered) {
+        this.iThreads = aThreads;
+        this.iOrdered = aOrdered;
+    }
+
+    /**
+     * This method allows the caller to have the output GZIP compressed (on multiple threads),
+     * regardless of the output filename. Output to a file ending in '.gz' is always compressed.
+     *
+     * @param   aCompress   boolean to indicate whether the output should be compressed.
+     */
+    public void setCompressedOutput(boolean aCompress) {
+        this.iCompressOutput = aCompress;
+    }
+
+    /**
+     * This method allows the caller to split the output over a number of files ('shards'),
+     * listed in a manifest next to them (see ShardedFASTAWriter).
+     *
+     * @param   aShards int with the number of shards (1 writes a single output file).
+     * @param   aStrategy   int with the strategy to assign the entries to the shards with
+     *                      (one of the constants on ShardedFASTAWriter).
+     */
+    public void setSharding(int aShards, int aStrategy) {
+        this.iShards = aShards;
+        this.iShardStrategy = aStrategy;
+    }
+
     public void run() {
         try {
             int entriesWritten = 0;
+            iLoader = ParallelDBLoader.wrap(iLoader, iThreads, iOrdered);
             if(iParent != null) {
                 if(iParent instanceof CursorModifiable) {
                     ((CursorModifiable)iParent).setCursorOnComponents(new Cursor(Cursor.WAIT_CURSOR));
@@ -237,11 +305,15 @@ public class FASTAOutputThread implements Runnable {
                 iMonitor.setProgress(1);
             }
 
-            // The outputstream.
-            PrintWriter out = new PrintWriter(new FileWriter(iOutput));
+            // The output writer. Entries are written with their sequence on a single line.
+            FASTAWriter out = ShardedFASTAWriter.open(iOutput, iCompressOutput, iShards, iShardStrategy);
+            out.setLineLength(0);
 
             String entry = null;
             boolean cancelled = false;
+            long entriesRead = 0;
+            // The throughput, for the progress bar.
+            ThroughputMonitor throughput = new ThroughputMonitor(iLoader);
             // Load first entry.
             if(iFilter == null) {
                 entry = iLoader.nextFASTAEntry();
@@ -249,13 +321,14 @@ public class FASTAOutputThread implements Runnable {
                 entry = iLoader.nextFilteredFASTAEntry(iFilter);
             }
             while((entry != null) && (!cancelled)) {
+                entriesRead++;
                 // Write the entry, optionally substituting some stuff.
                 if(iSubstitutions == null) {
                     Protein p = new Protein(entry);
                     // If we need to use a mass filter (iMinMass and iMaxMass non-negative)
                     // we should check it. Otherwise just proceed.
                     if((iMinMass < 0 && iMaxMass < 0) || (iMinMass >= 0 && iMaxMass > 0 && p.getMass() >= iMinMass && p.getMass() <= iMaxMass)) {
-                        out.print(entry+"\n");
+                        out.write(new ProteinRecord(entry));
                         entriesWritten++;
                     }
                 } else {
@@ -275,8 +348,7 @@ public class FASTAOutputThread implements Runnable {
                         }
                         AASequenceImpl seq = new AASequenceImpl(sequenceLine);
                         if((iMinMass < 0 && iMaxMass < 0) || (iMinMass >= 0 && iMaxMass > 0 && seq.getMass() >= iMinMass && seq.getMass() <= iMaxMass)) {
-                            out.print(header+"\n");
-                            out.print(sequenceLine+"\n");
+                            out.write(header, sequenceLine);
                             entriesWritten++;
                         }
                     }
@@ -284,21 +356,7 @@ public class FASTAOutputThread implements Runnable {
                 }
                 if(iParent != null) {
                     // Show it on the progressbar.
-                    if(iLoader.monitorProgress() < iMonitor.getMaximum()) {
-                        iMonitor.setProgress(iLoader.monitorProgress());
-                    } else {
-                        int delta = iLoader.monitorProgress()-iMonitor.getMaximum();
-                        double modulo = delta/1024;
-                        String affix = "KB";
-                        if(modulo%5 == 0.0) {
-                            double temp = modulo/1024;
-                            if(temp > 1.0) {
-                                modulo = temp;
-                                affix = "MB";
-                            }
-                            iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                        }
-                    }
+                    throughput.update(iMonitor, entriesRead);
                     // See if the user pressed cancel.
                     if(iMonitor.isCanceled()) {
                         cancelled = true;
@@ -312,8 +370,7 @@ public class FASTAOutputThread implements Runnable {
                 }
             }
 
-            // Flush and close the outputStream.
-            out.flush();
+            // Flush and close the output.
             out.close();
             // Reset the Loader.
             iLoader.reset();
@@ -6,6 +6,7 @@
  */
 package com.compomics.dbtoolkit.gui.workerthreads;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.dbtoolkit.gui.interfaces.CursorModifiable;
@@ -14,7 +15,6 @@ import com.compomics.util.protein.Protein;
 
 import javax.swing.*;
 import java.awt.*;
-import java.math.BigDecimal;
 import java.io.*;
 import java.util.*;
 /*
@@ -121,6 +121,9 @@ public class PeptideMappingThread implements Runnable {
             }
             // Now start reading the database.
             Protein entry = null;
+            // The throughput, for the progress bar.
+            ThroughputMonitor throughput = new ThroughputMonitor(iLoader);
+            long entriesRead = 0;
             boolean cancelled = false;
             // Load first entry.
             if(iFilter == null) {
@@ -129,6 +132,7 @@ public class PeptideMappingThread implements Runnable {
                 entry = iLoader.nextFilteredProtein(iFilter);
             }
             while((entry != null) && (!cancelled)) {
+                entriesRead++;
                 String proteinSequence = entry.getSequence().getSequence();
                 String proteinAccession = entry.getHeader().getAccession();
                 String proteinDescription = entry.getHeader().getDescription();
@@ -172,21 +176,7 @@ public class PeptideMappingThread implements Runnable {
                 }
                 if(iParent != null) {
                     // Show it on the progressbar.
-                    if(iLoader.monitorProgress() < iMonitor.getMaximum()) {
-                        iMonitor.setProgress(iLoader.monitorProgress());
-                    } else {
-                        int delta = iLoader.monitorProgress()-iMonitor.getMaximum();
-                        double modulo = delta/1024;
-                        String affix = "KB";
-                        if(modulo%5 == 0.0) {
-                            double temp = modulo/1024;
-                            if(temp > 1.0) {
-                                modulo = temp;
-                                affix = "MB";
-                            }
-                            iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                        }
-                    }
+                    throughput.update(iMonitor, entriesRead);
                     // See if the user pressed cancel.
                     if(iMonitor.isCanceled()) {
                         cancelled = true;
@@ -247,21 +237,7 @@ public class PeptideMappingThread implements Runnable {
                 }
                 if(iParent != null) {
                     // Show it on the progressbar.
-                    if(iLoader.monitorProgress() < iMonitor.getMaximum()) {
-                        iMonitor.setProgress(iLoader.monitorProgress());
-                    } else {
-                        int delta = iLoader.monitorProgress()-iMonitor.getMaximum();
-                        double modulo = delta/1024;
-                        String affix = "KB";
-                        if(modulo%5 == 0.0) {
-                            double temp = modulo/1024;
-                            if(temp > 1.0) {
-                                modulo = temp;
-                                affix = "MB";
-                            }
-                            iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                        }
-                    }
+                    throughput.update(iMonitor, entriesRead);
                     // See if the user pressed cancel.
                     if(iMonitor.isCanceled()) {
                         cancelled = true;
@@ -272,7 +248,8 @@ public class PeptideMappingThread implements Runnable {
                 if(iParent != null) {
                     iMonitor.setNote("Primary accession numbers assigned. Writing output...");
                 }
-                BufferedWriter bw = new BufferedWriter(new FileWriter(iOutputFile));
+                Writer out = StandardStreams.isStandardStream(iOutputFile)?new OutputStreamWriter(StandardStreams.getOutput()):(Writer)new FileWriter(iOutputFile);
+                BufferedWriter bw = new BufferedWriter(out);
                 bw.write("Accession\tStart\tStop\tPrevious (if any)\tSequence\tFollowing (if any)\tDescription\tIsoforms\n");
                 iter = iMappings.keySet().iterator();
                 while (iter.hasNext()) {
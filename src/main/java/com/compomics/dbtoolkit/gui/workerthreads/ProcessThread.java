@@ -15,6 +15,9 @@ package com.compomics.dbtoolkit.gui.workerthreads;
 import com.compomics.dbtoolkit.gui.interfaces.CursorModifiable;
 import com.compomics.dbtoolkit.gui.interfaces.StatusView;
 import com.compomics.dbtoolkit.io.QueryParser;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
+import com.compomics.dbtoolkit.io.implementations.ParallelDBLoader;
+import com.compomics.dbtoolkit.io.implementations.ShardedFASTAWriter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.dbtoolkit.io.interfaces.ProteinFilter;
@@ -27,15 +30,12 @@ import com.compomics.util.gui.FlamableJFrame;
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.Vector;
 import java.util.Date;
-import java.math.BigDecimal;
 
 /*
  * CVS information:
@@ -188,6 +188,33 @@ public class ProcessThread implements Runnable {
      */
     private int iWrittenToResultFile = 0;
 
+    /**
+     * The number of threads to parse the DB with. Only values larger than one
+     * result in parallel parsing.
+     */
+    private int iThreads = 1;
+
+    /**
+     * Whether parallel parsing should preserve the order of the entries in the DB.
+     */
+    private boolean iOrdered = true;
+
+    /**
+     * Whether the output should be GZIP compressed, regardless of the output filename.
+     * Output to a file ending in '.gz' is always compressed.
+     */
+    private boolean iCompressOutput = false;
+
+    /**
+     * The number of files to split the output over.
+     */
+    private int iShards = 1;
+
+    /**
+     * The strategy to assign the entries to the shards with (see ShardedFASTAWriter).
+     */
+    private int iShardStrategy = ShardedFASTAWriter.ROUND_ROBIN;
+
 // Constructors.--------------------------------------------------------------------------------------------------------
     /**
      * This constructor is designed to handle all generic settings.
@@ -216,6 +243,43 @@ public class ProcessThread implements Runnable {
 
 // Public methods.------------------------------------------------------------------------------------------------------
 
+    /**
+     * This method allows the caller to have the DB parsed on multiple threads.
+     * Note that this is only possible for plain-text FASTA and SwissProt DBs; other
+     * DBs are always read sequentially.
+     *
+     * @param   aThreads    int with the number of parser threads.
+     * @param   aOrdered    boolean to indicate whether the order of the entries in the DB
+     *                      should be preserved in the output.
+     */
+    public void setParallelism(int aThreads, boolean aOrdered) {
+        this.iThreads = aThreads;
+        this.iOrdered = aOrdered;
+    }
+
+    /**
+     * This method allows the caller to have the output GZIP compressed (on multiple threads),
+     * regardless of the output filename. Output to a file ending in '.gz' is always compressed.
+     *
+     * @param   aCompress   boolean to indicate whether the output should be compressed.
+     */
+    public void setCompressedOutput(boolean aCompress) {
+        this.iCompressOutput = aCompress;
+    }
+
+    /**
+     * This method allows the caller to split the output over a number of files ('shards'),
+     * listed in a manifest next to them (see ShardedFASTAWriter).
+     *
+     * @param   aShards int with the number of shards (1 writes a single output file).
+     * @param   aStrategy   int with the strategy to assign the entries to the shards with
+     *                      (one of the constants on ShardedFASTAWriter).
+     */
+    public void setSharding(int aShards, int aStrategy) {
+        this.iShards = aShards;
+        this.iShardStrategy = aStrategy;
+    }
+
     /**
      * This method returns a ProcessThread, designed to isolate a sequence-based subset of the DB.
      *
@@ -298,6 +362,7 @@ public class ProcessThread implements Runnable {
      * It can also be calle directly for non-threaded execution.
      */
     public void run() {
+        iLoader = ParallelDBLoader.wrap(iLoader, iThreads, iOrdered);
         if(this.iTaskType == ProcessThread.RAGGING) {
             this.startRagging();
         } else if(this.iTaskType == ProcessThread.SUBSET) {
@@ -334,8 +399,10 @@ public class ProcessThread implements Runnable {
                 iMonitor.setProgress(1);
             }
 
-            // The PrintWriter to output to.
-            PrintWriter pw = new PrintWriter(new FileWriter(iOutput));
+            // The throughput, for the progress bar.
+            ThroughputMonitor throughput = new ThroughputMonitor(iLoader);
+            // The FASTAWriter to output to.
+            FASTAWriter writer = ShardedFASTAWriter.open(iOutput, iCompressOutput, iShards, iShardStrategy);
             Protein protein = null;
             // Fence-post.
             if(iFilter == null) {
@@ -353,27 +420,13 @@ public class ProcessThread implements Runnable {
                 Protein[] result = getRaggedEntries(protein);
 
                 for(int i=0;i<result.length;i++) {
-                    result[i].writeToFASTAFile(pw);
+                    writer.write(result[i]);
                     // Count the written entry.
                     iWrittenToResultFile++;
                 }
                 if(iParent != null) {
                     // Show it on the progressbar.
-                    if(iLoader.monitorProgress() < iMonitor.getMaximum()) {
-                        iMonitor.setProgress(iLoader.monitorProgress());
-                    } else {
-                        int delta = iLoader.monitorProgress()-iMonitor.getMaximum();
-                        double modulo = delta/1024;
-                        String affix = "KB";
-                        if(modulo%5 == 0.0) {
-                            double temp = modulo/1024;
-                            if(temp > 1.0) {
-                                modulo = temp;
-                                affix = "MB";
-                            }
-                            iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                        }
-                    }
+                    throughput.update(iMonitor, iNumberOfEntriesRead);
                     // See if the user pressed cancel.
                     if(iMonitor.isCanceled()) {
                         cancelled = true;
@@ -388,8 +441,7 @@ public class ProcessThread implements Runnable {
                 }
             }
             // Finalize output.
-            pw.flush();
-            pw.close();
+            writer.close();
             // Reset the Loader.
             iLoader.reset();
 
@@ -645,8 +697,10 @@ public class ProcessThread implements Runnable {
                     iMonitor.setNote(runningNote);
                 }
 
-                // The PrintWriter to output to.
-                PrintWriter pw = new PrintWriter(new FileWriter(iOutput));
+                // The throughput, for the progress bar.
+                ThroughputMonitor throughput = new ThroughputMonitor(iLoader);
+                // The FASTAWriter to output to.
+                FASTAWriter writer = ShardedFASTAWriter.open(iOutput, iCompressOutput, iShards, iShardStrategy);
                 Protein protein = null;
                 // Fence-post.
                 if(iFilter == null) {
@@ -686,28 +740,14 @@ public class ProcessThread implements Runnable {
                         // So, we either do not use mass limits, or we passed them.
                         // Either way, check for passing of Filters.
                         if((iProteinFilter == null) || (iProteinFilter.passesFilter(proteins[i]))) {
-                            proteins[i].writeToFASTAFile(pw);
+                            writer.write(proteins[i]);
                             // Count the written entry.
                             iWrittenToResultFile++;
                         }
                     }
                     if(iParent != null) {
                         // Show it on the progressbar.
-                        if(iLoader.monitorProgress() < iMonitor.getMaximum()) {
-                            iMonitor.setProgress(iLoader.monitorProgress());
-                        } else {
-                            int delta = iLoader.monitorProgress()-iMonitor.getMaximum();
-                            double modulo = delta/1024;
-                            String affix = "KB";
-                            if(modulo%5 == 0.0) {
-                                double temp = modulo/1024;
-                                if(temp > 1.0) {
-                                    modulo = temp;
-                                    affix = "MB";
-                                }
-                                iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                            }
-                        }
+                        throughput.update(iMonitor, iNumberOfEntriesRead);
 
                         // See if the user pressed cancel.
                         if(iMonitor.isCanceled()) {
@@ -723,8 +763,7 @@ public class ProcessThread implements Runnable {
                     }
                 }
                 // Finalize output.
-                pw.flush();
-                pw.close();
+                writer.close();
                 // Reset the Loader.
                 iLoader.reset();
 
@@ -6,8 +6,10 @@
  */
 package com.compomics.dbtoolkit.gui.workerthreads;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
 import com.compomics.dbtoolkit.gui.interfaces.CursorModifiable;
 import com.compomics.dbtoolkit.gui.interfaces.StatusView;
 import com.compomics.util.protein.Protein;
@@ -15,7 +17,6 @@ import com.compomics.util.protein.Protein;
 import javax.swing.*;
 import java.io.*;
 import java.awt.*;
-import java.math.BigDecimal;
 
 /*
  * CVS information:
@@ -56,7 +57,7 @@ public class ShuffleDBThread implements Runnable {
     /**
      * Output writer.
      */
-    private PrintWriter iOutWriter = null;
+    private FASTAWriter iOutWriter = null;
 
     /**
      * Output file name, if any.
@@ -112,14 +113,24 @@ public class ShuffleDBThread implements Runnable {
      * @exception IOException when the file could not be loaded.
      */
     public ShuffleDBThread(File aInputFile, File aOutputFile, int aTaskType) throws IOException {
+        this(aInputFile, aOutputFile, aTaskType, false);
+    }
+
+    /**
+     * This constructor takes an input DB, output file and task type, and allows the output
+     * to be GZIP compressed (on multiple threads). Output format is FASTA.
+     *
+     * @param aInputFile  File with the input database.
+     * @param aOutputFile   File with the output database. Output format is FASTA.
+     *                      Can be 'null' or '-' for output to StdOut.
+     * @param aTaskType int with the task type. To be chosen from the constants on this class.
+     * @param aCompress boolean to indicate whether the output file should be compressed. Output
+     *                  to a file ending in '.gz' is always compressed.
+     * @exception IOException when the file could not be loaded.
+     */
+    public ShuffleDBThread(File aInputFile, File aOutputFile, int aTaskType, boolean aCompress) throws IOException {
         iInputDB = DBLoaderLoader.loadDB(aInputFile);
-        if(aOutputFile == null) {
-            iOutWriter = new PrintWriter(new OutputStreamWriter(System.out));
-        } else {
-            iOutWriter = new PrintWriter(new BufferedWriter(new FileWriter(aOutputFile)));
-            ibCloseWriter = true;
-            iOutputName = aOutputFile.getAbsolutePath();
-        }
+        this.openOutput(aOutputFile, aCompress);
         this.iTaskType = aTaskType;
     }
 
@@ -135,19 +146,37 @@ public class ShuffleDBThread implements Runnable {
      */
     public ShuffleDBThread(DBLoader aLoader, File aOutputFile, int aTaskType, JFrame aParent) throws IOException {
         iInputDB = aLoader;
-        if(aOutputFile == null) {
-            iOutWriter = new PrintWriter(new OutputStreamWriter(System.out));
+        this.openOutput(aOutputFile, false);
+        this.iTaskType = aTaskType;
+        this.iParent = aParent;
+    }
+
+    /**
+     * This method opens the writer to the output file, or to StdOut if no file is specified.
+     *
+     * @param aOutputFile   File with the output database. Can be 'null' or '-' for output to StdOut.
+     * @param aCompress boolean to indicate whether the output file should be compressed. Output
+     *                  to a file ending in '.gz' is always compressed.
+     * @exception IOException when the output file could not be created.
+     */
+    private void openOutput(File aOutputFile, boolean aCompress) throws IOException {
+        if(aOutputFile == null || StandardStreams.isStandardStream(aOutputFile)) {
+            if(aCompress) {
+                // Closing the writer completes the GZIP stream, but leaves StdOut open.
+                iOutWriter = FASTAWriter.open(new File(StandardStreams.NAME), true);
+                ibCloseWriter = true;
+            } else {
+                iOutWriter = new FASTAWriter(StandardStreams.getOutput());
+            }
         } else {
-            iOutWriter = new PrintWriter(new BufferedWriter(new FileWriter(aOutputFile)));
+            iOutWriter = FASTAWriter.open(aOutputFile, aCompress);
             ibCloseWriter = true;
             iOutputName = aOutputFile.getAbsolutePath();
         }
-        this.iTaskType = aTaskType;
-        this.iParent = aParent;
     }
 
     /**
-     * This method randomizes the database and outputs the result to the 'iOutWriter' PrintWriter.
+     * This method randomizes the database and outputs the result to the 'iOutWriter' FASTAWriter.
      */
     public void shuffle() throws IOException {
         if(iParent != null) {
@@ -169,31 +198,21 @@ public class ShuffleDBThread implements Runnable {
         }
         // Start processing.
         Protein current = null;
+        // The throughput, for the progress bar.
+        ThroughputMonitor throughput = new ThroughputMonitor(iInputDB);
+        long entriesRead = 0;
         boolean cancelled = false;
         while((current = iInputDB.nextProtein()) != null && !cancelled) {
+            entriesRead++;
             char[] sequence = current.getSequence().getSequence().toCharArray();
             // Replace the accession by affixing '_SHUFFLED'.
             current.getHeader().setAccession(current.getHeader().getAccession()+"_SHUFFLED");
             // Also append ' - SHUFFLED' to the description.
             Protein p = new Protein(current.getHeader().toString() + " - SHUFFLED", new String(this.shuffleSequence(sequence)));
-            p.writeToFASTAFile(iOutWriter);
+            iOutWriter.write(p);
             if(iParent != null) {
                 // Show it on the progressbar.
-                if(iInputDB.monitorProgress() < iMonitor.getMaximum()) {
-                    iMonitor.setProgress(iInputDB.monitorProgress());
-                } else {
-                    int delta = iInputDB.monitorProgress()-iMonitor.getMaximum();
-                    double modulo = delta/1024;
-                    String affix = "KB";
-                    if(modulo%5 == 0.0) {
-                        double temp = modulo/1024;
-                        if(temp > 1.0) {
-                            modulo = temp;
-                            affix = "MB";
-                        }
-                        iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                    }
-                }
+                throughput.update(iMonitor, entriesRead);
                 // See if the user pressed cancel.
                 if(iMonitor.isCanceled()) {
                     cancelled = true;
@@ -247,7 +266,7 @@ public class ShuffleDBThread implements Runnable {
     }
 
     /**
-     * This method reverses the database and outputs the result to the 'iOutWriter' PrintWriter.
+     * This method reverses the database and outputs the result to the 'iOutWriter' FASTAWriter.
      */
     public void reverse() throws IOException {
         if(iParent != null) {
@@ -269,31 +288,21 @@ public class ShuffleDBThread implements Runnable {
         }
         // Start processing.
         Protein current = null;
+        // The throughput, for the progress bar.
+        ThroughputMonitor throughput = new ThroughputMonitor(iInputDB);
+        long entriesRead = 0;
         boolean cancelled = false;
         while((current = iInputDB.nextProtein()) != null && !cancelled) {
+            entriesRead++;
             String sequence = current.getSequence().getSequence();
             // Replace the accession by affixing '_REVERSED'.
             current.getHeader().setAccession(current.getHeader().getAccession()+"_REVERSED");
             // Also append ' - REVERSED' to the description.
             Protein p = new Protein(current.getHeader().toString() + " - REVERSED", this.reverseSequence(sequence));
-            p.writeToFASTAFile(iOutWriter);
+            iOutWriter.write(p);
             if(iParent != null) {
                 // Show it on the progressbar.
-                if(iInputDB.monitorProgress() < iMonitor.getMaximum()) {
-                    iMonitor.setProgress(iInputDB.monitorProgress());
-                } else {
-                    int delta = iInputDB.monitorProgress()-iMonitor.getMaximum();
-                    double modulo = delta/1024;
-                    String affix = "KB";
-                    if(modulo%5 == 0.0) {
-                        double temp = modulo/1024;
-                        if(temp > 1.0) {
-                            modulo = temp;
-                            affix = "MB";
-                        }
-                        iMonitor.setNote("Reading from buffer (" + new BigDecimal(modulo).setScale(1, BigDecimal.ROUND_HALF_UP).doubleValue() + affix + ")...");
-                    }
-                }
+                throughput.update(iMonitor, entriesRead);
                 // See if the user pressed cancel.
                 if(iMonitor.isCanceled()) {
                     cancelled = true;
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 01:24:40
+ */
+package com.compomics.dbtoolkit.gui.workerthreads;
+
+import com.compomics.dbtoolkit.io.implementations.ProgressInputStream;
+import com.compomics.dbtoolkit.io.implementations.ZippedDBLoader;
+import com.compomics.dbtoolkit.io.interfaces.LongMonitorable;
+
+import javax.swing.*;
+import java.text.DecimalFormat;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 01:24:40 $
+ */
+
+/**
+ * This class follows the progress of a LongMonitorable (typically a DBLoader) for the
+ * worker threads. It translates the long progress into int values for a ProgressMonitor,
+ * and reports the throughput (in MB/s and entries/s) and the estimated time remaining
+ * in the note of the ProgressMonitor. For compressed DBs, the number of uncompressed
+ * bytes read is reported as well.
+ *
+ * @author Lennart Martens
+ */
+public class ThroughputMonitor {
+
+    /**
+     * The minimal number of milliseconds between two updates of the note.
+     */
+    private static final long REPORT_INTERVAL = 250;
+
+    /**
+     * The number of bytes in a MB.
+     */
+    private static final double MB = 1024*1024;
+
+    /**
+     * The format for MB's.
+     */
+    private static final DecimalFormat MB_FORMAT = new DecimalFormat("#,##0.0");
+
+    /**
+     * The format for entry counts.
+     */
+    private static final DecimalFormat COUNT_FORMAT = new DecimalFormat("#,##0");
+
+    /**
+     * The LongMonitorable being followed.
+     */
+    private LongMonitorable iSource = null;
+
+    /**
+     * The time (in milliseconds) at which monitoring started.
+     */
+    private long iStart = 0;
+
+    /**
+     * The time (in milliseconds) of the last update of the note.
+     */
+    private long iLastReport = 0;
+
+    /**
+     * This constructor takes the LongMonitorable to follow, and starts the clock.
+     *
+     * @param   aSource LongMonitorable to follow.
+     */
+    public ThroughputMonitor(LongMonitorable aSource) {
+        this.iSource = aSource;
+        this.restart();
+    }
+
+    /**
+     * This method restarts the clock, eg. after the source has been reset.
+     */
+    public void restart() {
+        iStart = System.currentTimeMillis();
+        iLastReport = 0;
+    }
+
+    /**
+     * This method returns the maximum for a ProgressMonitor.
+     *
+     * @return  int with the (scaled) maximum of the source.
+     */
+    public int getMaximum() {
+        long maximum = iSource.getLongMaximum();
+        return ProgressInputStream.scale(maximum, maximum);
+    }
+
+    /**
+     * This method returns the current progress for a ProgressMonitor.
+     *
+     * @return  int with the (scaled) progress of the source.
+     */
+    public int getProgress() {
+        return ProgressInputStream.scale(iSource.monitorLongProgress(), iSource.getLongMaximum());
+    }
+
+    /**
+     * This method reports the number of bytes read per second since the start.
+     *
+     * @return  double with the number of bytes per second.
+     */
+    public double getBytesPerSecond() {
+        return perSecond(iSource.monitorLongProgress(), this.getElapsedMillis());
+    }
+
+    /**
+     * This method reports the number of entries processed per second since the start.
+     *
+     * @param   aEntries    long with the number of entries processed so far.
+     * @return  double with the number of entries per second.
+     */
+    public double getEntriesPerSecond(long aEntries) {
+        return perSecond(aEntries, this.getElapsedMillis());
+    }
+
+    /**
+     * This method estimates the time remaining, based on the throughput so far.
+     *
+     * @return  long with the number of milliseconds remaining, or -1 if this can not (yet)
+     *          be estimated.
+     */
+    public long getRemainingMillis() {
+        long progress = iSource.monitorLongProgress();
+        long maximum = iSource.getLongMaximum();
+        long elapsed = this.getElapsedMillis();
+        if(progress <= 0 || maximum <= 0 || elapsed <= 0) {
+            return -1;
+        }
+        return (long)((double)Math.max(maximum - progress, 0)*elapsed/progress);
+    }
+
+    /**
+     * This method sets the progress on the specified ProgressMonitor, and updates
+     * its note with the throughput and time remaining (at most a few times per second).
+     *
+     * @param   aMonitor    ProgressMonitor to update.
+     * @param   aEntries    long with the number of entries processed so far.
+     */
+    public void update(ProgressMonitor aMonitor, long aEntries) {
+        this.update(aMonitor, 0, aEntries);
+    }
+
+    /**
+     * This method sets the progress on the specified ProgressMonitor, offset by
+     * the specified amount, and updates its note with the throughput and time remaining
+     * (at most a few times per second).
+     *
+     * @param   aMonitor    ProgressMonitor to update.
+     * @param   aOffset int to add to the progress of the source (for monitors that
+     *                  track more than one step).
+     * @param   aEntries    long with the number of entries processed so far.
+     */
+    public void update(ProgressMonitor aMonitor, int aOffset, long aEntries) {
+        aMonitor.setProgress(aOffset + this.getProgress());
+        long now = System.currentTimeMillis();
+        if(now - iLastReport >= REPORT_INTERVAL) {
+            iLastReport = now;
+            aMonitor.setNote(this.getNote(aEntries));
+        }
+    }
+
+    /**
+     * This method returns a description of the progress, throughput and time remaining,
+     * eg.: '1,024.0 of 4,096.0 MB read (85.3 MB/s, 12,034 entries/s), 00:00:36 remaining'.
+     *
+     * @param   aEntries    long with the number of entries processed so far, or -1 to
+     *                      omit the entry rate.
+     * @return  String  with the description.
+     */
+    public String getNote(long aEntries) {
+        StringBuffer note = new StringBuffer();
+        note.append(MB_FORMAT.format(iSource.monitorLongProgress()/MB));
+        long maximum = iSource.getLongMaximum();
+        if(maximum > 0) {
+            note.append(" of " + MB_FORMAT.format(maximum/MB));
+        }
+        note.append(" MB read");
+        if(iSource instanceof ZippedDBLoader) {
+            note.append(", " + MB_FORMAT.format(((ZippedDBLoader)iSource).getUncompressedProgress()/MB) + " MB inflated");
+        }
+        note.append(" (" + MB_FORMAT.format(this.getBytesPerSecond()/MB) + " MB/s");
+        if(aEntries >= 0) {
+            note.append(", " + COUNT_FORMAT.format(this.getEntriesPerSecond(aEntries)) + " entries/s");
+        }
+        note.append(")");
+        long remaining = this.getRemainingMillis();
+        if(remaining >= 0) {
+            note.append(", " + formatTime(remaining) + " remaining");
+        }
+        return note.toString();
+    }
+
+    /**
+     * This method formats a number of milliseconds as 'hh:mm:ss'.
+     *
+     * @param   aMillis long with the number of milliseconds.
+     * @return  String  with the formatted time.
+     */
+    public static String formatTime(long aMillis) {
+        long seconds = (aMillis + 500)/1000;
+        long hours = seconds/3600;
+        long minutes = (seconds/60)%60;
+        seconds = seconds%60;
+        return ((hours < 10)?"0":"") + hours + ":" + ((minutes < 10)?"0":"") + minutes + ":" + ((seconds < 10)?"0":"") + seconds;
+    }
+
+    /**
+     * This method returns the number of milliseconds since the start.
+     *
+     * @return  long with the elapsed time.
+     */
+    private long getElapsedMillis() {
+        return System.currentTimeMillis() - iStart;
+    }
+
+    /**
+     * This method calculates a rate per second.
+     *
+     * @param   aCount  long with the count.
+     * @param   aMillis long with the elapsed number of milliseconds.
+     * @return  double  with the count per second, or 0 if no time has elapsed.
+     */
+    private static double perSecond(long aCount, long aMillis) {
+        return (aMillis <= 0)?0:aCount*1000.0/aMillis;
+    }
+}
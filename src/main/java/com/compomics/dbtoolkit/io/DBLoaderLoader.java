@@ -12,6 +12,7 @@
  */
 package com.compomics.dbtoolkit.io;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.implementations.AutoDBLoader;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.toolkit.CountEntries;
@@ -36,8 +37,16 @@ import java.util.Properties;
  */
 public class DBLoaderLoader {
 
+    /**
+     * The AutoDBLoader for the DBLoaders listed in 'DBLoaders.properties', created
+     * the first time it is required.
+     */
+    private static AutoDBLoader iAutoDBLoader = null;
+
     /**
      * This merhod returns a DBLoader for the specified input file.
+     * The file '-' denotes standard in. A directory, a glob pattern or '@' followed by
+     * a list file denotes a set of DB files that is read as a single DB.
      *
      * @param aInputFile    File with the input DB file.
      * @return  DBLoader with the DBLoader for the file.
@@ -46,34 +55,10 @@ public class DBLoaderLoader {
     public static DBLoader loadDB(File aInputFile) throws IOException {
         DBLoader loader = null;
 
-        Properties p = null;
-
-        InputStream is = CountEntries.class.getClassLoader().getResourceAsStream("DBLoaders.properties");
-        p = new Properties();
-        if(is != null) {
-            p.load(is);
-            is.close();
-        }
-
-        // See if we managed to load the 'DBLoader.properties' file, else default to built-in types.
-        if(p == null || p.size() == 0) {
-            System.out.println("\t - Unable to find 'DBLoaders.properties' file, defaulting to built-in types (SwissProt & FASTA only!)...");
-            p = new Properties();
-            p.put("1", "com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader");
-            p.put("2", "com.compomics.dbtoolkit.io.implementations.FASTADBLoader");
-        }
-        String[] classNames = new String[p.size()];
-        Iterator it = p.values().iterator();
-        int counter = 0;
-        while(it.hasNext()) {
-            classNames[counter] = (String)it.next();
-            counter++;
-        }
-
-        AutoDBLoader adb = new AutoDBLoader(classNames);
+        AutoDBLoader adb = getAutoDBLoader();
 
         try {
-            loader = adb.getLoaderForFile(aInputFile.getAbsolutePath());
+            loader = adb.getLoaderForFile(StandardStreams.getPath(aInputFile));
         } catch(UnknownDBFormatException udfe) {
             throw new IOException("Unknown database format: " + udfe.getMessage());
         }
@@ -84,4 +69,42 @@ public class DBLoaderLoader {
 
         return loader;
     }
+
+    /**
+     * This method returns the AutoDBLoader for the DBLoaders listed in the 'DBLoaders.properties'
+     * file. The file is read only once, so opening many DB's does not re-read it each time.
+     *
+     * @return  AutoDBLoader    for the configured DBLoaders.
+     * @throws IOException  when the 'DBLoaders.properties' file could not be read.
+     */
+    public static synchronized AutoDBLoader getAutoDBLoader() throws IOException {
+        if(iAutoDBLoader == null) {
+            Properties p = null;
+
+            InputStream is = CountEntries.class.getClassLoader().getResourceAsStream("DBLoaders.properties");
+            p = new Properties();
+            if(is != null) {
+                p.load(is);
+                is.close();
+            }
+
+            // See if we managed to load the 'DBLoader.properties' file, else default to built-in types.
+            if(p == null || p.size() == 0) {
+                System.out.println("\t - Unable to find 'DBLoaders.properties' file, defaulting to built-in types (SwissProt & FASTA only!)...");
+                p = new Properties();
+                p.put("1", "com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader");
+                p.put("2", "com.compomics.dbtoolkit.io.implementations.FASTADBLoader");
+            }
+            String[] classNames = new String[p.size()];
+            Iterator it = p.values().iterator();
+            int counter = 0;
+            while(it.hasNext()) {
+                classNames[counter] = (String)it.next();
+                counter++;
+            }
+
+            iAutoDBLoader = new AutoDBLoader(classNames);
+        }
+        return iAutoDBLoader;
+    }
 }
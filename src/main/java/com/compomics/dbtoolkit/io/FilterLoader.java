@@ -119,7 +119,7 @@ public class FilterLoader {
                 } catch(IllegalAccessException iae) {
                     throw new IOException("Unable to access constructor for class '" + filterClass + "' for your filter '" + aFilterName + "': " + iae.getMessage());
                 } catch(InvocationTargetException ite) {
-                    throw new IOException("Unable to invoke constructor for class '" + filterClass + "' for your filter '" + aFilterName + "': " + ite.getMessage());
+                    throw new IOException("Unable to invoke constructor for class '" + filterClass + "' for your filter '" + aFilterName + "': " + ite.getTargetException().getMessage());
                 }
             }
         }
@@ -134,10 +134,12 @@ public class FilterLoader {
      *                      parameters.
      * @param aLoader   DBLoader with the database to load. This is used to check
      *                  whether the filter applies to the currently loaded databases.
-     * @return  Filter  with the filterset.
+     * @return  Filter  with the filterset. Its Filters are reordered after a sample of the
+     *                  first entries, so the cheapest and most selective ones are evaluated first.
      */
     public static Filter processFilterSetANDLogic(String aFilterSet, DBLoader aLoader) throws IOException {
         FilterCollection result = new FilterCollection(FilterCollection.AND);
+        result.setAdaptive(FilterCollection.DEFAULT_SAMPLE_SIZE);
         String[] parts =  aFilterSet.split(";");
         for (int i = 0; i < parts.length; i++) {
             String part = parts[i].trim();
@@ -12,6 +12,7 @@
  */
 package com.compomics.dbtoolkit.io;
 
+import com.compomics.dbtoolkit.io.implementations.CompiledProteinFilter;
 import com.compomics.dbtoolkit.io.implementations.ProteinFilterCollection;
 import com.compomics.dbtoolkit.io.implementations.ProteinResiduCountFilter;
 import com.compomics.dbtoolkit.io.implementations.ProteinSequenceFilter;
@@ -47,7 +48,9 @@ public class QueryParser {
 
     /**
      * This method parses a sequence-based subset query
-     * into an equivalent ProteinFilterCollection.
+     * into an equivalent ProteinFilterCollection. When the query holds several
+     * sequence elements, the ProteinFilterCollection is compiled into a
+     * CompiledProteinFilter that finds them all in a single pass.
      *
      * @param   aQuery  String with the sequence-based subset query to parse.
      * @return  ProteinFilter   that implements the same boolean logic as the
@@ -59,6 +62,8 @@ public class QueryParser {
 
         // Let's start parsing.
         pf = this.parseInternal(aQuery, 1);
+        // Match all sequence elements in a single pass over the sequence.
+        pf = CompiledProteinFilter.compile(pf);
 
         return pf;
     }
@@ -97,10 +102,12 @@ public class QueryParser {
                 isAnd = true;
                 token = iANDToken;
                 pf = new ProteinFilterCollection(ProteinFilterCollection.AND);
+                ((ProteinFilterCollection)pf).setAdaptive(ProteinFilterCollection.DEFAULT_SAMPLE_SIZE);
             } else {
                 isAnd = false;
                 token = iORToken;
                 pf = new ProteinFilterCollection(ProteinFilterCollection.OR);
+                ((ProteinFilterCollection)pf).setAdaptive(ProteinFilterCollection.DEFAULT_SAMPLE_SIZE);
             }
 
             // See if the query does not erroneously starts with the token.
@@ -228,10 +235,12 @@ public class QueryParser {
             isAND = true;
             token = iANDToken;
             pf = new ProteinFilterCollection(ProteinFilterCollection.AND);
+            ((ProteinFilterCollection)pf).setAdaptive(ProteinFilterCollection.DEFAULT_SAMPLE_SIZE);
         } else if(internal.indexOf(iORToken) >= 0) {
             isAND = false;
             token = iORToken;
             pf = new ProteinFilterCollection(ProteinFilterCollection.OR);
+            ((ProteinFilterCollection)pf).setAdaptive(ProteinFilterCollection.DEFAULT_SAMPLE_SIZE);
         } else {
             if(filters.size() == 1) {
                 pf = (ProteinFilter)filters.get(0);
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 02:14:36
+ */
+package com.compomics.dbtoolkit.io;
+
+import com.compomics.dbtoolkit.io.implementations.CompositeDBLoader;
+import com.compomics.util.general.CommandLineParser;
+
+import java.io.*;
+import java.util.ArrayList;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 02:14:36 $
+ */
+
+/**
+ * This class allows the toolkit to read a DB from standard in and write its
+ * output to standard out, so processing steps can be chained by Unix pipes. <br />
+ * By convention, the filename '-' denotes standard in (for input) or standard
+ * out (for output). When writing a DB to standard out, all messages should
+ * go to standard error instead (see 'redirectMessages').
+ *
+ * @author Lennart Martens
+ */
+public class StandardStreams {
+
+    /**
+     * The filename that denotes standard in or standard out.
+     */
+    public static final String NAME = "-";
+
+    /**
+     * This method reports whether the specified filename denotes a standard stream.
+     *
+     * @param   aFilename   String with the filename.
+     * @return  boolean 'true' if the filename is '-'.
+     */
+    public static boolean isStandardStream(String aFilename) {
+        return NAME.equals(aFilename);
+    }
+
+    /**
+     * This method reports whether the specified File denotes a standard stream.
+     *
+     * @param   aFile   File to check (can be 'null').
+     * @return  boolean 'true' if the path of the File is '-'.
+     */
+    public static boolean isStandardStream(File aFile) {
+        return (aFile != null) && NAME.equals(aFile.getPath());
+    }
+
+    /**
+     * This method reports whether the specified input exists. Standard streams always do,
+     * and so do sets of DB files (see CompositeDBLoader), which are checked when loaded.
+     *
+     * @param   aFile   File to check.
+     * @return  boolean 'true' if the File denotes a standard stream, a set of DB files
+     *                  or an existing file.
+     */
+    public static boolean exists(File aFile) {
+        return isStandardStream(aFile) || CompositeDBLoader.isShardSet(aFile.getPath()) || aFile.exists();
+    }
+
+    /**
+     * This method returns the absolute path of the specified File, or the path as
+     * specified if it denotes a standard stream or a set of DB files.
+     *
+     * @param   aFile   File to get the path for.
+     * @return  String  with the absolute path, or the path as specified.
+     */
+    public static String getPath(File aFile) {
+        return (isStandardStream(aFile) || CompositeDBLoader.isShardSet(aFile.getPath()))?aFile.getPath():aFile.getAbsolutePath();
+    }
+
+    /**
+     * This method returns the parameters on the command line, including any '-' that
+     * denotes a standard stream. The CommandLineParser takes an argument starting with
+     * '-' to be a (set of) flag(s), and therefore drops a lone '-' from its parameters.
+     *
+     * @param   aArgs   String[] with the command line arguments.
+     * @param   aParser CommandLineParser that has parsed these arguments.
+     * @return  String[]    with the parameters, in the order in which they occur.
+     */
+    public static String[] getParameters(String[] aArgs, CommandLineParser aParser) {
+        ArrayList params = new ArrayList();
+        for(int i = 0; i < aArgs.length; i++) {
+            String arg = aArgs[i].trim();
+            if(arg.startsWith("--")) {
+                // Skip the value of the option, if the parser took one.
+                if(aParser.getOptionParameter(arg.substring(2)) != null) {
+                    i++;
+                }
+            } else if(NAME.equals(arg) || !arg.startsWith("-")) {
+                params.add(arg);
+            }
+        }
+        String[] result = new String[params.size()];
+        params.toArray(result);
+        return result;
+    }
+
+    /**
+     * This method returns standard in.
+     *
+     * @return  InputStream with standard in.
+     */
+    public static InputStream getInput() {
+        return System.in;
+    }
+
+    /**
+     * This method returns a stream to standard out. The stream writes directly to
+     * the standard out file descriptor, so it is not affected by 'redirectMessages'.
+     * Closing the stream only flushes it, leaving standard out open.
+     *
+     * @return  OutputStream    to standard out.
+     */
+    public static OutputStream getOutput() {
+        return new StandardOutputStream();
+    }
+
+    /**
+     * This method redirects System.out to standard error, so any messages
+     * printed by the toolkit do not end up in a DB written to standard out.
+     */
+    public static void redirectMessages() {
+        System.setOut(System.err);
+    }
+
+    /**
+     * This class writes to the standard out file descriptor, but does not close it.
+     */
+    private static class StandardOutputStream extends OutputStream {
+
+        /**
+         * The stream to the standard out file descriptor.
+         */
+        private FileOutputStream iOut = new FileOutputStream(FileDescriptor.out);
+
+        public void write(int b) throws IOException {
+            iOut.write(b);
+        }
+
+        public void write(byte[] aBytes, int aOffset, int aLength) throws IOException {
+            iOut.write(aBytes, aOffset, aLength);
+        }
+
+        public void flush() throws IOException {
+            iOut.flush();
+        }
+
+        /**
+         * Closing only flushes, since standard out should remain open.
+         *
+         * @exception   IOException when the flush failed.
+         */
+        public void close() throws IOException {
+            this.flush();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 09:05:38
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
+import com.compomics.dbtoolkit.io.interfaces.HeaderFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 09:05:38 $
+ */
+
+/**
+ * This class implements an accession number filter for both FASTA and SwissProt formatted
+ * databases, that scales to lists of many millions of accessions. <br />
+ * The accessions are held in an AccessionTable, and are matched ignoring case. For a SwissProt
+ * entry, an entry passes when any of the accessions on its 'AC' lines is in the table. For a
+ * FASTA entry, the first word of the header is split at the '|' characters, and an entry passes
+ * when any of these fields (or the part of a field following a ':', as in 'SWISS-PROT:P12345')
+ * is in the table. The accessions are looked up in place, without creating any objects.
+ * <br />
+ * The parameter of this filter is either a comma separated list of accessions, or the name
+ * of a file preceded by a '@'. That file can be a table file (see the 'BuildAccessionTable'
+ * tool), which is memory mapped, or a text file with the accessions, which is read into a
+ * compact table in memory.
+ *
+ * @author Lennart Martens
+ */
+public class AccessionFilter implements FieldFilter, HeaderFilter {
+
+    /**
+     * The fields this filter reads from an entry.
+     */
+    private static final String[] KEYS = new String[] {"AC"};
+
+    /**
+     * The table with the accessions to filter the entries for.
+     */
+    private AccessionTable iTable = null;
+
+    /**
+     * This boolean flags the Boolean NOT operator for this Filter.
+     */
+    private boolean iInvert = false;
+
+    /**
+     * Matches the 'AC' lines of a SwissProt entry, or the header line of a FASTA entry.
+     */
+    private SwissProtFormat.LineMatcher iMatcher = new SwissProtFormat.LineMatcher() {
+        public boolean matches(String aRaw, int aStart, int aEnd, boolean aHeader) {
+            return aHeader?matchesHeader(aRaw, aStart, aEnd):matchesAccessions(aRaw, aStart, aEnd);
+        }
+    };
+
+    /**
+     * This constructor takes a comma separated list of accession numbers, or the name of a table
+     * file or text file with the accession numbers, preceded by a '@'.
+     *
+     * @param   aAccessions String with the accessions, or '@' followed by the name of the file with the accessions.
+     * @exception   IOException when the file with the accessions could not be read.
+     */
+    public AccessionFilter(String aAccessions) throws IOException {
+        this(aAccessions, false);
+    }
+
+    /**
+     * This constructor takes a comma separated list of accession numbers, or the name of a table
+     * file or text file with the accession numbers, preceded by a '@'.
+     *
+     * @param   aAccessions String with the accessions, or '@' followed by the name of the file with the accessions.
+     * @param   aInvert boolean to indicate whether to apply the Boolean 'NOT' operator to the
+     *                  results of the Filter.
+     * @exception   IOException when the file with the accessions could not be read.
+     */
+    public AccessionFilter(String aAccessions, boolean aInvert) throws IOException {
+        this(aAccessions.startsWith("@")?AccessionTable.load(new File(aAccessions.substring(1).trim())):AccessionTable.build(aAccessions, 0), aInvert);
+    }
+
+    /**
+     * This constructor takes the table with the accession numbers.
+     *
+     * @param   aTable  AccessionTable with the accessions.
+     * @param   aInvert boolean to indicate whether to apply the Boolean 'NOT' operator to the
+     *                  results of the Filter.
+     */
+    public AccessionFilter(AccessionTable aTable, boolean aInvert) {
+        this.iTable = aTable;
+        this.iInvert = aInvert;
+    }
+
+    /**
+     * This method tests whether the entry passes the filter.
+     *
+     * @param   aEntry  String with the raw FASTA or SwissProt entry to filter.
+     */
+    public boolean passesFilter(String aEntry) {
+        // Only the 'AC' lines are read, in place.
+        boolean passed = SwissProtFormat.matchesLines(aEntry, "AC   ", iMatcher);
+
+        if(iInvert) {
+            passed = !passed;
+        }
+
+        return passed;
+    }
+
+    /**
+     * This method tests whether the entry passes the filter.
+     *
+     * @param   aEntry  HashMap with the 'AC' field of a SwissProt entry, or the header
+     *                  of a FASTA entry.
+     */
+    public boolean passesFilter(HashMap aEntry) {
+        boolean passed = false;
+
+        Object ac = aEntry.get("AC");
+        if(ac != null) {
+            String accessions = (String)ac;
+            passed = this.matchesAccessions(accessions, 0, accessions.length());
+        } else {
+            Object header = aEntry.get(FASTAHeaderFilter.HEADER);
+            if(header != null) {
+                String line = (String)header;
+                passed = this.matchesHeader(line, 0, line.length());
+            }
+        }
+
+        if(iInvert) {
+            passed = !passed;
+        }
+
+        return passed;
+    }
+
+    /**
+     * This method reports on the fields this filter reads from the HashMap of an entry.
+     *
+     * @return  String[]    with the line keys of the fields.
+     */
+    public String[] getRequiredKeys() {
+        return KEYS;
+    }
+
+    /**
+     * This method reports on whether the header line suffices to decide on an entry,
+     * which is always the case for this filter.
+     *
+     * @return  boolean that is always 'true'.
+     */
+    public boolean isHeaderOnly() {
+        return true;
+    }
+
+    /**
+     * This method tests whether the entry with the specified header line passes the filter.
+     *
+     * @param   aHeader String with the header line of the FASTA entry.
+     * @return  boolean 'true' if the entry passes the filter, 'false' otherwise.
+     */
+    public boolean passesHeader(String aHeader) {
+        boolean passed = this.matchesHeader(aHeader, 0, aHeader.length());
+
+        if(iInvert) {
+            passed = !passed;
+        }
+
+        return passed;
+    }
+
+    /**
+     * This method returns the table with the accessions.
+     *
+     * @return  AccessionTable  with the accessions.
+     */
+    public AccessionTable getTable() {
+        return iTable;
+    }
+
+    /**
+     * This method checks whether any of the accessions in the specified part of an 'AC' line
+     * (or field) is in the table. Accessions are separated by semicolons and whitespace.
+     *
+     * @param   aText   String with the accessions.
+     * @param   aStart  int with the index to start at.
+     * @param   aEnd    int with the index to end at.
+     * @return  boolean 'true' if any of the accessions is in the table.
+     */
+    private boolean matchesAccessions(String aText, int aStart, int aEnd) {
+        int start = aStart;
+        for(int i = aStart; i <= aEnd; i++) {
+            char c = (i < aEnd)?aText.charAt(i):';';
+            if(c == ';' || c <= ' ') {
+                if(i > start && iTable.contains(aText, start, i)) {
+                    return true;
+                }
+                start = i + 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method checks whether any of the '|' separated fields of the first word of the
+     * specified FASTA header line (or the part of a field following a ':') is in the table.
+     *
+     * @param   aText   String with the header line.
+     * @param   aStart  int with the index of the start of the header line.
+     * @param   aEnd    int with the index of the end of the header line.
+     * @return  boolean 'true' if any of the fields is in the table.
+     */
+    private boolean matchesHeader(String aText, int aStart, int aEnd) {
+        int i = aStart;
+        while(i < aEnd && (aText.charAt(i) <= ' ' || aText.charAt(i) == '>')) {
+            i++;
+        }
+        int start = i;
+        int colon = -1;
+        for(; i <= aEnd; i++) {
+            char c = (i < aEnd)?aText.charAt(i):' ';
+            if(c == '|' || c <= ' ') {
+                if(i > start && (iTable.contains(aText, start, i) || (colon >= 0 && iTable.contains(aText, colon + 1, i)))) {
+                    return true;
+                }
+                if(c != '|') {
+                    break;
+                }
+                start = i + 1;
+                colon = -1;
+            } else if(c == ':') {
+                colon = i;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  a string representation of the object.
+     */
+    public String toString() {
+        return "AccessionFilter" + (iInvert?" (inverted)":"") + " on " + iTable;
+    }
+}
@@ -0,0 +1,774 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 08:47:21
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 08:47:21 $
+ */
+
+/**
+ * This class represents a compact, sorted table of accession numbers, built for lookups in
+ * lists of many millions of accessions. <br />
+ * Each accession is stored in upper case as a fixed-width record of ASCII bytes (padded with
+ * zero bytes to the width of the longest accession), and the records are sorted, so that an
+ * accession is found by binary search. The first eight characters of every SAMPLE_INTERVAL-th
+ * record are kept in a small sample index, so that the binary search over the records themselves
+ * only covers one or two blocks of records, which lie next to each other in memory. A table can be
+ * written to a table file, which is memory mapped when it is loaded again, so that the table
+ * itself takes no heap space at all. <br />
+ * Optionally, the table holds a Bloom filter that rejects most of the accessions that are not
+ * in the table without touching the records. All the bits of an accession are set in a single
+ * 64-bit word of the filter, so that a lookup reads a single word. This pays off for mapped tables
+ * that are not (yet) in the file system cache, and for filters that reject most entries. <br />
+ * Lookups take (part of) a String and compare its characters to the records in place,
+ * so they do not create any objects.
+ *
+ * @author Lennart Martens
+ */
+public class AccessionTable {
+
+    /**
+     * The extension conventionally used for table files.
+     */
+    public static final String EXTENSION = ".dbta";
+
+    /**
+     * The number of Bloom filter bits per accession used by default (for about 2% false positives).
+     */
+    public static final int DEFAULT_BLOOM_BITS = 10;
+
+    /**
+     * Marker at the start of each table file.
+     */
+    private static final String MAGIC = "DBTA";
+
+    /**
+     * The version of the table file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The number of records per entry in the sample index.
+     */
+    public static final int SAMPLE_INTERVAL = 64;
+
+    /**
+     * The length of the table file header: the marker (written as UTF), the version, the number
+     * of accessions, the record width, the number of Bloom filter hashes and the number of bits.
+     * The header is followed by the records, the words of the Bloom filter and the sample index.
+     */
+    private static final int HEADER_LENGTH = 2 + MAGIC.length() + 4 + 4 + 4 + 4 + 8;
+
+    /**
+     * The size of the read and write buffers.
+     */
+    private static final int BUFFER_SIZE = 256*1024;
+
+    /**
+     * Below this number of records, a range is sorted by insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * The FNV-1a 64-bit offset basis, for the hash of the Bloom filter.
+     */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    /**
+     * The FNV-1a 64-bit prime.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * The number of accessions in the table.
+     */
+    private int iSize = 0;
+
+    /**
+     * The width (in bytes) of each record.
+     */
+    private int iWidth = 0;
+
+    /**
+     * The sorted records.
+     */
+    private ByteBuffer iRecords = null;
+
+    /**
+     * The bits of the Bloom filter ('null' if the table has none).
+     */
+    private LongBuffer iBloom = null;
+
+    /**
+     * The number of bits in the Bloom filter.
+     */
+    private long iBloomBits = 0;
+
+    /**
+     * The number of hashes per accession in the Bloom filter.
+     */
+    private int iBloomHashes = 0;
+
+    /**
+     * The first eight characters of every SAMPLE_INTERVAL-th record (see 'getPrefix').
+     */
+    private LongBuffer iSamples = null;
+
+    /**
+     * The mask for the bytes of a record in a long read at the start of the record.
+     */
+    private long iPrefixMask = 0;
+
+    /**
+     * Private constructor; use the static 'build' or 'load' methods instead.
+     *
+     * @param   aSize   int with the number of accessions.
+     * @param   aWidth  int with the width of each record.
+     * @param   aRecords    ByteBuffer with the sorted records.
+     */
+    private AccessionTable(int aSize, int aWidth, ByteBuffer aRecords) {
+        this.iSize = aSize;
+        this.iWidth = aWidth;
+        this.iRecords = aRecords;
+        this.iPrefixMask = (aWidth >= 8)?-1L:~(-1L >>> 8*aWidth);
+    }
+
+    /**
+     * This method builds a table in memory from the accessions in the specified String.
+     * Accessions are separated by whitespace, commas or semicolons.
+     *
+     * @param   aAccessions String with the accessions.
+     * @param   aBloomBits  int with the number of Bloom filter bits per accession
+     *                      (0 for no Bloom filter).
+     * @return  AccessionTable  with the accessions.
+     * @exception   IOException when an accession holds a non-ASCII character.
+     */
+    public static AccessionTable build(String aAccessions, int aBloomBits) throws IOException {
+        int[] counts = scan(new StringReader(aAccessions), null, 0);
+        byte[] records = new byte[counts[0]*counts[1]];
+        scan(new StringReader(aAccessions), records, counts[1]);
+        return build(records, counts[0], counts[1], aBloomBits);
+    }
+
+    /**
+     * This method builds a table in memory from the accessions in the specified text file,
+     * reading the file twice: once to size the table, once to fill it. Accessions are separated
+     * by whitespace, commas or semicolons, and everything following a '#' on a line is ignored.
+     * Note that building the table takes heap space for all of the records; write the table to a
+     * table file once to avoid that.
+     *
+     * @param   aFile   File with the accessions.
+     * @param   aBloomBits  int with the number of Bloom filter bits per accession
+     *                      (0 for no Bloom filter).
+     * @return  AccessionTable  with the accessions.
+     * @exception   IOException when the file could not be read, an accession holds a non-ASCII
+     *                          character or the table would exceed 2 GB.
+     */
+    public static AccessionTable build(File aFile, int aBloomBits) throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(aFile), "ISO-8859-1");
+        int[] counts = null;
+        try {
+            counts = scan(reader, null, 0);
+        } finally {
+            reader.close();
+        }
+        if((long)counts[0]*counts[1] > Integer.MAX_VALUE - HEADER_LENGTH) {
+            throw new IOException("The " + counts[0] + " accessions in '" + aFile + "' do not fit in a single table!");
+        }
+        byte[] records = new byte[counts[0]*counts[1]];
+        reader = new InputStreamReader(new FileInputStream(aFile), "ISO-8859-1");
+        try {
+            scan(reader, records, counts[1]);
+        } finally {
+            reader.close();
+        }
+        return build(records, counts[0], counts[1], aBloomBits);
+    }
+
+    /**
+     * This method loads a table from the specified file. A table file (as written by the 'write'
+     * method) is memory mapped, any other file is read as a text file with accessions
+     * (see 'build(File, int)'), with a Bloom filter of DEFAULT_BLOOM_BITS bits per accession.
+     *
+     * @param   aFile   File with the table or the accessions.
+     * @return  AccessionTable  with the accessions.
+     * @exception   IOException when the file could not be read or is not a valid table file.
+     */
+    public static AccessionTable load(File aFile) throws IOException {
+        if(!isTableFile(aFile)) {
+            return build(aFile, DEFAULT_BLOOM_BITS);
+        }
+        RandomAccessFile raf = new RandomAccessFile(aFile, "r");
+        try {
+            raf.readUTF();
+            if(raf.readInt() != VERSION) {
+                throw new IOException("Unsupported version of accession table file '" + aFile + "'!");
+            }
+            int size = raf.readInt();
+            int width = raf.readInt();
+            int hashes = raf.readInt();
+            long bits = raf.readLong();
+            long expected = HEADER_LENGTH + (long)size*width + bits/8 + 8l*getSampleCount(size);
+            if(raf.length() != expected) {
+                throw new IOException("Accession table file '" + aFile + "' is truncated or corrupt (" + raf.length() + " bytes instead of " + expected + ")!");
+            }
+            if(expected > Integer.MAX_VALUE) {
+                throw new IOException("Accession table file '" + aFile + "' is too large to be mapped!");
+            }
+            // The mapping stays valid after the channel is closed.
+            ByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, expected);
+            mapped.position(HEADER_LENGTH);
+            mapped.limit(HEADER_LENGTH + size*width);
+            AccessionTable table = new AccessionTable(size, width, mapped.slice());
+            int bloomEnd = HEADER_LENGTH + size*width + (int)(bits/8);
+            if(bits > 0) {
+                mapped.limit(bloomEnd);
+                mapped.position(HEADER_LENGTH + size*width);
+                table.iBloom = mapped.slice().asLongBuffer();
+                table.iBloomBits = bits;
+                table.iBloomHashes = hashes;
+            }
+            mapped.limit((int)expected);
+            mapped.position(bloomEnd);
+            table.iSamples = mapped.slice().asLongBuffer();
+            return table;
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * This method reports on whether the specified file is a table file.
+     *
+     * @param   aFile   File to check.
+     * @return  boolean that is 'true' when the file starts with the table file marker.
+     * @exception   IOException when the file could not be read.
+     */
+    public static boolean isTableFile(File aFile) throws IOException {
+        DataInputStream dis = new DataInputStream(new FileInputStream(aFile));
+        try {
+            // A text file never starts with a zero byte, as the UTF length of the marker does.
+            return aFile.length() >= HEADER_LENGTH && MAGIC.equals(dis.readUTF());
+        } catch(IOException ioe) {
+            return false;
+        } finally {
+            dis.close();
+        }
+    }
+
+    /**
+     * This method writes the table to the specified table file.
+     *
+     * @param   aFile   File to write the table to.
+     * @exception   IOException when the file could not be written.
+     */
+    public void write(File aFile) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(aFile), BUFFER_SIZE));
+        try {
+            dos.writeUTF(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(iSize);
+            dos.writeInt(iWidth);
+            dos.writeInt(iBloomHashes);
+            dos.writeLong(iBloomBits);
+            ByteBuffer records = iRecords.duplicate();
+            records.clear();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while(records.hasRemaining()) {
+                int length = Math.min(buffer.length, records.remaining());
+                records.get(buffer, 0, length);
+                dos.write(buffer, 0, length);
+            }
+            if(iBloom != null) {
+                int words = iBloom.capacity();
+                for(int i = 0; i < words; i++) {
+                    dos.writeLong(iBloom.get(i));
+                }
+            }
+            int samples = iSamples.capacity();
+            for(int i = 0; i < samples; i++) {
+                dos.writeLong(iSamples.get(i));
+            }
+            dos.flush();
+        } finally {
+            dos.close();
+        }
+    }
+
+    /**
+     * This method reports on whether the table holds the specified accession (ignoring case).
+     *
+     * @param   aAccession  String with the accession.
+     * @return  boolean 'true' if the table holds the accession.
+     */
+    public boolean contains(String aAccession) {
+        return this.contains(aAccession, 0, aAccession.length());
+    }
+
+    /**
+     * This method reports on whether the table holds the accession at the specified
+     * location in the text (ignoring case). No objects are created.
+     *
+     * @param   aText   String with the accession.
+     * @param   aStart  int with the index of the first character of the accession.
+     * @param   aEnd    int with the index following the last character of the accession.
+     * @return  boolean 'true' if the table holds the accession.
+     */
+    public boolean contains(String aText, int aStart, int aEnd) {
+        int length = aEnd - aStart;
+        if(length <= 0 || length > iWidth || iSize == 0) {
+            return false;
+        }
+        // Check the characters and compute the hash for the Bloom filter
+        // and the prefix for the sample index at once.
+        long hash = FNV_OFFSET;
+        long prefix = 0;
+        for(int i = 0; i < length; i++) {
+            char c = aText.charAt(aStart + i);
+            if(c >= 128) {
+                return false;
+            }
+            int upper = toUpper(c);
+            hash = (hash ^ upper)*FNV_PRIME;
+            if(i < 8) {
+                prefix |= (long)upper << (56 - 8*i);
+            }
+        }
+        if(iBloom != null && !this.mightContain(hash)) {
+            return false;
+        }
+        // Find the samples with the same prefix; the accession can only be in the block
+        // preceding them, or in the blocks they start.
+        int samples = iSamples.capacity();
+        int first = 0;
+        int last = samples;
+        while(first < last) {
+            int mid = (first + last) >>> 1;
+            if(iSamples.get(mid) < prefix) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+        int after = first;
+        last = samples;
+        while(after < last) {
+            int mid = (after + last) >>> 1;
+            if(iSamples.get(mid) <= prefix) {
+                after = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+        int low = Math.max(0, first - 1)*SAMPLE_INTERVAL;
+        int high = Math.min(iSize, after*SAMPLE_INTERVAL) - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int compare = this.compare(mid, prefix, aText, aStart, length);
+            if(compare < 0) {
+                low = mid + 1;
+            } else if(compare > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method returns the number of accessions in the table.
+     *
+     * @return  int with the number of accessions.
+     */
+    public int size() {
+        return iSize;
+    }
+
+    /**
+     * This method returns the width of the records, ie. the length of the longest accession.
+     *
+     * @return  int with the width of the records.
+     */
+    public int getWidth() {
+        return iWidth;
+    }
+
+    /**
+     * This method reports on whether the table holds a Bloom filter.
+     *
+     * @return  boolean that is 'true' when the table holds a Bloom filter.
+     */
+    public boolean hasBloomFilter() {
+        return iBloom != null;
+    }
+
+    /**
+     * This method returns the accession with the specified index in the (sorted) table.
+     *
+     * @param   aIndex  int with the index of the accession.
+     * @return  String with the accession (in upper case).
+     */
+    public String getAccession(int aIndex) {
+        int offset = aIndex*iWidth;
+        StringBuffer result = new StringBuffer(iWidth);
+        for(int i = 0; i < iWidth; i++) {
+            byte b = iRecords.get(offset + i);
+            if(b == 0) {
+                break;
+            }
+            result.append((char)b);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  a string representation of the object.
+     */
+    public String toString() {
+        return "AccessionTable with " + iSize + " accessions of at most " + iWidth + " characters" + ((iBloom != null)?" (Bloom filter of " + iBloomBits + " bits, " + iBloomHashes + " hashes)":"");
+    }
+
+    /**
+     * This method completes a table from the unsorted records.
+     *
+     * @param   aRecords    byte[] with the unsorted records.
+     * @param   aCount  int with the number of records.
+     * @param   aWidth  int with the width of the records.
+     * @param   aBloomBits  int with the number of Bloom filter bits per accession.
+     * @return  AccessionTable  with the sorted, distinct records.
+     */
+    private static AccessionTable build(byte[] aRecords, int aCount, int aWidth, int aBloomBits) {
+        sort(aRecords, aWidth, 0, aCount - 1, new byte[aWidth]);
+        // Remove the duplicates.
+        int size = 0;
+        for(int i = 0; i < aCount; i++) {
+            if(size == 0 || compare(aRecords, aWidth, i, size - 1) != 0) {
+                if(size != i) {
+                    System.arraycopy(aRecords, i*aWidth, aRecords, size*aWidth, aWidth);
+                }
+                size++;
+            }
+        }
+        AccessionTable table = new AccessionTable(size, aWidth, ByteBuffer.wrap(aRecords, 0, size*aWidth).slice());
+        if(aBloomBits > 0 && size > 0) {
+            long words = ((long)size*aBloomBits + 63)/64;
+            table.iBloomBits = words*64;
+            // The bits of an accession are taken six at a time from a single 64-bit hash.
+            table.iBloomHashes = Math.max(1, Math.min(10, (int)Math.round(aBloomBits*Math.log(2))));
+            long[] bloom = new long[(int)words];
+            for(int i = 0; i < size; i++) {
+                long hash = FNV_OFFSET;
+                int offset = i*aWidth;
+                for(int j = 0; j < aWidth && aRecords[offset + j] != 0; j++) {
+                    hash = (hash ^ aRecords[offset + j])*FNV_PRIME;
+                }
+                int word = getBloomWord(hash, words);
+                bloom[word] |= getBloomMask(hash, table.iBloomHashes);
+            }
+            table.iBloom = LongBuffer.wrap(bloom);
+        }
+        long[] samples = new long[getSampleCount(size)];
+        for(int i = 0; i < samples.length; i++) {
+            samples[i] = getPrefix(aRecords, i*SAMPLE_INTERVAL*aWidth, aWidth);
+        }
+        table.iSamples = LongBuffer.wrap(samples);
+        return table;
+    }
+
+    /**
+     * This method checks the Bloom filter for the accession with the specified hash.
+     *
+     * @param   aHash   long with the FNV-1a hash of the (upper case) accession.
+     * @return  boolean that is 'false' when the accession is certainly not in the table.
+     */
+    private boolean mightContain(long aHash) {
+        long mask = getBloomMask(aHash, iBloomHashes);
+        return (iBloom.get(getBloomWord(aHash, iBloomBits/64)) & mask) == mask;
+    }
+
+    /**
+     * This method returns the word of the Bloom filter that holds the bits for the specified hash.
+     *
+     * @param   aHash   long with the FNV-1a hash of the (upper case) accession.
+     * @param   aWords  long with the number of words in the Bloom filter.
+     * @return  int with the index of the word.
+     */
+    private static int getBloomWord(long aHash, long aWords) {
+        return (int)(((aHash ^ (aHash >>> 29))*0x9e3779b97f4a7c15L >>> 1)%aWords);
+    }
+
+    /**
+     * This method returns the bits of the Bloom filter word that are set for the specified hash.
+     *
+     * @param   aHash   long with the FNV-1a hash of the (upper case) accession.
+     * @param   aHashes int with the number of bits to set (at most 10).
+     * @return  long with the bits.
+     */
+    private static long getBloomMask(long aHash, int aHashes) {
+        long mask = 0;
+        long bits = aHash;
+        for(int i = 0; i < aHashes; i++) {
+            mask |= 1L << bits;
+            bits >>>= 6;
+        }
+        return mask;
+    }
+
+    /**
+     * This method returns the number of entries in the sample index for the specified number of records.
+     *
+     * @param   aSize   int with the number of records.
+     * @return  int with the number of samples.
+     */
+    private static int getSampleCount(int aSize) {
+        return (aSize + SAMPLE_INTERVAL - 1)/SAMPLE_INTERVAL;
+    }
+
+    /**
+     * This method packs the first eight bytes of a record into a long, so that the longs
+     * sort like the records (the bytes are ASCII, so the sign bit is never set).
+     *
+     * @param   aRecords    byte[] with the records.
+     * @param   aOffset int with the offset of the record.
+     * @param   aWidth  int with the width of the records.
+     * @return  long with the prefix of the record.
+     */
+    private static long getPrefix(byte[] aRecords, int aOffset, int aWidth) {
+        long prefix = 0;
+        for(int i = 0; i < 8 && i < aWidth; i++) {
+            prefix |= (long)aRecords[aOffset + i] << (56 - 8*i);
+        }
+        return prefix;
+    }
+
+    /**
+     * This method compares the specified record to the accession in the text. The first eight
+     * bytes of the record are compared at once, to the prefix of the accession.
+     *
+     * @param   aIndex  int with the index of the record.
+     * @param   aPrefix long with the prefix of the accession (see 'getPrefix').
+     * @param   aText   String with the accession.
+     * @param   aStart  int with the index of the first character of the accession.
+     * @param   aLength int with the length of the accession (at most the record width).
+     * @return  int that is negative when the record sorts before the accession, positive
+     *              when it sorts after it and zero when they are equal.
+     */
+    private int compare(int aIndex, long aPrefix, String aText, int aStart, int aLength) {
+        int offset = aIndex*iWidth;
+        long prefix = 0;
+        if(offset + 8 <= iRecords.limit()) {
+            // Mask the bytes of the next record for records narrower than eight bytes.
+            prefix = iRecords.getLong(offset) & iPrefixMask;
+        } else {
+            for(int i = 0; i < 8 && i < iWidth; i++) {
+                prefix |= (long)iRecords.get(offset + i) << (56 - 8*i);
+            }
+        }
+        if(prefix != aPrefix) {
+            return (prefix < aPrefix)?-1:1;
+        }
+        for(int i = 8; i < iWidth; i++) {
+            int b = iRecords.get(offset + i);
+            int c = (i < aLength)?toUpper(aText.charAt(aStart + i)):0;
+            if(b != c) {
+                return b - c;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method reads the accessions from the specified Reader. When no records are specified,
+     * it only counts the accessions and determines the length of the longest one; otherwise it
+     * stores them in upper case in the records.
+     *
+     * @param   aReader Reader to read the accessions from.
+     * @param   aRecords    byte[] to store the records in ('null' to count them).
+     * @param   aWidth  int with the width of the records.
+     * @return  int[]   with the number of accessions and the length of the longest one.
+     * @exception   IOException when the Reader could not be read, or an accession holds a
+     *                          non-ASCII character.
+     */
+    private static int[] scan(Reader aReader, byte[] aRecords, int aWidth) throws IOException {
+        BufferedReader br = new BufferedReader(aReader, BUFFER_SIZE);
+        int count = 0;
+        int maxLength = 0;
+        int length = 0;
+        boolean comment = false;
+        int read = 0;
+        while(read >= 0) {
+            read = br.read();
+            char c = (char)read;
+            if(read < 0 || read <= ' ' || c == ',' || c == ';' || c == '#' || comment) {
+                if(length > 0) {
+                    count++;
+                    maxLength = Math.max(maxLength, length);
+                    length = 0;
+                }
+                if(c == '#') {
+                    comment = true;
+                } else if(c == '\n' || c == '\r') {
+                    comment = false;
+                }
+            } else {
+                if(c >= 128) {
+                    throw new IOException("Accession number " + (count + 1) + " holds the non-ASCII character '" + c + "'!");
+                }
+                if(aRecords != null) {
+                    aRecords[count*aWidth + length] = (byte)toUpper(c);
+                }
+                length++;
+            }
+        }
+        return new int[] {count, maxLength};
+    }
+
+    /**
+     * This method sorts the records in the specified range (quicksort on the fixed-width
+     * records, in place).
+     *
+     * @param   aRecords    byte[] with the records.
+     * @param   aWidth  int with the width of the records.
+     * @param   aLow    int with the index of the first record to sort.
+     * @param   aHigh   int with the index of the last record to sort.
+     * @param   aPivot  byte[] of the record width to hold the pivot.
+     */
+    private static void sort(byte[] aRecords, int aWidth, int aLow, int aHigh, byte[] aPivot) {
+        int low = aLow;
+        int high = aHigh;
+        while(high - low >= INSERTION_SORT_THRESHOLD) {
+            // Median of three as the pivot.
+            int mid = (low + high) >>> 1;
+            if(compare(aRecords, aWidth, mid, low) < 0) {
+                swap(aRecords, aWidth, mid, low);
+            }
+            if(compare(aRecords, aWidth, high, low) < 0) {
+                swap(aRecords, aWidth, high, low);
+            }
+            if(compare(aRecords, aWidth, high, mid) < 0) {
+                swap(aRecords, aWidth, high, mid);
+            }
+            System.arraycopy(aRecords, mid*aWidth, aPivot, 0, aWidth);
+            int i = low;
+            int j = high;
+            while(i <= j) {
+                while(compare(aRecords, aWidth, i, aPivot) < 0) {
+                    i++;
+                }
+                while(compare(aRecords, aWidth, j, aPivot) > 0) {
+                    j--;
+                }
+                if(i <= j) {
+                    swap(aRecords, aWidth, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller part only, to bound the depth of the recursion.
+            if(j - low < high - i) {
+                sort(aRecords, aWidth, low, j, aPivot);
+                low = i;
+            } else {
+                sort(aRecords, aWidth, i, high, aPivot);
+                high = j;
+            }
+        }
+        for(int i = low + 1; i <= high; i++) {
+            for(int j = i; j > low && compare(aRecords, aWidth, j, j - 1) < 0; j--) {
+                swap(aRecords, aWidth, j, j - 1);
+            }
+        }
+    }
+
+    /**
+     * This method compares two records.
+     *
+     * @param   aRecords    byte[] with the records.
+     * @param   aWidth  int with the width of the records.
+     * @param   aFirst  int with the index of the first record.
+     * @param   aSecond int with the index of the second record.
+     * @return  int that is negative, zero or positive as the first record sorts before,
+     *              equal to or after the second.
+     */
+    private static int compare(byte[] aRecords, int aWidth, int aFirst, int aSecond) {
+        int first = aFirst*aWidth;
+        int second = aSecond*aWidth;
+        for(int i = 0; i < aWidth; i++) {
+            int diff = aRecords[first + i] - aRecords[second + i];
+            if(diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method compares a record to the pivot.
+     *
+     * @param   aRecords    byte[] with the records.
+     * @param   aWidth  int with the width of the records.
+     * @param   aIndex  int with the index of the record.
+     * @param   aPivot  byte[] with the pivot record.
+     * @return  int that is negative, zero or positive as the record sorts before,
+     *              equal to or after the pivot.
+     */
+    private static int compare(byte[] aRecords, int aWidth, int aIndex, byte[] aPivot) {
+        int offset = aIndex*aWidth;
+        for(int i = 0; i < aWidth; i++) {
+            int diff = aRecords[offset + i] - aPivot[i];
+            if(diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method swaps two records.
+     *
+     * @param   aRecords    byte[] with the records.
+     * @param   aWidth  int with the width of the records.
+     * @param   aFirst  int with the index of the first record.
+     * @param   aSecond int with the index of the second record.
+     */
+    private static void swap(byte[] aRecords, int aWidth, int aFirst, int aSecond) {
+        int first = aFirst*aWidth;
+        int second = aSecond*aWidth;
+        for(int i = 0; i < aWidth; i++) {
+            byte temp = aRecords[first + i];
+            aRecords[first + i] = aRecords[second + i];
+            aRecords[second + i] = temp;
+        }
+    }
+
+    /**
+     * This method converts an ASCII character to upper case.
+     *
+     * @param   aChar   char to convert (ASCII only).
+     * @return  int with the upper case character.
+     */
+    private static int toUpper(char aChar) {
+        return (aChar >= 'a' && aChar <= 'z')?aChar - ('a' - 'A'):aChar;
+    }
+}
@@ -12,12 +12,18 @@
  */
 package com.compomics.dbtoolkit.io.implementations;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /*
  * CVS information:
@@ -30,11 +36,63 @@ import java.lang.reflect.Constructor;
  * This class attempts to determine the DB type from the
  * file it is presented with. If successful, it will return
  * the correct DBLoader implementation for the file,
- * else it will throw an UnknownDBFormatException.
+ * else it will throw an UnknownDBFormatException. <br />
+ * DB's can also be read from a stream (the filename '-' denotes standard in),
+ * in which case the format is determined from the first bytes of the stream.
+ * Sets of DB files (directories, glob patterns and list files) are read as a
+ * single DB by a CompositeDBLoader. <br />
+ * The format of a file is sniffed from its first bytes, which are read only once; the
+ * result is cached by path, size and modification time, so re-opening (many) files is cheap.
+ * The built-in DBLoaders are selected on the sniffed format directly, other DBLoaders are
+ * still asked whether they can read the file. The constructors of the DBLoader classes
+ * are looked up once and cached as well.
  *
  * @author Lennart Martens
  */
 public class AutoDBLoader {
+    /**
+     * The DBLoader classes that read each format from a stream, as pairs of format and classname.
+     */
+    private static final String[][] STREAM_LOADERS = new String[][] {
+        {DBFormatSniffer.FASTA, "com.compomics.dbtoolkit.io.implementations.FASTADBLoader"},
+        {DBFormatSniffer.SWISSPROT, "com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader"},
+        {DBFormatSniffer.ZIPPED_FASTA, "com.compomics.dbtoolkit.io.implementations.ZippedFASTADBLoader"},
+        {DBFormatSniffer.ZIPPED_SWISSPROT, "com.compomics.dbtoolkit.io.implementations.ZippedSwissProtDBLoader"},
+        {DBFormatSniffer.DBTK, "com.compomics.dbtoolkit.io.implementations.DBTKDBLoader"}
+    };
+
+    /**
+     * The built-in DBLoader classes that read files, as pairs of format and classname.
+     * These are selected on the sniffed format, without asking them whether they can read the file.
+     */
+    private static final String[][] FILE_LOADERS = new String[][] {
+        {DBFormatSniffer.FASTA, "com.compomics.dbtoolkit.io.implementations.FASTADBLoader"},
+        {DBFormatSniffer.FASTA, "com.compomics.dbtoolkit.io.implementations.MappedFASTADBLoader"},
+        {DBFormatSniffer.SWISSPROT, "com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader"},
+        {DBFormatSniffer.ZIPPED_FASTA, "com.compomics.dbtoolkit.io.implementations.ZippedFASTADBLoader"},
+        {DBFormatSniffer.ZIPPED_SWISSPROT, "com.compomics.dbtoolkit.io.implementations.ZippedSwissProtDBLoader"},
+        {DBFormatSniffer.DBTK, "com.compomics.dbtoolkit.io.implementations.DBTKDBLoader"}
+    };
+
+    /**
+     * The maximum number of files for which the format is cached.
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * The constructors of the DBLoader classes, keyed by classname.
+     */
+    private static HashMap iConstructors = new HashMap();
+
+    /**
+     * The sniffed formats (as Detection instances) keyed by absolute path, least recently used first.
+     */
+    private static Map iDetections = new LinkedHashMap(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry aEldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     /**
      * String[] with all the DBLoader classes that are possible candidates for
      * loading the database.
@@ -79,6 +137,9 @@ public class AutoDBLoader {
      * if it is unsuccessful, it will throw an UnknownDBFormatException.
      * The boolean argument allows you to specify whether the loader
      * should be initialized before returning by the AutoDBLoader.
+     * The filename '-' denotes standard in, which is always initialized. A directory,
+     * a glob pattern or '@' followed by a list file denotes a set of DB files, which is
+     * read as a single DB by a CompositeDBLoader.
      *
      * @param   aFilename   String with the filename for the DB to
      *                      find the DBLoader for.
@@ -92,6 +153,20 @@ public class AutoDBLoader {
     public DBLoader getLoaderForFile(String aFilename, boolean aInitLoader) throws IOException, UnknownDBFormatException {
         DBLoader loader = null;
 
+        // Standard in is read as a stream.
+        if(StandardStreams.isStandardStream(aFilename)) {
+            return this.getLoaderForStream(StandardStreams.getInput(), aFilename);
+        }
+
+        // A set of DB files is read as a single DB.
+        if(CompositeDBLoader.isShardSet(aFilename)) {
+            loader = new CompositeDBLoader(this);
+            if(aInitLoader) {
+                loader.load(aFilename);
+            }
+            return loader;
+        }
+
         // Check for the existance of the specified file.
         File temp = new File(aFilename);
         if(!temp.exists()) {
@@ -99,15 +174,20 @@ public class AutoDBLoader {
         }
 
         // Okay, the file exists.
+        String format = getFormat(temp);
         for(int i = 0; i < iDBLoaderClasses.length; i++) {
             String lClass = iDBLoaderClasses[i];
             try {
-                Class c = Class.forName(lClass);
-                Constructor constr = c.getConstructor(new Class[]{});
-                Object o = constr.newInstance(new Object[]{});
-                if(o instanceof DBLoader) {
-                    DBLoader candidate = (DBLoader)o;
-                    if(candidate.canReadFile(temp)) {
+                String known = getBuiltInFormat(lClass);
+                if(known != null) {
+                    // Built-in loaders do not need to read the file again.
+                    if(known.equals(format)) {
+                        loader = newLoader(lClass);
+                        break;
+                    }
+                } else {
+                    DBLoader candidate = newLoader(lClass);
+                    if(candidate != null && candidate.canReadFile(temp)) {
                         loader = candidate;
                         break;
                     }
@@ -130,4 +210,124 @@ public class AutoDBLoader {
 
         return loader;
     }
+
+    /**
+     * This method determines the format of the DB in the specified stream from its
+     * first bytes, and returns a DBLoader that has been initialized with the stream.
+     * Note that the stream can be read only once.
+     *
+     * @param   aIn InputStream with the DB.
+     * @param   aName   String with a name for the stream, used in messages.
+     * @return  DBLoader    that reads the DB from the stream.
+     * @exception   UnknownDBFormatException    when the format of
+     *                                          the DB was unknown.
+     * @exception   IOException when the stream could not be read.
+     */
+    public DBLoader getLoaderForStream(InputStream aIn, String aName) throws IOException, UnknownDBFormatException {
+        BufferedInputStream in = new BufferedInputStream(aIn, DBFormatSniffer.SNIFF_SIZE);
+        String format = DBFormatSniffer.sniff(in);
+        DBLoader loader = null;
+        for(int i = 0; i < STREAM_LOADERS.length; i++) {
+            if(STREAM_LOADERS[i][0].equals(format)) {
+                try {
+                    loader = newLoader(STREAM_LOADERS[i][1]);
+                } catch(Exception e) {
+                    throw new IOException("Unable to create the " + format + " loader for '" + aName + "': " + e.getMessage());
+                }
+                break;
+            }
+        }
+        if(loader == null) {
+            throw new UnknownDBFormatException("Unable to determine DB format of the specified stream!", aName);
+        }
+        loader.load(in, aName);
+        return loader;
+    }
+
+    /**
+     * This method clears the cache of sniffed formats. Note that the cache already
+     * re-sniffs a file when its size or modification time has changed.
+     */
+    public static void clearCache() {
+        synchronized(iDetections) {
+            iDetections.clear();
+        }
+    }
+
+    /**
+     * This method returns the format of the DB in the specified file, sniffing
+     * it only if it is not cached yet, or if the file has changed since.
+     *
+     * @param   aFile   File with the DB.
+     * @return  String  with the format (see DBFormatSniffer), or 'null' if it is unknown.
+     * @exception   IOException when the file could not be read.
+     */
+    private static String getFormat(File aFile) throws IOException {
+        String path = aFile.getAbsolutePath();
+        long length = aFile.length();
+        long modified = aFile.lastModified();
+        synchronized(iDetections) {
+            Detection cached = (Detection)iDetections.get(path);
+            if(cached != null && cached.iLength == length && cached.iModified == modified) {
+                return cached.iFormat;
+            }
+        }
+        String format = DBFormatSniffer.sniff(aFile);
+        synchronized(iDetections) {
+            iDetections.put(path, new Detection(length, modified, format));
+        }
+        return format;
+    }
+
+    /**
+     * This method returns the format read by the specified built-in DBLoader class.
+     *
+     * @param   aClass  String with the classname.
+     * @return  String  with the format, or 'null' if the class is not a built-in DBLoader.
+     */
+    private static String getBuiltInFormat(String aClass) {
+        for(int i = 0; i < FILE_LOADERS.length; i++) {
+            if(FILE_LOADERS[i][1].equals(aClass)) {
+                return FILE_LOADERS[i][0];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method creates a new instance of the specified DBLoader class, looking its
+     * constructor up only the first time.
+     *
+     * @param   aClass  String with the classname.
+     * @return  DBLoader    with the new instance, or 'null' if the class is not a DBLoader.
+     * @exception   Exception   when the class could not be found or instantiated.
+     */
+    private static DBLoader newLoader(String aClass) throws Exception {
+        Constructor constr = null;
+        synchronized(iConstructors) {
+            constr = (Constructor)iConstructors.get(aClass);
+            if(constr == null) {
+                constr = Class.forName(aClass).getConstructor(new Class[]{});
+                iConstructors.put(aClass, constr);
+            }
+        }
+        Object o = constr.newInstance(new Object[]{});
+        return (o instanceof DBLoader)?(DBLoader)o:null;
+    }
+
+    /**
+     * This class holds the sniffed format of a file, with the size and modification
+     * time of the file when it was sniffed.
+     */
+    private static class Detection {
+        private long iLength = 0;
+        private long iModified = 0;
+        private String iFormat = null;
+
+        public Detection(long aLength, long aModified, String aFormat) {
+            this.iLength = aLength;
+            this.iModified = aModified;
+            this.iFormat = aFormat;
+        }
+    }
 }
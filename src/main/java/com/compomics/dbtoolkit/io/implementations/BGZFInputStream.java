@@ -0,0 +1,466 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 20:02:47
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.io.*;
+import java.util.LinkedList;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 20:02:47 $
+ */
+
+/**
+ * This class reads BGZF (blocked GZIP) data, as written by the BGZFOutputStream. <br />
+ * When more than one thread is specified, the blocks are read ahead and inflated on
+ * a pool of worker threads, while the blocks are still delivered in order. <br />
+ * Streams opened on a File also support seeking to a virtual offset (the start of a
+ * compressed block shifted left by 16 bits, combined with the offset in the uncompressed block).
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.BGZFOutputStream
+ */
+public class BGZFInputStream extends InputStream {
+
+    /**
+     * The stream with the compressed data.
+     */
+    private InputStream iIn = null;
+
+    /**
+     * The file channel for seeking, if opened on a File.
+     */
+    private FileInputStream iFileIn = null;
+
+    /**
+     * The number of inflater threads.
+     */
+    private int iThreads = 1;
+
+    /**
+     * The inflater pool, if any.
+     */
+    private ExecutorService iExecutor = null;
+
+    /**
+     * The Futures for the blocks being inflated, in file order.
+     */
+    private LinkedList iPending = new LinkedList();
+
+    /**
+     * The position of the next compressed block to read from the stream.
+     */
+    private long iReadPosition = 0;
+
+    /**
+     * This boolean is set when the end of the compressed data has been reached.
+     */
+    private boolean iEOF = false;
+
+    /**
+     * The current block.
+     */
+    private Block iCurrent = null;
+
+    /**
+     * The position in the current block.
+     */
+    private int iPos = 0;
+
+    /**
+     * The uncompressed offset of the start of the next block to be delivered.
+     */
+    private long iUncompressedPosition = 0;
+
+    /**
+     * When non-null, this records the compressed and uncompressed start of each block
+     * delivered, in pairs.
+     */
+    private long[] iBlockTable = null;
+
+    /**
+     * The number of values in the block table.
+     */
+    private int iBlockTableSize = 0;
+
+    /**
+     * This constructor opens a single-threaded, seekable stream on the specified file.
+     *
+     * @param   aFile   File with the BGZF data.
+     * @exception   IOException when the file could not be opened.
+     */
+    public BGZFInputStream(File aFile) throws IOException {
+        this(new FileInputStream(aFile), 1);
+        iFileIn = (FileInputStream)iIn;
+    }
+
+    /**
+     * This constructor takes a stream with BGZF data and the number of threads
+     * to inflate the blocks with.
+     *
+     * @param   aIn InputStream with the compressed data.
+     * @param   aThreads    int with the number of inflater threads.
+     */
+    public BGZFInputStream(InputStream aIn, int aThreads) {
+        this.iIn = aIn;
+        this.iThreads = Math.max(1, aThreads);
+    }
+
+    /**
+     * This method checks whether the specified file starts with a BGZF block header.
+     *
+     * @param   aFile   File to check.
+     * @return  boolean 'true' if the file is BGZF compressed.
+     */
+    public static boolean isBGZF(File aFile) {
+        boolean result = false;
+        try {
+            InputStream in = new FileInputStream(aFile);
+            try {
+                byte[] header = new byte[BGZFOutputStream.HEADER_LENGTH];
+                result = readFully(in, header, 0, header.length) == header.length && getBlockSize(header) > 0;
+            } finally {
+                in.close();
+            }
+        } catch(IOException ioe) {
+            // Not readable, so not BGZF.
+        }
+        return result;
+    }
+
+    /**
+     * This method starts recording the compressed and uncompressed start of all
+     * blocks delivered from now on. This allows the conversion of uncompressed
+     * offsets into virtual offsets.
+     */
+    public void recordBlocks() {
+        iBlockTable = new long[256];
+        iBlockTableSize = 0;
+    }
+
+    /**
+     * This method converts an offset in the uncompressed data into a virtual offset,
+     * based on the blocks recorded so far.
+     *
+     * @param   aOffset long with the uncompressed offset.
+     * @return  long    with the virtual offset.
+     */
+    public long toVirtualOffset(long aOffset) {
+        if(iBlockTable == null) {
+            throw new IllegalStateException("Blocks are not being recorded!");
+        }
+        // Binary search for the last block starting at or before the offset.
+        int low = 0;
+        int high = iBlockTableSize/2 - 1;
+        int found = 0;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            if(iBlockTable[2*mid+1] <= aOffset) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        long blockStart = (iBlockTableSize == 0)?0:iBlockTable[2*found];
+        long inBlock = (iBlockTableSize == 0)?0:aOffset - iBlockTable[2*found+1];
+        if(inBlock > 0xffff) {
+            // Offset at the very end of the data, past the last recorded block.
+            blockStart = iReadPosition;
+            inBlock = 0;
+        }
+        return (blockStart << 16) | inBlock;
+    }
+
+    /**
+     * This method positions the stream at the specified virtual offset. Only
+     * supported on streams opened on a File.
+     *
+     * @param   aVirtualOffset  long with the virtual offset.
+     * @exception   IOException when seeking failed.
+     */
+    public void seek(long aVirtualOffset) throws IOException {
+        if(iFileIn == null) {
+            throw new IOException("Seeking is only supported on BGZF streams opened on a file!");
+        }
+        this.cancelPending();
+        iReadPosition = aVirtualOffset >>> 16;
+        iFileIn.getChannel().position(iReadPosition);
+        iEOF = false;
+        iCurrent = null;
+        iPos = 0;
+        int inBlock = (int)(aVirtualOffset & 0xffff);
+        if(inBlock > 0) {
+            if(!this.nextBlock() || inBlock > iCurrent.iLength) {
+                throw new IOException("Invalid virtual offset " + aVirtualOffset + "!");
+            }
+            iPos = inBlock;
+        }
+    }
+
+    /**
+     * This method returns the virtual offset of the next byte to be read.
+     *
+     * @return  long    with the virtual offset.
+     */
+    public long getVirtualOffset() {
+        if(iCurrent != null && iPos < iCurrent.iLength) {
+            return (iCurrent.iStart << 16) | iPos;
+        } else if(iCurrent != null) {
+            return (iCurrent.iStart + iCurrent.iSize) << 16;
+        } else {
+            return iReadPosition << 16;
+        }
+    }
+
+    public int read() throws IOException {
+        while(iCurrent == null || iPos >= iCurrent.iLength) {
+            if(!this.nextBlock()) {
+                return -1;
+            }
+        }
+        return iCurrent.iData[iPos++] & 0xff;
+    }
+
+    public int read(byte[] aBytes, int aOffset, int aLength) throws IOException {
+        if(aLength == 0) {
+            return 0;
+        }
+        while(iCurrent == null || iPos >= iCurrent.iLength) {
+            if(!this.nextBlock()) {
+                return -1;
+            }
+        }
+        int count = Math.min(aLength, iCurrent.iLength - iPos);
+        System.arraycopy(iCurrent.iData, iPos, aBytes, aOffset, count);
+        iPos += count;
+        return count;
+    }
+
+    public int available() throws IOException {
+        return (iCurrent == null)?0:iCurrent.iLength - iPos;
+    }
+
+    public void close() throws IOException {
+        this.cancelPending();
+        if(iExecutor != null) {
+            iExecutor.shutdownNow();
+            iExecutor = null;
+        }
+        iIn.close();
+    }
+
+    /**
+     * This method moves on to the next block.
+     *
+     * @return  boolean 'false' if there are no more blocks.
+     * @exception   IOException when reading or inflating failed.
+     */
+    private boolean nextBlock() throws IOException {
+        if(iCurrent != null) {
+            iUncompressedPosition += iCurrent.iLength;
+        }
+        Block block = null;
+        if(iThreads == 1) {
+            Inflate task = this.readBlock();
+            block = (task == null)?null:task.inflate();
+        } else {
+            if(iExecutor == null) {
+                iExecutor = Executors.newFixedThreadPool(iThreads, new ThreadFactory() {
+                    public Thread newThread(Runnable aRunnable) {
+                        Thread t = new Thread(aRunnable, "BGZF inflater");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+            }
+            // Keep the pool busy with read-ahead blocks.
+            while(!iEOF && iPending.size() < 2*iThreads) {
+                Inflate task = this.readBlock();
+                if(task != null) {
+                    iPending.add(iExecutor.submit(task));
+                }
+            }
+            if(!iPending.isEmpty()) {
+                try {
+                    block = (Block)((Future)iPending.removeFirst()).get();
+                } catch(InterruptedException ie) {
+                    throw new IOException("Interrupted while inflating BGZF block!");
+                } catch(ExecutionException ee) {
+                    if(ee.getCause() instanceof IOException) {
+                        throw (IOException)ee.getCause();
+                    }
+                    throw new IOException("Unable to inflate BGZF block: " + ee.getCause());
+                }
+            }
+        }
+        iCurrent = block;
+        iPos = 0;
+        if(block != null && iBlockTable != null) {
+            if(iBlockTableSize == iBlockTable.length) {
+                long[] temp = new long[iBlockTable.length*2];
+                System.arraycopy(iBlockTable, 0, temp, 0, iBlockTableSize);
+                iBlockTable = temp;
+            }
+            iBlockTable[iBlockTableSize++] = block.iStart;
+            iBlockTable[iBlockTableSize++] = iUncompressedPosition;
+        }
+        return block != null;
+    }
+
+    /**
+     * This method reads the next compressed block from the stream.
+     *
+     * @return  Inflate with the task to inflate the block, or 'null' at the end of the data.
+     * @exception   IOException when the block could not be read.
+     */
+    private Inflate readBlock() throws IOException {
+        byte[] header = new byte[BGZFOutputStream.HEADER_LENGTH];
+        int read = readFully(iIn, header, 0, header.length);
+        if(read == 0) {
+            iEOF = true;
+            return null;
+        }
+        int size = getBlockSize(header);
+        if(read < header.length || size < 0) {
+            throw new IOException("Invalid BGZF block header at offset " + iReadPosition + "!");
+        }
+        byte[] block = new byte[size];
+        System.arraycopy(header, 0, block, 0, header.length);
+        if(readFully(iIn, block, header.length, size - header.length) < size - header.length) {
+            throw new IOException("Truncated BGZF block at offset " + iReadPosition + "!");
+        }
+        Inflate task = new Inflate(block, iReadPosition);
+        iReadPosition += size;
+        return task;
+    }
+
+    /**
+     * This method cancels the read-ahead blocks.
+     */
+    private void cancelPending() {
+        while(!iPending.isEmpty()) {
+            ((Future)iPending.removeFirst()).cancel(true);
+        }
+    }
+
+    /**
+     * This method returns the total size of the block from a BGZF header.
+     *
+     * @param   aHeader byte[] with the block header.
+     * @return  int with the block size, or -1 if this is not a BGZF header.
+     */
+    private static int getBlockSize(byte[] aHeader) {
+        if((aHeader[0] & 0xff) != 31 || (aHeader[1] & 0xff) != 139 || aHeader[2] != 8 || (aHeader[3] & 4) == 0) {
+            return -1;
+        }
+        int xlen = (aHeader[10] & 0xff) | ((aHeader[11] & 0xff) << 8);
+        if(xlen != 6 || aHeader[12] != 66 || aHeader[13] != 67 || aHeader[14] != 2 || aHeader[15] != 0) {
+            return -1;
+        }
+        return ((aHeader[16] & 0xff) | ((aHeader[17] & 0xff) << 8)) + 1;
+    }
+
+    /**
+     * This method reads as many bytes as requested, unless the end of the stream is reached.
+     *
+     * @return  int with the number of bytes read.
+     */
+    private static int readFully(InputStream aIn, byte[] aBytes, int aOffset, int aLength) throws IOException {
+        int total = 0;
+        while(total < aLength) {
+            int read = aIn.read(aBytes, aOffset + total, aLength - total);
+            if(read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * This class holds an inflated block.
+     */
+    private static class Block {
+        private byte[] iData = null;
+        private int iLength = 0;
+        private long iStart = 0;
+        private int iSize = 0;
+
+        public Block(byte[] aData, int aLength, long aStart, int aSize) {
+            this.iData = aData;
+            this.iLength = aLength;
+            this.iStart = aStart;
+            this.iSize = aSize;
+        }
+    }
+
+    /**
+     * This class inflates a single compressed block.
+     */
+    private static class Inflate implements Callable {
+        private byte[] iBlock = null;
+        private long iStart = 0;
+
+        public Inflate(byte[] aBlock, long aStart) {
+            this.iBlock = aBlock;
+            this.iStart = aStart;
+        }
+
+        public Object call() throws Exception {
+            return this.inflate();
+        }
+
+        public Block inflate() throws IOException {
+            int size = iBlock.length;
+            int crc = readInt(iBlock, size - 8);
+            int length = readInt(iBlock, size - 4);
+            byte[] data = new byte[length];
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(iBlock, BGZFOutputStream.HEADER_LENGTH, size - BGZFOutputStream.HEADER_LENGTH - 8);
+                int inflated = 0;
+                while(inflated < length && !inflater.finished()) {
+                    int count = inflater.inflate(data, inflated, length - inflated);
+                    if(count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+                if(inflated != length) {
+                    throw new IOException("BGZF block at offset " + iStart + " inflated to " + inflated + " instead of " + length + " bytes!");
+                }
+            } catch(DataFormatException dfe) {
+                throw new IOException("Corrupt BGZF block at offset " + iStart + ": " + dfe.getMessage());
+            } finally {
+                inflater.end();
+            }
+            CRC32 check = new CRC32();
+            check.update(data, 0, length);
+            if((int)check.getValue() != crc) {
+                throw new IOException("CRC error in BGZF block at offset " + iStart + "!");
+            }
+            return new Block(data, length, iStart, size);
+        }
+
+        private static int readInt(byte[] aBytes, int aOffset) {
+            return (aBytes[aOffset] & 0xff) | ((aBytes[aOffset+1] & 0xff) << 8) | ((aBytes[aOffset+2] & 0xff) << 16) | ((aBytes[aOffset+3] & 0xff) << 24);
+        }
+    }
+}
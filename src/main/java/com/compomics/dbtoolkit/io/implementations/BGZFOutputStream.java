@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 19:41:09
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 19:41:09 $
+ */
+
+/**
+ * This class writes BGZF (blocked GZIP) data. BGZF files consist of a series of
+ * independent GZIP members of at most 64 KB each, which carry their own compressed size
+ * in a 'BC' extra field. They can be read by any GZIP reader, but also allow random
+ * access through 'virtual offsets': the start of a compressed block in the file,
+ * shifted left by 16 bits, combined with an offset in the uncompressed block. <br />
+ * The stream is terminated by the standard empty BGZF block when it is closed.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.BGZFInputStream
+ */
+public class BGZFOutputStream extends FilterOutputStream {
+
+    /**
+     * The maximal number of uncompressed bytes in a block.
+     */
+    public static final int BLOCK_SIZE = 0xff00;
+
+    /**
+     * The standard (empty) BGZF end-of-file block.
+     */
+    static final byte[] EOF_BLOCK = new byte[] {
+        31, (byte)139, 8, 4, 0, 0, 0, 0, 0, (byte)255, 6, 0, 66, 67, 2, 0, 27, 0, 3, 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    /**
+     * The length of the BGZF block header.
+     */
+    static final int HEADER_LENGTH = 18;
+
+    /**
+     * The uncompressed data for the current block.
+     */
+    private byte[] iBuffer = new byte[BLOCK_SIZE];
+
+    /**
+     * The number of bytes in the current block.
+     */
+    private int iCount = 0;
+
+    /**
+     * The buffer for the compressed data.
+     */
+    private byte[] iCompressed = new byte[BLOCK_SIZE + 1024];
+
+    /**
+     * The number of compressed bytes written so far.
+     */
+    private long iCompressedPosition = 0;
+
+    /**
+     * The deflater.
+     */
+    private Deflater iDeflater = null;
+
+    /**
+     * The checksum calculator.
+     */
+    private CRC32 iCrc = new CRC32();
+
+    /**
+     * This boolean is set when the stream has been closed.
+     */
+    private boolean iClosed = false;
+
+    /**
+     * This constructor takes the stream to write the compressed data to, using the
+     * default compression level.
+     *
+     * @param   aOut    OutputStream to write to.
+     */
+    public BGZFOutputStream(OutputStream aOut) {
+        this(aOut, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * This constructor takes the stream to write the compressed data to,
+     * and the compression level.
+     *
+     * @param   aOut    OutputStream to write to.
+     * @param   aLevel  int with the compression level (0-9, or -1 for the default).
+     */
+    public BGZFOutputStream(OutputStream aOut, int aLevel) {
+        super(aOut);
+        iDeflater = new Deflater(aLevel, true);
+    }
+
+    public void write(int aByte) throws IOException {
+        if(iCount == BLOCK_SIZE) {
+            this.writeBlock();
+        }
+        iBuffer[iCount++] = (byte)aByte;
+    }
+
+    public void write(byte[] aBytes, int aOffset, int aLength) throws IOException {
+        while(aLength > 0) {
+            if(iCount == BLOCK_SIZE) {
+                this.writeBlock();
+            }
+            int chunk = Math.min(aLength, BLOCK_SIZE - iCount);
+            System.arraycopy(aBytes, aOffset, iBuffer, iCount, chunk);
+            iCount += chunk;
+            aOffset += chunk;
+            aLength -= chunk;
+        }
+    }
+
+    /**
+     * This method returns the virtual offset of the next byte to be written.
+     *
+     * @return  long    with the virtual offset.
+     */
+    public long getVirtualOffset() {
+        return (iCompressedPosition << 16) | iCount;
+    }
+
+    /**
+     * Flushing completes the current block, so that everything written so far
+     * can be read back.
+     *
+     * @exception   IOException when writing failed.
+     */
+    public void flush() throws IOException {
+        if(iCount > 0) {
+            this.writeBlock();
+        }
+        out.flush();
+    }
+
+    /**
+     * This method writes the last block and the end-of-file marker, and closes
+     * the underlying stream.
+     *
+     * @exception   IOException when writing failed.
+     */
+    public void close() throws IOException {
+        if(!iClosed) {
+            iClosed = true;
+            if(iCount > 0) {
+                this.writeBlock();
+            }
+            out.write(EOF_BLOCK);
+            iCompressedPosition += EOF_BLOCK.length;
+            out.flush();
+            out.close();
+            iDeflater.end();
+        }
+    }
+
+    /**
+     * This method compresses and writes the current block.
+     *
+     * @exception   IOException when writing failed.
+     */
+    private void writeBlock() throws IOException {
+        iDeflater.reset();
+        iDeflater.setInput(iBuffer, 0, iCount);
+        iDeflater.finish();
+        int compressedLength = 0;
+        while(!iDeflater.finished()) {
+            if(compressedLength == iCompressed.length) {
+                byte[] temp = new byte[iCompressed.length*2];
+                System.arraycopy(iCompressed, 0, temp, 0, compressedLength);
+                iCompressed = temp;
+            }
+            compressedLength += iDeflater.deflate(iCompressed, compressedLength, iCompressed.length - compressedLength);
+        }
+        int blockSize = HEADER_LENGTH + compressedLength + 8;
+        if(blockSize > 65536) {
+            // Can only happen with incompressible data at compression level 0;
+            // split the block in two.
+            int half = iCount/2;
+            byte[] second = new byte[iCount - half];
+            System.arraycopy(iBuffer, half, second, 0, second.length);
+            iCount = half;
+            this.writeBlock();
+            System.arraycopy(second, 0, iBuffer, 0, second.length);
+            iCount = second.length;
+            this.writeBlock();
+            return;
+        }
+        iCrc.reset();
+        iCrc.update(iBuffer, 0, iCount);
+
+        byte[] header = new byte[] {31, (byte)139, 8, 4, 0, 0, 0, 0, 0, (byte)255, 6, 0, 66, 67, 2, 0, 0, 0};
+        header[16] = (byte)((blockSize - 1) & 0xff);
+        header[17] = (byte)(((blockSize - 1) >> 8) & 0xff);
+        out.write(header);
+        out.write(iCompressed, 0, compressedLength);
+        this.writeInt((int)iCrc.getValue());
+        this.writeInt(iCount);
+        iCompressedPosition += blockSize;
+        iCount = 0;
+    }
+
+    /**
+     * This method writes a little-endian int.
+     *
+     * @param   aValue  int to write.
+     * @exception   IOException when writing failed.
+     */
+    private void writeInt(int aValue) throws IOException {
+        out.write(aValue & 0xff);
+        out.write((aValue >> 8) & 0xff);
+        out.write((aValue >> 16) & 0xff);
+        out.write((aValue >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 07:31:16
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.ProteinFilter;
+import com.compomics.util.protein.Protein;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 07:31:16 $
+ */
+
+/**
+ * This class implements the ProteinFilter interface for a tree of ProteinFilterCollections
+ * (such as the one created by the QueryParser) of which the ProteinSequenceFilter leaves
+ * are matched together. <br />
+ * All literal sequence elements of the tree are compiled into a single SequenceTermMatcher,
+ * so that a single pass over the protein sequence finds all of them. The boolean logic of
+ * the tree is then evaluated on the resulting BitSet. Other ProteinFilters in the tree
+ * (eg., regular expressions or residu counts) are evaluated as before, after the sequence
+ * elements in the same ProteinFilterCollection.
+ *
+ * @author Lennart Martens
+ */
+public class CompiledProteinFilter implements ProteinFilter {
+
+    /**
+     * The ProteinFilter that was compiled.
+     */
+    private ProteinFilter iOriginal = null;
+
+    /**
+     * The root of the compiled tree.
+     */
+    private Node iRoot = null;
+
+    /**
+     * The SequenceTermMatcher for all literal sequence elements.
+     */
+    private SequenceTermMatcher iMatcher = null;
+
+    /**
+     * This boolean indicates whether the result should be inverted.
+     */
+    private boolean iInvert = false;
+
+    /**
+     * This method compiles the specified ProteinFilter (typically a tree of
+     * ProteinFilterCollections) when it holds at least two literal sequence elements.
+     *
+     * @param   aFilter ProteinFilter to compile.
+     * @return  ProteinFilter   that yields the same result as the specified ProteinFilter,
+     *                          which is returned as is when compiling does not pay off.
+     */
+    public static ProteinFilter compile(ProteinFilter aFilter) {
+        ArrayList terms = new ArrayList();
+        Node root = toNode(aFilter, terms);
+        if(terms.size() < 2) {
+            return aFilter;
+        }
+        return new CompiledProteinFilter(aFilter, root, new SequenceTermMatcher((String[])terms.toArray(new String[terms.size()])));
+    }
+
+    /**
+     * This constructor takes the original ProteinFilter, the root of the compiled tree
+     * and the SequenceTermMatcher for its sequence elements.
+     *
+     * @param   aOriginal   ProteinFilter that was compiled.
+     * @param   aRoot   Node with the root of the compiled tree.
+     * @param   aMatcher    SequenceTermMatcher for the sequence elements.
+     */
+    private CompiledProteinFilter(ProteinFilter aOriginal, Node aRoot, SequenceTermMatcher aMatcher) {
+        this.iOriginal = aOriginal;
+        this.iRoot = aRoot;
+        this.iMatcher = aMatcher;
+    }
+
+    /**
+     * This method returns a flag that indicates whether the specified instance
+     * passes the filter.
+     *
+     * @param   aProtein    Protein instance to check against the filter.
+     * @return  boolean 'true' if the specified Protein passes the filter, 'false' otherwise.
+     */
+    public boolean passesFilter(Protein aProtein) {
+        String sequence = aProtein.getSequence().getSequence();
+        int initMetOffset = sequence.startsWith("M")?iMatcher.getTermCount():0;
+        boolean result = iRoot.evaluate(aProtein, iMatcher.match(sequence), initMetOffset);
+        if(iInvert) {
+            result = !result;
+        }
+        return result;
+    }
+
+    /**
+     * This method sets the inversion flag on a ProteinFilter.
+     *
+     * @param   aInvert boolean to indicate whether the results from this filter should be inverted.
+     */
+    public void setInversion(boolean aInvert) {
+        this.iInvert = aInvert;
+    }
+
+    /**
+     * This method returns the number of sequence elements matched in a single pass.
+     *
+     * @return  int with the number of sequence elements.
+     */
+    public int getTermCount() {
+        return iMatcher.getTermCount();
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  a string representation of the object.
+     */
+    public String toString() {
+        return "CompiledProteinFilter matching " + this.getTermCount() + " sequence elements in a single pass" + (iInvert?" (inverted)":"") + " for " + iOriginal;
+    }
+
+    /**
+     * This method converts the specified ProteinFilter into a Node of the compiled tree,
+     * adding the literal sequence elements it holds to the specified list.
+     *
+     * @param   aFilter ProteinFilter to convert.
+     * @param   aTerms  ArrayList to add the sequence elements to.
+     * @return  Node    for the ProteinFilter.
+     */
+    private static Node toNode(ProteinFilter aFilter, ArrayList aTerms) {
+        if(aFilter instanceof ProteinSequenceFilter) {
+            ProteinSequenceFilter psf = (ProteinSequenceFilter)aFilter;
+            // Empty sequence elements always match, and are left as they are.
+            if(!psf.isRegularExpression() && psf.getSequenceMatch().length() > 0) {
+                int index = aTerms.indexOf(psf.getSequenceMatch());
+                if(index < 0) {
+                    index = aTerms.size();
+                    aTerms.add(psf.getSequenceMatch());
+                }
+                return new TermNode(index, psf.isInclusive(), psf.isInitMetCounted());
+            }
+        } else if(aFilter instanceof ProteinFilterCollection) {
+            ProteinFilterCollection pfc = (ProteinFilterCollection)aFilter;
+            if(pfc.getMode() == ProteinFilterCollection.AND || pfc.getMode() == ProteinFilterCollection.OR) {
+                // Children that only look up sequence elements go first; the others keep their order.
+                ArrayList cheap = new ArrayList();
+                ArrayList others = new ArrayList();
+                for(int i = 0; i < pfc.size(); i++) {
+                    Object temp = pfc.get(i);
+                    if(temp instanceof ProteinFilter) {
+                        Node child = toNode((ProteinFilter)temp, aTerms);
+                        if(child.isCheap()) {
+                            cheap.add(child);
+                        } else {
+                            others.add(child);
+                        }
+                    }
+                }
+                cheap.addAll(others);
+                return new CollectionNode(pfc.getMode() == ProteinFilterCollection.OR, pfc.isInverted(), (Node[])cheap.toArray(new Node[cheap.size()]));
+            }
+        }
+        return new FilterNode(aFilter);
+    }
+
+    /**
+     * This class represents a node in the compiled tree.
+     */
+    private static abstract class Node {
+
+        /**
+         * This method evaluates the node.
+         *
+         * @param   aProtein    Protein to evaluate.
+         * @param   aMatched    BitSet with the sequence elements found (see SequenceTermMatcher).
+         * @param   aInitMetOffset  int with the offset of the bits for the matches past the first residue
+         *                          when the sequence starts with a methionine, 0 otherwise.
+         * @return  boolean with the result.
+         */
+        public abstract boolean evaluate(Protein aProtein, BitSet aMatched, int aInitMetOffset);
+
+        /**
+         * This method reports on whether the node only looks up sequence elements.
+         *
+         * @return  boolean that is 'true' when no other ProteinFilter is evaluated.
+         */
+        public abstract boolean isCheap();
+    }
+
+    /**
+     * This class represents a literal sequence element.
+     */
+    private static class TermNode extends Node {
+
+        private int iIndex = 0;
+        private boolean iInclusive = true;
+        private boolean iInitMetCounts = true;
+
+        public TermNode(int aIndex, boolean aInclusive, boolean aInitMetCounts) {
+            this.iIndex = aIndex;
+            this.iInclusive = aInclusive;
+            this.iInitMetCounts = aInitMetCounts;
+        }
+
+        public boolean evaluate(Protein aProtein, BitSet aMatched, int aInitMetOffset) {
+            // Without the initiator Met, only the matches past the first residue count.
+            return aMatched.get(iInitMetCounts?iIndex:iIndex + aInitMetOffset) == iInclusive;
+        }
+
+        public boolean isCheap() {
+            return true;
+        }
+    }
+
+    /**
+     * This class represents a ProteinFilterCollection.
+     */
+    private static class CollectionNode extends Node {
+
+        private boolean iDecisive = false;
+        private boolean iInvert = false;
+        private Node[] iChildren = null;
+        private boolean iCheap = true;
+
+        public CollectionNode(boolean aOR, boolean aInvert, Node[] aChildren) {
+            this.iDecisive = aOR;
+            this.iInvert = aInvert;
+            this.iChildren = aChildren;
+            for(int i = 0; i < aChildren.length; i++) {
+                iCheap &= aChildren[i].isCheap();
+            }
+        }
+
+        public boolean evaluate(Protein aProtein, BitSet aMatched, int aInitMetOffset) {
+            boolean result = !iDecisive;
+            for(int i = 0; i < iChildren.length; i++) {
+                if(iChildren[i].evaluate(aProtein, aMatched, aInitMetOffset) == iDecisive) {
+                    result = iDecisive;
+                    break;
+                }
+            }
+            return result != iInvert;
+        }
+
+        public boolean isCheap() {
+            return iCheap;
+        }
+    }
+
+    /**
+     * This class represents any other ProteinFilter.
+     */
+    private static class FilterNode extends Node {
+
+        private ProteinFilter iFilter = null;
+
+        public FilterNode(ProteinFilter aFilter) {
+            this.iFilter = aFilter;
+        }
+
+        public boolean evaluate(Protein aProtein, BitSet aMatched, int aInitMetOffset) {
+            return iFilter.passesFilter(aProtein);
+        }
+
+        public boolean isCheap() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,810 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 03:24:50
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.UnknownDBFormatException;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.util.protein.Protein;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 03:24:50 $
+ */
+
+/**
+ * This class implements a DBLoader that presents a set of DB files ('shards') as a
+ * single DB. The shards can be of mixed formats (each is read by the loader the
+ * AutoDBLoader finds for it), and are specified as:
+ * <ul>
+ *   <li>a directory: all DB files in it (files of an unknown format and index files are skipped),</li>
+ *   <li>a glob pattern on the file name, eg. 'uniprot/*.fasta.gz' ('*' and '?' are supported),</li>
+ *   <li>'@' followed by the name of a list file, holding one DB file per line (relative names
+ *       are taken relative to the list file; blank lines and lines starting with '#' are skipped).</li>
+ * </ul>
+ * The shards in a directory or matching a glob pattern are read in the order of their
+ * names, those in a list file in the order in which they are listed. When all shards share a format, the
+ * composite DB has that format; a mixed set is presented as a FASTA DB, so raw entries
+ * are FASTA entries and Filters are applied to the FASTA entries. <br />
+ * In parallel mode (see 'setParallel', or ParallelDBLoader.wrap), the shards are read
+ * concurrently on a pool of worker threads. Entries can then be delivered in shard order, or
+ * in the order in which they are read, which interleaves the shards. As with the
+ * ParallelDBLoader, the kind of entry and the Filter are fixed by the first call to one of
+ * the 'next' methods until the next 'reset', and Filters should be thread-safe. <br />
+ * Counting, resetting and progress span the whole set of shards.
+ *
+ * @author Lennart Martens
+ */
+public class CompositeDBLoader implements DBLoader {
+
+    /**
+     * The prefix that marks a list file.
+     */
+    public static final String LIST_PREFIX = "@";
+
+    /**
+     * The number of entries each worker can read ahead.
+     */
+    private static final int QUEUE_SIZE = 1024;
+
+    /**
+     * Code for the delivery of raw entries.
+     */
+    private static final int RAW = 0;
+
+    /**
+     * Code for the delivery of FASTA entries.
+     */
+    private static final int FASTA = 1;
+
+    /**
+     * Code for the delivery of Protein instances.
+     */
+    private static final int PROTEIN = 2;
+
+    /**
+     * Code for the delivery of ProteinRecord instances.
+     */
+    private static final int RECORD = 3;
+
+    /**
+     * Marks the end of a shard in a queue.
+     */
+    private static final Object END = new Object();
+
+    /**
+     * The AutoDBLoader that finds the loader for each shard.
+     */
+    private AutoDBLoader iAuto = null;
+
+    /**
+     * The name of the set of shards, as specified.
+     */
+    private String iName = null;
+
+    /**
+     * The loaders for the shards.
+     */
+    private DBLoader[] iShards = new DBLoader[0];
+
+    /**
+     * The number of entries in each shard, once counted.
+     */
+    private long[] iCounts = null;
+
+    /**
+     * Whether the shards are of mixed formats.
+     */
+    private boolean iMixed = false;
+
+    /**
+     * The shard currently being read (sequential mode only).
+     */
+    private int iCurrent = 0;
+
+    /**
+     * The number of worker threads; 1 for sequential mode.
+     */
+    private int iThreads = 1;
+
+    /**
+     * Whether the entries should be delivered in shard order in parallel mode.
+     */
+    private boolean iOrdered = true;
+
+    /**
+     * The worker pool. Only non-null while parallel reading is in progress.
+     */
+    private ExecutorService iExecutor = null;
+
+    /**
+     * The queues the workers deliver into: one per shard for ordered delivery,
+     * a single shared one otherwise.
+     */
+    private BlockingQueue[] iQueues = null;
+
+    /**
+     * The number of shards that have been read completely (parallel mode).
+     */
+    private int iFinished = 0;
+
+    /**
+     * The cancellation flag shared with the current workers.
+     */
+    private Cancellation iCancellation = null;
+
+    /**
+     * The kind of entries being delivered in parallel mode, or -1 when reading has not started.
+     */
+    private int iMode = -1;
+
+    /**
+     * The filter applied by the workers, if any.
+     */
+    private Filter iFilter = null;
+
+    /**
+     * This constructor takes the AutoDBLoader that determines the loader for each shard.
+     *
+     * @param   aAuto   AutoDBLoader to find the loader for each shard with.
+     */
+    public CompositeDBLoader(AutoDBLoader aAuto) {
+        this.iAuto = aAuto;
+    }
+
+    /**
+     * This method reports whether the specified name denotes a set of shards
+     * rather than a single DB file.
+     *
+     * @param   aName   String with the name to check.
+     * @return  boolean 'true' for a list file, a glob pattern or a directory.
+     */
+    public static boolean isShardSet(String aName) {
+        if(aName == null) {
+            return false;
+        }
+        return aName.startsWith(LIST_PREFIX) || isGlob(new File(aName).getName()) || new File(aName).isDirectory();
+    }
+
+    /**
+     * This method lists the DB files in the specified set of shards, in reading order.
+     * For directories, all regular, non-hidden files are returned (except index files).
+     *
+     * @param   aName   String with the list file, glob pattern or directory.
+     * @return  File[]  with the shards.
+     * @exception   IOException when the list file could not be read, a listed file does
+     *                          not exist, or the directory could not be listed.
+     */
+    public static File[] listShards(String aName) throws IOException {
+        File[] result = null;
+        if(aName.startsWith(LIST_PREFIX)) {
+            File list = new File(aName.substring(LIST_PREFIX.length()));
+            if(!list.exists()) {
+                throw new IOException("List file '" + list + "' not found!");
+            }
+            File parent = list.getAbsoluteFile().getParentFile();
+            ArrayList files = new ArrayList();
+            BufferedReader br = new BufferedReader(new FileReader(list));
+            try {
+                String line = null;
+                while((line = br.readLine()) != null) {
+                    line = line.trim();
+                    if(line.equals("") || line.startsWith("#")) {
+                        continue;
+                    }
+                    File file = new File(line);
+                    if(!file.isAbsolute()) {
+                        file = new File(parent, line);
+                    }
+                    if(!file.exists()) {
+                        throw new IOException("File '" + line + "' listed in '" + list + "' not found!");
+                    }
+                    files.add(file);
+                }
+            } finally {
+                br.close();
+            }
+            // List files keep the order in which the shards are listed.
+            return (File[])files.toArray(new File[files.size()]);
+        } else if(isGlob(new File(aName).getName())) {
+            File pattern = new File(aName);
+            File parent = pattern.getAbsoluteFile().getParentFile();
+            final Pattern regex = toRegex(pattern.getName());
+            result = parent.listFiles(new FileFilter() {
+                public boolean accept(File aFile) {
+                    return aFile.isFile() && !aFile.isHidden() && !aFile.getName().endsWith(EntryIndex.EXTENSION) && regex.matcher(aFile.getName()).matches();
+                }
+            });
+        } else {
+            result = new File(aName).listFiles(new FileFilter() {
+                public boolean accept(File aFile) {
+                    return aFile.isFile() && !aFile.isHidden() && !aFile.getName().endsWith(EntryIndex.EXTENSION);
+                }
+            });
+        }
+        if(result == null) {
+            throw new IOException("Unable to list the files in '" + aName + "'!");
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * This method sets the number of worker threads that read the shards concurrently.
+     *
+     * @param   aThreads    int with the number of worker threads; 1 reads the shards one
+     *                      after the other.
+     * @param   aOrdered    boolean to indicate whether entries should be delivered in shard order.
+     */
+    public void setParallel(int aThreads, boolean aOrdered) {
+        if(aThreads < 1) {
+            throw new IllegalArgumentException("The number of threads should be positive!");
+        }
+        this.shutdown();
+        this.iThreads = aThreads;
+        this.iOrdered = aOrdered;
+    }
+
+    /**
+     * This method loads the specified set of shards.
+     *
+     * @param   aFilename   String with the list file, glob pattern or directory.
+     * @exception   IOException when the shards could not be listed or loaded, or when
+     *                          no shards were found.
+     */
+    public void load(String aFilename) throws IOException {
+        this.close();
+        File[] files = listShards(aFilename);
+        boolean directory = new File(aFilename).isDirectory();
+        ArrayList shards = new ArrayList(files.length);
+        try {
+            for(int i = 0; i < files.length; i++) {
+                try {
+                    shards.add(iAuto.getLoaderForFile(files[i].getPath()));
+                } catch(UnknownDBFormatException udfe) {
+                    // Directories can hold other files as well.
+                    if(!directory) {
+                        throw new IOException("Unable to determine the DB format of '" + files[i] + "' in '" + aFilename + "'!");
+                    }
+                }
+            }
+        } catch(IOException ioe) {
+            for(int i = 0; i < shards.size(); i++) {
+                ((DBLoader)shards.get(i)).close();
+            }
+            throw ioe;
+        }
+        if(shards.size() == 0) {
+            throw new IOException("No DB files found in '" + aFilename + "'!");
+        }
+        iName = aFilename;
+        iShards = (DBLoader[])shards.toArray(new DBLoader[shards.size()]);
+        iCounts = null;
+        iCurrent = 0;
+        iMixed = false;
+        for(int i = 1; i < iShards.length; i++) {
+            if(!iShards[i].getDBName().equals(iShards[0].getDBName())) {
+                iMixed = true;
+            }
+        }
+    }
+
+    /**
+     * A set of shards can not be read from a stream, so this method always throws an IOException.
+     *
+     * @param   aIn InputStream to read the DB from.
+     * @param   aName   String with a name for the stream, used in messages.
+     * @exception   IOException always.
+     */
+    public void load(InputStream aIn, String aName) throws IOException {
+        throw new IOException("Unable to read '" + aName + "' as a set of DB files, since it is a stream!");
+    }
+
+    /**
+     * This method returns the loaders for the shards, in reading order.
+     *
+     * @return  DBLoader[]  with the loaders for the shards.
+     */
+    public DBLoader[] getShards() {
+        return iShards;
+    }
+
+    public String nextRawEntry() throws IOException {
+        return (String)this.next(RAW, null);
+    }
+
+    public String nextFASTAEntry() throws IOException {
+        return (String)this.next(FASTA, null);
+    }
+
+    public String nextFilteredRawEntry(Filter aFilter) throws IOException {
+        return (String)this.next(RAW, aFilter);
+    }
+
+    public String nextFilteredFASTAEntry(Filter aFilter) throws IOException {
+        return (String)this.next(FASTA, aFilter);
+    }
+
+    public Protein nextProtein() throws IOException {
+        return (Protein)this.next(PROTEIN, null);
+    }
+
+    public Protein nextFilteredProtein(Filter aFilter) throws IOException {
+        return (Protein)this.next(PROTEIN, aFilter);
+    }
+
+    public DBRecord nextRecord() throws IOException {
+        return (DBRecord)this.next(RECORD, null);
+    }
+
+    /**
+     * This method reports the format of the shards, or FASTA for a set of mixed formats.
+     *
+     * @return  String  with the name of the DB format.
+     */
+    public String getDBName() {
+        if(iMixed || iShards.length == 0) {
+            return DBLoader.FASTA;
+        }
+        return iShards[0].getDBName();
+    }
+
+    /**
+     * This method counts the entries in all the shards (concurrently, in parallel mode).
+     * Like for the other loaders, counting resets the loader.
+     *
+     * @return  long    with the total number of entries, or CANCELLEDCOUNT when the count was cancelled.
+     * @exception   IOException when one of the shards could not be read.
+     */
+    public long countNumberOfEntries() throws IOException {
+        this.shutdown();
+        long[] counts = new long[iShards.length];
+        if(iThreads > 1 && iShards.length > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(iThreads, iShards.length), new WorkerFactory());
+            try {
+                Future[] futures = new Future[iShards.length];
+                for(int i = 0; i < iShards.length; i++) {
+                    final DBLoader shard = iShards[i];
+                    futures[i] = executor.submit(new Callable() {
+                        public Object call() throws Exception {
+                            return new Long(shard.countNumberOfEntries());
+                        }
+                    });
+                }
+                for(int i = 0; i < futures.length; i++) {
+                    counts[i] = ((Long)futures[i].get()).longValue();
+                }
+            } catch(InterruptedException ie) {
+                throw new IOException("Interrupted while counting the entries in '" + iName + "'!");
+            } catch(ExecutionException ee) {
+                throw toIOException(ee.getCause());
+            } finally {
+                executor.shutdown();
+            }
+        } else {
+            for(int i = 0; i < iShards.length; i++) {
+                counts[i] = iShards[i].countNumberOfEntries();
+            }
+        }
+        long total = 0;
+        for(int i = 0; i < counts.length; i++) {
+            if(counts[i] == DBLoader.CANCELLEDCOUNT) {
+                return DBLoader.CANCELLEDCOUNT;
+            }
+            total += counts[i];
+        }
+        iCounts = counts;
+        iCurrent = 0;
+        return total;
+    }
+
+    /**
+     * This method reports whether all the shards are indexed.
+     *
+     * @return  boolean 'true' if every shard has an index.
+     */
+    public boolean hasIndex() {
+        boolean result = iShards.length > 0;
+        for(int i = 0; i < iShards.length && result; i++) {
+            result = iShards[i].hasIndex();
+        }
+        return result;
+    }
+
+    /**
+     * This method returns the entry at the specified position in the whole set, counting
+     * the shards in reading order. The first call counts the entries in each shard, which
+     * resets the loader.
+     *
+     * @param   aOrdinal    long with the position of the entry.
+     * @return  Protein with the entry, or 'null' if the position is out of range.
+     * @exception   IOException when the shards could not be read.
+     */
+    public Protein getEntryAt(long aOrdinal) throws IOException {
+        if(iCounts == null && this.countNumberOfEntries() == DBLoader.CANCELLEDCOUNT) {
+            throw new IOException("Counting the entries in '" + iName + "' was cancelled!");
+        }
+        Protein result = null;
+        long ordinal = aOrdinal;
+        for(int i = 0; i < iShards.length && ordinal >= 0 && result == null; i++) {
+            if(ordinal < iCounts[i]) {
+                result = iShards[i].getEntryAt(ordinal);
+            }
+            ordinal -= iCounts[i];
+        }
+        return result;
+    }
+
+    /**
+     * This method returns the first entry with the specified accession number,
+     * searching the shards in reading order.
+     *
+     * @param   aAccession  String with the accession number.
+     * @return  Protein with the entry, or 'null' if none of the shards holds it.
+     * @exception   IOException when the shards could not be read.
+     */
+    public Protein getEntryByAccession(String aAccession) throws IOException {
+        Protein result = null;
+        for(int i = 0; i < iShards.length && result == null; i++) {
+            result = iShards[i].getEntryByAccession(aAccession);
+        }
+        return result;
+    }
+
+    /**
+     * This method stops all reading in progress and resets all the shards.
+     *
+     * @exception   IOException when one of the shards could not be reset.
+     */
+    public void reset() throws IOException {
+        this.shutdown();
+        for(int i = 0; i < iShards.length; i++) {
+            iShards[i].reset();
+        }
+        iCurrent = 0;
+    }
+
+    public void cancelCount() {
+        for(int i = 0; i < iShards.length; i++) {
+            iShards[i].cancelCount();
+        }
+    }
+
+    /**
+     * Signals the loader implementation to release all resources,
+     * including the worker threads and the loaders for the shards.
+     */
+    public void close() {
+        this.shutdown();
+        for(int i = 0; i < iShards.length; i++) {
+            iShards[i].close();
+        }
+        iShards = new DBLoader[0];
+        iCounts = null;
+        iCurrent = 0;
+    }
+
+    /**
+     * This method reports whether the specified File denotes a set of shards.
+     *
+     * @param   aFile   File to check.
+     * @return  boolean 'true' if the File denotes a list file, glob pattern or directory.
+     */
+    public boolean canReadFile(File aFile) {
+        return isShardSet(aFile.getPath());
+    }
+
+    /**
+     * This method returns the combined size of the shards, scaled down beyond the int range.
+     *
+     * @return  int with the number of bytes in all the shards.
+     */
+    public int getMaximum() {
+        long size = this.getLongMaximum();
+        return ProgressInputStream.scale(size, size);
+    }
+
+    /**
+     * This method reports the number of bytes read from all the shards,
+     * scaled down beyond the int range.
+     *
+     * @return  int with the number of bytes read.
+     */
+    public int monitorProgress() {
+        return ProgressInputStream.scale(this.monitorLongProgress(), this.getLongMaximum());
+    }
+
+    /**
+     * This method returns the combined size of the shards.
+     *
+     * @return  long with the number of bytes in all the shards.
+     */
+    public long getLongMaximum() {
+        long total = 0;
+        for(int i = 0; i < iShards.length; i++) {
+            total += iShards[i].getLongMaximum();
+        }
+        return total;
+    }
+
+    /**
+     * This method reports the number of bytes read from all the shards.
+     *
+     * @return  long with the number of bytes read.
+     */
+    public long monitorLongProgress() {
+        long total = 0;
+        for(int i = 0; i < iShards.length; i++) {
+            total += iShards[i].monitorLongProgress();
+        }
+        return total;
+    }
+
+    /**
+     * This method returns the next entry of the specified kind.
+     *
+     * @param   aMode   int with the kind of entry to deliver.
+     * @param   aFilter Filter to apply, or 'null' for none.
+     * @return  Object with the next entry, or 'null' when all shards have been read.
+     * @exception   IOException when one of the shards could not be read.
+     */
+    private Object next(int aMode, Filter aFilter) throws IOException {
+        if(iThreads == 1) {
+            Object result = null;
+            while(result == null && iCurrent < iShards.length) {
+                result = fetch(iShards[iCurrent], aMode, aFilter, iMixed);
+                if(result == null) {
+                    iCurrent++;
+                }
+            }
+            return result;
+        }
+        if(iMode < 0) {
+            this.start(aMode, aFilter);
+        } else if(iMode != aMode || iFilter != aFilter) {
+            throw new IllegalStateException("A parallel CompositeDBLoader can only deliver a single kind of entry between resets!");
+        }
+        while(iFinished < iShards.length) {
+            Object result = null;
+            try {
+                result = iQueues[iOrdered?iFinished:0].take();
+            } catch(InterruptedException ie) {
+                this.shutdown();
+                throw new IOException("Interrupted while waiting for the reading of '" + iName + "'!");
+            }
+            if(result == END) {
+                iFinished++;
+            } else if(result instanceof Throwable) {
+                this.shutdown();
+                throw toIOException((Throwable)result);
+            } else {
+                return result;
+            }
+        }
+        this.shutdown();
+        return null;
+    }
+
+    /**
+     * This method starts a worker for each shard.
+     *
+     * @param   aMode   int with the kind of entry to deliver.
+     * @param   aFilter Filter to apply, or 'null' for none.
+     */
+    private void start(int aMode, Filter aFilter) {
+        iMode = aMode;
+        iFilter = aFilter;
+        iFinished = 0;
+        iCancellation = new Cancellation();
+        iQueues = new BlockingQueue[iOrdered?iShards.length:1];
+        for(int i = 0; i < iQueues.length; i++) {
+            iQueues[i] = new ArrayBlockingQueue(QUEUE_SIZE);
+        }
+        iExecutor = Executors.newFixedThreadPool(Math.min(iThreads, iShards.length), new WorkerFactory());
+        for(int i = 0; i < iShards.length; i++) {
+            iExecutor.execute(new ShardReader(iShards[i], iQueues[iOrdered?i:0], aMode, aFilter, iMixed, iCancellation));
+        }
+    }
+
+    /**
+     * This method stops the workers (if any), waits for them to finish, and clears all
+     * parallel reading state. The workers are not interrupted, since an interrupt
+     * closes the channels some loaders read from.
+     */
+    private void shutdown() {
+        if(iExecutor != null) {
+            iCancellation.iCancelled = true;
+            iExecutor.shutdown();
+            boolean interrupted = false;
+            while(!iExecutor.isTerminated()) {
+                try {
+                    iExecutor.awaitTermination(1, TimeUnit.SECONDS);
+                } catch(InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+            if(interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            iExecutor = null;
+        }
+        iCancellation = null;
+        iQueues = null;
+        iFinished = 0;
+        iMode = -1;
+        iFilter = null;
+    }
+
+    /**
+     * This method reads the next entry of the specified kind from a shard. For a set of
+     * mixed formats, the entries are read as FASTA entries, and filtered as such.
+     *
+     * @param   aShard  DBLoader to read from.
+     * @param   aMode   int with the kind of entry to deliver.
+     * @param   aFilter Filter to apply, or 'null' for none.
+     * @param   aMixed  boolean that indicates a set of mixed formats.
+     * @return  Object  with the next entry, or 'null' at the end of the shard.
+     * @exception   IOException when the shard could not be read.
+     */
+    private static Object fetch(DBLoader aShard, int aMode, Filter aFilter, boolean aMixed) throws IOException {
+        Object result = null;
+        if(aMixed) {
+            String fasta = aShard.nextFASTAEntry();
+            while(fasta != null && aFilter != null && !aFilter.passesFilter(fasta)) {
+                fasta = aShard.nextFASTAEntry();
+            }
+            if(fasta != null) {
+                if(aMode == PROTEIN) {
+                    result = new Protein(fasta);
+                } else if(aMode == RECORD) {
+                    result = new ProteinRecord(fasta);
+                } else {
+                    result = fasta;
+                }
+            }
+        } else if(aMode == RAW) {
+            result = (aFilter == null)?aShard.nextRawEntry():aShard.nextFilteredRawEntry(aFilter);
+        } else if(aMode == FASTA) {
+            result = (aFilter == null)?aShard.nextFASTAEntry():aShard.nextFilteredFASTAEntry(aFilter);
+        } else if(aMode == PROTEIN) {
+            result = (aFilter == null)?aShard.nextProtein():aShard.nextFilteredProtein(aFilter);
+        } else {
+            result = aShard.nextRecord();
+        }
+        return result;
+    }
+
+    /**
+     * This method reports whether the specified file name is a glob pattern.
+     *
+     * @param   aName   String with the file name (without the directory).
+     * @return  boolean 'true' if the name contains '*' or '?'.
+     */
+    private static boolean isGlob(String aName) {
+        return aName.indexOf('*') >= 0 || aName.indexOf('?') >= 0;
+    }
+
+    /**
+     * This method converts a glob pattern into a regular expression.
+     *
+     * @param   aGlob   String with the glob pattern.
+     * @return  Pattern that matches the same file names.
+     */
+    private static Pattern toRegex(String aGlob) {
+        StringBuffer regex = new StringBuffer();
+        for(int i = 0; i < aGlob.length(); i++) {
+            char c = aGlob.charAt(i);
+            if(c == '*') {
+                regex.append(".*");
+            } else if(c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * This method converts the failure of a worker into an IOException.
+     *
+     * @param   aCause  Throwable thrown by the worker.
+     * @return  IOException to throw.
+     */
+    private static IOException toIOException(Throwable aCause) {
+        if(aCause instanceof IOException) {
+            return (IOException)aCause;
+        } else if(aCause instanceof RuntimeException) {
+            throw (RuntimeException)aCause;
+        } else if(aCause instanceof Error) {
+            throw (Error)aCause;
+        }
+        return new IOException("Unable to read the DB: " + aCause);
+    }
+
+    /**
+     * This class holds the cancellation flag shared by the workers of a single run.
+     */
+    private static class Cancellation {
+        private volatile boolean iCancelled = false;
+    }
+
+    /**
+     * This class creates the daemon worker threads.
+     */
+    private static class WorkerFactory implements ThreadFactory {
+        public Thread newThread(Runnable aRunnable) {
+            Thread t = new Thread(aRunnable, "CompositeDBLoader worker");
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    /**
+     * This class reads all the entries from a single shard into a queue, followed by END.
+     * A failure is passed on through the queue as well.
+     */
+    private static class ShardReader implements Runnable {
+        private DBLoader iShard = null;
+        private BlockingQueue iQueue = null;
+        private int iMode = RAW;
+        private Filter iFilter = null;
+        private boolean iMixed = false;
+        private Cancellation iCancellation = null;
+
+        public ShardReader(DBLoader aShard, BlockingQueue aQueue, int aMode, Filter aFilter, boolean aMixed, Cancellation aCancellation) {
+            this.iShard = aShard;
+            this.iQueue = aQueue;
+            this.iMode = aMode;
+            this.iFilter = aFilter;
+            this.iMixed = aMixed;
+            this.iCancellation = aCancellation;
+        }
+
+        public void run() {
+            try {
+                Object entry = null;
+                while(!iCancellation.iCancelled && (entry = fetch(iShard, iMode, iFilter, iMixed)) != null) {
+                    this.put(entry);
+                }
+                this.put(END);
+            } catch(Throwable t) {
+                this.put(t);
+            }
+        }
+
+        /**
+         * This method hands an object to the consumer, giving up when the run is cancelled.
+         *
+         * @param   aObject Object to deliver.
+         */
+        private void put(Object aObject) {
+            try {
+                while(!iCancellation.iCancelled && !iQueue.offer(aObject, 100, TimeUnit.MILLISECONDS)) {
+                    // Wait for the consumer.
+                }
+            } catch(InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
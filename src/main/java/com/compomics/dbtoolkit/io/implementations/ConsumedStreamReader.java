@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 02:31:09
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 02:31:09 $
+ */
+
+/**
+ * This class takes the place of the reader of a DBLoader that has read its DB from
+ * a stream, once that stream has been reset. Since a stream can not be rewound,
+ * any attempt to read from it again results in an IOException.
+ *
+ * @author Lennart Martens
+ */
+class ConsumedStreamReader extends Reader {
+
+    /**
+     * The name of the stream.
+     */
+    private String iName = null;
+
+    /**
+     * This constructor takes the name of the consumed stream.
+     *
+     * @param   aName   String with the name of the stream, used in the message.
+     */
+    ConsumedStreamReader(String aName) {
+        this.iName = aName;
+    }
+
+    /**
+     * This method always throws an IOException.
+     *
+     * @exception   IOException always.
+     */
+    public int read(char[] aChars, int aOffset, int aLength) throws IOException {
+        throw new IOException("The DB in '" + iName + "' was read from a stream, and can not be read again!");
+    }
+
+    public void close() {
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 02:47:52
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 02:47:52 $
+ */
+
+/**
+ * This class determines the format of a DB from its first bytes: the magic bytes
+ * identify '.dbtk' stores and zip or GZIP compression, and the first non-blank
+ * line (after inflating, if required) distinguishes FASTA from SwissProt.
+ *
+ * @author Lennart Martens
+ */
+public class DBFormatSniffer {
+
+    /**
+     * The number of bytes to inspect.
+     */
+    public static final int SNIFF_SIZE = 64*1024;
+
+    /**
+     * Format for FASTA DB's.
+     */
+    public static final String FASTA = "FASTA";
+
+    /**
+     * Format for SwissProt DB's.
+     */
+    public static final String SWISSPROT = "SwissProt";
+
+    /**
+     * Format for zip or GZIP compressed FASTA DB's.
+     */
+    public static final String ZIPPED_FASTA = "Zipped_FASTA";
+
+    /**
+     * Format for zip or GZIP compressed SwissProt DB's.
+     */
+    public static final String ZIPPED_SWISSPROT = "Zipped_SwissProt";
+
+    /**
+     * Format for '.dbtk' stores.
+     */
+    public static final String DBTK = "DBTK";
+
+    /**
+     * This method reads the first bytes from the specified stream, which should support
+     * marking, and determines the format of the DB. The stream is reset afterwards,
+     * so it can be handed to a DBLoader.
+     *
+     * @param   aIn InputStream to sniff, positioned at the start of the DB.
+     * @return  String  with the format (one of the constants on this class), or 'null'
+     *                  if the format is unknown.
+     * @exception   IOException when the stream could not be read.
+     */
+    public static String sniff(InputStream aIn) throws IOException {
+        byte[] start = new byte[SNIFF_SIZE];
+        aIn.mark(SNIFF_SIZE);
+        int length = 0;
+        int read = 0;
+        while(length < start.length && (read = aIn.read(start, length, start.length-length)) > 0) {
+            length += read;
+        }
+        aIn.reset();
+        return sniff(start, length);
+    }
+
+    /**
+     * This method determines the format of the DB in the specified file, reading
+     * only its first bytes, once.
+     *
+     * @param   aFile   File with the DB.
+     * @return  String  with the format (one of the constants on this class), or 'null'
+     *                  if the format is unknown.
+     * @exception   IOException when the file could not be read.
+     */
+    public static String sniff(File aFile) throws IOException {
+        // Small files are read in full, special files (eg., pipes) report no length.
+        byte[] start = new byte[aFile.isFile()?(int)Math.min(aFile.length(), SNIFF_SIZE):SNIFF_SIZE];
+        InputStream in = new FileInputStream(aFile);
+        int length = 0;
+        try {
+            int read = 0;
+            while(length < start.length && (read = in.read(start, length, start.length-length)) > 0) {
+                length += read;
+            }
+        } finally {
+            in.close();
+        }
+        return sniff(start, length);
+    }
+
+    /**
+     * This method determines the format of a DB from its first bytes.
+     *
+     * @param   aStart  byte[] with the first bytes of the DB.
+     * @param   aLength int with the number of bytes in the array.
+     * @return  String  with the format (one of the constants on this class), or 'null'
+     *                  if the format is unknown.
+     */
+    public static String sniff(byte[] aStart, int aLength) {
+        String result = null;
+        if(startsWith(aStart, aLength, DBTKWriter.MAGIC)) {
+            result = DBTK;
+        } else if(startsWith(aStart, aLength, new byte[] {(byte)0x1f, (byte)0x8b})) {
+            result = zipped(sniffText(inflate(aStart, aLength, false)));
+        } else if(startsWith(aStart, aLength, new byte[] {'P', 'K', 3, 4})) {
+            result = zipped(sniffText(inflate(aStart, aLength, true)));
+        } else {
+            result = sniffText(new ByteArrayInputStream(aStart, 0, aLength));
+        }
+        return result;
+    }
+
+    /**
+     * This method determines the format of a plain-text DB from its first non-blank line.
+     *
+     * @param   aIn InputStream with the start of the DB (can be 'null').
+     * @return  String  with FASTA or SWISSPROT, or 'null' if the format is unknown.
+     */
+    private static String sniffText(InputStream aIn) {
+        String result = null;
+        if(aIn != null) {
+            try {
+                BufferedReader br = new BufferedReader(new InputStreamReader(aIn));
+                String line = br.readLine();
+                // Skip leading blank lines.
+                while(line != null && line.trim().equals("")) {
+                    line = br.readLine();
+                }
+                if(line != null) {
+                    line = line.trim();
+                    if(line.startsWith(">")) {
+                        result = FASTA;
+                    } else if(line.startsWith("ID   ")) {
+                        result = SWISSPROT;
+                    }
+                }
+            } catch(IOException ioe) {
+                // Truncated compressed data; whatever was inflated has been inspected.
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method inflates the start of a compressed DB.
+     *
+     * @param   aStart  byte[] with the first bytes of the compressed DB.
+     * @param   aLength int with the number of bytes in the array.
+     * @param   aZip    boolean that is 'true' for zip, 'false' for GZIP compression.
+     * @return  InputStream with as much of the uncompressed data as could be inflated,
+     *                      or 'null' if the data could not be inflated.
+     */
+    private static InputStream inflate(byte[] aStart, int aLength, boolean aZip) {
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        try {
+            InputStream in = new ByteArrayInputStream(aStart, 0, aLength);
+            if(aZip) {
+                ZipInputStream zis = new ZipInputStream(in);
+                if(zis.getNextEntry() == null) {
+                    return null;
+                }
+                in = zis;
+            } else {
+                in = new GZIPInputStream(in);
+            }
+            byte[] buffer = new byte[8192];
+            int read = 0;
+            while(inflated.size() < SNIFF_SIZE && (read = in.read(buffer)) > 0) {
+                inflated.write(buffer, 0, read);
+            }
+        } catch(IOException ioe) {
+            // The start of the data has been cut off, keep what we have.
+            if(inflated.size() == 0) {
+                return null;
+            }
+        }
+        return new ByteArrayInputStream(inflated.toByteArray());
+    }
+
+    /**
+     * This method converts a plain-text format into the corresponding compressed format.
+     *
+     * @param   aFormat String with the plain-text format (can be 'null').
+     * @return  String  with the compressed format, or 'null'.
+     */
+    private static String zipped(String aFormat) {
+        String result = null;
+        if(FASTA.equals(aFormat)) {
+            result = ZIPPED_FASTA;
+        } else if(SWISSPROT.equals(aFormat)) {
+            result = ZIPPED_SWISSPROT;
+        }
+        return result;
+    }
+
+    /**
+     * This method checks whether the data start with the specified bytes.
+     *
+     * @param   aStart  byte[] with the data.
+     * @param   aLength int with the number of bytes in the data.
+     * @param   aMagic  byte[] with the bytes to check for.
+     * @return  boolean 'true' if the data start with the magic bytes.
+     */
+    private static boolean startsWith(byte[] aStart, int aLength, byte[] aMagic) {
+        if(aLength < aMagic.length) {
+            return false;
+        }
+        for(int i = 0; i < aMagic.length; i++) {
+            if(aStart[i] != aMagic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 17:52:36
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.EntryHandler;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 17:52:36 $
+ */
+
+/**
+ * This class presents the entries of a DBLoader as an Iterator, and allows them to be
+ * handed off in batches so that several threads can process them at the same time. <br />
+ * The entries are read from the loader sequentially (one batch at a time), but the
+ * processing of each batch is done by the thread that requested it. The 'process' method
+ * uses this to process all entries on a number of threads with a single EntryHandler. <br />
+ * Cancelling the iterator stops the delivery of further batches, and cancels any count
+ * in progress on the loader through its 'cancelCount' method.
+ *
+ * @author Lennart Martens
+ */
+public class DBLoaderIterator implements Iterator {
+
+    /**
+     * The default number of entries in a batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * Iterator over the raw entries.
+     */
+    public static final int RAW = 0;
+
+    /**
+     * Iterator over the FASTA entries.
+     */
+    public static final int FASTA = 1;
+
+    /**
+     * Iterator over the Protein instances.
+     */
+    public static final int PROTEIN = 2;
+
+    /**
+     * The loader to read from.
+     */
+    private DBLoader iLoader = null;
+
+    /**
+     * The kind of entries to deliver.
+     */
+    private int iKind = PROTEIN;
+
+    /**
+     * The filter to apply, if any.
+     */
+    private Filter iFilter = null;
+
+    /**
+     * The entry read ahead for the Iterator methods, if any.
+     */
+    private Object iNext = null;
+
+    /**
+     * This boolean is set when the loader has no more entries.
+     */
+    private boolean iExhausted = false;
+
+    /**
+     * This boolean is set when the iteration has been cancelled.
+     */
+    private volatile boolean iCancelled = false;
+
+    /**
+     * The number of entries delivered so far.
+     */
+    private long iCount = 0;
+
+    /**
+     * This constructor takes the loader to iterate, the kind of entries to deliver
+     * and an optional filter.
+     *
+     * @param   aLoader DBLoader to read the entries from.
+     * @param   aKind   int with the kind of entries to deliver ('RAW', 'FASTA' or 'PROTEIN').
+     * @param   aFilter Filter to apply. Can be 'null' for no filter.
+     */
+    public DBLoaderIterator(DBLoader aLoader, int aKind, Filter aFilter) {
+        if(aKind < RAW || aKind > PROTEIN) {
+            throw new IllegalArgumentException("Unknown kind of entry: " + aKind + "!");
+        }
+        this.iLoader = aLoader;
+        this.iKind = aKind;
+        this.iFilter = aFilter;
+    }
+
+    /**
+     * This method returns an iterator over the raw entries of the specified loader.
+     *
+     * @param   aLoader DBLoader to iterate.
+     * @return  DBLoaderIterator    over the raw entries.
+     */
+    public static DBLoaderIterator entries(DBLoader aLoader) {
+        return new DBLoaderIterator(aLoader, RAW, null);
+    }
+
+    /**
+     * This method returns an iterator over the entries of the specified loader,
+     * as Protein instances.
+     *
+     * @param   aLoader DBLoader to iterate.
+     * @return  DBLoaderIterator    over the Protein instances.
+     */
+    public static DBLoaderIterator proteins(DBLoader aLoader) {
+        return new DBLoaderIterator(aLoader, PROTEIN, null);
+    }
+
+    /**
+     * This method returns an iterator over the entries of the specified loader that
+     * pass the filter, as Protein instances.
+     *
+     * @param   aLoader DBLoader to iterate.
+     * @param   aFilter Filter to apply. Can be 'null' for no filter.
+     * @return  DBLoaderIterator    over the filtered Protein instances.
+     */
+    public static DBLoaderIterator filteredProteins(DBLoader aLoader, Filter aFilter) {
+        return new DBLoaderIterator(aLoader, PROTEIN, aFilter);
+    }
+
+    /**
+     * This method reports whether more entries are available.
+     *
+     * @return  boolean 'true' if more entries are available.
+     * @exception   IllegalStateException   wrapping the IOException when reading failed.
+     */
+    public synchronized boolean hasNext() {
+        if(iNext == null && !iExhausted && !iCancelled) {
+            try {
+                iNext = this.read();
+            } catch(IOException ioe) {
+                throw new IllegalStateException("Unable to read the next entry from the " + iLoader.getDBName() + " DB: " + ioe.getMessage());
+            }
+        }
+        return iNext != null && !iCancelled;
+    }
+
+    /**
+     * This method returns the next entry.
+     *
+     * @return  Object  with the next entry.
+     * @exception   NoSuchElementException  when no more entries are available.
+     */
+    public synchronized Object next() {
+        if(!this.hasNext()) {
+            throw new NoSuchElementException("No more entries in the " + iLoader.getDBName() + " DB!");
+        }
+        Object result = iNext;
+        iNext = null;
+        iCount++;
+        return result;
+    }
+
+    /**
+     * Removal is not supported.
+     */
+    public void remove() {
+        throw new UnsupportedOperationException("Entries can not be removed from a DB!");
+    }
+
+    /**
+     * This method hands off the next batch of entries. It is safe to call this method
+     * from several threads at once.
+     *
+     * @param   aSize   int with the maximal number of entries in the batch.
+     * @return  List    with the entries, which is empty when no more entries are available
+     *                  or when the iteration has been cancelled.
+     * @exception   IOException when reading failed.
+     */
+    public synchronized List nextBatch(int aSize) throws IOException {
+        List batch = new ArrayList(aSize);
+        if(iNext != null) {
+            batch.add(iNext);
+            iNext = null;
+        }
+        while(batch.size() < aSize && !iExhausted && !iCancelled) {
+            Object entry = this.read();
+            if(entry != null) {
+                batch.add(entry);
+            }
+        }
+        if(iCancelled) {
+            batch.clear();
+        }
+        iCount += batch.size();
+        return batch;
+    }
+
+    /**
+     * This method processes all remaining entries with the specified handler on the
+     * specified number of threads. Each thread takes batches of entries from this
+     * iterator until none are left, so the handler should be thread-safe.
+     * The method returns when all entries have been processed, or the iteration
+     * was cancelled.
+     *
+     * @param   aHandler    EntryHandler to process each entry with.
+     * @param   aThreads    int with the number of threads to use.
+     * @param   aBatchSize  int with the number of entries in a batch.
+     * @exception   IOException when reading failed.
+     */
+    public void process(final EntryHandler aHandler, int aThreads, final int aBatchSize) throws IOException {
+        final Throwable[] failure = new Throwable[1];
+        Thread[] workers = new Thread[Math.max(1, aThreads)];
+        for(int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread("DBLoaderIterator worker " + (i+1)) {
+                public void run() {
+                    try {
+                        List batch = null;
+                        while(!(batch = nextBatch(aBatchSize)).isEmpty()) {
+                            for(int j = 0; j < batch.size() && !iCancelled; j++) {
+                                aHandler.handle(batch.get(j));
+                            }
+                        }
+                    } catch(Throwable t) {
+                        synchronized(failure) {
+                            if(failure[0] == null) {
+                                failure[0] = t;
+                            }
+                        }
+                        iCancelled = true;
+                    }
+                }
+            };
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        try {
+            for(int i = 0; i < workers.length; i++) {
+                workers[i].join();
+            }
+        } catch(InterruptedException ie) {
+            this.cancel();
+            throw new IOException("Interrupted while processing the " + iLoader.getDBName() + " DB!");
+        }
+        if(failure[0] instanceof IOException) {
+            throw (IOException)failure[0];
+        } else if(failure[0] instanceof RuntimeException) {
+            throw (RuntimeException)failure[0];
+        } else if(failure[0] instanceof Error) {
+            throw (Error)failure[0];
+        }
+    }
+
+    /**
+     * This method cancels the iteration. No further entries or batches will be handed out,
+     * and any count in progress on the loader is cancelled as well.
+     */
+    public void cancel() {
+        iCancelled = true;
+        iLoader.cancelCount();
+    }
+
+    /**
+     * This method reports whether the iteration has been cancelled.
+     *
+     * @return  boolean 'true' if the iteration was cancelled.
+     */
+    public boolean isCancelled() {
+        return iCancelled;
+    }
+
+    /**
+     * This method returns the number of entries handed out so far.
+     *
+     * @return  long    with the number of entries handed out.
+     */
+    public synchronized long getCount() {
+        return iCount;
+    }
+
+    /**
+     * This method reads the next entry of the right kind from the loader.
+     *
+     * @return  Object  with the entry, or 'null' when the loader has no more entries.
+     * @exception   IOException when reading failed.
+     */
+    private Object read() throws IOException {
+        Object result = null;
+        if(iKind == RAW) {
+            result = (iFilter == null)?iLoader.nextRawEntry():iLoader.nextFilteredRawEntry(iFilter);
+        } else if(iKind == FASTA) {
+            result = (iFilter == null)?iLoader.nextFASTAEntry():iLoader.nextFilteredFASTAEntry(iFilter);
+        } else {
+            result = (iFilter == null)?(Object)iLoader.nextProtein():iLoader.nextFilteredProtein(iFilter);
+        }
+        if(result == null) {
+            iExhausted = true;
+        }
+        return result;
+    }
+}
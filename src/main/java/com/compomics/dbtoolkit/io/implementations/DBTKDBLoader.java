@@ -0,0 +1,684 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 22:15:40
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.util.protein.Protein;
+
+import java.io.*;
+import java.util.HashMap;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 22:15:40 $
+ */
+
+/**
+ * This class implements the DBLoader interface for the binary '.dbtk' store
+ * written by the DBTKWriter. The entries are reported in FASTA format, and
+ * the loader identifies itself as a FASTA loader, so all FASTA filters apply. <br />
+ * The offset table and the length and mass columns are read into memory upon
+ * loading, so entry counts are immediate and all entries can be accessed directly.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.DBTKWriter
+ */
+public class DBTKDBLoader implements DBLoader {
+
+    /**
+     * This is the filename we're pointing to.
+     */
+    private String iFilename = null;
+
+    /**
+     * The temporary copy of a store loaded from a stream, if any.
+     */
+    private File iTempFile = null;
+
+    /**
+     * The InputStream used for reading the entries in sequence.
+     */
+    private ProgressInputStream iInputStream = null;
+
+    /**
+     * The DataInputStream on top of the InputStream.
+     */
+    private DataInputStream iIn = null;
+
+    /**
+     * The ordinal of the next entry to read.
+     */
+    private int iNext = 0;
+
+    /**
+     * The number of entries in the store.
+     */
+    private int iCount = 0;
+
+    /**
+     * The record offsets, followed by the start of the offset table.
+     */
+    private long[] iOffsets = null;
+
+    /**
+     * The sequence lengths.
+     */
+    private int[] iLengths = null;
+
+    /**
+     * The monoisotopic masses.
+     */
+    private double[] iMasses = null;
+
+    /**
+     * The header dictionary.
+     */
+    private String[] iDictionary = null;
+
+    /**
+     * The ordinals of the entries, per accession number. Built on first use.
+     */
+    private HashMap iAccessions = null;
+
+    /**
+     * This boolean can be flagged when a count is in progress,
+     * and will then cancel the count.
+     */
+    private boolean iCancelCount = false;
+
+    /**
+     * Default constructor.
+     */
+    public DBTKDBLoader() {
+    }
+
+    /**
+     * This method allows the caller to load a DB from the specified file.
+     * The offset table, columns and dictionary are read into memory.
+     *
+     * @param   aFilename   String with the filename for the '.dbtk' store.
+     * @exception   IOException whenever the file is inaccessible or not a '.dbtk' store.
+     */
+    public void load(String aFilename) throws IOException {
+        File lFile = new File(aFilename);
+        if(!lFile.exists()) {
+            throw new IOException("File '" + aFilename + "' does not exist!");
+        }
+        // Release the previous store (and its temporary copy).
+        this.close();
+        RandomAccessFile raf = new RandomAccessFile(lFile, "r");
+        try {
+            if(!isStore(raf)) {
+                throw new IOException("File '" + aFilename + "' is not a DBTK store!");
+            }
+            raf.seek(raf.length() - DBTKWriter.MAGIC.length - 8);
+            long tableStart = raf.readLong();
+            raf.seek(tableStart);
+            DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(raf.getFD()), 256*1024));
+            iCount = dis.readInt();
+            iOffsets = new long[iCount + 1];
+            for(int i = 0; i < iCount; i++) {
+                iOffsets[i] = dis.readLong();
+            }
+            iOffsets[iCount] = tableStart;
+            iLengths = new int[iCount];
+            for(int i = 0; i < iCount; i++) {
+                iLengths[i] = dis.readInt();
+            }
+            iMasses = new double[iCount];
+            for(int i = 0; i < iCount; i++) {
+                iMasses[i] = dis.readDouble();
+            }
+            iDictionary = new String[dis.readInt()];
+            for(int i = 0; i < iDictionary.length; i++) {
+                byte[] token = new byte[dis.readInt()];
+                dis.readFully(token);
+                iDictionary[i] = new String(token, "UTF-8");
+            }
+        } finally {
+            raf.close();
+        }
+        iFilename = aFilename;
+        iAccessions = null;
+        this.openStream();
+    }
+
+    /**
+     * This method allows the caller to load a DB from the specified stream.
+     * Since the offset table and dictionary are stored at the end of a '.dbtk' store,
+     * the stream is first copied to a temporary file, which is deleted when the loader is
+     * closed or reloaded (or upon exit).
+     *
+     * @param   aIn InputStream to read the store from.
+     * @param   aName   String with a name for the stream, used in messages.
+     * @exception   IOException whenever the stream could not be copied or is not a '.dbtk' store.
+     */
+    public void load(InputStream aIn, String aName) throws IOException {
+        this.close();
+        File temp = File.createTempFile("dbtk", DBTKWriter.EXTENSION);
+        temp.deleteOnExit();
+        boolean loaded = false;
+        try {
+            OutputStream out = new FileOutputStream(temp);
+            try {
+                byte[] buffer = new byte[256*1024];
+                int read = 0;
+                while((read = aIn.read(buffer)) > 0) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+            try {
+                this.load(temp.getAbsolutePath());
+            } catch(IOException ioe) {
+                throw new IOException("Unable to read '" + aName + "': " + ioe.getMessage());
+            }
+            loaded = true;
+        } finally {
+            if(loaded) {
+                iTempFile = temp;
+            } else {
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * This method returns the next raw entry, which is the entry in FASTA format.
+     *
+     * @return  String with the next entry in FASTA format, or 'null' if there are no more entries.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public String nextRawEntry() throws IOException {
+        return this.nextFASTAEntry();
+    }
+
+    /**
+     * This method will report on the next entry in the DB in FASTA format.
+     *
+     * @return  String  with the FASTA entry representing the next entry.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public String nextFASTAEntry() throws IOException {
+        String result = null;
+        if(iNext < iCount) {
+            byte[] record = new byte[(int)(iOffsets[iNext+1] - iOffsets[iNext])];
+            iIn.readFully(record);
+            result = this.decode(iNext, record);
+            iNext++;
+        }
+        return result;
+    }
+
+    /**
+     * This method reports on the next entry that passes the filter in
+     * raw (FASTA) format.
+     *
+     * @param   aFilter Filter instance against which checks are made.
+     * @return  String  with the next filtered raw entry, or 'null' if no more
+     *                  passed entries are found.
+     * @exception   IOException when something goes wrong while reading the DB file.
+     */
+    public String nextFilteredRawEntry(Filter aFilter) throws IOException {
+        String result = null;
+        String temp = null;
+        while(result == null && (temp = this.nextRawEntry()) != null) {
+            if(aFilter.passesFilter(temp)) {
+                result = temp;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method will report on the next filtered entry in the DB in FASTA format.
+     *
+     * @param   aFilter Filter instance against which to check the entries.
+     * @return  String  with the FASTA entry representing the next entry.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public String nextFilteredFASTAEntry(Filter aFilter) throws IOException {
+        return this.nextFilteredRawEntry(aFilter);
+    }
+
+    /**
+     * This method reports on the name of the Database that is read and interpreted by the
+     * implemented instance. Since the entries are reported in FASTA format, this is FASTA.
+     *
+     * @return  String  with the name of the DB format that is read and interpreted by the
+     *                  implementation.
+     */
+    public String getDBName() {
+        return DBLoader.FASTA;
+    }
+
+    /**
+     * This method returns the next entry in the DB as a Protein instance.
+     *
+     * @return  Protein the Protein instance that corresponds to the next entry in the
+     *                  DB.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public Protein nextProtein() throws IOException {
+        Protein p = null;
+        String fasta = this.nextFASTAEntry();
+        if(fasta != null) {
+            p = new Protein(fasta);
+        }
+        return p;
+    }
+
+    /**
+     * This method returns the next filtered entry in the DB as a Protein instance.
+     *
+     * @return  Protein the Protein instance that corresponds to the next filtered
+     *                  entry in the DB.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public Protein nextFilteredProtein(Filter aFilter) throws IOException {
+        Protein p = null;
+        String fasta = this.nextFilteredFASTAEntry(aFilter);
+        if(fasta != null) {
+            p = new Protein(fasta);
+        }
+        return p;
+    }
+
+    /**
+     * This method returns the next entry in the DB as a ProteinRecord.
+     *
+     * @return  ProteinRecord   with the next entry in the DB, or 'null' if no more
+     *                          entries are found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public ProteinRecord nextRecord() throws IOException {
+        ProteinRecord record = null;
+        String fasta = this.nextFASTAEntry();
+        if(fasta != null) {
+            record = new ProteinRecord(fasta);
+        }
+        return record;
+    }
+
+    /**
+     * This method reports the number of entries in the store, which is known upon loading.
+     * <b<Note</b> that a call to this method resets the position of the underlying reader!
+     *
+     * @return  long    with the number of entries.
+     * @exception   IOException when the reader could not be reset.
+     */
+    public long countNumberOfEntries() throws IOException {
+        this.reset();
+        iCancelCount = false;
+        return iCount;
+    }
+
+    /**
+     * The offset table serves as an index, so this method always returns 'true'.
+     *
+     * @return  boolean 'true'.
+     */
+    public boolean hasIndex() {
+        return true;
+    }
+
+    /**
+     * This method returns the entry at the specified (zero-based) position
+     * in the DB as a Protein instance. The position of the loader is not affected.
+     *
+     * @param   aOrdinal    long with the zero-based position of the entry in the DB.
+     * @return  Protein with the entry, or 'null' if there is no entry at that position.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public Protein getEntryAt(long aOrdinal) throws IOException {
+        Protein p = null;
+        if(aOrdinal >= 0 && aOrdinal < iCount) {
+            p = new Protein(this.readEntry((int)aOrdinal));
+        }
+        return p;
+    }
+
+    /**
+     * This method returns the first entry with the specified primary accession number
+     * as a Protein instance. The accession numbers are collected from the headers
+     * on the first call. The position of the loader is not affected.
+     *
+     * @param   aAccession  String with the primary accession number of the entry.
+     * @return  Protein with the entry, or 'null' if the accession number was not found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public Protein getEntryByAccession(String aAccession) throws IOException {
+        if(iAccessions == null) {
+            this.collectAccessions();
+        }
+        Protein p = null;
+        Integer ordinal = (Integer)iAccessions.get(aAccession);
+        if(ordinal != null) {
+            p = new Protein(this.readEntry(ordinal.intValue()));
+        }
+        return p;
+    }
+
+    /**
+     * This method reports the number of entries in the store.
+     *
+     * @return  int with the number of entries.
+     */
+    public int size() {
+        return iCount;
+    }
+
+    /**
+     * This method returns the sequence length of the specified entry, from the length column.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry.
+     * @return  int with the length of the sequence.
+     */
+    public int getSequenceLength(int aOrdinal) {
+        return iLengths[aOrdinal];
+    }
+
+    /**
+     * This method returns the monoisotopic mass of the specified entry, from the mass column.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry.
+     * @return  double  with the monoisotopic mass of the sequence.
+     */
+    public double getMass(int aOrdinal) {
+        return iMasses[aOrdinal];
+    }
+
+    /**
+     * This method resets the reader to the first entry.
+     *
+     * @exception   IOException when the reset operation failed.
+     */
+    public void reset() throws IOException {
+        if(iIn != null) {
+            iIn.close();
+        }
+        this.openStream();
+    }
+
+    /**
+     * This method cancels a count in progress.
+     */
+    public void cancelCount() {
+        this.iCancelCount = true;
+    }
+
+    /**
+     * Signals the loader implementation to release all resources, including
+     * the temporary copy of a store loaded from a stream.
+     */
+    public void close() {
+        try {
+            if(iIn != null) {
+                iIn.close();
+                iIn = null;
+                iInputStream = null;
+            }
+        } catch(IOException ioe) {
+            ioe.printStackTrace();
+        }
+        if(iTempFile != null) {
+            iTempFile.delete();
+            iTempFile = null;
+        }
+    }
+
+    /**
+     * When destroying the Object, we should eliminate the file pointer.
+     */
+    public void finalize() {
+        this.close();
+    }
+
+    /**
+     * This method is used by the AutoDBLoader class.
+     * It checks whether the file starts with the DBTK marker.
+     *
+     * @param   aFile   File with the canonical name of the file to read. This
+     *                  file is supposed to be existant and readable.
+     * @return  boolean 'true' if the file is a DBTK store, 'false' otherwise.
+     */
+    public boolean canReadFile(File aFile) {
+        boolean canRead = false;
+        try {
+            RandomAccessFile raf = new RandomAccessFile(aFile, "r");
+            try {
+                canRead = isStore(raf);
+            } finally {
+                raf.close();
+            }
+        } catch(IOException ioe) {
+        }
+        return canRead;
+    }
+
+    /**
+     * This method returns the maximum amount of information (in bytes)
+     * that can be read from this DB, scaled down for files beyond the int range.
+     *
+     * @return  int with the maximum amount of information (in bytes) that can be read
+     *                  from this DB.
+     */
+    public int getMaximum() {
+        return iInputStream.getMaximum();
+    }
+
+    /**
+     * This method reports on the progress of the current DBLoader in the total file.
+     *
+     * @return  int with the number of bytes read from the DB file up till now.
+     */
+    public int monitorProgress() {
+        return iInputStream.monitorProgress();
+    }
+
+    /**
+     * This method returns the size of the store in bytes.
+     *
+     * @return  long with the number of bytes in the store.
+     */
+    public long getLongMaximum() {
+        return iInputStream.getLongMaximum();
+    }
+
+    /**
+     * This method reports on the progress of the current DBLoader in the total file.
+     *
+     * @return  long with the number of bytes read from the store up till now.
+     */
+    public long monitorLongProgress() {
+        return iInputStream.monitorLongProgress();
+    }
+
+    /**
+     * This method opens the stream for sequential reading at the first record.
+     *
+     * @exception   IOException when the file could not be opened.
+     */
+    private void openStream() throws IOException {
+        iInputStream = new ProgressInputStream(iFilename);
+        iIn = new DataInputStream(new BufferedInputStream(iInputStream, 256*1024));
+        skipFully(iIn, iOffsets[0]);
+        iNext = 0;
+    }
+
+    /**
+     * This method reads the specified entry directly from the file.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry.
+     * @return  String  with the entry in FASTA format.
+     * @exception   IOException when the entry could not be read.
+     */
+    private String readEntry(int aOrdinal) throws IOException {
+        byte[] record = new byte[(int)(iOffsets[aOrdinal+1] - iOffsets[aOrdinal])];
+        RandomAccessFile raf = new RandomAccessFile(iFilename, "r");
+        try {
+            raf.seek(iOffsets[aOrdinal]);
+            raf.readFully(record);
+        } finally {
+            raf.close();
+        }
+        return this.decode(aOrdinal, record);
+    }
+
+    /**
+     * This method collects the accession numbers of all entries.
+     *
+     * @exception   IOException when the headers could not be read.
+     */
+    private void collectAccessions() throws IOException {
+        HashMap accessions = new HashMap();
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(iFilename), 256*1024));
+        try {
+            // The records are contiguous.
+            skipFully(dis, iOffsets[0]);
+            for(int i = 0; i < iCount; i++) {
+                byte[] record = new byte[(int)(iOffsets[i+1] - iOffsets[i])];
+                dis.readFully(record);
+                StringBuffer header = new StringBuffer();
+                this.decodeHeader(record, new int[1], header);
+                String accession = EntryIndex.getAccession(header.toString(), DBLoader.FASTA);
+                if(accession != null && !accessions.containsKey(accession)) {
+                    accessions.put(accession, new Integer(i));
+                }
+            }
+        } finally {
+            dis.close();
+        }
+        iAccessions = accessions;
+    }
+
+    /**
+     * This method decodes a record into a FASTA entry.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry.
+     * @param   aRecord byte[] with the record.
+     * @return  String  with the entry in FASTA format.
+     * @exception   IOException when the record is corrupt.
+     */
+    private String decode(int aOrdinal, byte[] aRecord) throws IOException {
+        int length = iLengths[aOrdinal];
+        StringBuffer result = new StringBuffer(length + 128);
+        int[] pos = new int[1];
+        this.decodeHeader(aRecord, pos, result);
+        result.append('\n');
+        int flag = aRecord[pos[0]++];
+        if(flag == DBTKWriter.PACKED) {
+            int buffer = 0;
+            int bits = 0;
+            for(int i = 0; i < length; i++) {
+                if(bits < 5) {
+                    buffer = (buffer << 8) | (aRecord[pos[0]++] & 0xff);
+                    bits += 8;
+                }
+                bits -= 5;
+                result.append(DBTKWriter.ALPHABET.charAt((buffer >>> bits) & 0x1f));
+            }
+        } else if(flag == DBTKWriter.TEXT) {
+            int bytes = readVarInt(aRecord, pos);
+            result.append(new String(aRecord, pos[0], bytes, "UTF-8"));
+        } else {
+            throw new IOException("Corrupt record for entry " + aOrdinal + " in '" + iFilename + "'!");
+        }
+        return result.toString();
+    }
+
+    /**
+     * This method decodes the dictionary-compressed header at the start of the record.
+     *
+     * @param   aRecord byte[] with the record.
+     * @param   aPos    int[] with the position in the record; updated to the end of the header.
+     * @param   aResult StringBuffer to append the header to.
+     * @exception   IOException when the header is corrupt.
+     */
+    private void decodeHeader(byte[] aRecord, int[] aPos, StringBuffer aResult) throws IOException {
+        int tokens = readVarInt(aRecord, aPos);
+        for(int i = 0; i < tokens; i++) {
+            int code = readVarInt(aRecord, aPos);
+            if(code == 0) {
+                int bytes = readVarInt(aRecord, aPos);
+                aResult.append(new String(aRecord, aPos[0], bytes, "UTF-8"));
+                aPos[0] += bytes;
+            } else if(code <= iDictionary.length) {
+                aResult.append(iDictionary[code-1]);
+            } else {
+                throw new IOException("Unknown header token " + code + " in '" + iFilename + "'!");
+            }
+        }
+    }
+
+    /**
+     * This method checks for the DBTK marker and version at the start of the file.
+     *
+     * @param   aRaf    RandomAccessFile positioned at the start of the file.
+     * @return  boolean 'true' if the file is a DBTK store.
+     * @exception   IOException when the file could not be read.
+     */
+    private static boolean isStore(RandomAccessFile aRaf) throws IOException {
+        if(aRaf.length() < DBTKWriter.MAGIC.length*2 + 12) {
+            return false;
+        }
+        byte[] magic = new byte[DBTKWriter.MAGIC.length];
+        aRaf.readFully(magic);
+        for(int i = 0; i < magic.length; i++) {
+            if(magic[i] != DBTKWriter.MAGIC[i]) {
+                return false;
+            }
+        }
+        return aRaf.readInt() == DBTKWriter.VERSION;
+    }
+
+    /**
+     * This method skips the specified number of bytes.
+     *
+     * @param   aIn InputStream to skip in.
+     * @param   aCount  long with the number of bytes to skip.
+     * @exception   IOException when the bytes could not be skipped.
+     */
+    private static void skipFully(InputStream aIn, long aCount) throws IOException {
+        while(aCount > 0) {
+            long skipped = aIn.skip(aCount);
+            if(skipped <= 0) {
+                throw new EOFException("Unable to skip to the entries!");
+            }
+            aCount -= skipped;
+        }
+    }
+
+    /**
+     * This method reads a variable-length unsigned int.
+     *
+     * @param   aBytes  byte[] to read from.
+     * @param   aPos    int[] with the position; updated past the int.
+     * @return  int with the value.
+     */
+    private static int readVarInt(byte[] aBytes, int[] aPos) {
+        int result = 0;
+        int shift = 0;
+        int b = 0;
+        do {
+            b = aBytes[aPos[0]++];
+            result |= (b & 0x7f) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 21:48:02
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
+import com.compomics.util.protein.AASequenceImpl;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 21:48:02 $
+ */
+
+/**
+ * This class writes protein entries into the binary '.dbtk' store, which can be read
+ * by the DBTKDBLoader. The store consists of:
+ * <ul>
+ *   <li>a data section with one record per entry, holding the dictionary-compressed header
+ *       and the sequence, packed at 5 bits per residue,</li>
+ *   <li>the offset table with the start of each record in the file,</li>
+ *   <li>the columns with the length and the monoisotopic mass of each sequence,</li>
+ *   <li>the header dictionary,</li>
+ *   <li>a footer with the position of the offset table.</li>
+ * </ul>
+ * Headers are split into tokens, each ending in a space or a '|'. A token that has been
+ * seen before is added to the dictionary, and written as its dictionary number from then on.
+ * Sequences containing characters outside of the 5-bit alphabet are stored as text.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.DBTKDBLoader
+ */
+public class DBTKWriter {
+
+    /**
+     * The extension for '.dbtk' stores.
+     */
+    public static final String EXTENSION = ".dbtk";
+
+    /**
+     * Marker at the start and the end of each store.
+     */
+    static final byte[] MAGIC = new byte[] {'D', 'B', 'T', 'K'};
+
+    /**
+     * The version of the store format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The residues that can be packed, in the order of their 5-bit codes.
+     */
+    static final String ALPHABET = "ACDEFGHIKLMNPQRSTVWYBZXUOJ*-";
+
+    /**
+     * Record flag for a packed sequence.
+     */
+    static final int PACKED = 0;
+
+    /**
+     * Record flag for a sequence stored as text.
+     */
+    static final int TEXT = 1;
+
+    /**
+     * The maximal number of distinct header tokens that are tracked as dictionary candidates.
+     */
+    private static final int MAX_CANDIDATES = 1 << 20;
+
+    /**
+     * The 5-bit codes for the residues, indexed by character (-1 for characters that can not be packed).
+     */
+    private static final int[] CODES = new int[128];
+
+    static {
+        for(int i = 0; i < CODES.length; i++) {
+            CODES[i] = -1;
+        }
+        for(int i = 0; i < ALPHABET.length(); i++) {
+            CODES[ALPHABET.charAt(i)] = i;
+        }
+    }
+
+    /**
+     * The output stream.
+     */
+    private DataOutputStream iOut = null;
+
+    /**
+     * The number of bytes written so far.
+     */
+    private long iPosition = 0;
+
+    /**
+     * The number of entries written so far.
+     */
+    private int iCount = 0;
+
+    /**
+     * The record offsets.
+     */
+    private long[] iOffsets = new long[1024];
+
+    /**
+     * The sequence lengths.
+     */
+    private int[] iLengths = new int[1024];
+
+    /**
+     * The monoisotopic masses.
+     */
+    private double[] iMasses = new double[1024];
+
+    /**
+     * The header dictionary; tokens in the order of their numbers.
+     */
+    private ArrayList iDictionary = new ArrayList();
+
+    /**
+     * The numbers of the tokens in the dictionary (String to Integer).
+     */
+    private HashMap iTokenNumbers = new HashMap();
+
+    /**
+     * The tokens that have been seen once.
+     */
+    private HashMap iCandidates = new HashMap();
+
+    /**
+     * The buffer for the current record.
+     */
+    private ByteArrayOutputStream iRecord = new ByteArrayOutputStream(4096);
+
+    /**
+     * This constructor opens the store for writing.
+     *
+     * @param   aOutput File to write the store to. An existing file is overwritten.
+     * @exception   IOException when the file could not be created.
+     */
+    public DBTKWriter(File aOutput) throws IOException {
+        iOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(aOutput), 256*1024));
+        iOut.write(MAGIC);
+        iOut.writeInt(VERSION);
+        iPosition = MAGIC.length + 4;
+    }
+
+    /**
+     * This method adds the specified entry to the store.
+     *
+     * @param   aRecord DBRecord with the entry to add.
+     * @exception   IOException when the entry could not be written.
+     */
+    public void addEntry(DBRecord aRecord) throws IOException {
+        String header = aRecord.getHeaderLine();
+        String sequence = aRecord.getSequence();
+        iRecord.reset();
+        this.encodeHeader(header);
+        boolean packable = true;
+        for(int i = 0; i < sequence.length() && packable; i++) {
+            char c = sequence.charAt(i);
+            packable = c < 128 && CODES[c] >= 0;
+        }
+        if(packable) {
+            iRecord.write(PACKED);
+            int buffer = 0;
+            int bits = 0;
+            for(int i = 0; i < sequence.length(); i++) {
+                buffer = (buffer << 5) | CODES[sequence.charAt(i)];
+                bits += 5;
+                if(bits >= 8) {
+                    bits -= 8;
+                    iRecord.write((buffer >>> bits) & 0xff);
+                }
+            }
+            if(bits > 0) {
+                iRecord.write((buffer << (8 - bits)) & 0xff);
+            }
+        } else {
+            iRecord.write(TEXT);
+            byte[] bytes = sequence.getBytes("UTF-8");
+            writeVarInt(iRecord, bytes.length);
+            iRecord.write(bytes, 0, bytes.length);
+        }
+
+        if(iCount == iOffsets.length) {
+            this.grow();
+        }
+        iOffsets[iCount] = iPosition;
+        iLengths[iCount] = sequence.length();
+        iMasses[iCount] = getMass(sequence);
+        iCount++;
+        iRecord.writeTo(iOut);
+        iPosition += iRecord.size();
+    }
+
+    /**
+     * This method reports on the number of entries written so far.
+     *
+     * @return  int with the number of entries.
+     */
+    public int getCount() {
+        return iCount;
+    }
+
+    /**
+     * This method writes the offset table, columns, dictionary and footer,
+     * and closes the store.
+     *
+     * @exception   IOException when writing failed.
+     */
+    public void close() throws IOException {
+        long tableStart = iPosition;
+        iOut.writeInt(iCount);
+        for(int i = 0; i < iCount; i++) {
+            iOut.writeLong(iOffsets[i]);
+        }
+        for(int i = 0; i < iCount; i++) {
+            iOut.writeInt(iLengths[i]);
+        }
+        for(int i = 0; i < iCount; i++) {
+            iOut.writeDouble(iMasses[i]);
+        }
+        iOut.writeInt(iDictionary.size());
+        for(int i = 0; i < iDictionary.size(); i++) {
+            byte[] token = ((String)iDictionary.get(i)).getBytes("UTF-8");
+            iOut.writeInt(token.length);
+            iOut.write(token);
+        }
+        iOut.writeLong(tableStart);
+        iOut.write(MAGIC);
+        iOut.flush();
+        iOut.close();
+    }
+
+    /**
+     * This method writes the dictionary-compressed header to the record buffer.
+     *
+     * @param   aHeader String with the header line.
+     * @exception   IOException when the header could not be encoded.
+     */
+    private void encodeHeader(String aHeader) throws IOException {
+        ArrayList tokens = tokenize(aHeader);
+        writeVarInt(iRecord, tokens.size());
+        for(int i = 0; i < tokens.size(); i++) {
+            String token = (String)tokens.get(i);
+            Integer number = (Integer)iTokenNumbers.get(token);
+            if(number != null) {
+                writeVarInt(iRecord, number.intValue() + 1);
+            } else {
+                // Literal.
+                writeVarInt(iRecord, 0);
+                byte[] bytes = token.getBytes("UTF-8");
+                writeVarInt(iRecord, bytes.length);
+                iRecord.write(bytes, 0, bytes.length);
+                // Second occurrence moves the token into the dictionary.
+                if(iCandidates.remove(token) != null) {
+                    iTokenNumbers.put(token, new Integer(iDictionary.size()));
+                    iDictionary.add(token);
+                } else if(iCandidates.size() < MAX_CANDIDATES) {
+                    iCandidates.put(token, Boolean.TRUE);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method grows the columns.
+     */
+    private void grow() {
+        long[] offsets = new long[iOffsets.length*2];
+        System.arraycopy(iOffsets, 0, offsets, 0, iCount);
+        iOffsets = offsets;
+        int[] lengths = new int[iLengths.length*2];
+        System.arraycopy(iLengths, 0, lengths, 0, iCount);
+        iLengths = lengths;
+        double[] masses = new double[iMasses.length*2];
+        System.arraycopy(iMasses, 0, masses, 0, iCount);
+        iMasses = masses;
+    }
+
+    /**
+     * This method splits a header into tokens, each ending in a space or '|' (except
+     * possibly the last one). Concatenating the tokens yields the header.
+     *
+     * @param   aHeader String with the header to split.
+     * @return  ArrayList   with the tokens.
+     */
+    static ArrayList tokenize(String aHeader) {
+        ArrayList result = new ArrayList();
+        int start = 0;
+        for(int i = 0; i < aHeader.length(); i++) {
+            char c = aHeader.charAt(i);
+            if(c == ' ' || c == '|') {
+                result.add(aHeader.substring(start, i+1));
+                start = i+1;
+            }
+        }
+        if(start < aHeader.length()) {
+            result.add(aHeader.substring(start));
+        }
+        return result;
+    }
+
+    /**
+     * This method calculates the monoisotopic mass of the sequence.
+     *
+     * @param   aSequence   String with the sequence.
+     * @return  double  with the mass, or NaN if it could not be calculated.
+     */
+    private static double getMass(String aSequence) {
+        try {
+            return new AASequenceImpl(aSequence).getMass();
+        } catch(RuntimeException re) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * This method writes a variable-length (7 bits per byte) unsigned int.
+     *
+     * @param   aOut    OutputStream to write to.
+     * @param   aValue  int to write.
+     */
+    static void writeVarInt(OutputStream aOut, int aValue) throws IOException {
+        while((aValue & ~0x7f) != 0) {
+            aOut.write((aValue & 0x7f) | 0x80);
+            aValue >>>= 7;
+        }
+        aOut.write(aValue);
+    }
+}
@@ -14,14 +14,15 @@ package com.compomics.dbtoolkit.io.implementations;
 
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
-import com.compomics.util.io.MonitorableFileInputStream;
-import com.compomics.util.io.MonitorableInputStream;
 import com.compomics.util.protein.Protein;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 
 /*
  * CVS information:
@@ -52,14 +53,19 @@ public abstract class DefaultDBLoader implements DBLoader {
     protected BufferedReader iBr = null;
 
     /**
-     * This is the filename we're pointing to.
+     * This is the filename we're pointing to, or 'null' when reading from a stream.
      */
     protected String iFilename = null;
 
+    /**
+     * The name of the stream we're reading from, if any.
+     */
+    protected String iStreamName = null;
+
     /**
      * This is the InputStream on which the BufferedReader is built.
      */
-    protected MonitorableInputStream iInputStream = null;
+    protected ProgressInputStream iInputStream = null;
 
     /**
      * This boolean can be flagged when a count is in progress,
@@ -67,6 +73,10 @@ public abstract class DefaultDBLoader implements DBLoader {
      */
     protected boolean iCancelCount = false;
 
+    /**
+     * The entry index for the DB file, if any.
+     */
+    protected EntryIndex iIndex = null;
 
     /**
      * This method allows the caller to load a DB from the specified file.
@@ -83,10 +93,29 @@ public abstract class DefaultDBLoader implements DBLoader {
         }
 
         // Create a BufferedReader to the file.
-        iInputStream = new MonitorableFileInputStream(lFile);
+        iInputStream = new ProgressInputStream(lFile);
         iBr = new BufferedReader(new InputStreamReader(iInputStream));
         // Keep the filename.
         iFilename = aFilename;
+        iStreamName = null;
+        // Pick up the index, if present.
+        iIndex = EntryIndex.load(lFile, this.getDBName());
+    }
+
+    /**
+     * This method allows the caller to load a DB from the specified stream.
+     * The DB can be read only once, and can not be indexed.
+     *
+     * @param   aIn InputStream to read the DB from.
+     * @param   aName   String with a name for the stream, used in messages.
+     * @exception   IOException whenever the stream can not be read.
+     */
+    public void load(InputStream aIn, String aName) throws IOException {
+        iInputStream = new ProgressInputStream(aIn, -1);
+        iBr = new BufferedReader(new InputStreamReader(iInputStream));
+        iFilename = null;
+        iStreamName = aName;
+        iIndex = null;
     }
 
     /**
@@ -142,6 +171,52 @@ public abstract class DefaultDBLoader implements DBLoader {
         return result;
     }
 
+    /**
+     * This method skips the lines of the specified reader up to the next line that starts with
+     * the specified character after leading whitespace, without reading them into Strings.
+     * The reader should be positioned at the start of a line.
+     *
+     * @param   aBr BufferedReader to skip the lines of.
+     * @param   aBuffer char[] to read blocks of characters into (re-used between calls).
+     * @param   aStart  char that starts the line to find.
+     * @return  String  with the line found, or 'null' if the end of the reader was reached first.
+     * @exception   IOException when something goes wrong while reading.
+     */
+    static String skipToLineStartingWith(BufferedReader aBr, char[] aBuffer, char aStart) throws IOException {
+        boolean leading = true;
+        int read = 0;
+        // Start with small blocks, as most lines are found nearby, and double them up to the buffer size.
+        int block = Math.min(256, aBuffer.length);
+        // The mark is only guaranteed to hold below its read-ahead limit.
+        aBr.mark(block + 1);
+        while((read = aBr.read(aBuffer, 0, block)) >= 0) {
+            int lineStart = leading?0:-1;
+            for(int i = 0; i < read; i++) {
+                char c = aBuffer[i];
+                if(c == '\n' || c == '\r') {
+                    leading = true;
+                    lineStart = i + 1;
+                } else if(leading && c > ' ') {
+                    leading = false;
+                    if(c == aStart) {
+                        // Rewind to the start of the line.
+                        aBr.reset();
+                        aBr.skip(lineStart);
+                        return aBr.readLine();
+                    }
+                }
+            }
+            // Start the next block at the start of an unfinished line, so we can still rewind to it.
+            if(leading && lineStart > 0 && lineStart < read) {
+                aBr.reset();
+                aBr.skip(lineStart);
+            }
+            block = Math.min(2*block, aBuffer.length);
+            aBr.mark(block + 1);
+        }
+        return null;
+    }
+
     /**
      * This method returns the next entry in the DB as a Protein instance.
      *
@@ -175,20 +250,163 @@ public abstract class DefaultDBLoader implements DBLoader {
     }
 
     /**
-     * This method resets the reader to the start of the file.
+     * This method returns the next entry in the DB as a ProteinRecord.
+     *
+     * @return  ProteinRecord   with the next entry in the DB, or 'null' if no more
+     *                          entries are found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public ProteinRecord nextRecord() throws IOException {
+        ProteinRecord record = null;
+        String fasta = this.nextFASTAEntry();
+        if(fasta != null) {
+            record = new ProteinRecord(fasta);
+        }
+        return record;
+    }
+
+    /**
+     * This method reports whether the loader has an entry index at its disposal.
+     *
+     * @return  boolean 'true' if an index is available, 'false' otherwise.
+     */
+    public boolean hasIndex() {
+        return iIndex != null;
+    }
+
+    /**
+     * This method builds the entry index for the loaded DB file in a single pass,
+     * optionally storing it in the sidecar file next to the DB so that subsequent
+     * loads can pick it up.
+     *
+     * @param   aStore  boolean to indicate whether the index should be written to disk.
+     * @return  EntryIndex  with the freshly built index.
+     * @exception   IOException when the DB could not be read, or the index could not be written.
+     */
+    public EntryIndex buildIndex(boolean aStore) throws IOException {
+        if(iFilename == null) {
+            throw new IOException("Unable to index '" + iStreamName + "': a DB read from a stream can not be indexed!");
+        }
+        File lFile = new File(iFilename);
+        iIndex = EntryIndex.build(lFile, this.getDBName());
+        if(aStore) {
+            iIndex.write(lFile);
+        }
+        return iIndex;
+    }
+
+    /**
+     * This method returns the entry at the specified (zero-based) position
+     * in the DB as a Protein instance. If no index is available yet, one is
+     * built in memory first.
+     *
+     * @param   aOrdinal    long with the zero-based position of the entry in the DB.
+     * @return  Protein with the entry, or 'null' if there is no entry at that position.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public Protein getEntryAt(long aOrdinal) throws IOException {
+        if(iIndex == null) {
+            this.buildIndex(false);
+        }
+        Protein p = null;
+        if(aOrdinal >= 0 && aOrdinal < iIndex.size()) {
+            p = new Protein(this.toFASTAEntry(this.readIndexedEntry((int)aOrdinal)));
+        }
+        return p;
+    }
+
+    /**
+     * This method returns the first entry with the specified primary accession number
+     * as a Protein instance. If no index is available yet, one is built in memory first.
+     *
+     * @param   aAccession  String with the primary accession number of the entry.
+     * @return  Protein with the entry, or 'null' if the accession number was not found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public Protein getEntryByAccession(String aAccession) throws IOException {
+        if(iIndex == null) {
+            this.buildIndex(false);
+        }
+        int ordinal = iIndex.findOrdinal(aAccession);
+        Protein p = null;
+        if(ordinal >= 0) {
+            p = new Protein(this.toFASTAEntry(this.readIndexedEntry(ordinal)));
+        }
+        return p;
+    }
+
+    /**
+     * This method reads the raw entry at the specified position in the index directly
+     * from the DB file. The position of the loader is not affected.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry in the index.
+     * @return  String with the raw entry, as 'nextRawEntry' would report it.
+     * @exception   IOException when the entry could not be read.
+     */
+    protected String readIndexedEntry(int aOrdinal) throws IOException {
+        byte[] bytes = new byte[iIndex.getLength(aOrdinal)];
+        RandomAccessFile raf = new RandomAccessFile(iFilename, "r");
+        try {
+            raf.seek(iIndex.getOffset(aOrdinal));
+            raf.readFully(bytes);
+        } finally {
+            raf.close();
+        }
+        BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes)));
+        String result = this.readRawEntry(br);
+        br.close();
+        return result;
+    }
+
+    /**
+     * This method reads a single raw entry from the specified reader, formatted the
+     * way 'nextRawEntry' reports it. It is used to read indexed entries, and
+     * should be overridden by implementations that support an index.
+     *
+     * @param   aBr BufferedReader positioned at the start of the entry.
+     * @return  String with the raw entry.
+     * @exception   IOException when the entry could not be read.
+     */
+    protected String readRawEntry(BufferedReader aBr) throws IOException {
+        throw new IOException("Indexed access is not supported for the " + this.getDBName() + " format!");
+    }
+
+    /**
+     * This method converts a raw entry into FASTA format. This default
+     * implementation assumes the raw format to be FASTA already.
+     *
+     * @param   aRaw    String with the raw entry.
+     * @return  String with the entry in FASTA format.
+     * @exception   IOException when the conversion failed.
+     */
+    protected String toFASTAEntry(String aRaw) throws IOException {
+        return aRaw;
+    }
+
+    /**
+     * This method resets the reader to the start of the file. A DB read from a stream
+     * can not be rewound: before any entries have been read, a reset does nothing,
+     * afterwards it ends the stream, so that any further reading results in an IOException.
      *
      * @exception   IOException when the buffer reset operation failed.
      */
     public void reset() throws IOException {
+        if(iFilename == null) {
+            if(iInputStream.monitorLongProgress() > 0) {
+                iBr.close();
+                iBr = new BufferedReader(new ConsumedStreamReader(iStreamName));
+            }
+            return;
+        }
         iBr.close();
         iInputStream.close();
-        iInputStream = new MonitorableFileInputStream(this.iFilename);
+        iInputStream = new ProgressInputStream(this.iFilename);
         iBr = new BufferedReader(new InputStreamReader(this.iInputStream));
     }
 
     /**
      * This method returns the maximum amount of information (in bytes)
-     * that can be read from this DB.
+     * that can be read from this DB, scaled down for files beyond the int range.
      *
      * @return  int with the maximum amount of information (in bytes) that can be read
  *                  from this DB.
@@ -206,6 +424,24 @@ public abstract class DefaultDBLoader implements DBLoader {
         return iInputStream.monitorProgress();
     }
 
+    /**
+     * This method returns the size of the DB file in bytes.
+     *
+     * @return  long with the number of bytes in the DB file.
+     */
+    public long getLongMaximum() {
+        return iInputStream.getLongMaximum();
+    }
+
+    /**
+     * This method reports on the progress of the current DBLoader in the total file.
+     *
+     * @return  long with the number of bytes read from the DB file up till now.
+     */
+    public long monitorLongProgress() {
+        return iInputStream.monitorLongProgress();
+    }
+
     /**
      * This method cancels a count in progress.
      */
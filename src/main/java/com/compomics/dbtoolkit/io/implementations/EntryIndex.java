@@ -0,0 +1,608 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 13:20:05
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.util.protein.Header;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 13:20:05 $
+ */
+
+/**
+ * This class represents an index on a FASTA or SwissProt flatfile. For each entry,
+ * it holds the byte offset and length of the entry in the file, as well as its primary
+ * accession number. <br />
+ * The index is built in a single pass over the file, and can be stored in a sidecar file
+ * next to the database (the database filename with the '.dbti' extension appended). A stored
+ * index records the size and modification time of the database file, and is only considered
+ * valid as long as these still match. <br />
+ * For BGZF compressed files, the offsets are BGZF virtual offsets into the compressed file,
+ * while the lengths are the lengths of the uncompressed entries.
+ *
+ * @author Lennart Martens
+ */
+public class EntryIndex {
+
+    /**
+     * The extension appended to the database filename to obtain the index filename.
+     */
+    public static final String EXTENSION = ".dbti";
+
+    /**
+     * Marker at the start of each index file.
+     */
+    private static final String MAGIC = "DBTI";
+
+    /**
+     * The version of the index file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the read buffer while building the index.
+     */
+    private static final int BUFFER_SIZE = 256*1024;
+
+    /**
+     * The name of the DB format (as defined on the DBLoader interface) that was indexed.
+     */
+    private String iDBName = null;
+
+    /**
+     * The size of the indexed file at the time of indexing.
+     */
+    private long iFileSize = 0;
+
+    /**
+     * The modification time of the indexed file at the time of indexing.
+     */
+    private long iLastModified = 0;
+
+    /**
+     * The number of entries in the index.
+     */
+    private int iSize = 0;
+
+    /**
+     * The byte offsets of the entries.
+     */
+    private long[] iOffsets = null;
+
+    /**
+     * The lengths (in bytes) of the entries.
+     */
+    private int[] iLengths = null;
+
+    /**
+     * The primary accession numbers of the entries.
+     */
+    private String[] iAccessions = null;
+
+    /**
+     * The ordinals of the entries, sorted on accession number.
+     */
+    private int[] iSortedOrdinals = null;
+
+    /**
+     * Private constructor; use the static 'build' or 'load' methods instead.
+     *
+     * @param   aDBName String with the name of the indexed DB format.
+     * @param   aCapacity   int with the initial capacity for the index.
+     */
+    private EntryIndex(String aDBName, int aCapacity) {
+        this.iDBName = aDBName;
+        this.iOffsets = new long[aCapacity];
+        this.iLengths = new int[aCapacity];
+        this.iAccessions = new String[aCapacity];
+    }
+
+    /**
+     * This method builds an index for the specified database file in a single pass.
+     *
+     * @param   aFile   File with the database to index.
+     * @param   aDBName String with the name of the DB format, either DBLoader.FASTA or
+     *                  DBLoader.SWISSPROT.
+     * @return  EntryIndex  with the index for the file.
+     * @exception   IOException when the file could not be read, or the DB format is not supported.
+     */
+    public static EntryIndex build(File aFile, String aDBName) throws IOException {
+        boolean fasta = DBLoader.FASTA.equals(aDBName);
+        if(!fasta && !DBLoader.SWISSPROT.equals(aDBName)) {
+            throw new IOException("Unable to index databases in the '" + aDBName + "' format!");
+        }
+        EntryIndex index = new EntryIndex(aDBName, 1024);
+        index.iFileSize = aFile.length();
+        index.iLastModified = aFile.lastModified();
+
+        BGZFInputStream bgzf = null;
+        InputStream in = null;
+        if(BGZFInputStream.isBGZF(aFile)) {
+            bgzf = new BGZFInputStream(new FileInputStream(aFile), Math.min(4, Runtime.getRuntime().availableProcessors()));
+            bgzf.recordBlocks();
+            in = bgzf;
+        } else {
+            in = new FileInputStream(aFile);
+        }
+        LineScanner scanner = new LineScanner(in);
+        try {
+            long entryStart = fasta?-1:0;
+            boolean hasID = false;
+            String accession = null;
+            while(scanner.nextLine()) {
+                if(fasta) {
+                    if(scanner.firstCharacter() == '>') {
+                        if(entryStart >= 0) {
+                            index.add(entryStart, scanner.getLineStart() - entryStart, accession);
+                        }
+                        entryStart = scanner.getLineStart();
+                        accession = getFASTAAccession(scanner.getLine());
+                    }
+                } else {
+                    if(scanner.startsWith("ID   ")) {
+                        hasID = true;
+                    } else if(accession == null && scanner.startsWith("AC   ")) {
+                        accession = getSwissProtAccession(scanner.getLine());
+                    } else if(scanner.firstCharacter() == '/' && scanner.getLine().trim().startsWith("//")) {
+                        if(hasID) {
+                            index.add(entryStart, scanner.getLineEnd() - entryStart, accession);
+                        }
+                        entryStart = scanner.getLineEnd();
+                        hasID = false;
+                        accession = null;
+                    }
+                }
+            }
+            // Last entry.
+            if(fasta && entryStart >= 0) {
+                index.add(entryStart, scanner.getLineEnd() - entryStart, accession);
+            } else if(!fasta && hasID) {
+                index.add(entryStart, scanner.getLineEnd() - entryStart, accession);
+            }
+            // Translate the uncompressed offsets into virtual offsets for BGZF files.
+            if(bgzf != null) {
+                for(int i = 0; i < index.iSize; i++) {
+                    index.iOffsets[i] = bgzf.toVirtualOffset(index.iOffsets[i]);
+                }
+            }
+        } finally {
+            scanner.close();
+        }
+        index.sortAccessions();
+
+        return index;
+    }
+
+    /**
+     * This method loads the sidecar index for the specified database file, if one is present
+     * and it is still valid for the file (same size and modification time) and format.
+     *
+     * @param   aDBFile File with the database file.
+     * @param   aDBName String with the name of the DB format the index should have been built for.
+     * @return  EntryIndex  with the index, or 'null' if no (valid) index was found.
+     */
+    public static EntryIndex load(File aDBFile, String aDBName) {
+        EntryIndex index = null;
+        File indexFile = getIndexFile(aDBFile);
+        if(indexFile.exists()) {
+            try {
+                DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile), BUFFER_SIZE));
+                try {
+                    if(MAGIC.equals(dis.readUTF()) && dis.readInt() == VERSION) {
+                        String dbName = dis.readUTF();
+                        long fileSize = dis.readLong();
+                        long lastModified = dis.readLong();
+                        if(dbName.equals(aDBName) && fileSize == aDBFile.length() && lastModified == aDBFile.lastModified()) {
+                            int size = dis.readInt();
+                            EntryIndex temp = new EntryIndex(dbName, size);
+                            temp.iFileSize = fileSize;
+                            temp.iLastModified = lastModified;
+                            for(int i = 0; i < size; i++) {
+                                long offset = dis.readLong();
+                                int length = dis.readInt();
+                                String accession = dis.readUTF();
+                                temp.add(offset, length, accession.length() == 0?null:accession);
+                            }
+                            temp.iSortedOrdinals = new int[size];
+                            for(int i = 0; i < size; i++) {
+                                temp.iSortedOrdinals[i] = dis.readInt();
+                            }
+                            index = temp;
+                        }
+                    }
+                } finally {
+                    dis.close();
+                }
+            } catch(IOException ioe) {
+                // A corrupt index is treated as an absent one.
+                index = null;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * This method writes the index to the sidecar file for the specified database file.
+     *
+     * @param   aDBFile File with the database file this index belongs to.
+     * @exception   IOException when the index file could not be written.
+     */
+    public void write(File aDBFile) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getIndexFile(aDBFile)), BUFFER_SIZE));
+        try {
+            dos.writeUTF(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeUTF(iDBName);
+            dos.writeLong(iFileSize);
+            dos.writeLong(iLastModified);
+            dos.writeInt(iSize);
+            for(int i = 0; i < iSize; i++) {
+                dos.writeLong(iOffsets[i]);
+                dos.writeInt(iLengths[i]);
+                dos.writeUTF(iAccessions[i] == null?"":iAccessions[i]);
+            }
+            for(int i = 0; i < iSize; i++) {
+                dos.writeInt(iSortedOrdinals[i]);
+            }
+            dos.flush();
+        } finally {
+            dos.close();
+        }
+    }
+
+    /**
+     * This method returns the sidecar index file for the specified database file.
+     *
+     * @param   aDBFile File with the database file.
+     * @return  File with the index file.
+     */
+    public static File getIndexFile(File aDBFile) {
+        return new File(aDBFile.getPath() + EXTENSION);
+    }
+
+    /**
+     * This method reports whether this index is still valid for the specified file.
+     *
+     * @param   aDBFile File with the database file.
+     * @return  boolean 'true' if size and modification time of the file are unchanged.
+     */
+    public boolean isValidFor(File aDBFile) {
+        return aDBFile.length() == iFileSize && aDBFile.lastModified() == iLastModified;
+    }
+
+    /**
+     * This method reports on the name of the DB format this index was built for.
+     *
+     * @return  String with the DB format name.
+     */
+    public String getDBName() {
+        return iDBName;
+    }
+
+    /**
+     * This method reports on the number of entries in the index.
+     *
+     * @return  int with the number of entries.
+     */
+    public int size() {
+        return iSize;
+    }
+
+    /**
+     * This method returns the byte offset of the specified entry.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry.
+     * @return  long with the byte offset of the entry in the file.
+     */
+    public long getOffset(int aOrdinal) {
+        return iOffsets[aOrdinal];
+    }
+
+    /**
+     * This method returns the length (in bytes) of the specified entry.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry.
+     * @return  int with the length of the entry in the file.
+     */
+    public int getLength(int aOrdinal) {
+        return iLengths[aOrdinal];
+    }
+
+    /**
+     * This method returns the primary accession number of the specified entry.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry.
+     * @return  String with the accession number, or 'null' if none could be determined.
+     */
+    public String getAccession(int aOrdinal) {
+        return iAccessions[aOrdinal];
+    }
+
+    /**
+     * This method finds the ordinal of the first entry with the specified accession number.
+     *
+     * @param   aAccession  String with the accession number to look for.
+     * @return  int with the ordinal of the entry, or -1 if the accession number is not in the index.
+     */
+    public int findOrdinal(String aAccession) {
+        if(aAccession == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = iSize - 1;
+        int found = -1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            String midAccession = iAccessions[iSortedOrdinals[mid]];
+            int comp = (midAccession == null)?-1:midAccession.compareTo(aAccession);
+            if(comp < 0) {
+                low = mid + 1;
+            } else if(comp > 0) {
+                high = mid - 1;
+            } else {
+                found = mid;
+                // Keep looking to the left for the first occurrence.
+                high = mid - 1;
+            }
+        }
+        return (found < 0)?-1:iSortedOrdinals[found];
+    }
+
+    /**
+     * This method extracts the accession number from a FASTA header line,
+     * the way the Protein class would.
+     *
+     * @param   aHeaderLine String with the FASTA header line.
+     * @return  String with the accession number, or 'null' if none could be found.
+     */
+    public static String getFASTAAccession(String aHeaderLine) {
+        String accession = null;
+        String line = aHeaderLine.trim();
+        try {
+            Header header = Header.parseFromFASTA(line);
+            if(header != null) {
+                accession = header.getAccession();
+            }
+        } catch(RuntimeException re) {
+            // Fall back on the first token below.
+        }
+        if(accession == null && line.length() > 1) {
+            int end = line.indexOf(' ');
+            accession = (end < 0)?line.substring(1):line.substring(1, end);
+        }
+        return accession;
+    }
+
+    /**
+     * This method extracts the primary accession number from a SwissProt 'AC' line.
+     *
+     * @param   aACLine String with the 'AC' line.
+     * @return  String with the first accession number on the line.
+     */
+    public static String getSwissProtAccession(String aACLine) {
+        String temp = aACLine.substring(5);
+        int location = temp.indexOf(';');
+        if(location >= 0) {
+            temp = temp.substring(0, location);
+        }
+        return temp.trim();
+    }
+
+    /**
+     * This method extracts the primary accession number from a raw entry, as
+     * reported by the 'nextRawEntry' method of a DBLoader of the specified format.
+     *
+     * @param   aRawEntry   String with the raw entry.
+     * @param   aDBName String with the DB format of the entry.
+     * @return  String with the accession number, or 'null' if none could be found.
+     */
+    public static String getAccession(String aRawEntry, String aDBName) {
+        String accession = null;
+        if(DBLoader.SWISSPROT.equals(aDBName)) {
+            int start = aRawEntry.startsWith("AC   ")?0:aRawEntry.indexOf("\nAC   ");
+            if(start >= 0) {
+                if(aRawEntry.charAt(start) == '\n') {
+                    start++;
+                }
+                int end = aRawEntry.indexOf('\n', start);
+                accession = getSwissProtAccession((end < 0)?aRawEntry.substring(start):aRawEntry.substring(start, end));
+            }
+        } else {
+            int end = aRawEntry.indexOf('\n');
+            accession = getFASTAAccession((end < 0)?aRawEntry:aRawEntry.substring(0, end));
+        }
+        return accession;
+    }
+
+    /**
+     * This method adds an entry to the index.
+     *
+     * @param   aOffset long with the byte offset of the entry.
+     * @param   aLength long with the length (in bytes) of the entry.
+     * @param   aAccession  String with the accession number (can be 'null').
+     */
+    private void add(long aOffset, long aLength, String aAccession) {
+        if(iSize == iOffsets.length) {
+            int capacity = iOffsets.length*2;
+            long[] offsets = new long[capacity];
+            System.arraycopy(iOffsets, 0, offsets, 0, iSize);
+            iOffsets = offsets;
+            int[] lengths = new int[capacity];
+            System.arraycopy(iLengths, 0, lengths, 0, iSize);
+            iLengths = lengths;
+            String[] accessions = new String[capacity];
+            System.arraycopy(iAccessions, 0, accessions, 0, iSize);
+            iAccessions = accessions;
+        }
+        iOffsets[iSize] = aOffset;
+        iLengths[iSize] = (int)aLength;
+        iAccessions[iSize] = aAccession;
+        iSize++;
+    }
+
+    /**
+     * This method creates the ordinal table sorted on accession number.
+     * The sort is stable, so entries sharing an accession number keep their
+     * relative order.
+     */
+    private void sortAccessions() {
+        Integer[] ordinals = new Integer[iSize];
+        for(int i = 0; i < iSize; i++) {
+            ordinals[i] = new Integer(i);
+        }
+        Arrays.sort(ordinals, new Comparator() {
+            public int compare(Object o1, Object o2) {
+                String acc1 = iAccessions[((Integer)o1).intValue()];
+                String acc2 = iAccessions[((Integer)o2).intValue()];
+                if(acc1 == null) {
+                    return (acc2 == null)?0:-1;
+                } else if(acc2 == null) {
+                    return 1;
+                }
+                return acc1.compareTo(acc2);
+            }
+        });
+        iSortedOrdinals = new int[iSize];
+        for(int i = 0; i < iSize; i++) {
+            iSortedOrdinals[i] = ordinals[i].intValue();
+        }
+    }
+
+    /**
+     * This class reads an InputStream line by line, keeping track of the byte offset
+     * of each line. Lines are only decoded into Strings on request.
+     */
+    static class LineScanner {
+        private InputStream iIn = null;
+        private byte[] iBuffer = new byte[BUFFER_SIZE];
+        private int iBufferPos = 0;
+        private int iBufferLimit = 0;
+        private long iBufferStart = 0;
+        private byte[] iLine = new byte[256];
+        private int iLineLength = 0;
+        private long iLineStart = 0;
+        private long iLineEnd = 0;
+
+        public LineScanner(InputStream aIn) {
+            this(aIn, 0);
+        }
+
+        /**
+         * This constructor takes a stream that has already been positioned
+         * at the specified byte offset in the file.
+         *
+         * @param   aIn InputStream positioned at the offset.
+         * @param   aOffset long with the byte offset of the stream in the file.
+         */
+        public LineScanner(InputStream aIn, long aOffset) {
+            this.iIn = aIn;
+            this.iBufferStart = aOffset;
+            this.iLineEnd = aOffset;
+        }
+
+        /**
+         * This method advances to the next line.
+         *
+         * @return  boolean 'false' when EOF was reached.
+         * @exception   IOException when reading failed.
+         */
+        public boolean nextLine() throws IOException {
+            iLineStart = iLineEnd;
+            iLineLength = 0;
+            boolean any = false;
+            while(true) {
+                if(iBufferPos == iBufferLimit) {
+                    iBufferStart += iBufferLimit;
+                    iBufferPos = 0;
+                    iBufferLimit = iIn.read(iBuffer);
+                    if(iBufferLimit <= 0) {
+                        iBufferLimit = 0;
+                        break;
+                    }
+                }
+                byte b = iBuffer[iBufferPos++];
+                any = true;
+                if(b == '\n') {
+                    break;
+                }
+                if(iLineLength == iLine.length) {
+                    byte[] temp = new byte[iLine.length*2];
+                    System.arraycopy(iLine, 0, temp, 0, iLineLength);
+                    iLine = temp;
+                }
+                iLine[iLineLength++] = b;
+            }
+            iLineEnd = iBufferStart + iBufferPos;
+            if(iLineLength > 0 && iLine[iLineLength-1] == '\r') {
+                iLineLength--;
+            }
+            return any;
+        }
+
+        /**
+         * @return  int with the first non-whitespace character on the line, or -1 for a blank line.
+         */
+        public int firstCharacter() {
+            for(int i = 0; i < iLineLength; i++) {
+                if(iLine[i] > ' ') {
+                    return iLine[i];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @param   aPrefix String with the prefix to check.
+         * @return  boolean 'true' if the line starts with the specified (ASCII) prefix.
+         */
+        public boolean startsWith(String aPrefix) {
+            int length = aPrefix.length();
+            if(iLineLength < length) {
+                return false;
+            }
+            for(int i = 0; i < length; i++) {
+                if(iLine[i] != aPrefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public String getLine() {
+            char[] chars = new char[iLineLength];
+            for(int i = 0; i < iLineLength; i++) {
+                chars[i] = (char)(iLine[i] & 0xFF);
+            }
+            return new String(chars);
+        }
+
+        public long getLineStart() {
+            return iLineStart;
+        }
+
+        public long getLineEnd() {
+            return iLineEnd;
+        }
+
+        public void close() throws IOException {
+            iIn.close();
+        }
+    }
+}
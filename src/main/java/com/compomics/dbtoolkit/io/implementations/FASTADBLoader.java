@@ -14,6 +14,7 @@ package com.compomics.dbtoolkit.io.implementations;
 
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.HeaderFilter;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -40,6 +41,11 @@ public class FASTADBLoader extends DefaultDBLoader {
     private String iLastLine = null;
     private boolean iFirstLine = true;
 
+    /**
+     * The buffer used to skip the sequences of entries that do not pass a HeaderFilter.
+     */
+    private char[] iSkipBuffer = null;
+
     /**
      * Default constructor.
      */
@@ -85,6 +91,38 @@ public class FASTADBLoader extends DefaultDBLoader {
         return result;
     }
 
+    /**
+     * This method reports on the next entry that passes the filter in raw format.
+     * A HeaderFilter that only needs the header line is evaluated as soon as the header
+     * line is read, and the sequence of an entry that does not pass is skipped unread.
+     *
+     * @param   aFilter Filter instance against which checks are made.
+     * @return  String  with the next filtered raw entry, or 'null' if no more
+     *                  passed entries are found.
+     * @exception   IOException when something goes wrong while reading the DB file.
+     */
+    public String nextFilteredRawEntry(Filter aFilter) throws IOException {
+        if(!(aFilter instanceof HeaderFilter) || !((HeaderFilter)aFilter).isHeaderOnly()) {
+            return super.nextFilteredRawEntry(aFilter);
+        }
+        HeaderFilter filter = (HeaderFilter)aFilter;
+        if(iSkipBuffer == null) {
+            iSkipBuffer = new char[8192];
+        }
+        String line = null;
+        if(iFirstLine) {
+            line = iBr.readLine();
+            iFirstLine = false;
+        } else {
+            line = iLastLine;
+        }
+        while(line != null && !filter.passesHeader(line)) {
+            line = DefaultDBLoader.skipToLineStartingWith(iBr, iSkipBuffer, '>');
+        }
+        iLastLine = line;
+        return this.nextRawEntry();
+    }
+
     /**
      * This method will report on the next entry in the DB in FASTA format.
      * The information content relative to the original format is implementation dependant.
@@ -127,6 +165,11 @@ public class FASTADBLoader extends DefaultDBLoader {
      * @exception   IOException when something goes wrong while reading the file.
      */
     public long countNumberOfEntries() throws IOException {
+        // The index knows the answer, if we have one.
+        if(iIndex != null) {
+            this.reset();
+            return iIndex.size();
+        }
         // We'll cycle the DB and read all entries,
         this.reset();
         // Clean-up any leftover cancellation stuff.
@@ -149,6 +192,25 @@ public class FASTADBLoader extends DefaultDBLoader {
         return counter;
     }
 
+    /**
+     * This method reads a single raw entry from the specified reader.
+     *
+     * @param   aBr BufferedReader positioned at the header of the entry.
+     * @return  String with the raw entry.
+     * @exception   IOException when the entry could not be read.
+     */
+    protected String readRawEntry(BufferedReader aBr) throws IOException {
+        StringBuffer lSB = new StringBuffer();
+        String line = aBr.readLine();
+        if(line != null) {
+            lSB.append(line + "\n");
+            while((line = aBr.readLine()) != null) {
+                lSB.append(line);
+            }
+        }
+        return lSB.toString();
+    }
+
     /**
      * This method resets the reader to the start of the file.
      *
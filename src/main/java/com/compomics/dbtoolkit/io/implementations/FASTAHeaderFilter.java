@@ -12,10 +12,9 @@
  */
 package com.compomics.dbtoolkit.io.implementations;
 
-import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.HeaderFilter;
 
 import java.util.HashMap;
-import java.util.StringTokenizer;
 
 /*
  * CVS information:
@@ -26,10 +25,12 @@ import java.util.StringTokenizer;
 
 /**
  * This class implements a header filter for a FASTA formatted database.
+ * The header is matched case-insensitively, and as it is all this filter needs,
+ * a FASTA DBLoader evaluates it as soon as it has read the header line.
  *
  * @author Lennart Martens
  */
-public class FASTAHeaderFilter implements Filter {
+public class FASTAHeaderFilter implements HeaderFilter {
 
     /**
      * This instance will convert the raw String passed in into a
@@ -89,17 +90,9 @@ public class FASTAHeaderFilter implements Filter {
      * @param   aEntry  String with the fasta entry to filter
      */
     public boolean passesFilter(String aEntry) {
-        boolean passed = false;
-
-        // Check the header.
-        HashMap hm = new HashMap(2);
-        StringTokenizer lSt = new StringTokenizer(aEntry, "\n");
-        hm.put(HEADER, lSt.nextToken());
-        hm.put(SEQUENCE, lSt.nextToken());
-
-        passed = this.passesFilter(hm);
-
-        return passed;
+        // Only the header line is checked.
+        int end = aEntry.indexOf('\n');
+        return this.passesHeader((end < 0)?aEntry:aEntry.substring(0, end));
     }
 
     /**
@@ -112,9 +105,7 @@ public class FASTAHeaderFilter implements Filter {
 
         Object os = aEntry.get(HEADER);
         if(os != null) {
-            if(((String)os).toUpperCase().indexOf(iMatch) >= 0) {
-                passed = true;
-            }
+            passed = this.matches((String)os);
         }
 
         if(iInvert) {
@@ -123,4 +114,70 @@ public class FASTAHeaderFilter implements Filter {
 
         return passed;
     }
+
+    /**
+     * This method reports on whether the header line suffices to decide on an entry,
+     * which is always the case for this filter.
+     *
+     * @return  boolean that is always 'true'.
+     */
+    public boolean isHeaderOnly() {
+        return true;
+    }
+
+    /**
+     * This method tests whether the entry with the specified header line passes the filter.
+     *
+     * @param   aHeader String with the header line of the FASTA entry.
+     * @return  boolean 'true' if the entry passes the filter, 'false' otherwise.
+     */
+    public boolean passesHeader(String aHeader) {
+        boolean passed = this.matches(aHeader);
+
+        if(iInvert) {
+            passed = ! passed;
+        }
+
+        return passed;
+    }
+
+    /**
+     * This method reports on whether the header contains the match String.
+     *
+     * @param   aHeader String with the header.
+     * @return  boolean 'true' if the header contains the match String (ignoring case).
+     */
+    protected boolean matches(String aHeader) {
+        return containsIgnoreCase(aHeader, iMatch);
+    }
+
+    /**
+     * This method reports on whether the specified text contains the specified upper case
+     * String, ignoring the case of the text. Unlike 'aText.toUpperCase().indexOf(aUpperMatch)',
+     * it compares the characters in place, without copying the text.
+     *
+     * @param   aText   String to search.
+     * @param   aUpperMatch String in upper case to find.
+     * @return  boolean 'true' if the text contains the match String.
+     */
+    protected static boolean containsIgnoreCase(String aText, String aUpperMatch) {
+        int length = aUpperMatch.length();
+        int last = aText.length() - length;
+        if(length == 0) {
+            return last >= 0;
+        }
+        char first = aUpperMatch.charAt(0);
+        for(int i = 0; i <= last; i++) {
+            if(Character.toUpperCase(aText.charAt(i)) == first) {
+                int j = 1;
+                while(j < length && Character.toUpperCase(aText.charAt(i + j)) == aUpperMatch.charAt(j)) {
+                    j++;
+                }
+                if(j == length) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
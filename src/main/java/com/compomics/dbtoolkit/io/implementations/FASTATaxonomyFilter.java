@@ -12,8 +12,6 @@
  */
 package com.compomics.dbtoolkit.io.implementations;
 
-import java.util.HashMap;
-
 /*
  * CVS information:
  *
@@ -28,6 +26,11 @@ import java.util.HashMap;
  */
 public class FASTATaxonomyFilter extends FASTAHeaderFilter {
 
+    /**
+     * The taxonomy to match, between square brackets.
+     */
+    private final String iTaxonomy;
+
     /**
      * This constructor takes the match String against which a successfull
      * taxonomy match must be detected for the header fields before an entry can pass
@@ -37,6 +40,7 @@ public class FASTATaxonomyFilter extends FASTAHeaderFilter {
      */
     public FASTATaxonomyFilter(String aMatch) {
         super(aMatch);
+        this.iTaxonomy = "[" + iMatch + "]";
     }
 
     /**
@@ -50,27 +54,16 @@ public class FASTATaxonomyFilter extends FASTAHeaderFilter {
      */
     public FASTATaxonomyFilter(String aMatch, boolean aInvert) {
         super(aMatch, aInvert);
+        this.iTaxonomy = "[" + iMatch + "]";
     }
 
     /**
-     * This method tests whether the entry passes the filter.
+     * This method reports on whether the header contains the taxonomy, between square brackets.
      *
-     * @param   aEntry  HashMap with the raw entry to filter.
+     * @param   aHeader String with the header.
+     * @return  boolean 'true' if the header contains the taxonomy (ignoring case).
      */
-    public boolean passesFilter(HashMap aEntry) {
-        boolean passed = false;
-
-        Object os = aEntry.get(HEADER);
-        if(os != null) {
-            if(((String)os).toUpperCase().indexOf("[" + iMatch + "]") >= 0) {
-                passed = true;
-            }
-        }
-
-        if(iInvert) {
-            passed = ! passed;
-        }
-
-        return passed;
+    protected boolean matches(String aHeader) {
+        return containsIgnoreCase(aHeader, iTaxonomy);
     }
 }
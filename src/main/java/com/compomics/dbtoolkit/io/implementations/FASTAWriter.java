@@ -0,0 +1,483 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 23:58:14
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
+import com.compomics.util.protein.Protein;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 23:58:14 $
+ */
+
+/**
+ * This class writes protein entries in FASTA format. By default, the output is identical to
+ * that of Protein.writeToFASTAFile (header line, followed by the sequence in lines of 60 residues),
+ * but the entries are formatted directly into byte buffers, wrapping the sequence lines
+ * without creating intermediate Strings. <br />
+ * When created with a queue, the filled buffers are handed to a background thread that
+ * writes them to the underlying stream, and recycled afterwards. The producer then only has
+ * to wait for the disk when the queue is full. Any error on the writer thread is reported
+ * by the next call to a write, flush or close method. <br />
+ * The buffers are plain byte arrays rather than direct ByteBuffers. The output goes to an
+ * OutputStream, which is often a ParallelGZIPOutputStream or standard out rather than a file,
+ * and both take byte arrays. Data in a direct buffer would have to be copied back onto the heap
+ * for these, and for files, FileOutputStream copies heap arrays into native memory just once
+ * per write, which is negligible for buffers this large. <br />
+ * This class is not thread-safe; it should be fed by a single thread.
+ *
+ * @author Lennart Martens
+ */
+public class FASTAWriter {
+
+    /**
+     * The default number of residues per sequence line.
+     */
+    public static final int LINE_LENGTH = 60;
+
+    /**
+     * The default size of the buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256*1024;
+
+    /**
+     * The default number of filled buffers that can wait for the writer thread.
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 8;
+
+    /**
+     * The line separator, as written by PrintWriter.println.
+     */
+    private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes();
+
+    /**
+     * Marker asking the writer thread to flush the underlying stream.
+     */
+    private static final Block FLUSH = new Block(null);
+
+    /**
+     * Marker telling the writer thread to stop.
+     */
+    private static final Block END = new Block(null);
+
+    /**
+     * The stream to write to.
+     */
+    private OutputStream iOut = null;
+
+    /**
+     * The buffer currently being filled.
+     */
+    private Block iCurrent = null;
+
+    /**
+     * The scratch space for copying the characters out of a String.
+     */
+    private char[] iChars = new char[1024];
+
+    /**
+     * The number of residues per sequence line (0 for no wrapping).
+     */
+    private int iLineLength = LINE_LENGTH;
+
+    /**
+     * The size of the buffers.
+     */
+    private int iBufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * The filled buffers waiting for the writer thread, or 'null' when writing synchronously.
+     */
+    private BlockingQueue iFilled = null;
+
+    /**
+     * The buffers that have been written and can be reused.
+     */
+    private BlockingQueue iFree = null;
+
+    /**
+     * The number of buffers allocated so far.
+     */
+    private int iAllocated = 0;
+
+    /**
+     * The maximal number of buffers.
+     */
+    private int iMaxBuffers = 1;
+
+    /**
+     * The background writer thread.
+     */
+    private Thread iWriter = null;
+
+    /**
+     * The first error that occurred on the writer thread.
+     */
+    private volatile IOException iError = null;
+
+    /**
+     * The number of entries written.
+     */
+    private volatile long iEntries = 0;
+
+    /**
+     * The number of bytes written.
+     */
+    private volatile long iBytes = 0;
+
+    /**
+     * This boolean is set when the writer has been closed.
+     */
+    private boolean iClosed = false;
+
+    /**
+     * This constructor writes synchronously to the specified stream, using the default buffer size.
+     *
+     * @param   aOut    OutputStream to write to.
+     */
+    public FASTAWriter(OutputStream aOut) {
+        this(aOut, DEFAULT_BUFFER_SIZE, 0);
+    }
+
+    /**
+     * This constructor writes to the specified stream, using the specified buffer size.
+     * If the queue size is positive, a background thread does the actual writing.
+     *
+     * @param   aOut    OutputStream to write to.
+     * @param   aBufferSize int with the size of the buffers.
+     * @param   aQueueSize  int with the number of filled buffers that can wait for the writer
+     *                      thread, or 0 to write synchronously.
+     */
+    public FASTAWriter(OutputStream aOut, int aBufferSize, int aQueueSize) {
+        if(aBufferSize < 1 || aQueueSize < 0) {
+            throw new IllegalArgumentException("The buffer size should be positive and the queue size should not be negative!");
+        }
+        this.iOut = aOut;
+        this.iBufferSize = aBufferSize;
+        this.iCurrent = new Block(new byte[aBufferSize]);
+        this.iAllocated = 1;
+        if(aQueueSize > 0) {
+            // One buffer is being filled, one is being written and the rest wait in the queue.
+            this.iMaxBuffers = aQueueSize + 2;
+            this.iFilled = new ArrayBlockingQueue(aQueueSize);
+            this.iFree = new ArrayBlockingQueue(iMaxBuffers);
+            iWriter = new Thread(new Runnable() {
+                public void run() {
+                    writeBlocks();
+                }
+            }, "FASTA writer");
+            iWriter.setDaemon(true);
+            iWriter.start();
+        }
+    }
+
+    /**
+     * This constructor is meant for subclasses that override all of the writing
+     * methods (eg., to write through other FASTAWriters).
+     */
+    protected FASTAWriter() {
+    }
+
+    /**
+     * This method opens a FASTAWriter on the specified file, writing on a background thread.
+     * The output is GZIP compressed when requested, or when the filename ends in '.gz'.
+     *
+     * @param   aFile   File to write to.
+     * @param   aCompress   boolean to request compression regardless of the extension.
+     * @return  FASTAWriter on the file.
+     * @exception   IOException when the file could not be created.
+     */
+    public static FASTAWriter open(File aFile, boolean aCompress) throws IOException {
+        return new FASTAWriter(ParallelGZIPOutputStream.open(aFile, aCompress), DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * This method sets the number of residues per sequence line.
+     * A length of 0 writes each sequence on a single line.
+     *
+     * @param   aLineLength int with the number of residues per line, or 0 for no wrapping.
+     */
+    public void setLineLength(int aLineLength) {
+        if(aLineLength < 0) {
+            throw new IllegalArgumentException("The line length should not be negative!");
+        }
+        this.iLineLength = aLineLength;
+    }
+
+    /**
+     * This method writes the specified Protein, using its full header (including addenda).
+     *
+     * @param   aProtein    Protein to write.
+     * @exception   IOException when writing failed.
+     */
+    public void write(Protein aProtein) throws IOException {
+        this.write(aProtein.getHeader().getFullHeaderWithAddenda(), aProtein.getSequence().getSequence());
+    }
+
+    /**
+     * This method writes the specified DBRecord, using its original header line.
+     *
+     * @param   aRecord DBRecord to write.
+     * @exception   IOException when writing failed.
+     */
+    public void write(DBRecord aRecord) throws IOException {
+        this.write(aRecord.getHeaderLine(), aRecord.getSequence());
+    }
+
+    /**
+     * This method writes an entry with the specified header line and sequence.
+     *
+     * @param   aHeader String with the header line (including the leading '&gt;').
+     * @param   aSequence   String with the sequence.
+     * @exception   IOException when writing failed.
+     */
+    public void write(String aHeader, String aSequence) throws IOException {
+        this.checkOpen();
+        this.writeChars(aHeader, 0, aHeader.length());
+        this.writeBytes(LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+        int length = aSequence.length();
+        int lineLength = (iLineLength == 0)?Math.max(length, 1):iLineLength;
+        for(int start = 0; start < length; start += lineLength) {
+            this.writeChars(aSequence, start, Math.min(start + lineLength, length));
+            this.writeBytes(LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+        }
+        iEntries++;
+    }
+
+    /**
+     * This method reports on the number of entries written so far.
+     *
+     * @return  long with the number of entries.
+     */
+    public long getEntryCount() {
+        return iEntries;
+    }
+
+    /**
+     * This method reports on the number of bytes written so far. Note that these
+     * are the bytes handed to the underlying stream, ie., before any compression.
+     *
+     * @return  long with the number of bytes.
+     */
+    public long getByteCount() {
+        return iBytes;
+    }
+
+    /**
+     * This method hands the buffered data to the underlying stream and flushes it.
+     * When writing on a background thread, the flush happens asynchronously.
+     *
+     * @exception   IOException when writing failed.
+     */
+    public void flush() throws IOException {
+        this.checkOpen();
+        this.handOver();
+        if(iFilled != null) {
+            this.put(FLUSH);
+        } else {
+            iOut.flush();
+        }
+    }
+
+    /**
+     * This method writes all buffered data, waits for the writer thread to finish
+     * and closes the underlying stream.
+     *
+     * @exception   IOException when writing failed.
+     */
+    public void close() throws IOException {
+        if(iClosed) {
+            return;
+        }
+        try {
+            this.handOver();
+        } finally {
+            iClosed = true;
+            if(iFilled != null) {
+                try {
+                    this.put(END);
+                    iWriter.join();
+                } catch(InterruptedException ie) {
+                    iWriter.interrupt();
+                }
+            }
+            iOut.close();
+        }
+        if(iError != null) {
+            throw iError;
+        }
+    }
+
+    /**
+     * This method writes the specified characters, encoding them as single bytes as long
+     * as they are ASCII, and falling back to the platform encoding otherwise.
+     *
+     * @param   aText   String to write from.
+     * @param   aStart  int with the start index (inclusive).
+     * @param   aEnd    int with the end index (exclusive).
+     * @exception   IOException when writing failed.
+     */
+    private void writeChars(String aText, int aStart, int aEnd) throws IOException {
+        int length = aEnd - aStart;
+        if(iChars.length < length) {
+            iChars = new char[Math.max(length, iChars.length*2)];
+        }
+        aText.getChars(aStart, aEnd, iChars, 0);
+        for(int i = 0; i < length; i++) {
+            char c = iChars[i];
+            if(c >= 128) {
+                byte[] bytes = new String(iChars, i, length - i).getBytes();
+                this.writeBytes(bytes, 0, bytes.length);
+                return;
+            }
+            if(iCurrent.iLength == iBufferSize) {
+                this.handOver();
+            }
+            iCurrent.iData[iCurrent.iLength++] = (byte)c;
+            iBytes++;
+        }
+    }
+
+    /**
+     * This method copies the specified bytes into the buffers.
+     *
+     * @param   aBytes  byte[] to write from.
+     * @param   aOffset int with the offset of the first byte.
+     * @param   aLength int with the number of bytes.
+     * @exception   IOException when writing failed.
+     */
+    private void writeBytes(byte[] aBytes, int aOffset, int aLength) throws IOException {
+        iBytes += aLength;
+        while(aLength > 0) {
+            if(iCurrent.iLength == iBufferSize) {
+                this.handOver();
+            }
+            int chunk = Math.min(aLength, iBufferSize - iCurrent.iLength);
+            System.arraycopy(aBytes, aOffset, iCurrent.iData, iCurrent.iLength, chunk);
+            iCurrent.iLength += chunk;
+            aOffset += chunk;
+            aLength -= chunk;
+        }
+    }
+
+    /**
+     * This method hands the current buffer to the underlying stream (directly, or through
+     * the writer thread) and makes a new or recycled buffer current.
+     *
+     * @exception   IOException when writing failed.
+     */
+    private void handOver() throws IOException {
+        if(iError != null) {
+            throw iError;
+        }
+        if(iCurrent.iLength == 0) {
+            return;
+        }
+        if(iFilled == null) {
+            iOut.write(iCurrent.iData, 0, iCurrent.iLength);
+            iCurrent.iLength = 0;
+        } else {
+            this.put(iCurrent);
+            Block next = (Block)iFree.poll();
+            if(next == null) {
+                if(iAllocated < iMaxBuffers) {
+                    next = new Block(new byte[iBufferSize]);
+                    iAllocated++;
+                } else {
+                    try {
+                        next = (Block)iFree.take();
+                    } catch(InterruptedException ie) {
+                        throw new InterruptedIOException("Interrupted while waiting for a free buffer!");
+                    }
+                }
+            }
+            next.iLength = 0;
+            iCurrent = next;
+        }
+    }
+
+    /**
+     * This method queues the specified buffer for the writer thread.
+     *
+     * @param   aBlock  Block to queue.
+     * @exception   IOException when interrupted.
+     */
+    private void put(Block aBlock) throws IOException {
+        try {
+            iFilled.put(aBlock);
+        } catch(InterruptedException ie) {
+            throw new InterruptedIOException("Interrupted while queueing output!");
+        }
+    }
+
+    /**
+     * This method is run by the writer thread. It writes the queued buffers until
+     * the end marker is found. After an error, the buffers are just recycled so the
+     * producer never blocks forever.
+     */
+    private void writeBlocks() {
+        try {
+            Block block = null;
+            while((block = (Block)iFilled.take()) != END) {
+                if(iError == null) {
+                    try {
+                        if(block == FLUSH) {
+                            iOut.flush();
+                        } else {
+                            iOut.write(block.iData, 0, block.iLength);
+                        }
+                    } catch(IOException ioe) {
+                        iError = ioe;
+                    }
+                }
+                if(block != FLUSH) {
+                    iFree.offer(block);
+                }
+            }
+        } catch(InterruptedException ie) {
+            iError = new InterruptedIOException("FASTA writer thread interrupted!");
+        }
+    }
+
+    /**
+     * This method checks whether the writer is still open.
+     *
+     * @exception   IOException when the writer has been closed.
+     */
+    private void checkOpen() throws IOException {
+        if(iClosed) {
+            throw new IOException("FASTAWriter closed!");
+        }
+    }
+
+    /**
+     * This class holds a buffer and the number of bytes in it.
+     */
+    private static class Block {
+        private byte[] iData = null;
+        private int iLength = 0;
+
+        public Block(byte[] aData) {
+            this.iData = aData;
+        }
+    }
+}
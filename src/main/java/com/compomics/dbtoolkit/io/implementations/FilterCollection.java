@@ -12,8 +12,11 @@
  */
 package com.compomics.dbtoolkit.io.implementations;
 
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.HeaderFilter;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Vector;
 
@@ -25,11 +28,17 @@ import java.util.Vector;
  */
 
 /**
- * This class 
+ * This class combines Filters with a Boolean AND or OR operator. When all of the Filters
+ * are FieldFilters, only the fields they read are extracted from a raw (SwissProt) entry,
+ * once, and shared by all of them. When all of the Filters are HeaderFilters that only need
+ * the header line, the collection can be evaluated on the header line of a FASTA entry. <br />
+ * The Filters are only evaluated until the outcome is known. In adaptive mode, the Filters
+ * are reordered after a sample of the first entries, so that cheap and selective Filters
+ * are evaluated first.
  *
  * @author Lennart
  */
-public class FilterCollection extends Vector implements Filter {
+public class FilterCollection extends Vector implements FieldFilter, HeaderFilter {
 
     /**
      * This variable can be passed to the constructor to indicate a Boolean AND
@@ -43,6 +52,11 @@ public class FilterCollection extends Vector implements Filter {
      */
     public static final int OR = 1;
 
+    /**
+     * The default number of entries sampled by an adaptive collection.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
     /**
      * This variable keeps track of the mode this collection is in.
      */
@@ -53,6 +67,55 @@ public class FilterCollection extends Vector implements Filter {
      */
     private boolean iInvert = false;
 
+    /**
+     * The evaluator that joins the results of the Filters, and adapts their order.
+     */
+    private FilterEvaluator iEvaluator = new FilterEvaluator();
+
+    /**
+     * The fields required by the Filters, as last merged by 'passesFilter(String)'.
+     */
+    private volatile RequiredKeys iRequiredKeys = null;
+
+    /**
+     * Evaluates a Filter on a raw entry.
+     */
+    private static final FilterEvaluator.Call RAW = new FilterEvaluator.Call() {
+        public boolean isFilter(Object aElement) {
+            return aElement instanceof Filter;
+        }
+
+        public boolean passes(Object aFilter, Object aEntry) {
+            return ((Filter)aFilter).passesFilter((String)aEntry);
+        }
+    };
+
+    /**
+     * Evaluates a HeaderFilter on the header line of a FASTA entry.
+     */
+    private static final FilterEvaluator.Call HEADER = new FilterEvaluator.Call() {
+        public boolean isFilter(Object aElement) {
+            return aElement instanceof Filter;
+        }
+
+        public boolean passes(Object aFilter, Object aEntry) {
+            return ((HeaderFilter)aFilter).passesHeader((String)aEntry);
+        }
+    };
+
+    /**
+     * Evaluates a Filter on the HashMap of an entry.
+     */
+    private static final FilterEvaluator.Call FIELDS = new FilterEvaluator.Call() {
+        public boolean isFilter(Object aElement) {
+            return aElement instanceof Filter;
+        }
+
+        public boolean passes(Object aFilter, Object aEntry) {
+            return ((Filter)aFilter).passesFilter((HashMap)aEntry);
+        }
+    };
+
     /**
      * The constructor requires that the mode in which the added Filters are evaluated
      * is specified. Please use only the modes defined as static final ints on this class.
@@ -123,17 +186,18 @@ public class FilterCollection extends Vector implements Filter {
     public boolean passesFilter(String aEntry) {
         boolean result = false;
 
-        switch(iMode) {
-            case FilterCollection.AND:
-                result = this.evaluateANDFilters(aEntry);
-                break;
-            case FilterCollection.OR:
-                result = this.evaluateORFilters(aEntry);
-                break;
-            default:
-                result = false;
+        // Extract the fields all Filters need only once (FASTA entries hold no such fields).
+        String[] keys = this.getCachedRequiredKeys();
+        if(keys != null && this.size() > 0 && !aEntry.startsWith(">")) {
+            try {
+                return this.passesFilter(SwissProtFormat.getInstance().extract(aEntry, keys));
+            } catch(IOException ioe) {
+                // Leave it to the Filters themselves.
+            }
         }
 
+        result = this.evaluateFilters(RAW, aEntry);
+
         if(iInvert) {
             result = !result;
         }
@@ -147,18 +211,7 @@ public class FilterCollection extends Vector implements Filter {
      * @param   aEntry  HashMap with the raw entry to filter.
      */
     public boolean passesFilter(HashMap aEntry) {
-        boolean result = false;
-
-        switch(iMode) {
-            case FilterCollection.AND:
-                result = this.evaluateANDFilters(aEntry);
-                break;
-            case FilterCollection.OR:
-                result = this.evaluateORFilters(aEntry);
-                break;
-            default:
-                result = false;
-        }
+        boolean result = this.evaluateFilters(FIELDS, aEntry);
 
         if(iInvert) {
             result = !result;
@@ -168,92 +221,169 @@ public class FilterCollection extends Vector implements Filter {
     }
 
     /**
-     * This method will evaluate the given entry against all listed
-     * Filters, joining their results by boolean AND operator.
+     * This method reports on the fields the Filters in this collection read from the
+     * HashMap of an entry.
      *
-     * @param   aEntry  String with the raw entry to filter.
-     * @return  boolean with the result of the operation (Filter1(entry) AND Filter2(entry) AND ...).
+     * @return  String[]    with the line keys of all the fields, or 'null' if any of
+     *                      the Filters requires the entire entry.
      */
-    private boolean evaluateANDFilters(String aEntry) {
-        boolean result = true;
+    public String[] getRequiredKeys() {
+        Vector keys = new Vector();
         int liSize = this.size();
         for(int i=0;i<liSize;i++) {
             Object temp = this.get(i);
-            if(temp instanceof Filter) {
-                Filter f = (Filter)temp;
-                if(!f.passesFilter(aEntry)) {
-                    result = false;
+            if(!(temp instanceof FieldFilter)) {
+                return null;
+            }
+            String[] required = ((FieldFilter)temp).getRequiredKeys();
+            if(required == null) {
+                return null;
+            }
+            for(int j = 0; j < required.length; j++) {
+                if(!keys.contains(required[j])) {
+                    keys.add(required[j]);
                 }
             }
         }
+        String[] result = new String[keys.size()];
+        keys.toArray(result);
         return result;
     }
 
     /**
-     * This method will evaluate the given entry against all listed
-     * Filters, joining their results by boolean AND operator.
+     * This method replaces the element at the specified position. Unlike the Vector it
+     * extends, it counts this as a modification, so the required fields are merged again.
      *
-     * @param   aEntry  HashMap with the raw entry to filter.
-     * @return  boolean with the result of the operation (Filter1(entry) AND Filter2(entry) AND ...).
+     * @param   aIndex  int with the position of the element to replace.
+     * @param   aElement    Object to store at the position.
+     * @return  Object  with the element previously at the position.
      */
-    private boolean evaluateANDFilters(HashMap aEntry) {
-        boolean result = true;
-        int liSize = this.size();
-        for(int i=0;i<liSize;i++) {
-            Object temp = this.get(i);
-            if(temp instanceof Filter) {
-                Filter f = (Filter)temp;
-                if(!f.passesFilter(aEntry)) {
-                    result = false;
-                }
-            }
-        }
+    public synchronized Object set(int aIndex, Object aElement) {
+        Object result = super.set(aIndex, aElement);
+        modCount++;
         return result;
     }
 
     /**
-     * This method will evaluate the given entry against all listed
-     * Filters, joining their results by boolean OR operator.
+     * This method returns the fields the Filters in this collection read from the HashMap
+     * of an entry, merging them again only when the collection was modified.
      *
-     * @param   aEntry  String with the raw entry to filter.
-     * @return  boolean with the result of the operation (Filter1(entry) OR Filter2(entry) OR ...).
+     * @return  String[]    with the line keys of all the fields, or 'null' if any of
+     *                      the Filters requires the entire entry.
      */
-    private boolean evaluateORFilters(String aEntry) {
-        boolean result = false;
+    private String[] getCachedRequiredKeys() {
+        RequiredKeys cached = iRequiredKeys;
+        if(cached == null || cached.iModCount != modCount) {
+            cached = new RequiredKeys(modCount, this.getRequiredKeys());
+            iRequiredKeys = cached;
+        }
+        return cached.iKeys;
+    }
 
+    /**
+     * This method reports on whether the header line of a FASTA entry suffices to decide on
+     * the entry, ie. whether all Filters are HeaderFilters that only need the header line.
+     *
+     * @return  boolean that is 'true' when 'passesHeader' can be used instead of 'passesFilter'.
+     */
+    public boolean isHeaderOnly() {
         int liSize = this.size();
         for(int i=0;i<liSize;i++) {
             Object temp = this.get(i);
-            if(temp instanceof Filter) {
-                Filter f = (Filter)temp;
-                if(f.passesFilter(aEntry)) {
-                    result = true;
-                }
+            if((temp instanceof Filter) && !((temp instanceof HeaderFilter) && ((HeaderFilter)temp).isHeaderOnly())) {
+                return false;
             }
         }
-        return result;
+        return true;
     }
 
     /**
-     * This method will evaluate the given entry against all listed
-     * Filters, joining their results by boolean OR operator.
+     * This method tests whether the entry with the specified header line passes the filter.
+     * It should only be called when 'isHeaderOnly' returns 'true'.
      *
-     * @param   aEntry  HashMap with the raw entry to filter.
-     * @return  boolean with the result of the operation (Filter1(entry) OR Filter2(entry) OR ...).
+     * @param   aHeader String with the header line of the FASTA entry.
+     * @return  boolean 'true' if the entry passes the filter, 'false' otherwise.
      */
-    private boolean evaluateORFilters(HashMap aEntry) {
-        boolean result = false;
+    public boolean passesHeader(String aHeader) {
+        boolean result = this.evaluateFilters(HEADER, aHeader);
 
-        int liSize = this.size();
-        for(int i=0;i<liSize;i++) {
-            Object temp = this.get(i);
-            if(temp instanceof Filter) {
-                Filter f = (Filter)temp;
-                if(f.passesFilter(aEntry)) {
-                    result = true;
-                }
-            }
+        if(iInvert) {
+            result = !result;
         }
+
         return result;
     }
+
+    /**
+     * This method switches the adaptive mode on or off. In adaptive mode, all Filters are
+     * evaluated for the first entries, while their pass rate and cost are sampled. After that,
+     * the Filters are evaluated in the cheapest order (see FilterStatistics). Note that the
+     * Filters are always evaluated lazily: evaluation stops as soon as the outcome is known.
+     * Sampling restarts when Filters are added to or removed from the collection.
+     *
+     * @param   aSampleSize int with the number of entries to sample, or 0 to evaluate the
+     *                      Filters in the order they were added.
+     */
+    public void setAdaptive(int aSampleSize) {
+        iEvaluator.setAdaptive(aSampleSize);
+    }
+
+    /**
+     * This method sets the Clock used to measure the evaluation times of the Filters
+     * in adaptive mode. By default, the system clock is used.
+     *
+     * @param   aClock  FilterEvaluator.Clock to use.
+     */
+    public void setClock(FilterEvaluator.Clock aClock) {
+        iEvaluator.setClock(aClock);
+    }
+
+    /**
+     * This method returns the statistics collected on the Filters in adaptive mode.
+     *
+     * @return  FilterStatistics    with the statistics, or 'null' if the collection is not
+     *                              adaptive, or has not evaluated any entries since it was modified.
+     */
+    public FilterStatistics getStatistics() {
+        return iEvaluator.getStatistics(modCount);
+    }
+
+    /**
+     * This method returns the order in which the Filters are currently evaluated.
+     *
+     * @return  int[]   with the indices of the Filters, in the order of their evaluation.
+     */
+    public int[] getEvaluationOrder() {
+        return iEvaluator.getEvaluationOrder(this.size(), modCount);
+    }
+
+    /**
+     * This method will evaluate the given entry against the listed Filters,
+     * joining their results by the boolean operator of this collection. Evaluation stops
+     * as soon as the outcome is known, except while sampling in adaptive mode.
+     *
+     * @param   aCall   FilterEvaluator.Call that evaluates a single Filter on the entry.
+     * @param   aEntry  Object with the raw entry, header line or HashMap to filter.
+     * @return  boolean with the result of the operation (Filter1(entry) AND/OR Filter2(entry) AND/OR ...).
+     */
+    private boolean evaluateFilters(FilterEvaluator.Call aCall, Object aEntry) {
+        if(iMode != AND && iMode != OR) {
+            return false;
+        }
+        return iEvaluator.evaluate(this, modCount, iMode == AND, aCall, aEntry);
+    }
+
+    /**
+     * This class holds the merged fields required by the Filters, together with the
+     * modification count of the collection they were merged for.
+     */
+    private static class RequiredKeys {
+        private final int iModCount;
+        private final String[] iKeys;
+
+        public RequiredKeys(int aModCount, String[] aKeys) {
+            iModCount = aModCount;
+            iKeys = aKeys;
+        }
+    }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 11:42:19
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.util.List;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 11:42:19 $
+ */
+
+/**
+ * This class evaluates the filters of a FilterCollection or ProteinFilterCollection, joining
+ * their results by a Boolean AND or OR operator. Evaluation stops as soon as the outcome is
+ * known. In adaptive mode, all filters are evaluated for a sample of the first entries while
+ * their pass rate and cost are collected in a FilterStatistics, after which the filters are
+ * evaluated in the cheapest order. <br />
+ * The evaluation of a single filter on an entry is left to a Call, so the same evaluator
+ * serves all kinds of filters and entries. The evaluation times are read from a Clock,
+ * which is the system clock unless another one is set.
+ *
+ * @author Lennart Martens
+ */
+public class FilterEvaluator {
+
+    /**
+     * This interface evaluates a single filter of a collection on an entry.
+     */
+    public interface Call {
+
+        /**
+         * This method reports on whether the specified element of the collection is a
+         * filter this Call can evaluate. Other elements never decide the outcome.
+         *
+         * @param   aElement    Object with the element of the collection.
+         * @return  boolean 'true' if the element is a filter.
+         */
+        boolean isFilter(Object aElement);
+
+        /**
+         * This method evaluates the specified filter on the entry.
+         *
+         * @param   aFilter Object with the filter (for which 'isFilter' returned 'true').
+         * @param   aEntry  Object with the entry.
+         * @return  boolean with the result of the filter.
+         */
+        boolean passes(Object aFilter, Object aEntry);
+    }
+
+    /**
+     * This interface provides the time used to measure the cost of the filters.
+     */
+    public interface Clock {
+
+        /**
+         * This method returns the current time.
+         *
+         * @return  long with the current time in nanoseconds.
+         */
+        long nanoTime();
+    }
+
+    /**
+     * The Clock that reads 'System.nanoTime()'.
+     */
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * The Clock used to measure the evaluation times.
+     */
+    private Clock iClock = SYSTEM_CLOCK;
+
+    /**
+     * The number of entries sampled before the evaluation order is adapted,
+     * or 0 if the filters are always evaluated in the order they were added.
+     */
+    private int iSampleSize = 0;
+
+    /**
+     * The statistics collected on the filters while sampling (adaptive mode only).
+     */
+    private FilterStatistics iStatistics = null;
+
+    /**
+     * The order in which the filters are evaluated once the sample is complete.
+     */
+    private volatile int[] iOrder = null;
+
+    /**
+     * The modification count of the collection when sampling started.
+     */
+    private int iSampledModCount = -1;
+
+    /**
+     * This method switches the adaptive mode on or off.
+     *
+     * @param   aSampleSize int with the number of entries to sample, or 0 to evaluate the
+     *                      filters in the order they were added.
+     */
+    public synchronized void setAdaptive(int aSampleSize) {
+        if(aSampleSize < 0) {
+            throw new IllegalArgumentException("The sample size should not be negative!");
+        }
+        this.iSampleSize = aSampleSize;
+        this.iStatistics = null;
+        this.iOrder = null;
+        this.iSampledModCount = -1;
+    }
+
+    /**
+     * This method sets the Clock used to measure the evaluation times while sampling.
+     *
+     * @param   aClock  Clock to use.
+     */
+    public void setClock(Clock aClock) {
+        this.iClock = aClock;
+    }
+
+    /**
+     * This method returns the statistics collected on the filters in adaptive mode.
+     *
+     * @param   aModCount   int with the current modification count of the collection.
+     * @return  FilterStatistics    with the statistics, or 'null' if the collection is not
+     *                              adaptive, or has not evaluated any entries since it was modified.
+     */
+    public synchronized FilterStatistics getStatistics(int aModCount) {
+        return (iSampledModCount == aModCount)?iStatistics:null;
+    }
+
+    /**
+     * This method returns the order in which the filters are currently evaluated.
+     *
+     * @param   aSize   int with the number of elements in the collection.
+     * @param   aModCount   int with the current modification count of the collection.
+     * @return  int[]   with the indices of the filters, in the order of their evaluation.
+     */
+    public synchronized int[] getEvaluationOrder(int aSize, int aModCount) {
+        int[] order = iOrder;
+        if(order == null || iSampledModCount != aModCount) {
+            order = new int[aSize];
+            for(int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+        }
+        return order.clone();
+    }
+
+    /**
+     * This method will evaluate the given entry against the filters in the collection,
+     * joining their results by the specified boolean operator. Evaluation stops as soon
+     * as the outcome is known, except while sampling in adaptive mode.
+     *
+     * @param   aFilters    List with the filters.
+     * @param   aModCount   int with the current modification count of the collection.
+     * @param   aAND    boolean that is 'true' to join the results by AND, 'false' for OR.
+     * @param   aCall   Call that evaluates a single filter.
+     * @param   aEntry  Object with the entry to filter.
+     * @return  boolean with the result of the operation (Filter1(entry) AND/OR Filter2(entry) AND/OR ...).
+     */
+    public boolean evaluate(List aFilters, int aModCount, boolean aAND, Call aCall, Object aEntry) {
+        // The outcome that ends the evaluation.
+        boolean decisive = !aAND;
+        int liSize = aFilters.size();
+        int[] order = iOrder;
+        if(iSampleSize > 0 && (order == null || iSampledModCount != aModCount)) {
+            FilterStatistics statistics = this.startSampling(liSize, aModCount);
+            if(statistics != null) {
+                return this.sample(aFilters, aModCount, aAND, aCall, aEntry, statistics);
+            }
+            order = iOrder;
+        }
+        if(order == null || order.length != liSize) {
+            order = null;
+        }
+        for(int i=0;i<liSize;i++) {
+            Object temp = aFilters.get((order == null)?i:order[i]);
+            if(aCall.isFilter(temp) && aCall.passes(temp, aEntry) == decisive) {
+                return decisive;
+            }
+        }
+        return !decisive;
+    }
+
+    /**
+     * This method will evaluate the given entry against all filters, and adds
+     * their outcome and evaluation time to the statistics. When this completes the
+     * sample, the evaluation order is adapted.
+     *
+     * @param   aFilters    List with the filters.
+     * @param   aModCount   int with the current modification count of the collection.
+     * @param   aAND    boolean that is 'true' to join the results by AND, 'false' for OR.
+     * @param   aCall   Call that evaluates a single filter.
+     * @param   aEntry  Object with the entry to filter.
+     * @param   aStatistics FilterStatistics to add the outcome to.
+     * @return  boolean with the result of the operation (Filter1(entry) AND/OR Filter2(entry) AND/OR ...).
+     */
+    private boolean sample(List aFilters, int aModCount, boolean aAND, Call aCall, Object aEntry, FilterStatistics aStatistics) {
+        boolean decisive = !aAND;
+        boolean result = !decisive;
+        int liSize = aStatistics.getFilterCount();
+        boolean[] passed = new boolean[liSize];
+        long[] times = new long[liSize];
+        for(int i=0;i<liSize;i++) {
+            Object temp = aFilters.get(i);
+            // Other objects never decide the outcome.
+            passed[i] = !decisive;
+            if(aCall.isFilter(temp)) {
+                long start = iClock.nanoTime();
+                passed[i] = aCall.passes(temp, aEntry);
+                times[i] = iClock.nanoTime() - start;
+                if(passed[i] == decisive) {
+                    result = decisive;
+                }
+            }
+        }
+        if(aStatistics.add(passed, times)) {
+            this.adapt(aStatistics, aModCount, aAND);
+        }
+        return result;
+    }
+
+    /**
+     * This method returns the statistics to add the next entry to, (re)starting the sample
+     * if the collection was modified.
+     *
+     * @param   aSize   int with the number of elements in the collection.
+     * @param   aModCount   int with the current modification count of the collection.
+     * @return  FilterStatistics    to add the next entry to, or 'null' if the sample is complete.
+     */
+    private synchronized FilterStatistics startSampling(int aSize, int aModCount) {
+        if(iSampleSize == 0) {
+            return null;
+        }
+        if(iStatistics == null || iSampledModCount != aModCount) {
+            iStatistics = new FilterStatistics(aSize, iSampleSize);
+            iOrder = null;
+            iSampledModCount = aModCount;
+        }
+        return iStatistics.isComplete()?null:iStatistics;
+    }
+
+    /**
+     * This method adapts the evaluation order to the completed sample.
+     *
+     * @param   aStatistics FilterStatistics with the completed sample.
+     * @param   aModCount   int with the modification count of the collection for the sample.
+     * @param   aAND    boolean that is 'true' when the results are joined by AND.
+     */
+    private synchronized void adapt(FilterStatistics aStatistics, int aModCount, boolean aAND) {
+        if(aStatistics == iStatistics && iSampledModCount == aModCount) {
+            iOrder = aStatistics.getOrder(aAND);
+        }
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 10:12:40
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.HeaderFilter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 10:12:40 $
+ */
+
+/**
+ * This class implements the DBLoader interface for any FASTA database by
+ * memory-mapping the flatfile in windows and scanning the raw bytes for the
+ * record boundaries. Bytes are decoded as ASCII (ISO-8859-1, to be precise),
+ * which is all a FASTA file is supposed to contain.
+ * The entries reported are identical to the ones reported by the FASTADBLoader,
+ * but no Reader, line Strings or StringBuffers are involved in reading them.
+ * Resetting the loader simply rewinds the position in the file.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.FASTADBLoader
+ */
+public class MappedFASTADBLoader extends DefaultDBLoader {
+
+    /**
+     * The default size for a mapped window (64 MB).
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64*1024*1024;
+
+    /**
+     * The size of the windows in which the file is mapped.
+     */
+    private int iWindowSize = DEFAULT_WINDOW_SIZE;
+
+    /**
+     * The RandomAccessFile on the DB flatfile.
+     */
+    private RandomAccessFile iRaf = null;
+
+    /**
+     * The FileChannel on the DB flatfile.
+     */
+    private FileChannel iChannel = null;
+
+    /**
+     * The currently mapped window.
+     */
+    private MappedByteBuffer iWindow = null;
+
+    /**
+     * The position of the current window in the file.
+     */
+    private long iWindowStart = 0;
+
+    /**
+     * The size of the file.
+     */
+    private long iSize = 0;
+
+    /**
+     * The characters of the entry that is currently being read.
+     * This buffer is reused for every entry and grows as needed.
+     */
+    private char[] iChars = new char[8192];
+
+    /**
+     * Default constructor.
+     */
+    public MappedFASTADBLoader() {}
+
+    /**
+     * This constructor allows the specification of the size of the windows
+     * in which the file will be mapped.
+     *
+     * @param   aWindowSize int with the size (in bytes) of the mapped windows.
+     */
+    public MappedFASTADBLoader(int aWindowSize) {
+        if(aWindowSize <= 0) {
+            throw new IllegalArgumentException("Window size should be strictly positive (was " + aWindowSize + ")!");
+        }
+        this.iWindowSize = aWindowSize;
+    }
+
+    /**
+     * This method allows the caller to load a DB from the specified file.
+     * The file is mapped in windows, and nothing is cached.
+     *
+     * @param   aFilename   String with the filename for the FASTA flatfile.
+     * @exception   IOException whenever the file is inaccessible.
+     */
+    public void load(String aFilename) throws IOException {
+        // First of all: check if the file exists.
+        File lFile = new File(aFilename);
+        if(!lFile.exists()) {
+            throw new IOException("File '" + aFilename + "' does not exist!");
+        }
+        // Release anything we might still hold.
+        this.close();
+
+        iRaf = new RandomAccessFile(lFile, "r");
+        iChannel = iRaf.getChannel();
+        iSize = iChannel.size();
+        this.seek(0);
+        // Keep the filename.
+        iFilename = aFilename;
+        // Pick up the index, if present.
+        iIndex = EntryIndex.load(lFile, this.getDBName());
+    }
+
+    /**
+     * A memory-mapped DB requires a file, so this method always throws an IOException.
+     * Use the FASTADBLoader to read FASTA from a stream.
+     *
+     * @param   aIn InputStream to read the DB from.
+     * @param   aName   String with a name for the stream, used in messages.
+     * @exception   IOException always.
+     */
+    public void load(InputStream aIn, String aName) throws IOException {
+        throw new IOException("Unable to map '" + aName + "' into memory, use the FASTADBLoader to read FASTA from a stream!");
+    }
+
+    /**
+     * This method returns the next raw entry as present in the flatfile.
+     * The entry consists of the header line, followed by an endline, followed by
+     * the concatenated sequence lines.
+     *
+     * @return  String with the next raw entry as present in the particular DB.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public String nextRawEntry() throws IOException {
+        if(this.getPosition() >= iSize) {
+            return null;
+        }
+        int count = 0;
+        // The first line is the header line; it is taken as is.
+        int b = -1;
+        while((b = this.read()) >= 0 && b != '\n') {
+            count = this.append(count, b);
+        }
+        // Strip the carriage return of a DOS endline.
+        if(count > 0 && iChars[count-1] == '\r') {
+            count--;
+        }
+        count = this.append(count, '\n');
+        // Now append all subsequent lines, until we find one
+        // that starts with '>' after leading whitespace.
+        while(b >= 0) {
+            int lineStart = count;
+            long linePosition = this.getPosition();
+            boolean leading = true;
+            boolean header = false;
+            while((b = this.read()) >= 0 && b != '\n') {
+                if(leading && b > ' ') {
+                    leading = false;
+                    if(b == '>') {
+                        header = true;
+                        break;
+                    }
+                }
+                count = this.append(count, b);
+            }
+            if(header) {
+                // Rewind to the start of the header line and drop
+                // any leading whitespace we already copied.
+                this.seek(linePosition);
+                count = lineStart;
+                break;
+            }
+            if(count > lineStart && iChars[count-1] == '\r') {
+                count--;
+            }
+        }
+        return new String(iChars, 0, count);
+    }
+
+    /**
+     * This method reports on the next entry that passes the filter in raw format.
+     * A HeaderFilter that only needs the header line is evaluated as soon as the header
+     * line is read, and the sequence of an entry that does not pass is skipped unread.
+     *
+     * @param   aFilter Filter instance against which checks are made.
+     * @return  String  with the next filtered raw entry, or 'null' if no more
+     *                  passed entries are found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public String nextFilteredRawEntry(Filter aFilter) throws IOException {
+        if(!(aFilter instanceof HeaderFilter) || !((HeaderFilter)aFilter).isHeaderOnly()) {
+            return super.nextFilteredRawEntry(aFilter);
+        }
+        HeaderFilter filter = (HeaderFilter)aFilter;
+        while(this.getPosition() < iSize) {
+            long start = this.getPosition();
+            // Read the header line, as 'nextRawEntry' would.
+            int count = 0;
+            int b = -1;
+            while((b = this.read()) >= 0 && b != '\n') {
+                count = this.append(count, b);
+            }
+            if(count > 0 && iChars[count-1] == '\r') {
+                count--;
+            }
+            if(filter.passesHeader(new String(iChars, 0, count))) {
+                this.seek(start);
+                return this.nextRawEntry();
+            }
+            // Skip to the next line that starts with '>' after leading whitespace.
+            long lineStart = this.getPosition();
+            boolean leading = true;
+            while((b = this.read()) >= 0) {
+                if(b == '\n') {
+                    leading = true;
+                    lineStart = this.getPosition();
+                } else if(leading && b > ' ') {
+                    leading = false;
+                    if(b == '>') {
+                        this.seek(lineStart);
+                        break;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method will report on the next entry in the DB in FASTA format.
+     * The information content relative to the original format is implementation dependant.
+     *
+     * @return  String  with the FASTA entry representing the next entry.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public String nextFASTAEntry() throws IOException {
+        return this.nextRawEntry();
+    }
+
+    /**
+     * This method will report on the next filtered entry in the DB in FASTA format.
+     * The information content relative to the original format is implementation dependant.
+     *
+     * @param   aFilter Filter instance against which to check the entries.
+     * @return  String  with the FASTA entry representing the next entry.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public String nextFilteredFASTAEntry(Filter aFilter) throws IOException {
+        return this.nextFilteredRawEntry(aFilter);
+    }
+
+    /**
+     * This method reports on the name of the Database that is read and interpreted by the
+     * implemented instance. Mostly for debugging and testing purposes.
+     *
+     * @return  String  with the name of the DB format that is read and interpreted by the
+     *                  implementation.
+     */
+    public String getDBName() {
+        return DBLoader.FASTA;
+    }
+
+    /**
+     * This method counts the number of entries in the database by scanning the bytes
+     * for lines that start with '>'.
+     * <b>Note</b> that a call to this method resets the position of the loader!
+     *
+     * @return  long    with the number of entries or DBLoader.CANCELLEDCOUNT if the count was cancelled.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public long countNumberOfEntries() throws IOException {
+        this.reset();
+        // The index knows the answer, if we have one.
+        if(iIndex != null) {
+            return iIndex.size();
+        }
+        // Clean-up any leftover cancellation stuff.
+        this.iCancelCount = false;
+        long counter = 0;
+        boolean leading = true;
+        int b = -1;
+        while(((b = this.read()) >= 0) && !iCancelCount) {
+            if(b == '\n') {
+                leading = true;
+            } else if(leading && b > ' ') {
+                leading = false;
+                if(b == '>') {
+                    counter++;
+                }
+            }
+        }
+        this.reset();
+
+        // If cancelled, return the cancelled status.
+        if(iCancelCount) {
+            iCancelCount = false;
+            counter = DBLoader.CANCELLEDCOUNT;
+        }
+        return counter;
+    }
+
+    /**
+     * This method reads the raw entry at the specified position in the index
+     * from the mapped file. The position of the loader is restored afterwards.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry in the index.
+     * @return  String with the raw entry, as 'nextRawEntry' would report it.
+     * @exception   IOException when the entry could not be read.
+     */
+    protected String readIndexedEntry(int aOrdinal) throws IOException {
+        long position = this.getPosition();
+        this.seek(iIndex.getOffset(aOrdinal));
+        String result = this.nextRawEntry();
+        this.seek(position);
+        return result;
+    }
+
+    /**
+     * This method rewinds the loader to the start of the file.
+     *
+     * @exception   IOException when the rewind failed.
+     */
+    public void reset() throws IOException {
+        this.seek(0);
+    }
+
+    /**
+     * This method returns the maximum amount of information (in bytes)
+     * that can be read from this DB, scaled down for files beyond the int range.
+     *
+     * @return  int with the maximum amount of information (in bytes) that can be read
+     *              from this DB.
+     */
+    public int getMaximum() {
+        return ProgressInputStream.scale(iSize, iSize);
+    }
+
+    /**
+     * This method reports on the progress of the current DBLoader in the total file,
+     * scaled down for files beyond the int range.
+     *
+     * @return  int with the number of bytes read from the DB file up till now.
+     */
+    public int monitorProgress() {
+        return ProgressInputStream.scale(this.getPosition(), iSize);
+    }
+
+    /**
+     * This method returns the size of the DB file in bytes.
+     *
+     * @return  long with the number of bytes in the DB file.
+     */
+    public long getLongMaximum() {
+        return iSize;
+    }
+
+    /**
+     * This method reports on the progress of the current DBLoader in the total file.
+     *
+     * @return  long with the number of bytes read from the DB file up till now.
+     */
+    public long monitorLongProgress() {
+        return this.getPosition();
+    }
+
+    /**
+     * Signals the loader implementation to release all resources.
+     * Note that the mapped windows themselves are only released upon
+     * garbage collection.
+     */
+    public void close() {
+        try {
+            iWindow = null;
+            if(iChannel != null) {
+                iChannel.close();
+                iChannel = null;
+            }
+            if(iRaf != null) {
+                iRaf.close();
+                iRaf = null;
+            }
+        } catch(IOException ioe) {
+            ioe.printStackTrace();
+        }
+    }
+
+    /**
+     * This method is used by the AutoDBLoader class.
+     * It cycles all available known DBLoaders until one is found that
+     * returns 'true' on this query. Please note that the order in which the
+     * DBLoaders are attempted is not fixed! The first instance encountered that
+     * returns 'true' will load the DB!
+     *
+     * @param   aFile   File with the canonical name of the file to read. This
+     *                  file is supposed to be existant and readable.
+     * @return  boolean 'true' if this DBLoader assumes it can read this format,
+     *                  'false' otherwise.
+     */
+    public boolean canReadFile(File aFile) {
+        boolean canRead = false;
+
+        try {
+            InputStream is = new FileInputStream(aFile);
+            byte[] buffer = new byte[4096];
+            int read = 0;
+            boolean done = false;
+            while(!done && (read = is.read(buffer)) > 0) {
+                // Skip leading whitespace, the first real character decides.
+                for(int i = 0; i < read; i++) {
+                    if(buffer[i] > ' ') {
+                        canRead = (buffer[i] == '>');
+                        done = true;
+                        break;
+                    }
+                }
+            }
+            is.close();
+        } catch(IOException ioe) {
+            ioe.printStackTrace();
+        }
+
+        return canRead;
+    }
+
+    /**
+     * This method reports the current position in the file.
+     *
+     * @return  long with the current position in the file.
+     */
+    protected long getPosition() {
+        return iWindowStart + iWindow.position();
+    }
+
+    /**
+     * This method positions the loader at the specified offset in the file,
+     * mapping a new window if the offset lies outside of the current one.
+     *
+     * @param   aPosition   long with the offset in the file.
+     * @exception   IOException when the mapping failed.
+     */
+    protected void seek(long aPosition) throws IOException {
+        if(iWindow != null && aPosition >= iWindowStart && aPosition <= iWindowStart + iWindow.limit()) {
+            iWindow.position((int)(aPosition - iWindowStart));
+        } else {
+            this.map(aPosition);
+        }
+    }
+
+    /**
+     * This method maps the window that starts at the specified position.
+     *
+     * @param   aStart  long with the start of the window in the file.
+     * @exception   IOException when the mapping failed.
+     */
+    private void map(long aStart) throws IOException {
+        if(iChannel == null) {
+            throw new IOException("No database file loaded!");
+        }
+        long length = Math.min(iWindowSize, iSize - aStart);
+        iWindowStart = aStart;
+        iWindow = iChannel.map(FileChannel.MapMode.READ_ONLY, aStart, Math.max(length, 0));
+    }
+
+    /**
+     * This method reads the next byte from the file, mapping the next window when
+     * the current one is exhausted.
+     *
+     * @return  int with the next byte (0-255) or -1 at the end of the file.
+     * @exception   IOException when the mapping failed.
+     */
+    private int read() throws IOException {
+        if(!iWindow.hasRemaining()) {
+            long next = iWindowStart + iWindow.limit();
+            if(next >= iSize) {
+                return -1;
+            }
+            this.map(next);
+        }
+        return iWindow.get() & 0xFF;
+    }
+
+    /**
+     * This method appends a character to the entry buffer, growing it if necessary.
+     *
+     * @param   aCount  int with the number of characters currently in the buffer.
+     * @param   aChar   int with the character to append.
+     * @return  int with the new number of characters in the buffer.
+     */
+    private int append(int aCount, int aChar) {
+        if(aCount == iChars.length) {
+            char[] temp = new char[iChars.length*2];
+            System.arraycopy(iChars, 0, temp, 0, aCount);
+            iChars = temp;
+        }
+        iChars[aCount] = (char)aChar;
+        return aCount+1;
+    }
+}
@@ -0,0 +1,743 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 16:12:40
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.util.protein.Protein;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 16:12:40 $
+ */
+
+/**
+ * This class implements a DBLoader that parses a plain-text FASTA or SwissProt
+ * DB on a pool of worker threads. <br />
+ * The file is cut into byte ranges ('chunks') of a fixed size, and each worker aligns
+ * its chunk on the first record boundary ('>' header line for FASTA, the line after
+ * a '//' line for SwissProt) before parsing all the entries that start within the chunk.
+ * Entries can be delivered in the original order of the file, or in the order in which
+ * the chunks finish parsing, which is slightly faster. <br />
+ * The conversion to FASTA, the filtering and the creation of Protein instances are all
+ * performed by the workers, so Filters used with this loader should be thread-safe.
+ * The kind of entry (raw, FASTA or Protein) and the Filter are fixed by the first
+ * call to one of the 'next' methods, and can only be changed after a 'reset'. <br />
+ * Counting and indexed access are delegated to the wrapped, sequential DBLoader.
+ *
+ * @author Lennart Martens
+ */
+public class ParallelDBLoader implements DBLoader {
+
+    /**
+     * The default size of the chunks (in bytes) handed to the workers.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4*1024*1024;
+
+    /**
+     * Code for the delivery of raw entries.
+     */
+    private static final int RAW = 0;
+
+    /**
+     * Code for the delivery of FASTA entries.
+     */
+    private static final int FASTA = 1;
+
+    /**
+     * Code for the delivery of Protein instances.
+     */
+    private static final int PROTEIN = 2;
+
+    /**
+     * The sequential loader we wrap.
+     */
+    private DefaultDBLoader iDelegate = null;
+
+    /**
+     * The number of worker threads.
+     */
+    private int iThreads = 0;
+
+    /**
+     * Whether the entries should be delivered in the order of the file.
+     */
+    private boolean iOrdered = true;
+
+    /**
+     * The size of a chunk in bytes.
+     */
+    private int iChunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * The worker pool. Only non-null while parsing is in progress.
+     */
+    private ExecutorService iExecutor = null;
+
+    /**
+     * The completion service used for unordered delivery.
+     */
+    private CompletionService iCompletion = null;
+
+    /**
+     * The Futures for the submitted chunks, in file order (ordered delivery only).
+     */
+    private LinkedList iPending = null;
+
+    /**
+     * The number of chunks submitted, but not yet consumed.
+     */
+    private int iInFlight = 0;
+
+    /**
+     * The start offset of the next chunk to submit.
+     */
+    private long iNextChunkStart = 0;
+
+    /**
+     * The size of the DB file.
+     */
+    private long iFileSize = 0;
+
+    /**
+     * The entries from the chunk currently being consumed.
+     */
+    private List iCurrent = null;
+
+    /**
+     * The position of the next entry in the current chunk.
+     */
+    private int iCurrentPos = 0;
+
+    /**
+     * The number of bytes of the file covered by the chunks consumed so far.
+     */
+    private volatile long iProgress = 0;
+
+    /**
+     * The kind of entries being delivered, or -1 when parsing has not started.
+     */
+    private int iMode = -1;
+
+    /**
+     * The filter applied by the workers, if any.
+     */
+    private Filter iFilter = null;
+
+    /**
+     * This constructor wraps the specified loader with the specified number of workers,
+     * using the default chunk size.
+     *
+     * @param   aDelegate   DefaultDBLoader for a FASTA or SwissProt DB.
+     * @param   aThreads    int with the number of worker threads.
+     * @param   aOrdered    boolean to indicate whether entries should be delivered in file order.
+     */
+    public ParallelDBLoader(DefaultDBLoader aDelegate, int aThreads, boolean aOrdered) {
+        this(aDelegate, aThreads, aOrdered, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * This constructor wraps the specified loader with the specified number of workers
+     * and chunk size.
+     *
+     * @param   aDelegate   DefaultDBLoader for a FASTA or SwissProt DB.
+     * @param   aThreads    int with the number of worker threads.
+     * @param   aOrdered    boolean to indicate whether entries should be delivered in file order.
+     * @param   aChunkSize  int with the size of the chunks (in bytes) handed to the workers.
+     */
+    public ParallelDBLoader(DefaultDBLoader aDelegate, int aThreads, boolean aOrdered, int aChunkSize) {
+        if(!isParallelizable(aDelegate)) {
+            throw new IllegalArgumentException("Unable to parse '" + aDelegate.getDBName() + "' databases in parallel!");
+        }
+        if(aThreads < 1 || aChunkSize < 1) {
+            throw new IllegalArgumentException("The number of threads and the chunk size should be positive!");
+        }
+        this.iDelegate = aDelegate;
+        this.iThreads = aThreads;
+        this.iOrdered = aOrdered;
+        this.iChunkSize = aChunkSize;
+    }
+
+    /**
+     * This method wraps the specified loader in a ParallelDBLoader when more than one
+     * thread is requested and the loader reads a plain-text FASTA or SwissProt file.
+     * A CompositeDBLoader is switched to reading its shards concurrently instead.
+     * In all other cases, the loader itself is returned. <br />
+     * Note that the parallel loader always starts reading at the start of the file.
+     *
+     * @param   aLoader DBLoader to wrap.
+     * @param   aThreads    int with the number of worker threads.
+     * @param   aOrdered    boolean to indicate whether entries should be delivered in file order.
+     * @return  DBLoader with the parallel loader, or the original loader.
+     */
+    public static DBLoader wrap(DBLoader aLoader, int aThreads, boolean aOrdered) {
+        DBLoader result = aLoader;
+        if(aThreads > 1 && aLoader instanceof CompositeDBLoader) {
+            ((CompositeDBLoader)aLoader).setParallel(aThreads, aOrdered);
+        } else if(aThreads > 1 && isParallelizable(aLoader) && ((DefaultDBLoader)aLoader).iFilename != null) {
+            result = new ParallelDBLoader((DefaultDBLoader)aLoader, aThreads, aOrdered);
+        }
+        return result;
+    }
+
+    /**
+     * This method reports whether the specified loader can be parsed in parallel.
+     *
+     * @param   aLoader DBLoader to check.
+     * @return  boolean 'true' for loaders of plain-text FASTA or SwissProt files.
+     */
+    public static boolean isParallelizable(DBLoader aLoader) {
+        return (aLoader instanceof DefaultDBLoader) && (DBLoader.FASTA.equals(aLoader.getDBName()) || DBLoader.SWISSPROT.equals(aLoader.getDBName()));
+    }
+
+    /**
+     * This method allows the caller to load a DB from the specified file.
+     *
+     * @param   aFilename   String with the filename for the DB.
+     * @exception   IOException whenever the file is inaccessible.
+     */
+    public void load(String aFilename) throws IOException {
+        this.shutdown();
+        iDelegate.load(aFilename);
+    }
+
+    /**
+     * A stream can not be divided in chunks, so this method always throws an IOException.
+     * Note that the 'wrap' method leaves loaders that read from a stream unwrapped.
+     *
+     * @param   aIn InputStream to read the DB from.
+     * @param   aName   String with a name for the stream, used in messages.
+     * @exception   IOException always.
+     */
+    public void load(InputStream aIn, String aName) throws IOException {
+        throw new IOException("Unable to read '" + aName + "' in parallel, since it is a stream!");
+    }
+
+    public String nextRawEntry() throws IOException {
+        return (String)this.next(RAW, null);
+    }
+
+    public String nextFASTAEntry() throws IOException {
+        return (String)this.next(FASTA, null);
+    }
+
+    public String nextFilteredRawEntry(Filter aFilter) throws IOException {
+        return (String)this.next(RAW, aFilter);
+    }
+
+    public String nextFilteredFASTAEntry(Filter aFilter) throws IOException {
+        return (String)this.next(FASTA, aFilter);
+    }
+
+    public Protein nextProtein() throws IOException {
+        return (Protein)this.next(PROTEIN, null);
+    }
+
+    public Protein nextFilteredProtein(Filter aFilter) throws IOException {
+        return (Protein)this.next(PROTEIN, aFilter);
+    }
+
+    public ProteinRecord nextRecord() throws IOException {
+        String fasta = this.nextFASTAEntry();
+        return (fasta == null)?null:new ProteinRecord(fasta);
+    }
+
+    public String getDBName() {
+        return iDelegate.getDBName();
+    }
+
+    public long countNumberOfEntries() throws IOException {
+        return iDelegate.countNumberOfEntries();
+    }
+
+    public boolean hasIndex() {
+        return iDelegate.hasIndex();
+    }
+
+    public Protein getEntryAt(long aOrdinal) throws IOException {
+        return iDelegate.getEntryAt(aOrdinal);
+    }
+
+    public Protein getEntryByAccession(String aAccession) throws IOException {
+        return iDelegate.getEntryByAccession(aAccession);
+    }
+
+    /**
+     * This method stops all parsing in progress and resets the reader to the
+     * start of the file.
+     *
+     * @exception   IOException when the reset of the wrapped loader failed.
+     */
+    public void reset() throws IOException {
+        this.shutdown();
+        iDelegate.reset();
+    }
+
+    public void cancelCount() {
+        iDelegate.cancelCount();
+    }
+
+    /**
+     * Signals the loader implementation to release all resources,
+     * including the worker threads.
+     */
+    public void close() {
+        this.shutdown();
+        iDelegate.close();
+    }
+
+    public boolean canReadFile(File aFile) {
+        return iDelegate.canReadFile(aFile);
+    }
+
+    /**
+     * This method returns the size of the DB file, scaled down for files beyond the int range.
+     *
+     * @return  int with the number of bytes in the DB file.
+     */
+    public int getMaximum() {
+        long size = this.getLongMaximum();
+        return ProgressInputStream.scale(size, size);
+    }
+
+    /**
+     * This method reports the number of bytes covered by the chunks that
+     * have been delivered so far, scaled down for files beyond the int range.
+     *
+     * @return  int with the number of bytes processed.
+     */
+    public int monitorProgress() {
+        return ProgressInputStream.scale(iProgress, this.getLongMaximum());
+    }
+
+    /**
+     * This method returns the size of the DB file.
+     *
+     * @return  long with the number of bytes in the DB file.
+     */
+    public long getLongMaximum() {
+        return new File(iDelegate.iFilename).length();
+    }
+
+    /**
+     * This method reports the number of bytes covered by the chunks that
+     * have been delivered so far.
+     *
+     * @return  long with the number of bytes processed.
+     */
+    public long monitorLongProgress() {
+        return iProgress;
+    }
+
+    /**
+     * This method returns the next entry of the specified kind, starting the
+     * workers if required.
+     *
+     * @param   aMode   int with the kind of entry to deliver.
+     * @param   aFilter Filter to apply, or 'null' for none.
+     * @return  Object with the next entry, or 'null' when all entries have been delivered.
+     * @exception   IOException when one of the workers failed.
+     */
+    private Object next(int aMode, Filter aFilter) throws IOException {
+        if(iMode < 0) {
+            this.start(aMode, aFilter);
+        } else if(iMode != aMode || iFilter != aFilter) {
+            throw new IllegalStateException("A ParallelDBLoader can only deliver a single kind of entry between resets!");
+        }
+        Object result = null;
+        boolean more = true;
+        while(more && (iCurrent == null || iCurrentPos >= iCurrent.size())) {
+            more = this.nextChunk();
+        }
+        if(more) {
+            result = iCurrent.get(iCurrentPos);
+            // Release the entry as soon as we've passed it on.
+            iCurrent.set(iCurrentPos, null);
+            iCurrentPos++;
+        }
+        return result;
+    }
+
+    /**
+     * This method starts the workers.
+     *
+     * @param   aMode   int with the kind of entry to deliver.
+     * @param   aFilter Filter to apply, or 'null' for none.
+     */
+    private void start(int aMode, Filter aFilter) {
+        iMode = aMode;
+        iFilter = aFilter;
+        iFileSize = new File(iDelegate.iFilename).length();
+        iNextChunkStart = 0;
+        iProgress = 0;
+        iInFlight = 0;
+        iCurrent = null;
+        iCurrentPos = 0;
+        iExecutor = Executors.newFixedThreadPool(iThreads, new ThreadFactory() {
+            public Thread newThread(Runnable aRunnable) {
+                Thread t = new Thread(aRunnable, "ParallelDBLoader worker");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        iCompletion = new ExecutorCompletionService(iExecutor);
+        iPending = new LinkedList();
+        this.submitChunks();
+    }
+
+    /**
+     * This method submits chunks to the workers until twice as many chunks as
+     * there are workers are in flight, or the end of the file is reached.
+     */
+    private void submitChunks() {
+        while(iInFlight < 2*iThreads && iNextChunkStart < iFileSize) {
+            long end = Math.min(iNextChunkStart + iChunkSize, iFileSize);
+            ChunkParser parser = new ChunkParser(iDelegate.iFilename, iNextChunkStart, end, iMode, iFilter, DBLoader.FASTA.equals(iDelegate.getDBName()));
+            if(iOrdered) {
+                iPending.add(iExecutor.submit(parser));
+            } else {
+                iCompletion.submit(parser);
+            }
+            iInFlight++;
+            iNextChunkStart = end;
+        }
+    }
+
+    /**
+     * This method moves on to the entries of the next finished chunk.
+     *
+     * @return  boolean 'false' when no more chunks are available.
+     * @exception   IOException when the worker parsing the chunk failed.
+     */
+    private boolean nextChunk() throws IOException {
+        if(iInFlight == 0) {
+            this.shutdownExecutor();
+            return false;
+        }
+        Future future = null;
+        try {
+            if(iOrdered) {
+                future = (Future)iPending.removeFirst();
+            } else {
+                future = iCompletion.take();
+            }
+            iInFlight--;
+            ChunkResult result = (ChunkResult)future.get();
+            iCurrent = result.iEntries;
+            iCurrentPos = 0;
+            iProgress += result.iLength;
+        } catch(InterruptedException ie) {
+            this.shutdown();
+            throw new IOException("Interrupted while waiting for the parsing of the DB to complete!");
+        } catch(ExecutionException ee) {
+            this.shutdown();
+            Throwable cause = ee.getCause();
+            if(cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if(cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else {
+                throw new IOException("Unable to parse the DB: " + cause);
+            }
+        }
+        this.submitChunks();
+        return true;
+    }
+
+    /**
+     * This method stops the workers (if any) and clears all parsing state.
+     */
+    private void shutdown() {
+        this.shutdownExecutor();
+        iMode = -1;
+        iFilter = null;
+        iCurrent = null;
+        iCurrentPos = 0;
+        iProgress = 0;
+        iInFlight = 0;
+        iPending = null;
+    }
+
+    /**
+     * This method stops the worker threads, if any.
+     */
+    private void shutdownExecutor() {
+        if(iExecutor != null) {
+            iExecutor.shutdownNow();
+            iExecutor = null;
+            iCompletion = null;
+        }
+    }
+
+    /**
+     * This method returns the start offset of the line that contains the specified position.
+     *
+     * @param   aRaf    RandomAccessFile to search.
+     * @param   aPosition   long with the position.
+     * @return  long with the offset of the first byte of the line.
+     * @exception   IOException when the file could not be read.
+     */
+    private static long findLineStart(RandomAccessFile aRaf, long aPosition) throws IOException {
+        byte[] buffer = new byte[4096];
+        long pos = aPosition;
+        while(pos > 0) {
+            int length = (int)Math.min(buffer.length, pos);
+            aRaf.seek(pos - length);
+            aRaf.readFully(buffer, 0, length);
+            for(int i = length - 1; i >= 0; i--) {
+                if(buffer[i] == '\n') {
+                    return pos - length + i + 1;
+                }
+            }
+            pos -= length;
+        }
+        return 0;
+    }
+
+    /**
+     * This class holds the entries parsed from a single chunk.
+     */
+    private static class ChunkResult {
+        private List iEntries = null;
+        private long iLength = 0;
+
+        public ChunkResult(List aEntries, long aLength) {
+            this.iEntries = aEntries;
+            this.iLength = aLength;
+        }
+    }
+
+    /**
+     * This class parses all the entries that start within a chunk of the file.
+     */
+    private static class ChunkParser implements Callable {
+        private String iFilename = null;
+        private long iStart = 0;
+        private long iEnd = 0;
+        private int iMode = RAW;
+        private Filter iFilter = null;
+        private boolean iFasta = true;
+
+        public ChunkParser(String aFilename, long aStart, long aEnd, int aMode, Filter aFilter, boolean aFasta) {
+            this.iFilename = aFilename;
+            this.iStart = aStart;
+            this.iEnd = aEnd;
+            this.iMode = aMode;
+            this.iFilter = aFilter;
+            this.iFasta = aFasta;
+        }
+
+        public Object call() throws Exception {
+            List entries = new ArrayList();
+            RandomAccessFile raf = new RandomAccessFile(iFilename, "r");
+            try {
+                // Start scanning at the line that holds the last byte before the chunk,
+                // so a boundary at the very start of the chunk is not missed.
+                long scanStart = (iStart == 0)?0:findLineStart(raf, iStart - 1);
+                raf.seek(scanStart);
+                // The chunk is read only once: the scanner keeps the bytes it read.
+                ChunkInputStream in = new ChunkInputStream(raf);
+                long[] bounds = this.findEntries(new EntryIndex.LineScanner(in, scanStart));
+                byte[] data = in.getData();
+                int count = bounds.length/2;
+                if(count > 0) {
+                    // A private parser instance per chunk, as the loaders are not thread-safe.
+                    DefaultDBLoader parser = iFasta?(DefaultDBLoader)new FASTADBLoader():new SwissProtDBLoader();
+                    EntryReader reader = new EntryReader();
+                    for(int i = 0; i < count; i++) {
+                        int offset = (int)(bounds[2*i] - scanStart);
+                        int length = (int)(bounds[2*i+1] - bounds[2*i]);
+                        reader.setEntry(new String(data, offset, length));
+                        String raw = parser.readRawEntry(reader);
+                        if(iFilter != null && !iFilter.passesFilter(raw)) {
+                            continue;
+                        }
+                        Object entry = raw;
+                        if(iMode != RAW) {
+                            String fasta = parser.toFASTAEntry(raw);
+                            entry = (iMode == PROTEIN)?(Object)new Protein(fasta):fasta;
+                        }
+                        entries.add(entry);
+                    }
+                }
+            } finally {
+                raf.close();
+            }
+            return new ChunkResult(entries, iEnd - iStart);
+        }
+
+        /**
+         * This method locates the entries starting in the chunk.
+         *
+         * @param   aScanner    LineScanner positioned at the start of a line, at or before the chunk.
+         * @return  long[] with the start and end offsets of each entry, in pairs.
+         * @exception   IOException when the file could not be read.
+         */
+        private long[] findEntries(EntryIndex.LineScanner aScanner) throws IOException {
+            long[] bounds = new long[64];
+            int size = 0;
+            // Like the sequential loaders, the first chunk reports anything
+            // preceding the first boundary as an entry.
+            long entryStart = (iStart == 0)?0:-1;
+            boolean content = false;
+            while(aScanner.nextLine()) {
+                long boundary = -1;
+                if(iFasta) {
+                    if(aScanner.getLineStart() >= iStart && aScanner.firstCharacter() == '>') {
+                        boundary = aScanner.getLineStart();
+                    }
+                } else if(aScanner.firstCharacter() == '/' && aScanner.getLine().trim().startsWith("//")) {
+                    boundary = aScanner.getLineEnd();
+                } else if(aScanner.firstCharacter() >= 0) {
+                    content = true;
+                }
+                if(boundary >= 0) {
+                    if(entryStart >= 0 && boundary > entryStart) {
+                        if(size == bounds.length) {
+                            long[] temp = new long[bounds.length*2];
+                            System.arraycopy(bounds, 0, temp, 0, size);
+                            bounds = temp;
+                        }
+                        bounds[size++] = entryStart;
+                        bounds[size++] = boundary;
+                    }
+                    // Entries starting beyond the chunk belong to the next worker.
+                    if(boundary >= iEnd) {
+                        entryStart = -1;
+                        break;
+                    }
+                    entryStart = boundary;
+                    content = false;
+                }
+            }
+            // The last entry in the file.
+            if(entryStart >= 0 && (iFasta || content)) {
+                if(size == bounds.length) {
+                    long[] temp = new long[bounds.length + 2];
+                    System.arraycopy(bounds, 0, temp, 0, size);
+                    bounds = temp;
+                }
+                bounds[size++] = entryStart;
+                bounds[size++] = aScanner.getLineEnd();
+            }
+            long[] result = new long[size];
+            System.arraycopy(bounds, 0, result, 0, size);
+            return result;
+        }
+    }
+
+    /**
+     * This class reads a chunk from the file, and keeps all the bytes it read
+     * so the entries can be taken from memory afterwards.
+     */
+    private static class ChunkInputStream extends InputStream {
+        private RandomAccessFile iRaf = null;
+        private byte[] iData = new byte[64*1024];
+        private int iSize = 0;
+
+        public ChunkInputStream(RandomAccessFile aRaf) {
+            this.iRaf = aRaf;
+        }
+
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return (this.read(single, 0, 1) < 0)?-1:(single[0] & 0xFF);
+        }
+
+        public int read(byte[] aBuffer, int aOffset, int aLength) throws IOException {
+            int read = iRaf.read(aBuffer, aOffset, aLength);
+            if(read > 0) {
+                if(iSize + read > iData.length) {
+                    byte[] temp = new byte[Math.max(iData.length*2, iSize + read)];
+                    System.arraycopy(iData, 0, temp, 0, iSize);
+                    iData = temp;
+                }
+                System.arraycopy(aBuffer, aOffset, iData, iSize, read);
+                iSize += read;
+            }
+            return read;
+        }
+
+        /**
+         * @return  byte[] with all the bytes read so far, starting at index 0. The array can be
+         *                 larger than the number of bytes read.
+         */
+        public byte[] getData() {
+            return iData;
+        }
+    }
+
+    /**
+     * This class presents a single entry to the 'readRawEntry' method of the loaders.
+     * A single instance is reused for all the entries of a chunk, so no buffers or
+     * decoders are created per entry. Only line-based reading is supported.
+     */
+    private static class EntryReader extends BufferedReader {
+        private String iEntry = "";
+        private int iPos = 0;
+
+        public EntryReader() {
+            super(new StringReader(""), 1);
+        }
+
+        /**
+         * This method sets the entry to read.
+         *
+         * @param   aEntry  String with the entry.
+         */
+        public void setEntry(String aEntry) {
+            this.iEntry = aEntry;
+            this.iPos = 0;
+        }
+
+        /**
+         * This method reads a line, terminated by '\n', '\r' or '\r\n', just like
+         * BufferedReader does.
+         *
+         * @return  String with the line, or 'null' at the end of the entry.
+         */
+        public String readLine() {
+            int length = iEntry.length();
+            if(iPos >= length) {
+                return null;
+            }
+            int end = iPos;
+            char c = 0;
+            while(end < length && (c = iEntry.charAt(end)) != '\n' && c != '\r') {
+                end++;
+            }
+            String line = iEntry.substring(iPos, end);
+            iPos = end + 1;
+            if(c == '\r' && iPos < length && iEntry.charAt(iPos) == '\n') {
+                iPos++;
+            }
+            return line;
+        }
+
+        public int read() throws IOException {
+            throw new IOException("Only line-based reading is supported!");
+        }
+
+        public int read(char[] aBuffer, int aOffset, int aLength) throws IOException {
+            throw new IOException("Only line-based reading is supported!");
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 23:10:27
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.StandardStreams;
+
+import java.io.*;
+import java.util.LinkedList;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 23:10:27 $
+ */
+
+/**
+ * This class writes GZIP compressed data, compressing independent blocks on a pool of
+ * threads. Each block becomes a separate GZIP member, and the members are written in order,
+ * so the result is a standard multi-member GZIP stream that can be read by any GZIP reader
+ * (including the Zipped DBLoaders). Flushing only writes the blocks that are complete, since
+ * each flushed partial block would end up as a separate, poorly compressed member. <br />
+ * Several streams can share a single pool of compressor threads (see 'createCompressorPool'),
+ * eg. when writing many files at once. <br />
+ * The static 'open' methods decide whether to compress, based on a flag or the '.gz' extension
+ * of the output file.
+ *
+ * @author Lennart Martens
+ */
+public class ParallelGZIPOutputStream extends OutputStream {
+
+    /**
+     * The default size of the uncompressed blocks.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024*1024;
+
+    /**
+     * The extension of GZIP compressed files.
+     */
+    public static final String EXTENSION = ".gz";
+
+    /**
+     * The stream the compressed data is written to.
+     */
+    private OutputStream iOut = null;
+
+    /**
+     * The size of the uncompressed blocks.
+     */
+    private int iBlockSize = DEFAULT_BLOCK_SIZE;
+
+    /**
+     * The number of compressor threads.
+     */
+    private int iThreads = 1;
+
+    /**
+     * The compressor pool.
+     */
+    private ExecutorService iExecutor = null;
+
+    /**
+     * This boolean is set when the compressor pool is shared with other streams,
+     * and should therefore not be shut down on closing.
+     */
+    private boolean iSharedExecutor = false;
+
+    /**
+     * The Futures for the blocks being compressed, in order.
+     */
+    private LinkedList iPending = new LinkedList();
+
+    /**
+     * The current block.
+     */
+    private byte[] iBuffer = null;
+
+    /**
+     * The number of bytes in the current block.
+     */
+    private int iCount = 0;
+
+    /**
+     * This boolean is set once a block has been submitted.
+     */
+    private boolean iSubmitted = false;
+
+    /**
+     * This boolean is set when the stream has been closed.
+     */
+    private boolean iClosed = false;
+
+    /**
+     * This constructor takes the stream to write to, and compresses on as many
+     * threads as there are processors.
+     *
+     * @param   aOut    OutputStream to write the compressed data to.
+     */
+    public ParallelGZIPOutputStream(OutputStream aOut) {
+        this(aOut, Runtime.getRuntime().availableProcessors(), DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * This constructor takes the stream to write to, the number of compressor
+     * threads and the size of the uncompressed blocks.
+     *
+     * @param   aOut    OutputStream to write the compressed data to.
+     * @param   aThreads    int with the number of compressor threads.
+     * @param   aBlockSize  int with the size of the uncompressed blocks.
+     */
+    public ParallelGZIPOutputStream(OutputStream aOut, int aThreads, int aBlockSize) {
+        this(aOut, createCompressorPool(aThreads), aThreads, aBlockSize);
+        this.iSharedExecutor = false;
+    }
+
+    /**
+     * This constructor takes the stream to write to, a (shared) pool of compressor threads,
+     * the number of blocks this stream may have compressed at once and the size of the
+     * uncompressed blocks. The pool is not shut down when the stream is closed.
+     *
+     * @param   aOut    OutputStream to write the compressed data to.
+     * @param   aCompressors    ExecutorService with the compressor threads (see 'createCompressorPool').
+     * @param   aThreads    int with the number of blocks this stream may have compressed at once.
+     * @param   aBlockSize  int with the size of the uncompressed blocks.
+     */
+    public ParallelGZIPOutputStream(OutputStream aOut, ExecutorService aCompressors, int aThreads, int aBlockSize) {
+        if(aThreads < 1 || aBlockSize < 1) {
+            throw new IllegalArgumentException("The number of threads and the block size should be positive!");
+        }
+        this.iOut = aOut;
+        this.iThreads = aThreads;
+        this.iBlockSize = aBlockSize;
+        this.iBuffer = new byte[aBlockSize];
+        this.iExecutor = aCompressors;
+        this.iSharedExecutor = true;
+    }
+
+    /**
+     * This method creates a pool of compressor threads, which can be shared by several
+     * streams. The pool should be shut down once all of these have been closed.
+     *
+     * @param   aThreads    int with the number of compressor threads.
+     * @return  ExecutorService with the compressor threads.
+     */
+    public static ExecutorService createCompressorPool(int aThreads) {
+        if(aThreads < 1) {
+            throw new IllegalArgumentException("The number of threads should be positive!");
+        }
+        return Executors.newFixedThreadPool(aThreads, new ThreadFactory() {
+            public Thread newThread(Runnable aRunnable) {
+                Thread t = new Thread(aRunnable, "GZIP compressor");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * This method opens the specified output file, compressing the output when the
+     * filename ends in '.gz'.
+     *
+     * @param   aFile   File to write to.
+     * @return  OutputStream    to the file.
+     * @exception   IOException when the file could not be created.
+     */
+    public static OutputStream open(File aFile) throws IOException {
+        return open(aFile, false);
+    }
+
+    /**
+     * This method opens the specified output file, compressing the output when
+     * requested or when the filename ends in '.gz'. The filename '-' denotes standard out.
+     *
+     * @param   aFile   File to write to.
+     * @param   aCompress   boolean to request compression regardless of the extension.
+     * @return  OutputStream    to the file.
+     * @exception   IOException when the file could not be created.
+     */
+    public static OutputStream open(File aFile, boolean aCompress) throws IOException {
+        OutputStream result = StandardStreams.isStandardStream(aFile)?StandardStreams.getOutput():new FileOutputStream(aFile);
+        if(aCompress || isCompressed(aFile)) {
+            result = new ParallelGZIPOutputStream(result);
+        }
+        return result;
+    }
+
+    /**
+     * This method reports whether output to the specified file is compressed by default,
+     * ie., whether the filename ends in '.gz'.
+     *
+     * @param   aFile   File to check.
+     * @return  boolean 'true' if the filename ends in '.gz'.
+     */
+    public static boolean isCompressed(File aFile) {
+        return aFile.getName().toLowerCase().endsWith(EXTENSION);
+    }
+
+    public void write(int aByte) throws IOException {
+        this.checkOpen();
+        if(iCount == iBlockSize) {
+            this.submitBlock();
+        }
+        iBuffer[iCount++] = (byte)aByte;
+    }
+
+    public void write(byte[] aBytes, int aOffset, int aLength) throws IOException {
+        this.checkOpen();
+        while(aLength > 0) {
+            if(iCount == iBlockSize) {
+                this.submitBlock();
+            }
+            int chunk = Math.min(aLength, iBlockSize - iCount);
+            System.arraycopy(aBytes, aOffset, iBuffer, iCount, chunk);
+            iCount += chunk;
+            aOffset += chunk;
+            aLength -= chunk;
+        }
+    }
+
+    /**
+     * Flushing writes all complete blocks, waiting for their compression. The current
+     * (partial) block stays buffered until it is full, or the stream is closed.
+     *
+     * @exception   IOException when compressing or writing failed.
+     */
+    public void flush() throws IOException {
+        this.checkOpen();
+        while(!iPending.isEmpty()) {
+            this.writeFirst();
+        }
+        iOut.flush();
+    }
+
+    /**
+     * This method writes all remaining data, closes the underlying stream and
+     * shuts down the compressor threads.
+     *
+     * @exception   IOException when compressing or writing failed.
+     */
+    public void close() throws IOException {
+        if(!iClosed) {
+            try {
+                // An empty stream still gets a (empty) GZIP member.
+                if(iCount > 0 || !iSubmitted) {
+                    this.submitBlock();
+                }
+                this.flush();
+            } finally {
+                iClosed = true;
+                if(!iSharedExecutor) {
+                    iExecutor.shutdownNow();
+                }
+                iOut.close();
+            }
+        }
+    }
+
+    /**
+     * This method submits the current block for compression, writing the oldest
+     * compressed blocks first if too many are pending.
+     *
+     * @exception   IOException when compressing or writing failed.
+     */
+    private void submitBlock() throws IOException {
+        this.checkOpen();
+        while(iPending.size() >= 2*iThreads) {
+            this.writeFirst();
+        }
+        final byte[] block = iBuffer;
+        final int length = iCount;
+        iPending.add(iExecutor.submit(new Callable() {
+            public Object call() throws Exception {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream(length/3 + 64);
+                GZIPOutputStream gzos = new GZIPOutputStream(baos, 64*1024);
+                gzos.write(block, 0, length);
+                gzos.close();
+                return baos;
+            }
+        }));
+        iBuffer = new byte[iBlockSize];
+        iCount = 0;
+        iSubmitted = true;
+    }
+
+    /**
+     * This method waits for the oldest pending block and writes it.
+     *
+     * @exception   IOException when compressing or writing failed.
+     */
+    private void writeFirst() throws IOException {
+        Future future = (Future)iPending.removeFirst();
+        try {
+            ((ByteArrayOutputStream)future.get()).writeTo(iOut);
+        } catch(InterruptedException ie) {
+            throw new InterruptedIOException("Interrupted while compressing!");
+        } catch(ExecutionException ee) {
+            throw new IOException("Unable to compress block: " + ee.getCause());
+        }
+    }
+
+    /**
+     * This method checks whether the stream is still open.
+     *
+     * @exception   IOException when the stream has been closed.
+     */
+    private void checkOpen() throws IOException {
+        if(iClosed) {
+            throw new IOException("Stream closed!");
+        }
+    }
+}
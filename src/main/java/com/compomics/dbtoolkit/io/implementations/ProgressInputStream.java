@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 00:58:04
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.LongMonitorable;
+
+import java.io.*;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 00:58:04 $
+ */
+
+/**
+ * This class counts the bytes read through it in a long, so it can report on the
+ * progress in files larger than 2 GB. It replaces the int-based MonitorableInputStream
+ * in the DBLoaders.
+ *
+ * @author Lennart Martens
+ */
+public class ProgressInputStream extends FilterInputStream implements LongMonitorable {
+
+    /**
+     * The largest value reported by the int-based methods. This leaves some headroom
+     * for callers that add steps of their own to the maximum.
+     */
+    private static final long MAX_SCALED = Integer.MAX_VALUE/4;
+
+    /**
+     * The number of bytes that can be read, or -1 if unknown.
+     */
+    private long iMaximum = -1;
+
+    /**
+     * The number of bytes read so far.
+     */
+    private volatile long iPosition = 0;
+
+    /**
+     * This constructor opens the specified file.
+     *
+     * @param   aFile   File to read.
+     * @exception   IOException when the file could not be opened.
+     */
+    public ProgressInputStream(File aFile) throws IOException {
+        this(new FileInputStream(aFile), aFile.length());
+    }
+
+    /**
+     * This constructor opens the specified file.
+     *
+     * @param   aFilename   String with the name of the file to read.
+     * @exception   IOException when the file could not be opened.
+     */
+    public ProgressInputStream(String aFilename) throws IOException {
+        this(new File(aFilename));
+    }
+
+    /**
+     * This constructor wraps the specified stream.
+     *
+     * @param   aIn InputStream to read from.
+     * @param   aMaximum    long with the number of bytes that can be read, or -1 if unknown.
+     */
+    public ProgressInputStream(InputStream aIn, long aMaximum) {
+        super(aIn);
+        this.iMaximum = aMaximum;
+    }
+
+    public int read() throws IOException {
+        int result = in.read();
+        if(result >= 0) {
+            iPosition++;
+        }
+        return result;
+    }
+
+    public int read(byte[] aBytes, int aOffset, int aLength) throws IOException {
+        int result = in.read(aBytes, aOffset, aLength);
+        if(result > 0) {
+            iPosition += result;
+        }
+        return result;
+    }
+
+    public long skip(long aCount) throws IOException {
+        long result = in.skip(aCount);
+        iPosition += result;
+        return result;
+    }
+
+    /**
+     * Marking is not supported, since it would make the byte count ambiguous.
+     *
+     * @return  boolean 'false'.
+     */
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getLongMaximum() {
+        return iMaximum;
+    }
+
+    public long monitorLongProgress() {
+        return iPosition;
+    }
+
+    /**
+     * This method returns the maximum, scaled down to the int range if required.
+     *
+     * @return  int with the (scaled) maximum.
+     */
+    public int getMaximum() {
+        return scale(iMaximum, iMaximum);
+    }
+
+    /**
+     * This method returns the progress, scaled down to the int range if required.
+     *
+     * @return  int with the (scaled) progress.
+     */
+    public int monitorProgress() {
+        return scale(iPosition, iMaximum);
+    }
+
+    /**
+     * This method scales a long progress value down to the int range, using the
+     * same factor for every value with the same maximum, so the int-based progress
+     * of a LongMonitorable stays proportional to its long progress. Values within the
+     * int range are not scaled if the maximum is small enough.
+     *
+     * @param   aValue  long with the value to scale.
+     * @param   aMaximum    long with the maximum value (-1 if unknown).
+     * @return  int with the scaled value.
+     */
+    public static int scale(long aValue, long aMaximum) {
+        if(aValue < 0) {
+            return 0;
+        }
+        long factor = (aMaximum > MAX_SCALED)?(aMaximum/MAX_SCALED + 1):1;
+        return (int)Math.min(aValue/factor, Integer.MAX_VALUE);
+    }
+}
@@ -25,7 +25,9 @@ import java.util.Vector;
  */
 
 /**
- * This class implements a Collection of ProteinFilters.
+ * This class implements a Collection of ProteinFilters. The ProteinFilters are only
+ * evaluated until the outcome is known. In adaptive mode, they are reordered after a
+ * sample of the first entries, so that cheap and selective ProteinFilters are evaluated first.
  *
  * @author Lennart Martens
  */
@@ -43,6 +45,11 @@ public class ProteinFilterCollection extends Vector implements ProteinFilter {
      */
     public static final int OR = 1;
 
+    /**
+     * The default number of entries sampled by an adaptive collection.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
     /**
      * This variable keeps track of the mode this collection is in.
      */
@@ -53,6 +60,24 @@ public class ProteinFilterCollection extends Vector implements ProteinFilter {
      */
     private boolean iInvert = false;
 
+    /**
+     * The evaluator that joins the results of the ProteinFilters, and adapts their order.
+     */
+    private FilterEvaluator iEvaluator = new FilterEvaluator();
+
+    /**
+     * Evaluates a ProteinFilter on a Protein.
+     */
+    private static final FilterEvaluator.Call PROTEIN = new FilterEvaluator.Call() {
+        public boolean isFilter(Object aElement) {
+            return aElement instanceof ProteinFilter;
+        }
+
+        public boolean passes(Object aFilter, Object aEntry) {
+            return ((ProteinFilter)aFilter).passesFilter((Protein)aEntry);
+        }
+    };
+
     /**
      * The constructor requires that the mode in which the added ProteinFilters are evaluated
      * is specified. Please use only the modes defined as static final ints on this class.
@@ -123,18 +148,7 @@ public class ProteinFilterCollection extends Vector implements ProteinFilter {
      * @return  boolean 'true' if the specified Protein passes the filter, 'false' otherwise.
      */
     public boolean passesFilter(Protein aProtein) {
-         boolean result = false;
-
-        switch(iMode) {
-            case FilterCollection.AND:
-                result = this.evaluateANDFilters(aProtein);
-                break;
-            case FilterCollection.OR:
-                result = this.evaluateORFilters(aProtein);
-                break;
-            default:
-                result = false;
-        }
+        boolean result = this.evaluateFilters(aProtein);
 
         if(iInvert) {
             result = !result;
@@ -153,47 +167,78 @@ public class ProteinFilterCollection extends Vector implements ProteinFilter {
     }
 
     /**
-     * This method will evaluate the given Protein against all listed
-     * ProteinFilters, joining their results by boolean AND operator.
+     * This method returns the boolean operator that joins the ProteinFilters.
      *
-     * @param   aProtein  Protein with the protein to filter.
-     * @return  boolean with the result of the operation (Filter1(entry) AND Filter2(entry) AND ...).
-     */
-    private boolean evaluateANDFilters(Protein aProtein) {
-        boolean result = true;
-        int liSize = this.size();
-        for(int i=0;i<liSize;i++) {
-            Object temp = this.get(i);
-            if(temp instanceof ProteinFilter) {
-                ProteinFilter f = (ProteinFilter)temp;
-                if(!f.passesFilter(aProtein)) {
-                    result = false;
-                }
-            }
-        }
-        return result;
+     * @return  int with the mode (AND or OR).
+     */
+    public int getMode() {
+        return iMode;
+    }
+
+    /**
+     * This method reports on whether the result of the collection is inverted.
+     *
+     * @return  boolean that is 'true' when the result is inverted.
+     */
+    public boolean isInverted() {
+        return iInvert;
     }
 
     /**
-     * This method will evaluate the given entry against all listed
-     * ProteinFilters, joining their results by boolean OR operator.
+     * This method switches the adaptive mode on or off. In adaptive mode, all ProteinFilters are
+     * evaluated for the first entries, while their pass rate and cost are sampled. After that,
+     * the ProteinFilters are evaluated in the cheapest order (see FilterStatistics). Note that the
+     * ProteinFilters are always evaluated lazily: evaluation stops as soon as the outcome is known.
+     * Sampling restarts when ProteinFilters are added to or removed from the collection.
+     *
+     * @param   aSampleSize int with the number of entries to sample, or 0 to evaluate the
+     *                      ProteinFilters in the order they were added.
+     */
+    public void setAdaptive(int aSampleSize) {
+        iEvaluator.setAdaptive(aSampleSize);
+    }
+
+    /**
+     * This method sets the Clock used to measure the evaluation times of the ProteinFilters
+     * in adaptive mode. By default, the system clock is used.
+     *
+     * @param   aClock  FilterEvaluator.Clock to use.
+     */
+    public void setClock(FilterEvaluator.Clock aClock) {
+        iEvaluator.setClock(aClock);
+    }
+
+    /**
+     * This method returns the statistics collected on the ProteinFilters in adaptive mode.
+     *
+     * @return  FilterStatistics    with the statistics, or 'null' if the collection is not
+     *                              adaptive, or has not evaluated any entries since it was modified.
+     */
+    public FilterStatistics getStatistics() {
+        return iEvaluator.getStatistics(modCount);
+    }
+
+    /**
+     * This method returns the order in which the ProteinFilters are currently evaluated.
+     *
+     * @return  int[]   with the indices of the ProteinFilters, in the order of their evaluation.
+     */
+    public int[] getEvaluationOrder() {
+        return iEvaluator.getEvaluationOrder(this.size(), modCount);
+    }
+
+    /**
+     * This method will evaluate the given Protein against the listed ProteinFilters,
+     * joining their results by the boolean operator of this collection. Evaluation stops
+     * as soon as the outcome is known, except while sampling in adaptive mode.
      *
      * @param   aProtein  Protein with the protein to filter.
-     * @return  boolean with the result of the operation (Filter1(entry) OR Filter2(entry) OR ...).
-     */
-    private boolean evaluateORFilters(Protein aProtein) {
-        boolean result = false;
-
-        int liSize = this.size();
-        for(int i=0;i<liSize;i++) {
-            Object temp = this.get(i);
-            if(temp instanceof ProteinFilter) {
-                ProteinFilter f = (ProteinFilter)temp;
-                if(f.passesFilter(aProtein)) {
-                    result = true;
-                }
-            }
+     * @return  boolean with the result of the operation (Filter1(protein) AND/OR Filter2(protein) AND/OR ...).
+     */
+    private boolean evaluateFilters(Protein aProtein) {
+        if(iMode != AND && iMode != OR) {
+            return false;
         }
-        return result;
+        return iEvaluator.evaluate(this, modCount, iMode == AND, PROTEIN, aProtein);
     }
 }
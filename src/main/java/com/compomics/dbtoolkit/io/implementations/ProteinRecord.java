@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 18:55:27
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
+import com.compomics.util.protein.Header;
+import com.compomics.util.protein.Protein;
+
+import java.io.PrintWriter;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 18:55:27 $
+ */
+
+/**
+ * This class represents a single DB entry in FASTA format, without parsing it up front.
+ * The header line, Header, accession number, description and sequence are only
+ * extracted (and cached) when first requested, so tools that only need the sequence
+ * never pay for the parsing of the header, and vice versa. <br />
+ * A full Protein instance can still be obtained through the 'toProtein' method.
+ *
+ * @author Lennart Martens
+ */
+public class ProteinRecord implements DBRecord {
+
+    /**
+     * The entry in FASTA format.
+     */
+    private String iEntry = null;
+
+    /**
+     * The position of the first line break in the entry, or -1 if not yet located.
+     */
+    private int iHeaderEnd = -1;
+
+    /**
+     * The parsed Header, if already requested.
+     */
+    private Header iHeader = null;
+
+    /**
+     * The sequence, if already requested.
+     */
+    private String iSequence = null;
+
+    /**
+     * This constructor takes an entry in FASTA format: a header line,
+     * followed by one or more sequence lines.
+     *
+     * @param   aFASTAEntry String with the FASTA entry.
+     */
+    public ProteinRecord(String aFASTAEntry) {
+        this.iEntry = aFASTAEntry;
+    }
+
+    /**
+     * This method returns the entry in FASTA format, exactly as it was read.
+     *
+     * @return  String  with the FASTA entry.
+     */
+    public String getFASTAEntry() {
+        return iEntry;
+    }
+
+    /**
+     * This method returns the (trimmed) header line of the entry, including the leading '>'.
+     *
+     * @return  String  with the header line.
+     */
+    public String getHeaderLine() {
+        return iEntry.substring(0, this.getHeaderEnd()).trim();
+    }
+
+    /**
+     * This method returns the parsed Header. The header is parsed on the first call.
+     *
+     * @return  Header  with the parsed header.
+     */
+    public Header getHeader() {
+        if(iHeader == null) {
+            iHeader = Header.parseFromFASTA(this.getHeaderLine());
+        }
+        return iHeader;
+    }
+
+    /**
+     * This method returns the accession number of the entry.
+     *
+     * @return  String  with the accession number.
+     */
+    public String getAccession() {
+        return this.getHeader().getAccession();
+    }
+
+    /**
+     * This method returns the description of the entry.
+     *
+     * @return  String  with the description.
+     */
+    public String getDescription() {
+        return this.getHeader().getDescription();
+    }
+
+    /**
+     * This method returns the sequence of the entry, stripped of all whitespace.
+     * The sequence is extracted on the first call.
+     *
+     * @return  String  with the sequence.
+     */
+    public String getSequence() {
+        if(iSequence == null) {
+            int start = this.getHeaderEnd();
+            int end = iEntry.length();
+            while(start < end && iEntry.charAt(start) <= ' ') {
+                start++;
+            }
+            while(end > start && iEntry.charAt(end-1) <= ' ') {
+                end--;
+            }
+            // Only copy character by character if there is whitespace inside the sequence.
+            boolean clean = true;
+            for(int i = start; i < end && clean; i++) {
+                if(iEntry.charAt(i) <= ' ') {
+                    clean = false;
+                }
+            }
+            if(clean) {
+                iSequence = iEntry.substring(start, end);
+            } else {
+                StringBuffer sb = new StringBuffer(end-start);
+                for(int i = start; i < end; i++) {
+                    char c = iEntry.charAt(i);
+                    if(c > ' ') {
+                        sb.append(c);
+                    }
+                }
+                iSequence = sb.toString();
+            }
+        }
+        return iSequence;
+    }
+
+    /**
+     * This method returns the length of the sequence.
+     *
+     * @return  int with the length of the sequence.
+     */
+    public int getLength() {
+        return this.getSequence().length();
+    }
+
+    /**
+     * This method creates a full Protein instance for this entry, identical
+     * to the one 'nextProtein' would have returned.
+     *
+     * @return  Protein for this entry.
+     */
+    public Protein toProtein() {
+        return new Protein(iEntry);
+    }
+
+    /**
+     * This method writes the entry to the specified writer in FASTA format,
+     * using the original header line and 60 residues per sequence line.
+     *
+     * @param   aOut    PrintWriter to write to.
+     */
+    public void writeToFASTAFile(PrintWriter aOut) {
+        aOut.println(this.getHeaderLine());
+        String sequence = this.getSequence();
+        for(int i = 0; i < sequence.length(); i += 60) {
+            aOut.println(sequence.substring(i, Math.min(i+60, sequence.length())));
+        }
+    }
+
+    /**
+     * This method returns the position of the line break after the header line.
+     *
+     * @return  int with the position of the line break, or the length of the entry if there is none.
+     */
+    private int getHeaderEnd() {
+        if(iHeaderEnd < 0) {
+            iHeaderEnd = iEntry.indexOf('\n');
+            if(iHeaderEnd < 0) {
+                iHeaderEnd = iEntry.length();
+            }
+        }
+        return iHeaderEnd;
+    }
+
+    public String toString() {
+        return iEntry;
+    }
+}
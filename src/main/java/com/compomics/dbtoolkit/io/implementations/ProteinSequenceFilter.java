@@ -92,6 +92,44 @@ public class ProteinSequenceFilter implements ProteinFilter {
         this.iInclusive = aInvert;
     }
 
+    /**
+     * This method returns the sequence element to match.
+     *
+     * @return  String  with the residu(es) to match, or the regular expression.
+     */
+    public String getSequenceMatch() {
+        return iSequenceMatch;
+    }
+
+    /**
+     * This method reports on whether the sequence element is a regular expression.
+     *
+     * @return  boolean that is 'true' when the sequence element contains '.'.
+     */
+    public boolean isRegularExpression() {
+        return iPattern != null;
+    }
+
+    /**
+     * This method reports on whether the sequence element should be present for a pass.
+     *
+     * @return  boolean that is 'true' when the sequence element should be present for a pass,
+     *                  'false' when it should be absent.
+     */
+    public boolean isInclusive() {
+        return iInclusive;
+    }
+
+    /**
+     * This method reports on whether the initiator methionine is part of the sequence
+     * that is matched.
+     *
+     * @return  boolean that is 'false' when initiator methionines are considered cleaved off.
+     */
+    public boolean isInitMetCounted() {
+        return iInitMetCounts;
+    }
+
     /**
      * This method returns a flag that indicates whether the specified instance
      * passes the filter.
@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 21:05:36
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.LongMonitorable;
+import com.compomics.util.interfaces.Monitorable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 21:05:36 $
+ */
+
+/**
+ * This class reads ahead on a separate thread from the wrapped InputStream into a bounded
+ * queue of buffers. Wrapping a decompressing stream (eg., a GZIPInputStream) in this class allows
+ * the inflating to overlap with the parsing of the data by the reading thread. <br />
+ * Since the read-ahead thread consumes the underlying file before the data is actually
+ * used, the progress reported by a Monitorable on the file would run ahead. This class
+ * therefore records the progress of the specified Monitorable with each buffer, and
+ * reports the progress that corresponds to the data delivered so far.
+ *
+ * @author Lennart Martens
+ */
+public class ReadAheadInputStream extends InputStream implements LongMonitorable {
+
+    /**
+     * The default size of the buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64*1024;
+
+    /**
+     * The default number of buffers in the queue.
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 16;
+
+    /**
+     * The wrapped stream.
+     */
+    private InputStream iIn = null;
+
+    /**
+     * The Monitorable that reports on the progress in the underlying file.
+     * Can be 'null'.
+     */
+    private Monitorable iProgress = null;
+
+    /**
+     * The queue with the buffers read ahead.
+     */
+    private BlockingQueue iQueue = null;
+
+    /**
+     * The thread doing the reading.
+     */
+    private Thread iReader = null;
+
+    /**
+     * The buffer currently being delivered.
+     */
+    private Chunk iCurrent = null;
+
+    /**
+     * The position in the current buffer.
+     */
+    private int iPos = 0;
+
+    /**
+     * The progress for the data delivered so far.
+     */
+    private volatile long iDelivered = 0;
+
+    /**
+     * This boolean is set when the stream is closed.
+     */
+    private volatile boolean iClosed = false;
+
+    /**
+     * This constructor wraps the specified stream, using the default buffer and queue sizes.
+     *
+     * @param   aIn InputStream to read ahead on.
+     * @param   aProgress   Monitorable that reports the progress in the underlying file
+     *                      (can be 'null').
+     */
+    public ReadAheadInputStream(InputStream aIn, Monitorable aProgress) {
+        this(aIn, aProgress, DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * This constructor wraps the specified stream, using the specified buffer and queue sizes.
+     *
+     * @param   aIn InputStream to read ahead on.
+     * @param   aProgress   Monitorable that reports the progress in the underlying file
+     *                      (can be 'null').
+     * @param   aBufferSize int with the size of each buffer.
+     * @param   aQueueSize  int with the maximal number of buffers read ahead.
+     */
+    public ReadAheadInputStream(InputStream aIn, Monitorable aProgress, int aBufferSize, int aQueueSize) {
+        this.iIn = aIn;
+        this.iProgress = aProgress;
+        this.iQueue = new ArrayBlockingQueue(aQueueSize);
+        final int bufferSize = aBufferSize;
+        iReader = new Thread(new Runnable() {
+            public void run() {
+                readAhead(bufferSize);
+            }
+        }, "Read-ahead");
+        iReader.setDaemon(true);
+        iReader.start();
+    }
+
+    public int read() throws IOException {
+        if(!this.fill()) {
+            return -1;
+        }
+        return iCurrent.iData[iPos++] & 0xff;
+    }
+
+    public int read(byte[] aBytes, int aOffset, int aLength) throws IOException {
+        if(aLength == 0) {
+            return 0;
+        }
+        if(!this.fill()) {
+            return -1;
+        }
+        int count = Math.min(aLength, iCurrent.iLength - iPos);
+        System.arraycopy(iCurrent.iData, iPos, aBytes, aOffset, count);
+        iPos += count;
+        return count;
+    }
+
+    public int available() throws IOException {
+        return (iCurrent == null || iCurrent.iLength < 0)?0:iCurrent.iLength - iPos;
+    }
+
+    /**
+     * This method stops the read-ahead thread and closes the wrapped stream.
+     *
+     * @exception   IOException when the wrapped stream could not be closed.
+     */
+    public void close() throws IOException {
+        if(!iClosed) {
+            iClosed = true;
+            iReader.interrupt();
+            try {
+                iReader.join();
+            } catch(InterruptedException ie) {
+                // Close anyway.
+            }
+            iQueue.clear();
+            iIn.close();
+        }
+    }
+
+    /**
+     * This method reports the maximum of the Monitorable on the underlying file.
+     *
+     * @return  int with the maximum, or 0 if there is no Monitorable.
+     */
+    public int getMaximum() {
+        long maximum = this.getLongMaximum();
+        return ProgressInputStream.scale(maximum, maximum);
+    }
+
+    /**
+     * This method reports the progress in the underlying file for the data
+     * delivered so far, rather than for the data read ahead.
+     *
+     * @return  int with the progress.
+     */
+    public int monitorProgress() {
+        return ProgressInputStream.scale(iDelivered, this.getLongMaximum());
+    }
+
+    /**
+     * This method reports the maximum of the Monitorable on the underlying file.
+     *
+     * @return  long with the maximum, or 0 if there is no Monitorable.
+     */
+    public long getLongMaximum() {
+        if(iProgress instanceof LongMonitorable) {
+            return ((LongMonitorable)iProgress).getLongMaximum();
+        }
+        return (iProgress == null)?0:iProgress.getMaximum();
+    }
+
+    /**
+     * This method reports the progress in the underlying file for the data
+     * delivered so far, rather than for the data read ahead.
+     *
+     * @return  long with the progress.
+     */
+    public long monitorLongProgress() {
+        return iDelivered;
+    }
+
+    /**
+     * This method makes sure there is data in the current buffer.
+     *
+     * @return  boolean 'false' when the end of the data was reached.
+     * @exception   IOException when the read-ahead thread failed, or the stream was closed.
+     */
+    private boolean fill() throws IOException {
+        if(iClosed) {
+            throw new IOException("Stream closed!");
+        }
+        while(iCurrent == null || (iCurrent.iLength >= 0 && iPos >= iCurrent.iLength)) {
+            try {
+                iCurrent = (Chunk)iQueue.take();
+            } catch(InterruptedException ie) {
+                throw new InterruptedIOException("Interrupted while waiting for data!");
+            }
+            iPos = 0;
+            iDelivered = iCurrent.iProgress;
+        }
+        if(iCurrent.iError != null) {
+            throw iCurrent.iError;
+        }
+        return iCurrent.iLength >= 0;
+    }
+
+    /**
+     * This method is run by the read-ahead thread. It reads buffers until the end of the
+     * stream is reached (or an error occurs) and queues them, blocking while the queue is full.
+     *
+     * @param   aBufferSize int with the size of each buffer.
+     */
+    private void readAhead(int aBufferSize) {
+        try {
+            boolean eof = false;
+            while(!eof && !iClosed) {
+                byte[] data = new byte[aBufferSize];
+                int length = 0;
+                IOException error = null;
+                try {
+                    int read = 0;
+                    while(length < aBufferSize && (read = iIn.read(data, length, aBufferSize - length)) >= 0) {
+                        length += read;
+                    }
+                    eof = (read < 0);
+                } catch(IOException ioe) {
+                    eof = true;
+                    error = ioe;
+                }
+                // Deliver whatever was read before the end of the stream or the error.
+                if(length > 0) {
+                    iQueue.put(new Chunk(data, length, this.getProgress(), null));
+                }
+                if(eof) {
+                    iQueue.put(new Chunk(null, -1, this.getProgress(), error));
+                }
+            }
+        } catch(InterruptedException ie) {
+            // Stream closed.
+        }
+    }
+
+    /**
+     * This method returns the current progress of the Monitorable on the underlying file.
+     *
+     * @return  long with the progress, or 0 if there is no Monitorable.
+     */
+    private long getProgress() {
+        if(iProgress instanceof LongMonitorable) {
+            return ((LongMonitorable)iProgress).monitorLongProgress();
+        }
+        return (iProgress == null)?0:iProgress.monitorProgress();
+    }
+
+    /**
+     * This class holds a buffer read ahead, or the end-of-stream marker
+     * (with a negative length).
+     */
+    private static class Chunk {
+        private byte[] iData = null;
+        private int iLength = 0;
+        private long iProgress = 0;
+        private IOException iError = null;
+
+        public Chunk(byte[] aData, int aLength, long aProgress, IOException aError) {
+            this.iData = aData;
+            this.iLength = aLength;
+            this.iProgress = aProgress;
+            this.iError = aError;
+        }
+    }
+}
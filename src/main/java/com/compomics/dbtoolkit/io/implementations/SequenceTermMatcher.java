@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 07:08:45
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedList;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 07:08:45 $
+ */
+
+/**
+ * This class finds all of a set of sequence terms (residues or stretches) in a sequence
+ * in a single pass, regardless of the number of terms. <br />
+ * The terms are compiled into an Aho-Corasick automaton: a trie of the terms in which
+ * each node also knows where to continue after a mismatch, so that no character of the
+ * sequence is ever read twice.
+ *
+ * @author Lennart Martens
+ */
+public class SequenceTermMatcher {
+
+    /**
+     * The index of each ASCII character in the alphabet of the terms, or -1 if no term contains it.
+     */
+    private int[] iAsciiIndex = new int[128];
+
+    /**
+     * The sorted non-ASCII characters in the alphabet of the terms.
+     * Their index in the alphabet follows the ASCII characters.
+     */
+    private char[] iOtherChars = null;
+
+    /**
+     * The number of ASCII characters in the alphabet of the terms.
+     */
+    private int iAsciiCount = 0;
+
+    /**
+     * The state that follows each state for each character of the alphabet.
+     */
+    private int[][] iTransitions = null;
+
+    /**
+     * The indices of the terms that end in each state ('null' for none).
+     */
+    private int[][] iOutput = null;
+
+    /**
+     * The length of each term.
+     */
+    private int[] iLengths = null;
+
+    /**
+     * This constructor takes the terms to match. Terms may occur more than once
+     * and are matched case sensitively.
+     *
+     * @param   aTerms  String[] with the terms to match, none of which should be empty.
+     */
+    public SequenceTermMatcher(String[] aTerms) {
+        iLengths = new int[aTerms.length];
+        this.buildAlphabet(aTerms);
+        int alphabetSize = iAsciiCount + iOtherChars.length;
+
+        // First build the trie.
+        int maxStates = 1;
+        for(int i = 0; i < aTerms.length; i++) {
+            if(aTerms[i].length() == 0) {
+                throw new IllegalArgumentException("Sequence terms should not be empty!");
+            }
+            iLengths[i] = aTerms[i].length();
+            maxStates += iLengths[i];
+        }
+        int[][] transitions = new int[maxStates][];
+        int[][] output = new int[maxStates][];
+        transitions[0] = new int[alphabetSize];
+        Arrays.fill(transitions[0], -1);
+        int stateCount = 1;
+        for(int i = 0; i < aTerms.length; i++) {
+            int state = 0;
+            for(int j = 0; j < iLengths[i]; j++) {
+                int index = this.getIndex(aTerms[i].charAt(j));
+                if(transitions[state][index] < 0) {
+                    transitions[stateCount] = new int[alphabetSize];
+                    Arrays.fill(transitions[stateCount], -1);
+                    transitions[state][index] = stateCount;
+                    stateCount++;
+                }
+                state = transitions[state][index];
+            }
+            output[state] = this.merge(output[state], new int[] {i});
+        }
+
+        // Now add the failure transitions breadth first, so that the failure state of each
+        // state is complete before its children are processed.
+        int[] failure = new int[stateCount];
+        LinkedList queue = new LinkedList();
+        for(int c = 0; c < alphabetSize; c++) {
+            int next = transitions[0][c];
+            if(next < 0) {
+                transitions[0][c] = 0;
+            } else {
+                failure[next] = 0;
+                queue.add(new Integer(next));
+            }
+        }
+        while(!queue.isEmpty()) {
+            int state = ((Integer)queue.removeFirst()).intValue();
+            output[state] = this.merge(output[state], output[failure[state]]);
+            for(int c = 0; c < alphabetSize; c++) {
+                int next = transitions[state][c];
+                if(next < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[next] = transitions[failure[state]][c];
+                    queue.add(new Integer(next));
+                }
+            }
+        }
+        iTransitions = new int[stateCount][];
+        System.arraycopy(transitions, 0, iTransitions, 0, stateCount);
+        iOutput = new int[stateCount][];
+        System.arraycopy(output, 0, iOutput, 0, stateCount);
+    }
+
+    /**
+     * This method returns the number of terms.
+     *
+     * @return  int with the number of terms.
+     */
+    public int getTermCount() {
+        return iLengths.length;
+    }
+
+    /**
+     * This method finds the terms in the specified sequence. For each term i, the
+     * resulting BitSet holds two bits: bit i is set when the term occurs anywhere in the
+     * sequence, and bit (getTermCount() + i) is set when the term occurs at a position
+     * other than the very start of the sequence (ie., in the sequence without its first residue).
+     *
+     * @param   aSequence   String with the sequence to search.
+     * @return  BitSet  with the terms found.
+     */
+    public BitSet match(String aSequence) {
+        int count = iLengths.length;
+        BitSet result = new BitSet(2*count);
+        int state = 0;
+        int length = aSequence.length();
+        for(int i = 0; i < length; i++) {
+            int index = this.getIndex(aSequence.charAt(i));
+            if(index < 0) {
+                state = 0;
+                continue;
+            }
+            state = iTransitions[state][index];
+            int[] terms = iOutput[state];
+            if(terms != null) {
+                for(int j = 0; j < terms.length; j++) {
+                    int term = terms[j];
+                    result.set(term);
+                    if(i >= iLengths[term]) {
+                        result.set(count + term);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method collects the distinct characters of the terms into the alphabet.
+     *
+     * @param   aTerms  String[] with the terms.
+     */
+    private void buildAlphabet(String[] aTerms) {
+        Arrays.fill(iAsciiIndex, -1);
+        StringBuffer others = new StringBuffer();
+        for(int i = 0; i < aTerms.length; i++) {
+            String term = aTerms[i];
+            for(int j = 0; j < term.length(); j++) {
+                char c = term.charAt(j);
+                if(c < 128) {
+                    if(iAsciiIndex[c] < 0) {
+                        iAsciiIndex[c] = iAsciiCount;
+                        iAsciiCount++;
+                    }
+                } else if(others.indexOf(String.valueOf(c)) < 0) {
+                    others.append(c);
+                }
+            }
+        }
+        iOtherChars = others.toString().toCharArray();
+        Arrays.sort(iOtherChars);
+    }
+
+    /**
+     * This method returns the index of the specified character in the alphabet of the terms.
+     *
+     * @param   aChar   char to look up.
+     * @return  int with the index of the character, or -1 if no term contains it.
+     */
+    private int getIndex(char aChar) {
+        if(aChar < 128) {
+            return iAsciiIndex[aChar];
+        }
+        int index = Arrays.binarySearch(iOtherChars, aChar);
+        return (index < 0)?-1:iAsciiCount + index;
+    }
+
+    /**
+     * This method merges two lists of term indices.
+     *
+     * @param   aFirst  int[] with the first list (can be 'null').
+     * @param   aSecond int[] with the second list (can be 'null').
+     * @return  int[]   with both lists, or 'null' if both are 'null'.
+     */
+    private int[] merge(int[] aFirst, int[] aSecond) {
+        if(aFirst == null) {
+            return aSecond;
+        } else if(aSecond == null) {
+            return aFirst;
+        }
+        int[] result = new int[aFirst.length + aSecond.length];
+        System.arraycopy(aFirst, 0, result, 0, aFirst.length);
+        System.arraycopy(aSecond, 0, result, aFirst.length, aSecond.length);
+        return result;
+    }
+}
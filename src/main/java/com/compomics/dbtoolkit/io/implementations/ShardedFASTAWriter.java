@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 04:12:33
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.StandardStreams;
+import com.compomics.util.protein.Header;
+import com.compomics.util.protein.Protein;
+
+import java.io.*;
+import java.util.concurrent.ExecutorService;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 04:12:33 $
+ */
+
+/**
+ * This class splits FASTA output over a number of files ('shards'), eg. to feed
+ * balanced parts of a DB to a distributed search. Each shard is written by its own
+ * FASTAWriter, on its own background thread. Compressed shards share a single pool of
+ * compressor threads, so the number of these does not grow with the number of shards. <br />
+ * The entries are assigned to the shards round-robin, to the shard with the fewest
+ * residues so far (balancing the cumulative residue count), or by a hash of the sequence
+ * or of the accession number (so identical sequences or accessions always end up in the same
+ * shard). <br />
+ * The shards are named after the output file, with the shard number inserted before
+ * the extension (eg., 'db.fas' is split into 'db.01.fas', 'db.02.fas', ...). On closing, a
+ * manifest listing the shards is written next to them ('db.fas.manifest'); it can be
+ * read back as a single DB by specifying '@db.fas.manifest' as input (see CompositeDBLoader).
+ *
+ * @author Lennart Martens
+ */
+public class ShardedFASTAWriter extends FASTAWriter {
+
+    /**
+     * Assigns the entries to the shards in turn.
+     */
+    public static final int ROUND_ROBIN = 0;
+
+    /**
+     * Assigns each entry to the shard with the fewest residues so far.
+     */
+    public static final int RESIDUES = 1;
+
+    /**
+     * Assigns the entries by a hash of their sequence.
+     */
+    public static final int SEQUENCE_HASH = 2;
+
+    /**
+     * Assigns the entries by a hash of their accession number.
+     */
+    public static final int ACCESSION_HASH = 3;
+
+    /**
+     * The names of the strategies, as used on the command line.
+     */
+    public static final String[] STRATEGY_NAMES = new String[] {"roundrobin", "residues", "sequence", "accession"};
+
+    /**
+     * The extension of the manifest file.
+     */
+    public static final String MANIFEST_EXTENSION = ".manifest";
+
+    /**
+     * The output file the shards are named after.
+     */
+    private File iOutput = null;
+
+    /**
+     * The shard files.
+     */
+    private File[] iFiles = null;
+
+    /**
+     * The writers for the shards.
+     */
+    private FASTAWriter[] iWriters = null;
+
+    /**
+     * The compressor threads shared by the shards, or 'null' if the shards are not compressed.
+     */
+    private ExecutorService iCompressors = null;
+
+    /**
+     * The number of residues written to each shard.
+     */
+    private long[] iResidues = null;
+
+    /**
+     * The strategy to assign the entries with.
+     */
+    private int iStrategy = ROUND_ROBIN;
+
+    /**
+     * The shard the next entry goes to (round-robin only).
+     */
+    private int iNext = 0;
+
+    /**
+     * This boolean is set when the writer has been closed.
+     */
+    private boolean iClosed = false;
+
+    /**
+     * This constructor opens the shards for the specified output file.
+     *
+     * @param   aOutput File the shards are named after.
+     * @param   aCompress   boolean to request GZIP compression regardless of the extension.
+     * @param   aShards int with the number of shards.
+     * @param   aStrategy   int with the strategy to assign the entries with (one of
+     *                      the constants on this class).
+     * @exception   IOException when the shards could not be created.
+     */
+    public ShardedFASTAWriter(File aOutput, boolean aCompress, int aShards, int aStrategy) throws IOException {
+        if(aShards < 1) {
+            throw new IllegalArgumentException("The number of shards should be positive!");
+        }
+        if(aStrategy < ROUND_ROBIN || aStrategy > ACCESSION_HASH) {
+            throw new IllegalArgumentException("Unknown sharding strategy (" + aStrategy + ")!");
+        }
+        if(StandardStreams.isStandardStream(aOutput)) {
+            throw new IOException("Unable to split the output over several files when writing to standard out!");
+        }
+        this.iOutput = aOutput;
+        this.iStrategy = aStrategy;
+        iFiles = new File[aShards];
+        iWriters = new FASTAWriter[aShards];
+        iResidues = new long[aShards];
+        int threads = Runtime.getRuntime().availableProcessors();
+        if(aCompress || ParallelGZIPOutputStream.isCompressed(aOutput)) {
+            iCompressors = ParallelGZIPOutputStream.createCompressorPool(threads);
+        }
+        try {
+            for(int i = 0; i < aShards; i++) {
+                iFiles[i] = getShardFile(aOutput, i, aShards);
+                if(iCompressors != null) {
+                    // Each shard gets its share of the compressor threads.
+                    OutputStream out = new ParallelGZIPOutputStream(new FileOutputStream(iFiles[i]), iCompressors, Math.max(1, threads/aShards), ParallelGZIPOutputStream.DEFAULT_BLOCK_SIZE);
+                    iWriters[i] = new FASTAWriter(out, DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_SIZE);
+                } else {
+                    iWriters[i] = FASTAWriter.open(iFiles[i], false);
+                }
+            }
+        } catch(IOException ioe) {
+            for(int i = 0; i < aShards && iWriters[i] != null; i++) {
+                try {
+                    iWriters[i].close();
+                } catch(IOException ignored) {
+                    // Report the original problem.
+                }
+            }
+            if(iCompressors != null) {
+                iCompressors.shutdownNow();
+            }
+            throw ioe;
+        }
+    }
+
+    /**
+     * This method opens a FASTAWriter on the specified file, splitting the output over
+     * the specified number of shards. A single shard simply writes to the file itself.
+     *
+     * @param   aOutput File to write to.
+     * @param   aCompress   boolean to request compression regardless of the extension.
+     * @param   aShards int with the number of shards.
+     * @param   aStrategy   int with the strategy to assign the entries with.
+     * @return  FASTAWriter on the file, or on its shards.
+     * @exception   IOException when the file(s) could not be created.
+     */
+    public static FASTAWriter open(File aOutput, boolean aCompress, int aShards, int aStrategy) throws IOException {
+        if(aShards > 1) {
+            return new ShardedFASTAWriter(aOutput, aCompress, aShards, aStrategy);
+        }
+        return FASTAWriter.open(aOutput, aCompress);
+    }
+
+    /**
+     * This method returns the strategy with the specified name.
+     *
+     * @param   aName   String with the name of the strategy (see STRATEGY_NAMES).
+     * @return  int with the strategy.
+     * @exception   IllegalArgumentException when the name is unknown.
+     */
+    public static int parseStrategy(String aName) {
+        for(int i = 0; i < STRATEGY_NAMES.length; i++) {
+            if(STRATEGY_NAMES[i].equalsIgnoreCase(aName.trim())) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sharding strategy '" + aName + "'!");
+    }
+
+    /**
+     * This method returns the file for the specified shard: the shard number is inserted
+     * before the extension (ignoring a '.gz' extension), and padded with zeroes.
+     *
+     * @param   aOutput File the shards are named after.
+     * @param   aIndex  int with the index of the shard (starting at 0).
+     * @param   aShards int with the number of shards.
+     * @return  File    for the shard.
+     */
+    public static File getShardFile(File aOutput, int aIndex, int aShards) {
+        String name = aOutput.getName();
+        String gz = "";
+        if(name.toLowerCase().endsWith(ParallelGZIPOutputStream.EXTENSION)) {
+            gz = name.substring(name.length() - ParallelGZIPOutputStream.EXTENSION.length());
+            name = name.substring(0, name.length() - gz.length());
+        }
+        String extension = "";
+        int dot = name.lastIndexOf('.');
+        if(dot > 0) {
+            extension = name.substring(dot);
+            name = name.substring(0, dot);
+        }
+        String number = Integer.toString(aIndex + 1);
+        int width = Math.max(Integer.toString(aShards).length(), 2);
+        while(number.length() < width) {
+            number = "0" + number;
+        }
+        return new File(aOutput.getAbsoluteFile().getParentFile(), name + "." + number + extension + gz);
+    }
+
+    /**
+     * This method returns the manifest file for the specified output file.
+     *
+     * @param   aOutput File the shards are named after.
+     * @return  File    for the manifest.
+     */
+    public static File getManifestFile(File aOutput) {
+        return new File(aOutput.getAbsoluteFile().getPath() + MANIFEST_EXTENSION);
+    }
+
+    /**
+     * This method returns the shard files.
+     *
+     * @return  File[]  with the shard files.
+     */
+    public File[] getShardFiles() {
+        return iFiles;
+    }
+
+    /**
+     * This method sets the number of residues per sequence line for all shards.
+     *
+     * @param   aLineLength int with the number of residues per line, or 0 for no wrapping.
+     */
+    public void setLineLength(int aLineLength) {
+        for(int i = 0; i < iWriters.length; i++) {
+            iWriters[i].setLineLength(aLineLength);
+        }
+    }
+
+    /**
+     * This method writes the specified Protein to its shard.
+     *
+     * @param   aProtein    Protein to write.
+     * @exception   IOException when writing failed.
+     */
+    public void write(Protein aProtein) throws IOException {
+        String sequence = aProtein.getSequence().getSequence();
+        String accession = (iStrategy == ACCESSION_HASH)?aProtein.getHeader().getAccession():null;
+        iWriters[this.select(sequence, accession)].write(aProtein.getHeader().getFullHeaderWithAddenda(), sequence);
+    }
+
+    /**
+     * This method writes an entry with the specified header line and sequence to its shard.
+     *
+     * @param   aHeader String with the header line (including the leading '&gt;').
+     * @param   aSequence   String with the sequence.
+     * @exception   IOException when writing failed.
+     */
+    public void write(String aHeader, String aSequence) throws IOException {
+        String accession = null;
+        if(iStrategy == ACCESSION_HASH) {
+            Header header = Header.parseFromFASTA(aHeader);
+            accession = (header == null)?null:header.getAccession();
+        }
+        iWriters[this.select(aSequence, accession)].write(aHeader, aSequence);
+    }
+
+    /**
+     * This method reports on the number of entries written to all shards so far.
+     *
+     * @return  long with the number of entries.
+     */
+    public long getEntryCount() {
+        long total = 0;
+        for(int i = 0; i < iWriters.length; i++) {
+            total += iWriters[i].getEntryCount();
+        }
+        return total;
+    }
+
+    /**
+     * This method reports on the number of bytes written to all shards so far,
+     * before any compression.
+     *
+     * @return  long with the number of bytes.
+     */
+    public long getByteCount() {
+        long total = 0;
+        for(int i = 0; i < iWriters.length; i++) {
+            total += iWriters[i].getByteCount();
+        }
+        return total;
+    }
+
+    /**
+     * This method flushes all shards.
+     *
+     * @exception   IOException when writing failed.
+     */
+    public void flush() throws IOException {
+        for(int i = 0; i < iWriters.length; i++) {
+            iWriters[i].flush();
+        }
+    }
+
+    /**
+     * This method closes all shards and writes the manifest.
+     *
+     * @exception   IOException when writing failed.
+     */
+    public void close() throws IOException {
+        if(iClosed) {
+            return;
+        }
+        iClosed = true;
+        IOException error = null;
+        for(int i = 0; i < iWriters.length; i++) {
+            try {
+                iWriters[i].close();
+            } catch(IOException ioe) {
+                if(error == null) {
+                    error = ioe;
+                }
+            }
+        }
+        if(iCompressors != null) {
+            iCompressors.shutdownNow();
+        }
+        if(error != null) {
+            throw error;
+        }
+        this.writeManifest();
+    }
+
+    /**
+     * This method selects the shard for an entry.
+     *
+     * @param   aSequence   String with the sequence of the entry.
+     * @param   aAccession  String with the accession number of the entry (only
+     *                      required for ACCESSION_HASH; can be 'null').
+     * @return  int with the index of the shard.
+     */
+    private int select(String aSequence, String aAccession) {
+        int result = 0;
+        if(iStrategy == ROUND_ROBIN) {
+            result = iNext;
+            iNext = (iNext + 1)%iWriters.length;
+        } else if(iStrategy == RESIDUES) {
+            for(int i = 1; i < iResidues.length; i++) {
+                if(iResidues[i] < iResidues[result]) {
+                    result = i;
+                }
+            }
+        } else {
+            String key = (iStrategy == SEQUENCE_HASH || aAccession == null)?aSequence:aAccession;
+            result = (key.hashCode() & 0x7fffffff)%iWriters.length;
+        }
+        iResidues[result] += aSequence.length();
+        return result;
+    }
+
+    /**
+     * This method writes the manifest, listing the shards (relative to the manifest)
+     * with the number of entries and residues in each.
+     *
+     * @exception   IOException when the manifest could not be written.
+     */
+    private void writeManifest() throws IOException {
+        File manifest = getManifestFile(iOutput);
+        PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(manifest)));
+        pw.println("# '" + iOutput.getName() + "', split over " + iFiles.length + " shards by " + STRATEGY_NAMES[iStrategy] + ".");
+        pw.println("# Read all shards as a single DB by specifying '@" + manifest.getName() + "' as input.");
+        for(int i = 0; i < iFiles.length; i++) {
+            pw.println("# " + iWriters[i].getEntryCount() + " entries, " + iResidues[i] + " residues:");
+            pw.println(iFiles[i].getName());
+        }
+        pw.flush();
+        pw.close();
+        if(pw.checkError()) {
+            throw new IOException("Unable to write the manifest '" + manifest + "'!");
+        }
+    }
+}
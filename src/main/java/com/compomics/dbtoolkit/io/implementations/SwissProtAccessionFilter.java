@@ -1,6 +1,6 @@
 package com.compomics.dbtoolkit.io.implementations;
 
-import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
 
 import java.io.IOException;
 import java.util.*;
@@ -11,7 +11,7 @@ import java.util.*;
  * @author Florian Reisinger
  * @since 2.8.7
  */
-public class SwissProtAccessionFilter implements Filter {
+public class SwissProtAccessionFilter implements FieldFilter {
 
 //    // UniProt pattern just in case we need them
 //    // ToDo: apply UniProt pattern to input accessions??
@@ -23,10 +23,9 @@ public class SwissProtAccessionFilter implements Filter {
 
 
     /**
-     * This instance will convert the raw String passed in into a
-     * HashMap when appropriate.
+     * The fields this filter reads from an entry.
      */
-    private SwissProtDBLoader iSpdb = new SwissProtDBLoader();
+    private static final String[] KEYS = new String[] {"AC"};
 
     /**
      * This variable holds the List of accessions to filter the entries for.
@@ -106,9 +105,9 @@ public class SwissProtAccessionFilter implements Filter {
     public boolean passesFilter(String aEntry) {
         boolean passed = false;
 
-        // First transform the raw String into a HashMap.
+        // First extract the fields we need from the raw String into a HashMap.
         try {
-            HashMap lRaw = iSpdb.processRawData(aEntry);
+            HashMap lRaw = SwissProtFormat.getInstance().extract(aEntry, KEYS);
             passed = this.passesFilter(lRaw);
         } catch(IOException ioe) {
             ioe.printStackTrace();
@@ -140,5 +139,12 @@ public class SwissProtAccessionFilter implements Filter {
         return passed;
     }
 
-
+    /**
+     * This method reports on the fields this filter reads from the HashMap of an entry.
+     *
+     * @return  String[]    with the line keys of the fields.
+     */
+    public String[] getRequiredKeys() {
+        return KEYS;
+    }
 }
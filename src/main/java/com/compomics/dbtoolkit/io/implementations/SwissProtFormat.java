@@ -0,0 +1,630 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 05:02:44
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 05:02:44 $
+ */
+
+/**
+ * This class holds the compiled SwissProt format definition ('SwissProtFormat.frmt')
+ * and parses raw SwissProt entries with it. <br />
+ * Each line of the definition holds a line key and a coded number of occurrences,
+ * separated by a comma. The code is interpreted as follows:
+ * <ul>
+ *   <li><b>Any number above zero:</b> There are exactly [number] lines with the specified key.</li>
+ *   <li><b>0:</b> The key is optional. Zero or more lines are possible.</li>
+ *   <li><b>-1:</b> The key has one or more occurrences.</li>
+ * </ul>
+ * A subsection that can be repeated (eg., the references) starts with a '[' before its first
+ * key, and ends with a ']' after its last key. <br />
+ * The definition is compiled once into a tree of elements, and an entry is parsed in a single
+ * pass over the offsets of its lines, without copying the lines themselves.
+ *
+ * @author Lennart Martens
+ */
+public class SwissProtFormat {
+
+    /**
+     * The name of the format definition in the classpath.
+     */
+    public static final String FORMAT_FILE = "SwissProtFormat.frmt";
+
+    /**
+     * This constant defines the marker that starts a subsection.
+     */
+    private static final char STARTSUBSECTION = '[';
+
+    /**
+     * This constant defines the marker that ends a subsection.
+     */
+    private static final char STOPSUBSECTION = ']';
+
+    /**
+     * The number of residues per line when a sequence is wrapped for FASTA output.
+     */
+    public static final int FASTA_LINE_LENGTH = 58;
+
+    /**
+     * This constant marks the start of the line that precedes the sequence.
+     */
+    private static final String SEQUENCE_HEADER = "\nSQ";
+
+    /**
+     * The line key of the sequence lines.
+     */
+    private static final String SEQUENCE_KEY = "  ";
+
+    /**
+     * The format from the classpath, compiled the first time it is required.
+     */
+    private static SwissProtFormat iInstance = null;
+
+    /**
+     * The top-level elements of the format.
+     */
+    private Element[] iElements = null;
+
+    /**
+     * The index of each top-level element, keyed by its key
+     * (subsections are keyed by '[' + first key + ']').
+     */
+    private HashMap iIndices = new HashMap();
+
+    /**
+     * This constructor compiles the format definition read from the specified reader.
+     *
+     * @param   aBr BufferedReader with the format definition.
+     * @exception   IOException when the definition could not be read, or is malformed.
+     */
+    public SwissProtFormat(BufferedReader aBr) throws IOException {
+        // The subsections that are still open, outermost first.
+        ArrayList open = new ArrayList();
+        ArrayList top = new ArrayList();
+        String line = null;
+        while((line = aBr.readLine()) != null) {
+            if(line.trim().equals("")) {
+                continue;
+            }
+            int start = 0;
+            while(start < line.length() && line.charAt(start) == STARTSUBSECTION) {
+                start++;
+            }
+            int end = line.length();
+            while(end > start && (line.charAt(end-1) == STOPSUBSECTION || Character.isWhitespace(line.charAt(end-1)))) {
+                end--;
+            }
+            int closing = 0;
+            for(int i = end; i < line.length(); i++) {
+                if(line.charAt(i) == STOPSUBSECTION) {
+                    closing++;
+                }
+            }
+            int location = line.indexOf(",", start);
+            if(location < 0 || location > end) {
+                throw new IOException("Malformed line '" + line + "' in the SwissProt format definition!");
+            }
+            int occurrences = 0;
+            try {
+                occurrences = Integer.parseInt(line.substring(location+1, end).trim());
+            } catch(NumberFormatException nfe) {
+                throw new IOException("Malformed number of occurrences in line '" + line + "' of the SwissProt format definition!");
+            }
+            // Open the subsections that start here.
+            for(int i = 0; i < start; i++) {
+                Element subsection = new Element(null, 0);
+                subsection.iChildren = new ArrayList();
+                this.add(subsection, open, top);
+                open.add(subsection);
+            }
+            this.add(new Element(line.substring(start, location), occurrences), open, top);
+            // Close the subsections that end here.
+            for(int i = 0; i < closing; i++) {
+                if(open.isEmpty()) {
+                    throw new IOException("Unbalanced '" + STOPSUBSECTION + "' in line '" + line + "' of the SwissProt format definition!");
+                }
+                ((Element)open.remove(open.size()-1)).compile();
+            }
+        }
+        if(!open.isEmpty()) {
+            throw new IOException("Unbalanced '" + STARTSUBSECTION + "' in the SwissProt format definition!");
+        }
+        iElements = (Element[])top.toArray(new Element[top.size()]);
+        for(int i = 0; i < iElements.length; i++) {
+            iIndices.put(iElements[i].getMapKey(), new Integer(i));
+        }
+    }
+
+    /**
+     * This method returns the format definition from the classpath, which is compiled
+     * the first time it is required.
+     *
+     * @return  SwissProtFormat with the compiled format.
+     * @exception   IOException when the format definition could not be found or read.
+     */
+    public static synchronized SwissProtFormat getInstance() throws IOException {
+        if(iInstance == null) {
+            InputStream is = SwissProtFormat.class.getClassLoader().getResourceAsStream(FORMAT_FILE);
+            if(is == null) {
+                throw new IOException("File '" + FORMAT_FILE + "' was not found in the classpath!");
+            }
+            BufferedReader lBr = new BufferedReader(new InputStreamReader(is));
+            try {
+                iInstance = new SwissProtFormat(lBr);
+            } finally {
+                lBr.close();
+            }
+        }
+        return iInstance;
+    }
+
+    /**
+     * This method returns the index of the specified top-level key.
+     *
+     * @param   aKey    String with the key (subsections are keyed by '[' + first key + ']').
+     * @return  int with the index, or -1 if the key is not part of the format.
+     */
+    public int getIndex(String aKey) {
+        Integer index = (Integer)iIndices.get(aKey);
+        return (index == null)?-1:index.intValue();
+    }
+
+    /**
+     * This method creates a new Entry for this format, which can be re-used
+     * for parsing subsequent raw entries.
+     *
+     * @return  Entry   for this format.
+     */
+    public Entry newEntry() {
+        return new Entry(this);
+    }
+
+    /**
+     * This method parses the specified raw entry into a new Entry.
+     *
+     * @param   aRaw    String with the raw SwissProt entry.
+     * @return  Entry   with the parsed entry.
+     * @exception   IOException when the entry does not conform to the format.
+     */
+    public Entry parse(String aRaw) throws IOException {
+        Entry entry = this.newEntry();
+        this.parse(aRaw, entry);
+        return entry;
+    }
+
+    /**
+     * This method parses the specified raw entry into the specified Entry, which
+     * is cleared first.
+     *
+     * @param   aRaw    String with the raw SwissProt entry.
+     * @param   aEntry  Entry to parse into (created by this format).
+     * @exception   IOException when the entry does not conform to the format.
+     */
+    public void parse(String aRaw, Entry aEntry) throws IOException {
+        aEntry.split(aRaw);
+        for(int i = 0; i < iElements.length; i++) {
+            aEntry.iValues[i] = this.read(iElements[i], aEntry);
+        }
+    }
+
+    /**
+     * This method extracts only the values for the specified line keys from the raw entry,
+     * joined as by the 'parse' methods. Scanning stops at the first line that comes after the
+     * last of these keys in the format, so eg. the features and the sequence are not even read
+     * when they are not requested. Note that the entry is not validated. When a key is not a
+     * top-level line key of the format, the entire entry is parsed instead.
+     *
+     * @param   aRaw    String with the raw SwissProt entry.
+     * @param   aKeys   String[] with the line keys to extract.
+     * @return  HashMap with the values (an empty String for absent keys), keyed by line key.
+     * @exception   IOException when the entry had to be parsed entirely, and does not
+     *                          conform to the format.
+     */
+    public HashMap extract(String aRaw, String[] aKeys) throws IOException {
+        int last = -1;
+        for(int i = 0; i < aKeys.length; i++) {
+            int index = this.getIndex(aKeys[i]);
+            if(index < 0 || iElements[index].iChildren != null) {
+                return this.parse(aRaw).toHashMap();
+            }
+            last = Math.max(last, index);
+        }
+        String[] first = new String[aKeys.length];
+        StringBuffer[] values = new StringBuffer[aKeys.length];
+        int start = 0;
+        int length = aRaw.length();
+        int lineIndex = -1;
+        while(start < length) {
+            int end = aRaw.indexOf('\n', start);
+            if(end < 0) {
+                end = length;
+            }
+            if(end - start >= 2) {
+                // Look the key of the line up when it differs from the previous line.
+                if(lineIndex < 0 || !aRaw.regionMatches(start, iElements[lineIndex].iKey, 0, 2)) {
+                    lineIndex = this.getIndex(aRaw.substring(start, start + 2));
+                    if(lineIndex > last) {
+                        break;
+                    }
+                }
+                for(int i = 0; i < aKeys.length; i++) {
+                    if(aRaw.startsWith(aKeys[i], start)) {
+                        String value = (start + 5 >= end)?"":aRaw.substring(start + 5, end).trim();
+                        if(first[i] == null) {
+                            first[i] = value;
+                        } else {
+                            if(values[i] == null) {
+                                values[i] = new StringBuffer(first[i]);
+                            }
+                            values[i].append('\n').append(value);
+                        }
+                    }
+                }
+            }
+            start = end + 1;
+        }
+        HashMap result = new HashMap();
+        for(int i = 0; i < aKeys.length; i++) {
+            result.put(aKeys[i], (values[i] != null)?values[i].toString():((first[i] != null)?first[i]:""));
+        }
+        return result;
+    }
+
+    /**
+     * This method matches the lines with the specified line key in a raw SwissProt entry,
+     * in place. Only the first run of consecutive lines with the key is read, and matching
+     * stops at the first line that matches. When the entry is a FASTA entry instead (its first
+     * non-whitespace character is a '>'), only its header line is matched.
+     *
+     * @param   aRaw    String with the raw SwissProt or FASTA entry.
+     * @param   aLinePrefix String with the line key, padded to the start of the data (eg., 'AC   ').
+     * @param   aMatcher    LineMatcher to match the data of each line, or the FASTA header line, with.
+     * @return  boolean 'true' if any of the lines matched.
+     */
+    public static boolean matchesLines(String aRaw, String aLinePrefix, LineMatcher aMatcher) {
+        int length = aRaw.length();
+        int start = 0;
+        while(start < length && aRaw.charAt(start) <= ' ') {
+            start++;
+        }
+        if(start < length && aRaw.charAt(start) == '>') {
+            int end = aRaw.indexOf('\n', start);
+            return aMatcher.matches(aRaw, start, (end < 0)?length:end, true);
+        }
+        // Find the first line that starts with the prefix.
+        int lineStart = aRaw.indexOf(aLinePrefix);
+        while(lineStart > 0 && aRaw.charAt(lineStart - 1) != '\n') {
+            lineStart = aRaw.indexOf(aLinePrefix, lineStart + 1);
+        }
+        while(lineStart >= 0) {
+            int end = aRaw.indexOf('\n', lineStart);
+            if(end < 0) {
+                end = length;
+            }
+            if(aMatcher.matches(aRaw, lineStart + aLinePrefix.length(), end, false)) {
+                return true;
+            }
+            lineStart = aRaw.startsWith(aLinePrefix, end + 1)?end + 1:-1;
+        }
+        return false;
+    }
+
+    /**
+     * This method appends the sequence of the raw entry to the specified StringBuffer,
+     * stripped of all whitespace. Only the sequence lines following the 'SQ' line are read,
+     * in a single pass over the characters. When requested, a linebreak is added after every
+     * FASTA_LINE_LENGTH residues, but only for sequences longer than FASTA_LINE_LENGTH + 1
+     * residues. Note that no linebreak is added after the last residue, unless the
+     * sequence length is a multiple of FASTA_LINE_LENGTH.
+     *
+     * @param   aRaw    String with the raw SwissProt entry.
+     * @param   aResult StringBuffer to append the sequence to.
+     * @param   aEndLines   boolean that indicates whether the sequence should be wrapped.
+     * @exception   IOException when the entry holds no 'SQ' line.
+     */
+    public static void appendSequence(String aRaw, StringBuffer aResult, boolean aEndLines) throws IOException {
+        int start = aRaw.indexOf(SEQUENCE_HEADER);
+        if(start < 0) {
+            throw new IOException("No sequence ('SQ' line) was found in the entry!");
+        }
+        int length = aRaw.length();
+        aResult.ensureCapacity(aResult.length() + length - start);
+        // Position of the first linebreak, in case the sequence turns out too short to wrap.
+        int firstBreak = -1;
+        int count = 0;
+        start = aRaw.indexOf('\n', start + 1) + 1;
+        // The sequence ends at the first line that is not a sequence line.
+        while(start > 0 && aRaw.startsWith(SEQUENCE_KEY, start)) {
+            int i = start;
+            for(; i < length; i++) {
+                char c = aRaw.charAt(i);
+                if(c == '\n') {
+                    break;
+                } else if(c > ' ') {
+                    aResult.append(c);
+                    count++;
+                    if(aEndLines && count%FASTA_LINE_LENGTH == 0) {
+                        if(firstBreak < 0) {
+                            firstBreak = aResult.length();
+                        }
+                        aResult.append('\n');
+                    }
+                }
+            }
+            start = (i < length)?i + 1:0;
+        }
+        if(firstBreak >= 0 && count <= FASTA_LINE_LENGTH + 1) {
+            aResult.deleteCharAt(firstBreak);
+        }
+    }
+
+    /**
+     * This method reads the value for the specified element from the current position.
+     *
+     * @param   aElement    Element to read.
+     * @param   aEntry  Entry that is being parsed.
+     * @return  Object  with a String for a line key, or an ArrayList of HashMaps for a subsection.
+     * @exception   IOException when a required key is missing.
+     */
+    private Object read(Element aElement, Entry aEntry) throws IOException {
+        if(aElement.iChildren == null) {
+            return this.readValue(aElement, aEntry);
+        }
+        ArrayList result = new ArrayList();
+        Element[] children = aElement.iElements;
+        // A subsection is repeated for as long as its first key is found.
+        while(aEntry.startsWith(aElement.iKey)) {
+            HashMap occurrence = new HashMap();
+            for(int i = 0; i < children.length; i++) {
+                occurrence.put(children[i].getMapKey(), this.read(children[i], aEntry));
+            }
+            result.add(occurrence);
+        }
+        return result;
+    }
+
+    /**
+     * This method reads the value for a line key from the current position. Values
+     * spanning multiple lines are joined with a linebreak.
+     *
+     * @param   aElement    Element with the key.
+     * @param   aEntry  Entry that is being parsed.
+     * @return  String  with the value (empty if an optional key is absent).
+     * @exception   IOException when a required key is missing.
+     */
+    private String readValue(Element aElement, Entry aEntry) throws IOException {
+        int remaining = aElement.iOccurrences;
+        String first = null;
+        StringBuffer result = null;
+        while(aEntry.iPos < aEntry.iLines) {
+            if(aEntry.startsWith(aElement.iKey)) {
+                String toAdd = aEntry.value();
+                aEntry.iPos++;
+                if(first == null) {
+                    first = toAdd;
+                } else {
+                    if(result == null) {
+                        result = new StringBuffer(first);
+                    }
+                    result.append('\n').append(toAdd);
+                }
+                if(remaining == 1) {
+                    break;
+                } else if(remaining > 1) {
+                    remaining--;
+                }
+            } else {
+                // Key was not found at the current position. This either terminates
+                // one or more occurrences, or skips an optional key.
+                if((aElement.iOccurrences != 1 && first != null) || aElement.iOccurrences == 0) {
+                    break;
+                }
+                throw new IOException("Key '" + aElement.iKey + "' was not found at the current position, even though it was not optional! Found key '" + aEntry.key() + "' instead.");
+            }
+        }
+        if(result != null) {
+            return result.toString();
+        }
+        return (first == null)?"":first;
+    }
+
+    /**
+     * This method adds an element to the innermost open subsection, or to the top level.
+     *
+     * @param   aElement    Element to add.
+     * @param   aOpen   ArrayList with the open subsections.
+     * @param   aTop    ArrayList with the top-level elements.
+     */
+    private void add(Element aElement, ArrayList aOpen, ArrayList aTop) {
+        if(aOpen.isEmpty()) {
+            aTop.add(aElement);
+        } else {
+            ((Element)aOpen.get(aOpen.size()-1)).iChildren.add(aElement);
+        }
+    }
+
+    /**
+     * This interface matches the lines read by 'matchesLines'.
+     */
+    public interface LineMatcher {
+
+        /**
+         * This method matches a part of a raw entry.
+         *
+         * @param   aRaw    String with the raw entry.
+         * @param   aStart  int with the start of the part (inclusive).
+         * @param   aEnd    int with the end of the part (exclusive).
+         * @param   aHeader boolean that is 'true' for the header line of a FASTA entry,
+         *                  'false' for the data of a SwissProt line.
+         * @return  boolean 'true' if the part matches.
+         */
+        boolean matches(String aRaw, int aStart, int aEnd, boolean aHeader);
+    }
+
+    /**
+     * This class represents a parsed SwissProt entry. It holds the line offsets of the raw entry
+     * and the values of the top-level keys, and can be re-used for subsequent entries.
+     */
+    public static class Entry {
+        private SwissProtFormat iFormat = null;
+        private Object[] iValues = null;
+        private String iRaw = null;
+        private int[] iStarts = new int[256];
+        private int[] iEnds = new int[256];
+        private int iLines = 0;
+        private int iPos = 0;
+
+        private Entry(SwissProtFormat aFormat) {
+            this.iFormat = aFormat;
+            this.iValues = new Object[aFormat.iElements.length];
+        }
+
+        /**
+         * This method returns the value for the specified top-level key.
+         *
+         * @param   aKey    String with the key.
+         * @return  String  with the value, or 'null' if the key is not a line key of the format.
+         */
+        public String get(String aKey) {
+            int index = iFormat.getIndex(aKey);
+            return (index < 0 || !(iValues[index] instanceof String))?null:(String)iValues[index];
+        }
+
+        /**
+         * This method returns the value at the specified index (see SwissProtFormat.getIndex).
+         *
+         * @param   aIndex  int with the index of the top-level element.
+         * @return  Object  with a String for a line key, or an ArrayList of HashMaps for a subsection.
+         */
+        public Object get(int aIndex) {
+            return iValues[aIndex];
+        }
+
+        /**
+         * This method returns the entry as a HashMap, keyed by the line keys. Subsections are
+         * keyed by '[' + first key + ']', and hold an ArrayList with a HashMap per occurrence.
+         *
+         * @return  HashMap with the entry.
+         */
+        public HashMap toHashMap() {
+            HashMap result = new HashMap();
+            for(int i = 0; i < iValues.length; i++) {
+                result.put(iFormat.iElements[i].getMapKey(), iValues[i]);
+            }
+            return result;
+        }
+
+        /**
+         * This method records the offsets of the lines in the specified raw entry.
+         *
+         * @param   aRaw    String with the raw entry.
+         */
+        private void split(String aRaw) {
+            iRaw = aRaw;
+            iLines = 0;
+            iPos = 0;
+            int start = 0;
+            int length = aRaw.length();
+            while(start < length) {
+                int end = aRaw.indexOf('\n', start);
+                if(end < 0) {
+                    end = length;
+                }
+                if(iLines == iStarts.length) {
+                    int[] starts = new int[iLines*2];
+                    int[] ends = new int[iLines*2];
+                    System.arraycopy(iStarts, 0, starts, 0, iLines);
+                    System.arraycopy(iEnds, 0, ends, 0, iLines);
+                    iStarts = starts;
+                    iEnds = ends;
+                }
+                iStarts[iLines] = start;
+                iEnds[iLines] = end;
+                iLines++;
+                start = end + 1;
+            }
+            for(int i = 0; i < iValues.length; i++) {
+                iValues[i] = null;
+            }
+        }
+
+        /**
+         * This method checks whether the current line starts with the specified key.
+         *
+         * @param   aKey    String with the key.
+         * @return  boolean 'true' if the current line starts with the key.
+         */
+        private boolean startsWith(String aKey) {
+            return iPos < iLines && iEnds[iPos] - iStarts[iPos] >= aKey.length() && iRaw.startsWith(aKey, iStarts[iPos]);
+        }
+
+        /**
+         * This method returns the (trimmed) value on the current line, after the key columns.
+         *
+         * @return  String  with the value.
+         */
+        private String value() {
+            int start = iStarts[iPos] + 5;
+            return (start >= iEnds[iPos])?"":iRaw.substring(start, iEnds[iPos]).trim();
+        }
+
+        /**
+         * This method returns the key on the current line, for messages.
+         *
+         * @return  String  with the key.
+         */
+        private String key() {
+            return iRaw.substring(iStarts[iPos], Math.min(iStarts[iPos] + 2, iEnds[iPos]));
+        }
+    }
+
+    /**
+     * This class represents an element of the format: a line key with its coded
+     * number of occurrences, or a subsection with its child elements.
+     */
+    private static class Element {
+        private String iKey = null;
+        private int iOccurrences = 0;
+        private ArrayList iChildren = null;
+        private Element[] iElements = null;
+
+        public Element(String aKey, int aOccurrences) {
+            this.iKey = aKey;
+            this.iOccurrences = aOccurrences;
+        }
+
+        /**
+         * This method finalizes a subsection: its key becomes the (first) key of its first child.
+         */
+        public void compile() {
+            iElements = (Element[])iChildren.toArray(new Element[iChildren.size()]);
+            iKey = iElements[0].iKey;
+        }
+
+        /**
+         * This method returns the key to report the value under.
+         *
+         * @return  String  with the key, surrounded by '[' and ']' for a subsection.
+         */
+        public String getMapKey() {
+            return (iChildren == null)?iKey:STARTSUBSECTION + iKey + STOPSUBSECTION;
+        }
+    }
+}
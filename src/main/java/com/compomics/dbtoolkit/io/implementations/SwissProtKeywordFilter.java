@@ -12,7 +12,7 @@
  */
 package com.compomics.dbtoolkit.io.implementations;
 
-import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -29,13 +29,12 @@ import java.util.HashMap;
  *
  * @author Lennart
  */
-public class SwissProtKeywordFilter implements Filter {
+public class SwissProtKeywordFilter implements FieldFilter {
 
     /**
-     * This instance will convert the raw String passed in into a
-     * HashMap when appropriate.
+     * The fields this filter reads from an entry.
      */
-    private SwissProtDBLoader iSpdb = new SwissProtDBLoader();
+    private static final String[] KEYS = new String[] {"KW"};
 
     /**
      * This variable holds the String to match the TAXONOMY fields against.
@@ -80,9 +79,9 @@ public class SwissProtKeywordFilter implements Filter {
     public boolean passesFilter(String aEntry) {
         boolean passed = false;
 
-        // First transform the raw String into a HashMap.
+        // First extract the fields we need from the raw String into a HashMap.
         try {
-            HashMap lRaw = iSpdb.processRawData(aEntry);
+            HashMap lRaw = SwissProtFormat.getInstance().extract(aEntry, KEYS);
             passed = this.passesFilter(lRaw);
         } catch(IOException ioe) {
             ioe.printStackTrace();
@@ -112,4 +111,13 @@ public class SwissProtKeywordFilter implements Filter {
 
         return passed;
     }
+
+    /**
+     * This method reports on the fields this filter reads from the HashMap of an entry.
+     *
+     * @return  String[]    with the line keys of the fields.
+     */
+    public String[] getRequiredKeys() {
+        return KEYS;
+    }
 }
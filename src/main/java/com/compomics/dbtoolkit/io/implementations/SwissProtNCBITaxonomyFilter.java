@@ -6,7 +6,7 @@
  */
 package com.compomics.dbtoolkit.io.implementations;
 
-import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
 
 import java.util.*;
 import java.io.IOException;
@@ -23,13 +23,12 @@ import java.io.IOException;
  *
  * @author Lennart Martens
  */
-public class SwissProtNCBITaxonomyFilter implements Filter {
+public class SwissProtNCBITaxonomyFilter implements FieldFilter {
 
     /**
-     * This instance will convert the raw String passed in into a
-     * HashMap when appropriate.
+     * The fields this filter reads from an entry.
      */
-    private SwissProtDBLoader iSpdb = new SwissProtDBLoader();
+    private static final String[] KEYS = new String[] {"OX"};
 
     /**
      * This variable holds a Collection of Strings to match the
@@ -76,9 +75,9 @@ public class SwissProtNCBITaxonomyFilter implements Filter {
     public boolean passesFilter(String aEntry) {
         boolean passed = false;
 
-        // First transform the raw String into a HashMap.
+        // First extract the fields we need from the raw String into a HashMap.
         try {
-            HashMap lRaw = iSpdb.processRawData(aEntry);
+            HashMap lRaw = SwissProtFormat.getInstance().extract(aEntry, KEYS);
             passed = this.passesFilter(lRaw);
         } catch(IOException ioe) {
             ioe.printStackTrace();
@@ -129,4 +128,13 @@ public class SwissProtNCBITaxonomyFilter implements Filter {
             iMatch.add(st.nextToken().trim());
         }
     }
+
+    /**
+     * This method reports on the fields this filter reads from the HashMap of an entry.
+     *
+     * @return  String[]    with the line keys of the fields.
+     */
+    public String[] getRequiredKeys() {
+        return KEYS;
+    }
 }
@@ -12,7 +12,7 @@
  */
 package com.compomics.dbtoolkit.io.implementations;
 
-import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
 import com.compomics.util.protein.Protein;
 
 import java.io.BufferedReader;
@@ -33,13 +33,12 @@ import java.util.StringTokenizer;
  *
  * @author Lennart Martens
  */
-public class SwissProtProteinSequenceLengthFilter extends ProteinSequenceLengthFilter {
+public class SwissProtProteinSequenceLengthFilter extends ProteinSequenceLengthFilter implements FieldFilter {
 
     /**
-     * This instance will convert the raw String passed in into a
-     * HashMap when appropriate.
+     * The fields this filter reads from an entry: only the sequence.
      */
-    private SwissProtDBLoader iSpdb = new SwissProtDBLoader();
+    private static final String[] KEYS = new String[] {"  "};
 
     /**
      * This constructor takes the upper and lower mass limits for this filter.
@@ -61,21 +60,9 @@ public class SwissProtProteinSequenceLengthFilter extends ProteinSequenceLengthF
     public boolean passesFilter(String aEntry) {
         boolean passed = false;
 
-        // First transform the raw String into a HashMap.
+        // First extract the sequence from the raw String into a HashMap.
         try {
-            String fastaString = iSpdb.toFASTAString(aEntry, false);
-
-            StringTokenizer lSt = new StringTokenizer(fastaString, "\n");
-            lSt.nextToken();
-            String sequence = lSt.nextToken().trim();
-
-
-            int sequenceLength = sequence.length();
-            if(iLargerThan && sequenceLength >= iLength) {
-                passed = true;
-            } else if(!iLargerThan && sequenceLength <= iLength) {
-                passed = true;            }
-
+            passed = this.passesFilter(SwissProtFormat.getInstance().extract(aEntry, KEYS));
         } catch(IOException ioe) {
             ioe.printStackTrace();
         }
@@ -118,4 +105,13 @@ public class SwissProtProteinSequenceLengthFilter extends ProteinSequenceLengthF
 
         return passed;
     }
-}
\ No newline at end of file
+
+    /**
+     * This method reports on the fields this filter reads from the HashMap of an entry.
+     *
+     * @return  String[]    with the line keys of the fields.
+     */
+    public String[] getRequiredKeys() {
+        return KEYS;
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 10:16:44
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import java.io.*;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 10:16:44 $
+ */
+
+/**
+ * This class represents the NCBI taxonomy tree, as read from a local copy of the 'nodes.dmp'
+ * file of the NCBI taxonomy dump (ftp://ftp.ncbi.nih.gov/pub/taxonomy/taxdump.tar.gz). <br />
+ * The tree is held as a single array with the parent taxonomy ID of each taxonomy ID, and
+ * the taxonomy IDs of all descendants of a set of clades are collected in a BitSet in a single
+ * pass over that array, after which testing a taxonomy ID takes constant time. <br />
+ * Clades can also be specified by their scientific name, which is looked up in the 'names.dmp'
+ * file next to the 'nodes.dmp' file. <br />
+ * As the tree takes some time to read, a tree is only read once for each 'nodes.dmp' file
+ * (as long as that file is not modified).
+ *
+ * @author Lennart Martens
+ */
+public class TaxonomyTree {
+
+    /**
+     * The name of the file with the nodes in the NCBI taxonomy dump.
+     */
+    public static final String NODES = "nodes.dmp";
+
+    /**
+     * The name of the file with the names in the NCBI taxonomy dump.
+     */
+    public static final String NAMES = "names.dmp";
+
+    /**
+     * The taxonomy ID of the root of the tree.
+     */
+    public static final int ROOT = 1;
+
+    /**
+     * The size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 256*1024;
+
+    /**
+     * The trees read so far, keyed by the canonical path of their 'nodes.dmp' file.
+     */
+    private static HashMap iCache = new HashMap();
+
+    /**
+     * The 'nodes.dmp' file the tree was read from.
+     */
+    private File iNodes = null;
+
+    /**
+     * The modification time of the 'nodes.dmp' file when it was read.
+     */
+    private long iLastModified = 0;
+
+    /**
+     * The parent taxonomy ID of each taxonomy ID (0 for taxonomy IDs that are not in the tree).
+     */
+    private int[] iParents = null;
+
+    /**
+     * The number of taxonomy IDs in the tree.
+     */
+    private int iSize = 0;
+
+    /**
+     * Private constructor; use the static 'load' method instead.
+     *
+     * @param   aNodes  File with the nodes of the tree.
+     */
+    private TaxonomyTree(File aNodes) {
+        this.iNodes = aNodes;
+        this.iLastModified = aNodes.lastModified();
+    }
+
+    /**
+     * This method returns the tree for the specified 'nodes.dmp' file, or for the 'nodes.dmp'
+     * file in the specified directory. The file is only read again when it has been modified.
+     *
+     * @param   aFile   File with the nodes, or the directory holding the 'nodes.dmp' file.
+     * @return  TaxonomyTree    with the tree.
+     * @exception   IOException when the file could not be read, or is not a valid 'nodes.dmp' file.
+     */
+    public static TaxonomyTree load(File aFile) throws IOException {
+        File nodes = aFile.isDirectory()?new File(aFile, NODES):aFile;
+        if(!nodes.exists()) {
+            throw new IOException("NCBI taxonomy nodes file '" + nodes + "' does not exist!");
+        }
+        String key = nodes.getCanonicalPath();
+        synchronized(iCache) {
+            TaxonomyTree tree = (TaxonomyTree)iCache.get(key);
+            if(tree == null || tree.iLastModified != nodes.lastModified()) {
+                tree = new TaxonomyTree(nodes);
+                tree.readNodes();
+                iCache.put(key, tree);
+            }
+            return tree;
+        }
+    }
+
+    /**
+     * This method returns the parent taxonomy ID of the specified taxonomy ID.
+     *
+     * @param   aTaxID  int with the taxonomy ID.
+     * @return  int with the parent taxonomy ID (the root is its own parent),
+     *              or 0 if the taxonomy ID is not in the tree.
+     */
+    public int getParent(int aTaxID) {
+        return (aTaxID > 0 && aTaxID < iParents.length)?iParents[aTaxID]:0;
+    }
+
+    /**
+     * This method reports on whether the specified taxonomy ID is in the tree.
+     *
+     * @param   aTaxID  int with the taxonomy ID.
+     * @return  boolean 'true' if the taxonomy ID is in the tree.
+     */
+    public boolean contains(int aTaxID) {
+        return this.getParent(aTaxID) > 0;
+    }
+
+    /**
+     * This method returns the number of taxonomy IDs in the tree.
+     *
+     * @return  int with the number of taxonomy IDs.
+     */
+    public int size() {
+        return iSize;
+    }
+
+    /**
+     * This method returns the depth of the specified taxonomy ID in the tree.
+     *
+     * @param   aTaxID  int with the taxonomy ID.
+     * @return  int with the number of ancestors of the taxonomy ID (0 for the root),
+     *              or -1 if the taxonomy ID is not in the tree.
+     */
+    public int getDepth(int aTaxID) {
+        if(!this.contains(aTaxID)) {
+            return -1;
+        }
+        int depth = 0;
+        int current = aTaxID;
+        while(iParents[current] != current && depth <= iSize) {
+            current = iParents[current];
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * This method collects the specified clades and all of their descendants in a BitSet,
+     * in a single pass over the tree.
+     *
+     * @param   aClades int[] with the taxonomy IDs of the clades.
+     * @return  BitSet  in which the bit for each taxonomy ID in any of the clades is set.
+     */
+    public BitSet getDescendants(int[] aClades) {
+        // The state of each taxonomy ID: 0 for unknown, 1 for inside the clades, 2 for outside.
+        byte[] states = new byte[iParents.length];
+        for(int i = 0; i < aClades.length; i++) {
+            if(this.contains(aClades[i])) {
+                states[aClades[i]] = 1;
+            }
+        }
+        BitSet result = new BitSet(iParents.length);
+        int[] path = new int[64];
+        for(int taxID = 1; taxID < iParents.length; taxID++) {
+            if(iParents[taxID] == 0) {
+                continue;
+            }
+            // Walk up to the first taxonomy ID of which the state is known,
+            // remembering the path, and assign its state to the whole path.
+            int length = 0;
+            int current = taxID;
+            byte state = states[current];
+            while(state == 0) {
+                int parent = iParents[current];
+                if(parent == current || parent >= iParents.length || iParents[parent] == 0 || length > iSize) {
+                    // The root, a node with an unknown parent or a cycle.
+                    state = 2;
+                    break;
+                }
+                if(length == path.length) {
+                    int[] temp = new int[path.length*2];
+                    System.arraycopy(path, 0, temp, 0, length);
+                    path = temp;
+                }
+                path[length++] = current;
+                current = parent;
+                state = states[current];
+            }
+            states[current] = state;
+            for(int i = 0; i < length; i++) {
+                states[path[i]] = state;
+            }
+            if(state == 1) {
+                result.set(taxID);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method finds the taxonomy IDs for the specified scientific names (or unique names)
+     * in the 'names.dmp' file next to the 'nodes.dmp' file, ignoring case. When a name is shared by
+     * several taxa (eg., 'Bacteria' is both a superkingdom and a genus of stick insects), the taxon
+     * closest to the root is taken; specify the taxonomy ID or the unique name to select another.
+     *
+     * @param   aNames  String[] with the names.
+     * @return  int[]   with the taxonomy ID for each name.
+     * @exception   IOException when the 'names.dmp' file could not be read, or a name was not found.
+     */
+    public int[] findTaxIDs(String[] aNames) throws IOException {
+        int[] result = new int[aNames.length];
+        File names = new File(iNodes.getParentFile(), NAMES);
+        if(!names.exists()) {
+            throw new IOException("NCBI taxonomy names file '" + names + "' does not exist; specify the clades by taxonomy ID instead!");
+        }
+        BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(names), "ISO-8859-1"), BUFFER_SIZE);
+        try {
+            String line = null;
+            int[] bounds = new int[8];
+            while((line = br.readLine()) != null) {
+                // Fields: tax_id | name_txt | unique name | name class |
+                if(!line.endsWith("scientific name\t|") || !findFields(line, bounds)) {
+                    continue;
+                }
+                for(int i = 0; i < aNames.length; i++) {
+                    if(fieldEquals(line, bounds, 1, aNames[i]) || fieldEquals(line, bounds, 2, aNames[i])) {
+                        int taxID = Integer.parseInt(line.substring(bounds[0], bounds[1]));
+                        if(result[i] == 0 || this.getDepth(taxID) < this.getDepth(result[i])) {
+                            result[i] = taxID;
+                        }
+                    }
+                }
+            }
+        } catch(NumberFormatException nfe) {
+            throw new IOException("NCBI taxonomy names file '" + names + "' holds an invalid taxonomy ID: " + nfe.getMessage());
+        } finally {
+            br.close();
+        }
+        for(int i = 0; i < result.length; i++) {
+            if(result[i] == 0) {
+                throw new IOException("No taxon with the scientific name '" + aNames[i] + "' found in '" + names + "'!");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  a string representation of the object.
+     */
+    public String toString() {
+        return "TaxonomyTree with " + iSize + " taxa from '" + iNodes + "'";
+    }
+
+    /**
+     * This method reads the parent of each taxonomy ID from the 'nodes.dmp' file. Only the first
+     * two fields of each line are read, directly from the bytes.
+     *
+     * @exception   IOException when the file could not be read, or is not a valid 'nodes.dmp' file.
+     */
+    private void readNodes() throws IOException {
+        iParents = new int[1024];
+        InputStream in = new FileInputStream(iNodes);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int limit = 0;
+            int lineNumber = 0;
+            // The state on the current line: 0 for the taxonomy ID, 1 for the separator,
+            // 2 for the parent taxonomy ID and 3 for the remainder of the line.
+            int state = 0;
+            int taxID = 0;
+            int parent = 0;
+            while((limit = in.read(buffer)) > 0) {
+                for(int i = 0; i < limit; i++) {
+                    int c = buffer[i];
+                    if(c == '\n' || c == '\r') {
+                        if(state > 0) {
+                            lineNumber++;
+                            this.addNode(taxID, parent, lineNumber);
+                        }
+                        state = 0;
+                        taxID = 0;
+                        parent = 0;
+                    } else if(state == 3) {
+                        continue;
+                    } else if(c >= '0' && c <= '9') {
+                        if(state == 0) {
+                            taxID = this.addDigit(taxID, c, lineNumber + 1);
+                        } else {
+                            state = 2;
+                            parent = this.addDigit(parent, c, lineNumber + 1);
+                        }
+                    } else if(state == 0 && taxID > 0) {
+                        state = 1;
+                    } else if(state == 2) {
+                        state = 3;
+                    }
+                }
+            }
+            if(state > 0) {
+                this.addNode(taxID, parent, lineNumber + 1);
+            }
+        } finally {
+            in.close();
+        }
+        if(!this.contains(ROOT)) {
+            throw new IOException("NCBI taxonomy nodes file '" + iNodes + "' holds no root node (taxonomy ID " + ROOT + ")!");
+        }
+    }
+
+    /**
+     * This method adds a digit to a taxonomy ID being read.
+     *
+     * @param   aValue  int with the taxonomy ID read so far.
+     * @param   aDigit  int with the digit character.
+     * @param   aLineNumber int with the line number, for the error message.
+     * @return  int with the taxonomy ID.
+     * @exception   IOException when the taxonomy ID gets too large.
+     */
+    private int addDigit(int aValue, int aDigit, int aLineNumber) throws IOException {
+        if(aValue >= Integer.MAX_VALUE/10) {
+            throw new IOException("Line " + aLineNumber + " of NCBI taxonomy nodes file '" + iNodes + "' holds a taxonomy ID that is too large!");
+        }
+        return aValue*10 + (aDigit - '0');
+    }
+
+    /**
+     * This method adds a node that was read to the tree.
+     *
+     * @param   aTaxID  int with the taxonomy ID.
+     * @param   aParent int with the parent taxonomy ID.
+     * @param   aLineNumber int with the line number, for the error message.
+     * @exception   IOException when either taxonomy ID is missing.
+     */
+    private void addNode(int aTaxID, int aParent, int aLineNumber) throws IOException {
+        if(aTaxID <= 0 || aParent <= 0) {
+            throw new IOException("Line " + aLineNumber + " of NCBI taxonomy nodes file '" + iNodes + "' does not start with two taxonomy ID's!");
+        }
+        this.setParent(aTaxID, aParent);
+    }
+
+    /**
+     * This method locates the trimmed fields of a line of the 'names.dmp' file.
+     *
+     * @param   aLine   String with the line.
+     * @param   aBounds int[] to store the start and end of the first four fields in.
+     * @return  boolean that is 'false' when the line holds less than four fields.
+     */
+    private static boolean findFields(String aLine, int[] aBounds) {
+        int start = 0;
+        for(int i = 0; i < 4; i++) {
+            int end = aLine.indexOf('|', start);
+            if(end < 0) {
+                return false;
+            }
+            int s = start;
+            int e = end;
+            while(s < e && aLine.charAt(s) <= ' ') {
+                s++;
+            }
+            while(e > s && aLine.charAt(e - 1) <= ' ') {
+                e--;
+            }
+            aBounds[2*i] = s;
+            aBounds[2*i + 1] = e;
+            start = end + 1;
+        }
+        return true;
+    }
+
+    /**
+     * This method reports on whether a field of a line equals the specified name, ignoring case.
+     *
+     * @param   aLine   String with the line.
+     * @param   aBounds int[] with the start and end of the fields.
+     * @param   aField  int with the index of the field.
+     * @param   aName   String with the name.
+     * @return  boolean 'true' if the field equals the name.
+     */
+    private static boolean fieldEquals(String aLine, int[] aBounds, int aField, String aName) {
+        int start = aBounds[2*aField];
+        return aName.length() > 0 && aBounds[2*aField + 1] - start == aName.length() && aLine.regionMatches(true, start, aName, 0, aName.length());
+    }
+
+    /**
+     * This method stores the parent of a taxonomy ID, growing the array as needed.
+     *
+     * @param   aTaxID  int with the taxonomy ID.
+     * @param   aParent int with the parent taxonomy ID.
+     */
+    private void setParent(int aTaxID, int aParent) {
+        if(aTaxID >= iParents.length) {
+            int[] temp = new int[Math.max(aTaxID + 1, iParents.length*2)];
+            System.arraycopy(iParents, 0, temp, 0, iParents.length);
+            iParents = temp;
+        }
+        if(iParents[aTaxID] == 0) {
+            iSize++;
+        }
+        iParents[aTaxID] = aParent;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 10:38:02
+ */
+package com.compomics.dbtoolkit.io.implementations;
+
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
+import com.compomics.dbtoolkit.io.interfaces.HeaderFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.StringTokenizer;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 10:38:02 $
+ */
+
+/**
+ * This class implements a taxonomy filter for both SwissProt and FASTA formatted databases,
+ * that selects all entries of one or more clades of the NCBI taxonomy tree (eg., 'Bacteria'
+ * or 'Mammalia'), including all of their descendants. <br />
+ * The tree is read from a local copy of the NCBI taxonomy dump (see TaxonomyTree), and all
+ * taxonomy IDs in the clades are collected in a BitSet up front, so that testing an entry
+ * takes constant time, whatever the size of the clades. <br />
+ * For a SwissProt entry, the taxonomy IDs are read from the 'OX' lines. For a FASTA entry,
+ * they are read from the header line, which should carry a taxonomy tag, such as 'OX=9606'
+ * (UniProt), 'TaxID=9606' (UniRef) or 'Tax_Id=9606' (IPI). The taxonomy IDs are read in place,
+ * without creating any objects. <br />
+ * The parameter of this filter is a comma (or semicolon) separated list of clades, each
+ * specified by its taxonomy ID or scientific name, followed by a '@' and the 'nodes.dmp' file
+ * (or the directory holding it), eg.: 'Mammalia, 2@/data/taxonomy/nodes.dmp'.
+ *
+ * @author Lennart Martens
+ */
+public class TaxonomyTreeFilter implements FieldFilter, HeaderFilter {
+
+    /**
+     * The fields this filter reads from an entry.
+     */
+    private static final String[] KEYS = new String[] {"OX"};
+
+    /**
+     * The tags (ignoring case) that precede a taxonomy ID and an '='. Note that 'TAXID'
+     * also matches the SwissProt 'NCBI_TaxID'.
+     */
+    private static final String[] TAGS = new String[] {"OX", "TAXID", "TAX_ID"};
+
+    /**
+     * The tree the clades were taken from.
+     */
+    private TaxonomyTree iTree = null;
+
+    /**
+     * The taxonomy IDs of the clades.
+     */
+    private int[] iClades = null;
+
+    /**
+     * The taxonomy IDs in the clades.
+     */
+    private BitSet iTaxa = null;
+
+    /**
+     * This boolean flags the Boolean NOT operator for this Filter.
+     */
+    private boolean iInvert = false;
+
+    /**
+     * Matches the 'OX' lines of a SwissProt entry, or the header line of a FASTA entry.
+     */
+    private SwissProtFormat.LineMatcher iMatcher = new SwissProtFormat.LineMatcher() {
+        public boolean matches(String aRaw, int aStart, int aEnd, boolean aHeader) {
+            return matchesTaxa(aRaw, aStart, aEnd);
+        }
+    };
+
+    /**
+     * This constructor takes the list of clades, followed by a '@' and the 'nodes.dmp' file.
+     *
+     * @param   aParameter  String with the clades and the 'nodes.dmp' file.
+     * @exception   IOException when the taxonomy could not be read or a clade could not be found.
+     */
+    public TaxonomyTreeFilter(String aParameter) throws IOException {
+        this(aParameter, false);
+    }
+
+    /**
+     * This constructor takes the list of clades, followed by a '@' and the 'nodes.dmp' file.
+     *
+     * @param   aParameter  String with the clades and the 'nodes.dmp' file.
+     * @param   aInvert boolean to indicate whether to apply the Boolean 'NOT' operator to the
+     *                  results of the Filter.
+     * @exception   IOException when the taxonomy could not be read or a clade could not be found.
+     */
+    public TaxonomyTreeFilter(String aParameter, boolean aInvert) throws IOException {
+        int location = aParameter.lastIndexOf('@');
+        if(location < 0) {
+            throw new IOException("Please specify the NCBI taxonomy 'nodes.dmp' file after the clades, preceded by a '@' (eg., 'Mammalia@/data/taxonomy/nodes.dmp')!");
+        }
+        TaxonomyTree tree = TaxonomyTree.load(new File(aParameter.substring(location + 1).trim()));
+        // Look up the clades specified by name all at once.
+        StringTokenizer st = new StringTokenizer(aParameter.substring(0, location), ",;");
+        ArrayList tokens = new ArrayList();
+        while(st.hasMoreTokens()) {
+            String clade = st.nextToken().trim();
+            if(clade.length() > 0) {
+                tokens.add(clade);
+            }
+        }
+        int[] clades = new int[tokens.size()];
+        ArrayList names = new ArrayList();
+        ArrayList nameIndices = new ArrayList();
+        for(int i = 0; i < clades.length; i++) {
+            String clade = (String)tokens.get(i);
+            try {
+                clades[i] = Integer.parseInt(clade);
+                if(!tree.contains(clades[i])) {
+                    throw new IOException("Taxonomy ID " + clades[i] + " is not in the NCBI taxonomy!");
+                }
+            } catch(NumberFormatException nfe) {
+                names.add(clade);
+                nameIndices.add(new Integer(i));
+            }
+        }
+        if(names.size() > 0) {
+            int[] found = tree.findTaxIDs((String[])names.toArray(new String[names.size()]));
+            for(int i = 0; i < found.length; i++) {
+                clades[((Integer)nameIndices.get(i)).intValue()] = found[i];
+            }
+        }
+        if(clades.length == 0) {
+            throw new IOException("Please specify at least one clade before the '@'!");
+        }
+        this.init(tree, clades, aInvert);
+    }
+
+    /**
+     * This constructor takes the tree and the taxonomy IDs of the clades.
+     *
+     * @param   aTree   TaxonomyTree to take the clades from.
+     * @param   aClades int[] with the taxonomy IDs of the clades.
+     * @param   aInvert boolean to indicate whether to apply the Boolean 'NOT' operator to the
+     *                  results of the Filter.
+     */
+    public TaxonomyTreeFilter(TaxonomyTree aTree, int[] aClades, boolean aInvert) {
+        this.init(aTree, aClades, aInvert);
+    }
+
+    /**
+     * This method tests whether the entry passes the filter.
+     *
+     * @param   aEntry  String with the raw SwissProt or FASTA entry to filter.
+     */
+    public boolean passesFilter(String aEntry) {
+        // Only the 'OX' lines are read, in place.
+        boolean passed = SwissProtFormat.matchesLines(aEntry, "OX   ", iMatcher);
+
+        if(iInvert) {
+            passed = !passed;
+        }
+
+        return passed;
+    }
+
+    /**
+     * This method tests whether the entry passes the filter.
+     *
+     * @param   aEntry  HashMap with the 'OX' field of a SwissProt entry, or the header
+     *                  of a FASTA entry.
+     */
+    public boolean passesFilter(HashMap aEntry) {
+        boolean passed = false;
+
+        Object ox = aEntry.get("OX");
+        if(ox == null) {
+            ox = aEntry.get(FASTAHeaderFilter.HEADER);
+        }
+        if(ox != null) {
+            String text = (String)ox;
+            passed = this.matchesTaxa(text, 0, text.length());
+        }
+
+        if(iInvert) {
+            passed = !passed;
+        }
+
+        return passed;
+    }
+
+    /**
+     * This method reports on the fields this filter reads from the HashMap of an entry.
+     *
+     * @return  String[]    with the line keys of the fields.
+     */
+    public String[] getRequiredKeys() {
+        return KEYS;
+    }
+
+    /**
+     * This method reports on whether the header line suffices to decide on an entry,
+     * which is always the case for this filter.
+     *
+     * @return  boolean that is always 'true'.
+     */
+    public boolean isHeaderOnly() {
+        return true;
+    }
+
+    /**
+     * This method tests whether the entry with the specified header line passes the filter.
+     *
+     * @param   aHeader String with the header line of the FASTA entry.
+     * @return  boolean 'true' if the entry passes the filter, 'false' otherwise.
+     */
+    public boolean passesHeader(String aHeader) {
+        boolean passed = this.matchesTaxa(aHeader, 0, aHeader.length());
+
+        if(iInvert) {
+            passed = !passed;
+        }
+
+        return passed;
+    }
+
+    /**
+     * This method reports on whether the specified taxonomy ID is in any of the clades.
+     *
+     * @param   aTaxID  int with the taxonomy ID.
+     * @return  boolean 'true' if the taxonomy ID is in any of the clades.
+     */
+    public boolean isInClades(int aTaxID) {
+        return aTaxID > 0 && iTaxa.get(aTaxID);
+    }
+
+    /**
+     * This method returns the number of taxonomy IDs in the clades.
+     *
+     * @return  int with the number of taxonomy IDs.
+     */
+    public int getTaxonCount() {
+        return iTaxa.cardinality();
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  a string representation of the object.
+     */
+    public String toString() {
+        StringBuffer result = new StringBuffer("TaxonomyTreeFilter" + (iInvert?" (inverted)":"") + " for clade(s) ");
+        for(int i = 0; i < iClades.length; i++) {
+            if(i > 0) {
+                result.append(", ");
+            }
+            result.append(iClades[i]);
+        }
+        result.append(" (" + this.getTaxonCount() + " taxa) of " + iTree);
+        return result.toString();
+    }
+
+    /**
+     * This method initializes the filter.
+     *
+     * @param   aTree   TaxonomyTree to take the clades from.
+     * @param   aClades int[] with the taxonomy IDs of the clades.
+     * @param   aInvert boolean to indicate whether to apply the Boolean 'NOT' operator to the
+     *                  results of the Filter.
+     */
+    private void init(TaxonomyTree aTree, int[] aClades, boolean aInvert) {
+        this.iTree = aTree;
+        this.iClades = aClades;
+        this.iTaxa = aTree.getDescendants(aClades);
+        this.iInvert = aInvert;
+    }
+
+    /**
+     * This method checks whether any of the taxonomy IDs in the specified part of the text is in
+     * the clades. A taxonomy ID follows one of the TAGS and an '=', and several taxonomy IDs can follow
+     * a single tag when separated by commas (as in old SwissProt 'OX' lines).
+     *
+     * @param   aText   String with the text.
+     * @param   aStart  int with the index to start at.
+     * @param   aEnd    int with the index to end at.
+     * @return  boolean 'true' if any of the taxonomy IDs is in the clades.
+     */
+    private boolean matchesTaxa(String aText, int aStart, int aEnd) {
+        for(int i = aStart; i < aEnd; i++) {
+            if(aText.charAt(i) != '=' || !this.followsTag(aText, aStart, i)) {
+                continue;
+            }
+            int j = i + 1;
+            while(j < aEnd) {
+                while(j < aEnd && aText.charAt(j) == ' ') {
+                    j++;
+                }
+                int taxID = 0;
+                int digits = 0;
+                while(j < aEnd && aText.charAt(j) >= '0' && aText.charAt(j) <= '9') {
+                    if(taxID < Integer.MAX_VALUE/10) {
+                        taxID = taxID*10 + (aText.charAt(j) - '0');
+                    }
+                    digits++;
+                    j++;
+                }
+                if(digits == 0) {
+                    break;
+                }
+                if(this.isInClades(taxID)) {
+                    return true;
+                }
+                if(j < aEnd && aText.charAt(j) == ',') {
+                    j++;
+                } else {
+                    break;
+                }
+            }
+            i = j - 1;
+        }
+        return false;
+    }
+
+    /**
+     * This method reports on whether one of the TAGS precedes the specified location.
+     * The tag should not be preceded by a letter or digit itself.
+     *
+     * @param   aText   String with the text.
+     * @param   aStart  int with the start of the text to consider.
+     * @param   aEquals int with the location of the '='.
+     * @return  boolean 'true' if a tag precedes the location.
+     */
+    private boolean followsTag(String aText, int aStart, int aEquals) {
+        for(int i = 0; i < TAGS.length; i++) {
+            int tagStart = aEquals - TAGS[i].length();
+            if(tagStart >= aStart && aText.regionMatches(true, tagStart, TAGS[i], 0, TAGS[i].length())
+               && (tagStart == aStart || !Character.isLetterOrDigit(aText.charAt(tagStart - 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
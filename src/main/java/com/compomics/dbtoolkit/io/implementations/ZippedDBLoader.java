@@ -34,7 +34,9 @@ import java.util.zip.*;
  * a BufferedReader (iBr) with the zipped flatfile by implementing the
  * 'load' method from the DBLoader interface.
  * It also takes care of filtering raw entries through the implementation
- * of the 'nextFilteredRawEntry' method from the DBLoader interface.
+ * of the 'nextFilteredRawEntry' method from the DBLoader interface. <br />
+ * Zip, GZIP and BGZF (blocked GZIP) files are supported. BGZF files are inflated
+ * on multiple threads, and can be indexed for random access.
  *
  * @author Lennart Martens
  */
@@ -50,14 +52,24 @@ public abstract class ZippedDBLoader implements DBLoader {
     protected BufferedReader iBr = null;
 
     /**
-     * This is the filename we're pointing to.
+     * This is the filename we're pointing to, or 'null' when reading from a stream.
      */
     protected String iFilename = null;
 
     /**
-     * This is the InputStream on which the BufferedReader is built.
+     * The name of the stream we're reading from, if any.
      */
-    protected MonitorableInputStream iInputStream = null;
+    protected String iStreamName = null;
+
+    /**
+     * This is the InputStream on the (compressed) file.
+     */
+    protected ProgressInputStream iInputStream = null;
+
+    /**
+     * This stream counts the uncompressed bytes delivered to the BufferedReader.
+     */
+    private ProgressInputStream iInflated = null;
 
     /**
      * This boolean can be flagged when a count is in progress,
@@ -65,6 +77,38 @@ public abstract class ZippedDBLoader implements DBLoader {
      */
     protected boolean iCancelCount = false;
 
+    /**
+     * The entry index for the DB, if the file is BGZF compressed and a valid
+     * index is available. The offsets in this index are BGZF virtual offsets.
+     */
+    protected EntryIndex iIndex = null;
+
+    /**
+     * The read-ahead stage that inflates zip and GZIP files on a separate thread.
+     * It also reports the progress for the data actually parsed so far.
+     */
+    private ReadAheadInputStream iReadAhead = null;
+
+    /**
+     * The compression format of the file, as determined upon loading.
+     */
+    private int iCompression = ZIP;
+
+    /**
+     * Compression format constant for zip files.
+     */
+    private static final int ZIP = 0;
+
+    /**
+     * Compression format constant for regular GZIP files.
+     */
+    private static final int GZIP = 1;
+
+    /**
+     * Compression format constant for BGZF (blocked GZIP) files.
+     */
+    private static final int BGZF = 2;
+
 
     /**
      * This method allows the caller to load a DB from the specified file.
@@ -80,32 +124,56 @@ public abstract class ZippedDBLoader implements DBLoader {
             throw new IOException("File '" + aFilename + "' does not exist!");
         }
 
-        // Create a BufferedReader to the file.
-        // Create a BufferedReader to the file.
-        boolean gzip = false;
-        try {
-            ZipFile zf = new ZipFile(aFilename);
-            if(zf.size() > 1) {
-                throw new IOException("Unable to load a zip file (" + aFilename + ") with more than one entry!");
+        // Determine the compression format.
+        if(BGZFInputStream.isBGZF(lFile)) {
+            iCompression = BGZF;
+        } else {
+            iCompression = ZIP;
+            try {
+                ZipFile zf = new ZipFile(aFilename);
+                if(zf.size() > 1) {
+                    throw new IOException("Unable to load a zip file (" + aFilename + ") with more than one entry!");
+                }
+                zf.close();
+            } catch(ZipException ze) {
+                // Could be a GZip. Check this.
+                iCompression = GZIP;
             }
-            zf.close();
-        } catch(ZipException ze) {
-            // Could be a GZip. Check this.
-            gzip = true;
         }
 
+        // Create a BufferedReader to the file.
+        this.openReader(new ProgressInputStream(aFilename));
 
-        iInputStream = new MonitorableInputStream(new FileInputStream(aFilename), true);
-        if(!gzip) {
-            ZipInputStream zis = new ZipInputStream(iInputStream);
-            zis.getNextEntry();
-            iBr = new BufferedReader(new InputStreamReader(zis));
-        } else {
-            iBr = new BufferedReader(new InputStreamReader(new GZIPInputStream(iInputStream)));
+        // BGZF files can have an index.
+        iIndex = null;
+        if(iCompression == BGZF) {
+            iIndex = EntryIndex.load(lFile, this.getDBName());
         }
 
         // Keep the filename.
         iFilename = aFilename;
+        iStreamName = null;
+    }
+
+    /**
+     * This method allows the caller to load a DB from the specified (zip or GZIP
+     * compressed) stream. The DB can be read only once, and can not be indexed.
+     *
+     * @param   aIn InputStream to read the compressed DB from.
+     * @param   aName   String with a name for the stream, used in messages.
+     * @exception   IOException whenever the stream can not be read.
+     */
+    public void load(InputStream aIn, String aName) throws IOException {
+        // Zip files start with 'PK', anything else should be GZIP (of which BGZF is a variant).
+        BufferedInputStream in = new BufferedInputStream(aIn);
+        in.mark(2);
+        boolean zip = (in.read() == 'P') && (in.read() == 'K');
+        in.reset();
+        iCompression = zip?ZIP:GZIP;
+        iIndex = null;
+        iFilename = null;
+        iStreamName = aName;
+        this.openReader(new ProgressInputStream(in, -1));
     }
 
     /**
@@ -193,38 +261,222 @@ public abstract class ZippedDBLoader implements DBLoader {
         return p;
     }
 
+    /**
+     * This method returns the next entry in the DB as a ProteinRecord.
+     *
+     * @return  ProteinRecord   with the next entry in the DB, or 'null' if no more
+     *                          entries are found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public ProteinRecord nextRecord() throws IOException {
+        ProteinRecord record = null;
+        String fasta = this.nextFASTAEntry();
+        if(fasta != null) {
+            record = new ProteinRecord(fasta);
+        }
+        return record;
+    }
+
+    /**
+     * This method reports whether the loader has an entry index at its disposal.
+     * Only BGZF compressed files can be indexed.
+     *
+     * @return  boolean 'true' if an index is available, 'false' otherwise.
+     */
+    public boolean hasIndex() {
+        return iIndex != null;
+    }
+
+    /**
+     * This method builds the entry index for the loaded DB file in a single pass,
+     * optionally storing it in the sidecar file next to the DB so that subsequent
+     * loads can pick it up. This is only possible for BGZF compressed files.
+     *
+     * @param   aStore  boolean to indicate whether the index should be written to disk.
+     * @return  EntryIndex  with the freshly built index.
+     * @exception   IOException when the DB is not BGZF compressed or could not be read,
+     *                          or when the index could not be written.
+     */
+    public EntryIndex buildIndex(boolean aStore) throws IOException {
+        if(iCompression != BGZF) {
+            throw new IOException("Only BGZF compressed files can be indexed, '" + ((iFilename != null)?iFilename:iStreamName) + "' is not BGZF compressed!");
+        }
+        File lFile = new File(iFilename);
+        iIndex = EntryIndex.build(lFile, this.getDBName());
+        if(aStore) {
+            iIndex.write(lFile);
+        }
+        return iIndex;
+    }
+
+    /**
+     * This method returns the entry at the specified (zero-based) position
+     * in the DB as a Protein instance. Indexed BGZF files are accessed directly;
+     * for all other compressed files, the DB is read up to the requested entry.
+     * <b>Note</b> that without an index, a call to this method resets the position
+     * of the underlying reader!
+     *
+     * @param   aOrdinal    long with the zero-based position of the entry in the DB.
+     * @return  Protein with the entry, or 'null' if there is no entry at that position.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public Protein getEntryAt(long aOrdinal) throws IOException {
+        Protein p = null;
+        if(iIndex != null) {
+            if(aOrdinal >= 0 && aOrdinal < iIndex.size()) {
+                p = new Protein(this.toFASTAEntry(this.readIndexedEntry((int)aOrdinal)));
+            }
+        } else if(aOrdinal >= 0) {
+            this.reset();
+            String raw = null;
+            long counter = 0;
+            while((raw = this.nextRawEntry()) != null && counter < aOrdinal) {
+                counter++;
+            }
+            if(raw != null) {
+                p = new Protein(this.toFASTAEntry(raw));
+            }
+            this.reset();
+        }
+        return p;
+    }
+
+    /**
+     * This method returns the first entry with the specified primary accession number
+     * as a Protein instance. Indexed BGZF files are accessed directly; all other compressed
+     * files are searched from the start.
+     * <b>Note</b> that without an index, a call to this method resets the position
+     * of the underlying reader!
+     *
+     * @param   aAccession  String with the primary accession number of the entry.
+     * @return  Protein with the entry, or 'null' if the accession number was not found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public Protein getEntryByAccession(String aAccession) throws IOException {
+        Protein p = null;
+        if(iIndex != null) {
+            int ordinal = iIndex.findOrdinal(aAccession);
+            if(ordinal >= 0) {
+                p = new Protein(this.toFASTAEntry(this.readIndexedEntry(ordinal)));
+            }
+            return p;
+        }
+        this.reset();
+        String raw = null;
+        while((raw = this.nextRawEntry()) != null) {
+            if(aAccession.equals(EntryIndex.getAccession(raw, this.getDBName()))) {
+                p = new Protein(this.toFASTAEntry(raw));
+                break;
+            }
+        }
+        this.reset();
+        return p;
+    }
+
+    /**
+     * This method reads the raw entry at the specified position in the index directly
+     * from the BGZF file. The position of the loader is not affected.
+     *
+     * @param   aOrdinal    int with the ordinal of the entry in the index.
+     * @return  String with the raw entry, as 'nextRawEntry' would report it.
+     * @exception   IOException when the entry could not be read.
+     */
+    protected String readIndexedEntry(int aOrdinal) throws IOException {
+        byte[] bytes = new byte[iIndex.getLength(aOrdinal)];
+        BGZFInputStream in = new BGZFInputStream(new File(iFilename));
+        try {
+            in.seek(iIndex.getOffset(aOrdinal));
+            int read = 0;
+            while(read < bytes.length) {
+                int count = in.read(bytes, read, bytes.length - read);
+                if(count < 0) {
+                    throw new IOException("Unexpected end of file while reading indexed entry " + aOrdinal + " from '" + iFilename + "'!");
+                }
+                read += count;
+            }
+        } finally {
+            in.close();
+        }
+        BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes)));
+        String result = this.readRawEntry(br);
+        br.close();
+        return result;
+    }
+
+    /**
+     * This method reads a single raw entry from the specified reader, formatted the
+     * way 'nextRawEntry' reports it. It is used to read indexed entries, and
+     * should be overridden by implementations that support an index.
+     *
+     * @param   aBr BufferedReader positioned at the start of the entry.
+     * @return  String with the raw entry.
+     * @exception   IOException when the entry could not be read.
+     */
+    protected String readRawEntry(BufferedReader aBr) throws IOException {
+        throw new IOException("Indexed access is not supported for the " + this.getDBName() + " format!");
+    }
+
+    /**
+     * This method converts a raw entry into FASTA format. This default
+     * implementation assumes the raw format to be FASTA already.
+     *
+     * @param   aRaw    String with the raw entry.
+     * @return  String with the entry in FASTA format.
+     * @exception   IOException when the conversion failed.
+     */
+    protected String toFASTAEntry(String aRaw) throws IOException {
+        return aRaw;
+    }
+
     /**
      * This method resets the reader to the start of the file.
      *
      * @exception   IOException when the buffer reset operation failed.
      */
     public void reset() throws IOException {
+        if(iFilename == null) {
+            // A stream can not be rewound; it can only be ended once it has been read from.
+            if(iInputStream.monitorLongProgress() > 0) {
+                iBr.close();
+                iBr = new BufferedReader(new ConsumedStreamReader(iStreamName));
+                iReadAhead = null;
+            }
+            return;
+        }
         iBr.close();
         iInputStream.close();
+        this.openReader(new ProgressInputStream(this.iFilename));
+    }
 
-        // Create a BufferedReader to the file.
-        try {
-            ZipFile zf = new ZipFile(this.iFilename);
-            if(zf.size() > 1) {
-                throw new IOException("Unable to load a zip file (" + this.iFilename + ") with more than one entry!");
-            }
-            zf.close();
-
-            iInputStream = new MonitorableInputStream(new FileInputStream(this.iFilename), true);
+    /**
+     * This method opens the BufferedReader on the specified file, according to the
+     * compression format determined upon loading. BGZF files are inflated on a
+     * number of threads, zip and GZIP files are inflated on a read-ahead thread,
+     * so the inflating overlaps with the parsing.
+     *
+     * @param   aIn ProgressInputStream on the compressed file or stream.
+     * @exception   IOException when the file could not be opened.
+     */
+    private void openReader(ProgressInputStream aIn) throws IOException {
+        iInputStream = aIn;
+        iReadAhead = null;
+        if(iCompression == BGZF) {
+            iInflated = new ProgressInputStream(new BGZFInputStream(iInputStream, Math.min(4, Runtime.getRuntime().availableProcessors())), -1);
+        } else if(iCompression == GZIP) {
+            iReadAhead = new ReadAheadInputStream(new GZIPInputStream(new MemberBoundaryInputStream(iInputStream)), iInputStream);
+            iInflated = new ProgressInputStream(iReadAhead, -1);
+        } else {
             ZipInputStream zis = new ZipInputStream(iInputStream);
-            zis.getNextEntry();
-            iBr = new BufferedReader(new InputStreamReader(zis));
-        } catch(ZipException ze) {
-            // GZIP file.
-            iInputStream = new MonitorableInputStream(new FileInputStream(this.iFilename), true);
-            iBr = new BufferedReader(new InputStreamReader(new GZIPInputStream(iInputStream)));
+            ZipEntry entry = zis.getNextEntry();
+            iReadAhead = new ReadAheadInputStream(zis, iInputStream);
+            iInflated = new ProgressInputStream(iReadAhead, (entry == null)?-1:entry.getSize());
         }
-
+        iBr = new BufferedReader(new InputStreamReader(iInflated));
     }
 
     /**
      * This method returns the maximum amount of information (in bytes)
-     * that can be read from this DB.
+     * that can be read from this DB, scaled down for files beyond the int range.
      *
      * @return  int with the maximum amount of information (in bytes) that can be read
  *                  from this DB.
@@ -235,13 +487,60 @@ public abstract class ZippedDBLoader implements DBLoader {
 
     /**
      * This method reports on the progress of the current DBLoader in the total file.
+     * When reading ahead, this is the progress for the data parsed so far, not for
+     * the data inflated so far.
      *
      * @return  int with the number of bytes read from the DB file up till now.
      */
     public int monitorProgress() {
+        if(iReadAhead != null) {
+            return iReadAhead.monitorProgress();
+        }
         return iInputStream.monitorProgress();
     }
 
+    /**
+     * This method returns the size of the compressed DB file in bytes.
+     *
+     * @return  long with the number of bytes in the DB file.
+     */
+    public long getLongMaximum() {
+        return iInputStream.getLongMaximum();
+    }
+
+    /**
+     * This method reports on the progress of the current DBLoader in the (compressed) file.
+     * When reading ahead, this is the progress for the data parsed so far, not for
+     * the data inflated so far.
+     *
+     * @return  long with the number of compressed bytes read from the DB file up till now.
+     */
+    public long monitorLongProgress() {
+        if(iReadAhead != null) {
+            return iReadAhead.monitorLongProgress();
+        }
+        return iInputStream.monitorLongProgress();
+    }
+
+    /**
+     * This method reports the number of uncompressed bytes parsed up till now.
+     *
+     * @return  long with the number of uncompressed bytes read.
+     */
+    public long getUncompressedProgress() {
+        return (iInflated == null)?0:iInflated.monitorLongProgress();
+    }
+
+    /**
+     * This method reports the uncompressed size of the DB, if known. This is only
+     * the case for zip files that record the size of their entry.
+     *
+     * @return  long with the uncompressed size, or -1 if unknown.
+     */
+    public long getUncompressedMaximum() {
+        return (iInflated == null)?-1:iInflated.getLongMaximum();
+    }
+
     /**
      * This method cancels a count in progress.
      */
@@ -262,6 +561,7 @@ public abstract class ZippedDBLoader implements DBLoader {
                 iInputStream.close();
                 iInputStream = null;
             }
+            iReadAhead = null;
         } catch(IOException ioe) {
             ioe.printStackTrace();
         }
@@ -311,6 +611,32 @@ public abstract class ZippedDBLoader implements DBLoader {
         return result;
     }
 
+    /**
+     * GZIPInputStream only continues with the next member of a multi-member GZIP
+     * file if the underlying stream reports more bytes to be available. Pipes can
+     * report none while more data is still on its way, which would silently truncate
+     * the DB. This stream therefore blocks in 'available' until it knows whether
+     * any more data follows.
+     */
+    private static class MemberBoundaryInputStream extends PushbackInputStream {
+
+        public MemberBoundaryInputStream(InputStream aIn) {
+            super(aIn, 1);
+        }
+
+        public int available() throws IOException {
+            int result = super.available();
+            if(result == 0) {
+                int next = this.read();
+                if(next >= 0) {
+                    this.unread(next);
+                    result = 1;
+                }
+            }
+            return result;
+        }
+    }
+
     public static void main(String[] args) {
         try {
             BufferedReader br = new BufferedReader(new InputStreamReader(new GZIPInputStream(new MonitorableInputStream(new FileInputStream(args[0])))));
@@ -12,11 +12,11 @@
  */
 package com.compomics.dbtoolkit.io.interfaces;
 
-import com.compomics.util.interfaces.Monitorable;
 import com.compomics.util.protein.Protein;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 
 /*
  * CVS information:
@@ -28,11 +28,13 @@ import java.io.IOException;
 /**
  * This interface describes the behaviour for a DBLoader implementation.
  * These classes are used to access a sequence database in a certain
- * format from a flatfile.
+ * format from a flatfile. <br />
+ * The progress of a DBLoader is reported in bytes of the DB file, as a long
+ * for files larger than 2 GB.
  *
  * @author Lennart Martens
  */
-public interface DBLoader extends Monitorable {
+public interface DBLoader extends LongMonitorable {
 
     /**
      * Constant with the name for the SwissProt DB.
@@ -65,6 +67,18 @@ public interface DBLoader extends Monitorable {
      */
     public abstract void load(String aFilename) throws IOException;
 
+    /**
+     * This method allows the caller to load a DB from the specified stream (eg., standard in).
+     * A DB read from a stream can be read only once: it can not be indexed, and once
+     * entries have been read, a reset ends the stream rather than rewinding it.
+     * Implementations that require random access to the DB throw an IOException.
+     *
+     * @param   aIn InputStream to read the DB from.
+     * @param   aName   String with a name for the stream, used in messages.
+     * @exception   IOException whenever the stream can not be read by this loader.
+     */
+    public abstract void load(InputStream aIn, String aName) throws IOException;
+
     /**
      * This method returns the next raw entry as present in the flatfile.
      * It is mainly useful for testing the class, as we typically want to retrieve
@@ -132,15 +146,58 @@ public interface DBLoader extends Monitorable {
      */
     public abstract Protein nextFilteredProtein(Filter aFilter) throws IOException;
 
+    /**
+     * This method returns the next entry in the DB as a DBRecord, which only
+     * parses the header and sequence when they are requested.
+     *
+     * @return  DBRecord    with the next entry in the DB, or 'null' if no more
+     *                      entries are found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public abstract DBRecord nextRecord() throws IOException;
+
     /**
      * This method attempts to count the number of entries currently in the database. 
-     * Performance can be quite slow, depending on the specific implementation.
+     * Performance can be quite slow, depending on the specific implementation,
+     * unless an index is available, in which case the count is instantaneous.
      *
      * @return  long    with the number of entries.
      * @exception   IOException when something goes wrong while reading the file.
      */
     public abstract long countNumberOfEntries() throws IOException;
 
+    /**
+     * This method reports whether the loader has an entry index at its disposal,
+     * allowing random access to the entries and instantaneous counts.
+     *
+     * @return  boolean 'true' if an index is available, 'false' otherwise.
+     */
+    public abstract boolean hasIndex();
+
+    /**
+     * This method returns the entry at the specified (zero-based) position
+     * in the DB as a Protein instance. When an index is available, the entry is read
+     * directly from its location; otherwise the DB will be read up to the entry.
+     * <b>Note</b> that the latter may change the position of the loader!
+     *
+     * @param   aOrdinal    long with the zero-based position of the entry in the DB.
+     * @return  Protein with the entry, or 'null' if there is no entry at that position.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public abstract Protein getEntryAt(long aOrdinal) throws IOException;
+
+    /**
+     * This method returns the first entry with the specified primary accession number
+     * as a Protein instance. When an index is available, the entry is read
+     * directly from its location; otherwise the DB will be searched for the entry.
+     * <b>Note</b> that the latter may change the position of the loader!
+     *
+     * @param   aAccession  String with the primary accession number of the entry.
+     * @return  Protein with the entry, or 'null' if the accession number was not found.
+     * @exception   IOException when something goes wrong while reading the file.
+     */
+    public abstract Protein getEntryByAccession(String aAccession) throws IOException;
+
     /**
      * This method resets the reader to the start of the file.
      *
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 12:21:36
+ */
+package com.compomics.dbtoolkit.io.interfaces;
+
+import com.compomics.util.protein.Header;
+import com.compomics.util.protein.Protein;
+
+import java.io.PrintWriter;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 12:21:36 $
+ */
+
+/**
+ * This interface describes a single DB entry in FASTA format, as returned by the
+ * 'nextRecord' method of a DBLoader. Implementations need only parse the header
+ * and the sequence when they are requested.
+ *
+ * @author Lennart Martens
+ */
+public interface DBRecord {
+
+    /**
+     * This method returns the entry in FASTA format, exactly as it was read.
+     *
+     * @return  String  with the FASTA entry.
+     */
+    public String getFASTAEntry();
+
+    /**
+     * This method returns the (trimmed) header line of the entry, including the leading '>'.
+     *
+     * @return  String  with the header line.
+     */
+    public String getHeaderLine();
+
+    /**
+     * This method returns the parsed Header.
+     *
+     * @return  Header  with the parsed header.
+     */
+    public Header getHeader();
+
+    /**
+     * This method returns the accession number of the entry.
+     *
+     * @return  String  with the accession number.
+     */
+    public String getAccession();
+
+    /**
+     * This method returns the description of the entry.
+     *
+     * @return  String  with the description.
+     */
+    public String getDescription();
+
+    /**
+     * This method returns the sequence of the entry, stripped of all whitespace.
+     *
+     * @return  String  with the sequence.
+     */
+    public String getSequence();
+
+    /**
+     * This method returns the length of the sequence.
+     *
+     * @return  int with the length of the sequence.
+     */
+    public int getLength();
+
+    /**
+     * This method creates a full Protein instance for this entry, identical
+     * to the one 'nextProtein' would have returned.
+     *
+     * @return  Protein for this entry.
+     */
+    public Protein toProtein();
+
+    /**
+     * This method writes the entry to the specified writer in FASTA format,
+     * using the original header line.
+     *
+     * @param   aOut    PrintWriter to write to.
+     */
+    public void writeToFASTAFile(PrintWriter aOut);
+}
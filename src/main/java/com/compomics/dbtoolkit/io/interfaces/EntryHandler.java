@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 17:48:10
+ */
+package com.compomics.dbtoolkit.io.interfaces;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 17:48:10 $
+ */
+
+/**
+ * This interface describes the behaviour for a class that processes the entries
+ * delivered by a DBLoaderIterator. Note that implementations will be called from
+ * several threads at once when the entries are processed in parallel.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.DBLoaderIterator
+ */
+public interface EntryHandler {
+
+    /**
+     * This method processes a single entry.
+     *
+     * @param   aEntry  Object with the entry; a String for raw or FASTA entries,
+     *                  a Protein instance for protein entries.
+     */
+    public void handle(Object aEntry);
+}
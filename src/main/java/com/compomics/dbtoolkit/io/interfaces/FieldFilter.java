@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 05:52:08
+ */
+package com.compomics.dbtoolkit.io.interfaces;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 05:52:08 $
+ */
+
+/**
+ * This interface describes a Filter that only reads a few fields (the SwissProt line
+ * keys, eg. 'AC' or 'KW') from the HashMap of an entry. Only those fields need to be
+ * extracted from a raw entry before handing it to the 'passesFilter(HashMap)' method,
+ * and filters that are combined can share a single extraction.
+ *
+ * @author Lennart Martens
+ */
+public interface FieldFilter extends Filter {
+
+    /**
+     * This method reports on the fields this filter reads from the HashMap of an entry.
+     *
+     * @return  String[]    with the line keys of the fields, or 'null' if the filter
+     *                      requires the entire entry.
+     */
+    public String[] getRequiredKeys();
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 08:24:57
+ */
+package com.compomics.dbtoolkit.io.interfaces;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 08:24:57 $
+ */
+
+/**
+ * This interface describes a Filter that can decide on a FASTA entry from its header
+ * line alone. A FASTA DBLoader can then evaluate the Filter as soon as it has read the
+ * header line, and skip the sequence of an entry that does not pass without reading it
+ * into a String.
+ *
+ * @author Lennart Martens
+ */
+public interface HeaderFilter extends Filter {
+
+    /**
+     * This method reports on whether the header line suffices to decide on an entry.
+     *
+     * @return  boolean that is 'true' when 'passesHeader' can be used instead of
+     *                  'passesFilter'.
+     */
+    public boolean isHeaderOnly();
+
+    /**
+     * This method tests whether the entry with the specified header line passes the filter.
+     * The result equals that of 'passesFilter' for the complete entry.
+     *
+     * @param   aHeader String with the header line of the FASTA entry (including the '>').
+     * @return  boolean 'true' if the entry passes the filter, 'false' otherwise.
+     */
+    public boolean passesHeader(String aHeader);
+}
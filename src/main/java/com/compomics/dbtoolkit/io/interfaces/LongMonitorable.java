@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 00:52:31
+ */
+package com.compomics.dbtoolkit.io.interfaces;
+
+import com.compomics.util.interfaces.Monitorable;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 00:52:31 $
+ */
+
+/**
+ * This interface describes the behaviour for a Monitorable that can report its
+ * progress (in bytes) beyond the int range, as required for files larger than 2 GB. <br />
+ * The int-based methods of Monitorable report the same progress, scaled down
+ * when required so that both values stay within the int range
+ * (see ProgressInputStream.scale).
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.ProgressInputStream#scale(long, long)
+ */
+public interface LongMonitorable extends Monitorable {
+
+    /**
+     * This method returns the maximum amount of information (in bytes) that can be read.
+     *
+     * @return  long with the maximum amount of information (in bytes), or -1 if unknown.
+     */
+    public long getLongMaximum();
+
+    /**
+     * This method reports on the amount of information (in bytes) read so far.
+     *
+     * @return  long with the number of bytes read up till now.
+     */
+    public long monitorLongProgress();
+}
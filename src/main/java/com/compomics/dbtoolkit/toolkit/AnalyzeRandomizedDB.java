@@ -14,6 +14,7 @@ package com.compomics.dbtoolkit.toolkit;
 
 import com.compomics.dbtoolkit.io.implementations.FASTADBLoader;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
 import com.compomics.util.general.CommandLineParser;
 import com.compomics.util.io.MascotEnzymeReader;
 import com.compomics.util.protein.Enzyme;
@@ -144,21 +145,26 @@ public class AnalyzeRandomizedDB {
             HashMap allSeqs = new HashMap();
             int proteinCounter = 0;
             int peptideCounter = 0;
-            Protein current = null;
+            DBRecord current = null;
             if(aVerbose) {
                 output.println("\nReading original DB for unique sequences" + ((iEnzyme == null)?" (no cleaving applied)":" (cleaving entries with " + iEnzyme.getTitle() + ")") + "...");
             }
-            while((current = iOriginalDB.nextProtein()) != null) {
+            while((current = iOriginalDB.nextRecord()) != null) {
                 proteinCounter++;
-                Protein[] temp = null;
+                // Without an enzyme, only the sequence is needed.
+                String[] temp = null;
                 if(iEnzyme != null) {
-                    temp = iEnzyme.cleave(current);
+                    Protein[] cleaved = iEnzyme.cleave(current.toProtein());
+                    temp = new String[cleaved.length];
+                    for(int i = 0; i < cleaved.length; i++) {
+                        temp[i] = cleaved[i].getSequence().getSequence();
+                    }
                 } else {
-                    temp = new Protein[]{current};
+                    temp = new String[]{current.getSequence()};
                 }
                 peptideCounter += temp.length;
                 for(int i = 0; i < temp.length; i++) {
-                    String sequence = temp[i].getSequence().getSequence();
+                    String sequence = temp[i];
                     allSeqs.put(sequence, "");
                 }
             }
@@ -177,17 +183,22 @@ public class AnalyzeRandomizedDB {
             if(aVerbose) {
                 output.println("\nReading randomized DB to match unique sequences from original DB" + ((iEnzyme == null)?" (no cleaving applied)":" (cleaving entries with " + iEnzyme.getTitle() + ")") + "...");
             }
-            while((current = iRandomizedDB.nextProtein()) != null) {
+            while((current = iRandomizedDB.nextRecord()) != null) {
                 proteinCounter++;
-                Protein[] temp = null;
+                // Without an enzyme, only the sequence is needed.
+                String[] temp = null;
                 if(iEnzyme != null) {
-                    temp = iEnzyme.cleave(current);
+                    Protein[] cleaved = iEnzyme.cleave(current.toProtein());
+                    temp = new String[cleaved.length];
+                    for(int i = 0; i < cleaved.length; i++) {
+                        temp[i] = cleaved[i].getSequence().getSequence();
+                    }
                 } else {
-                    temp = new Protein[]{current};
+                    temp = new String[]{current.getSequence()};
                 }
                 peptideCounter += temp.length;
                 for(int i = 0; i < temp.length; i++) {
-                    String sequence = temp[i].getSequence().getSequence();
+                    String sequence = temp[i];
                     if(allSeqs.containsKey(sequence)) {
                         redundantSeqs.put(sequence, "");
                     }
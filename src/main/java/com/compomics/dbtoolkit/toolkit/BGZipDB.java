@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 20:31:12
+ */
+package com.compomics.dbtoolkit.toolkit;
+
+import com.compomics.dbtoolkit.io.DBLoaderLoader;
+import com.compomics.dbtoolkit.io.implementations.BGZFOutputStream;
+import com.compomics.dbtoolkit.io.implementations.EntryIndex;
+import com.compomics.dbtoolkit.io.implementations.ZippedDBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 20:31:12 $
+ */
+
+/**
+ * This class compresses a FASTA or SwissProt database into the BGZF (blocked GZIP) format,
+ * and writes the entry index for the compressed file. The result can still be read by any
+ * GZIP tool, while the Zipped DBLoaders inflate it on multiple threads and use the index for
+ * instantaneous entry counts and direct retrieval of entries by accession number or position. <br />
+ * The input can be a plain or a GZIP compressed database.
+ *
+ * @author Lennart Martens
+ */
+public class BGZipDB {
+
+    /**
+     * The main method is the entry point for the application.
+     *
+     * @param args  String[] with the start-up parameters.
+     */
+    public static void main(String[] args) {
+        if(args == null || args.length != 2) {
+            System.err.println("\n\nUsage:\n\tBGZipDB <input_database_file> <output_file>\n\n\tNote that an existing output file will be silently overwritten!\n");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        File output = new File(args[1]);
+        if(!input.exists()) {
+            System.err.println("\n\nInput database file '" + args[0] + "' does not exist!\n");
+            System.exit(1);
+        }
+        try {
+            long start = System.currentTimeMillis();
+            compress(input, output);
+            DBLoader loader = DBLoaderLoader.loadDB(output);
+            if(!(loader instanceof ZippedDBLoader)) {
+                loader.close();
+                System.err.println("\n\nUnable to index '" + output + "': the database format was not recognized!\n");
+                System.exit(1);
+            }
+            EntryIndex index = ((ZippedDBLoader)loader).buildIndex(true);
+            loader.close();
+            System.out.println("\nCompressed " + index.size() + " " + loader.getDBName() + " entries from '" + input + "' into '" + output + "' (" + (System.currentTimeMillis()-start) + " ms).");
+            System.out.println("Index written to '" + EntryIndex.getIndexFile(output) + "'.\n");
+        } catch(IOException ioe) {
+            System.err.println("\n\nUnable to compress database:\n" + ioe.getMessage() + "\n\n");
+            ioe.printStackTrace();
+        }
+    }
+
+    /**
+     * This method copies the contents of the input file into a BGZF compressed output file.
+     * GZIP compressed input is inflated first.
+     *
+     * @param   aInput  File with the database to compress.
+     * @param   aOutput File to write the BGZF data to.
+     * @exception   IOException when reading or writing failed.
+     */
+    public static void compress(File aInput, File aOutput) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(aInput), 256*1024);
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        if(magic == GZIPInputStream.GZIP_MAGIC) {
+            in = new GZIPInputStream(in, 256*1024);
+        }
+        OutputStream out = new BGZFOutputStream(new BufferedOutputStream(new FileOutputStream(aOutput), 256*1024));
+        try {
+            byte[] buffer = new byte[BGZFOutputStream.BLOCK_SIZE];
+            int read = 0;
+            while((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+    }
+}
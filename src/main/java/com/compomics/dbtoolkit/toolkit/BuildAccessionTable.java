@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 09:24:10
+ */
+package com.compomics.dbtoolkit.toolkit;
+
+import com.compomics.dbtoolkit.io.implementations.AccessionTable;
+
+import java.io.File;
+import java.io.IOException;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 09:24:10 $
+ */
+
+/**
+ * This class converts a text file with accession numbers into a table file for the
+ * accession filters ('SPaccession' and 'FASTAaccession'). The table file is memory mapped
+ * by the filters, so that even lists of many millions of accessions take next to no heap space
+ * and load instantaneously.
+ *
+ * @author Lennart Martens
+ */
+public class BuildAccessionTable {
+
+    /**
+     * The main method is the entry point for the application.
+     *
+     * @param args  String[] with the start-up parameters.
+     */
+    public static void main(String[] args) {
+        int bloomBits = AccessionTable.DEFAULT_BLOOM_BITS;
+        int first = 0;
+        if(args != null && args.length == 4 && args[0].equals("--bloom")) {
+            try {
+                bloomBits = Integer.parseInt(args[1]);
+                if(bloomBits < 0) {
+                    throw new NumberFormatException();
+                }
+            } catch(NumberFormatException nfe) {
+                System.err.println("\n\nThe number of Bloom filter bits per accession should be a positive integer (or 0 for none)!\n");
+                System.exit(1);
+            }
+            first = 2;
+        }
+        if(args == null || args.length != first + 2) {
+            System.err.println("\n\nUsage:\n\tBuildAccessionTable [--bloom <bits_per_accession>] <input_accession_file> <output_table_file>\n\n\tAccessions in the input file are separated by whitespace, commas or semicolons.\n\tThe Bloom filter uses " + AccessionTable.DEFAULT_BLOOM_BITS + " bits per accession by default; specify 0 to omit it.\n\tUse the table file as the parameter of an accession filter, preceded by a '@'.\n");
+            System.exit(1);
+        }
+        File input = new File(args[first]);
+        if(!input.exists()) {
+            System.err.println("\n\nInput accession file '" + args[first] + "' does not exist!\n");
+            System.exit(1);
+        }
+        File output = new File(args[first + 1]);
+        try {
+            long start = System.currentTimeMillis();
+            AccessionTable table = AccessionTable.build(input, bloomBits);
+            table.write(output);
+            System.out.println("\nWrote " + table + " to '" + output + "' (" + (System.currentTimeMillis()-start) + " ms).\n");
+        } catch(IOException ioe) {
+            System.err.println("\n\nUnable to build accession table:\n" + ioe.getMessage() + "\n\n");
+            ioe.printStackTrace();
+        }
+    }
+}
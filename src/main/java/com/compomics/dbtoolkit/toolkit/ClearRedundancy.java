@@ -13,8 +13,10 @@
 package com.compomics.dbtoolkit.toolkit;
 
 import com.compomics.dbtoolkit.gui.workerthreads.ClearRedundancyThread;
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
 import com.compomics.dbtoolkit.io.implementations.AutoDBLoader;
+import com.compomics.dbtoolkit.io.implementations.ShardedFASTAWriter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.util.general.CommandLineParser;
 
@@ -55,12 +57,12 @@ public class ClearRedundancy {
     public static void main(String[] args) {
         // First see if we should output anything useful.
         if(args == null || args.length == 0) {
-            flagError("Usage:\n\tClearRedundancy --temp <tempFolder> --output <output_file_name> <input_db_name>\n\n\tNote that an existing output file will be silently overwritten!");
+            flagError("Usage:\n\tClearRedundancy [--gzip] [--shards <number_of_shards> [--shardBy <roundrobin|residues|sequence|accession>]] --temp <tempFolder> --output <output_file_name> <input_db_name>\n\n\tNote that an existing output file will be silently overwritten!\n\tOutput files ending in '.gz' are always GZIP compressed.\n\t'--shards' splits the output over several files (balanced round-robin by default), listed in a '<output>.manifest' file.\n\tUse '-' as input_db_name to read from standard in, or as output_file_name to write to standard out.");
         }
-        CommandLineParser clp = new CommandLineParser(args, new String[]{"temp", "output"});
+        CommandLineParser clp = new CommandLineParser(args, new String[]{"temp", "output", "shards", "shardBy"});
         String tempFolder = clp.getOptionParameter("temp");
         String outputFile = clp.getOptionParameter("output");
-        String inputFile = clp.getParameters()[0];
+        String inputFile = StandardStreams.getParameters(args, clp)[0];
 
         // See if all of this is correct.
         if(tempFolder == null) {
@@ -76,16 +78,21 @@ public class ClearRedundancy {
             File output = new File(outputFile);
             File input = new File(inputFile);
 
+            // Keep standard out clean for the DB when writing to it.
+            if(StandardStreams.isStandardStream(output)) {
+                StandardStreams.redirectMessages();
+            }
+
             if(!temp.exists()) {
                 flagError("The temporary storage folder you specified (" + tempFolder + ") does not exist!\nExiting...");
-            } else if(!output.exists()) {
+            } else if(!StandardStreams.exists(output)) {
                 try {
                     output.createNewFile();
                 } catch(IOException ioe) {
                     flagError("Could not create outputfile (" + outputFile + "): " + ioe.getMessage());
                 }
             }
-            if(!input.exists()) {
+            if(!StandardStreams.exists(input)) {
                 flagError("The input file you specified (" + inputFile + ") could not be found!\nExiting...");
             } else {
                 // The stuff we've received as input seems to be OK.
@@ -118,7 +125,7 @@ public class ClearRedundancy {
                 AutoDBLoader adb = new AutoDBLoader(classNames);
                 DBLoader loader = null;
                 try {
-                    loader = adb.getLoaderForFile(input.getAbsolutePath());
+                    loader = adb.getLoaderForFile(StandardStreams.getPath(input));
                 } catch(IOException ioe) {
                 } catch(UnknownDBFormatException udfe) {
                 }
@@ -126,6 +133,23 @@ public class ClearRedundancy {
                     flagError("Unable to determine database type for your inputfile (" + inputFile + "), exiting...");
                 }
                 ClearRedundancyThread crt = new ClearRedundancyThread(temp, output, loader, adb);
+                crt.setCompressedOutput(clp.hasOption("gzip"));
+                // Split the output over several files, if requested.
+                String shards = clp.getOptionParameter("shards");
+                if(shards != null) {
+                    try {
+                        int shardCount = Integer.parseInt(shards);
+                        if(shardCount < 1) {
+                            throw new NumberFormatException();
+                        }
+                        String shardBy = clp.getOptionParameter("shardBy");
+                        crt.setSharding(shardCount, (shardBy == null)?ShardedFASTAWriter.ROUND_ROBIN:ShardedFASTAWriter.parseStrategy(shardBy));
+                    } catch(NumberFormatException nfe) {
+                        flagError("The number of shards should be a positive integer, not '" + shards + "'!");
+                    } catch(IllegalArgumentException iae) {
+                        flagError(iae.getMessage());
+                    }
+                }
                 System.out.println("\nClearing redundancy in '" + inputFile + "'...");
                 long start = System.currentTimeMillis();
                 crt.run();
@@ -49,56 +49,65 @@ public class Concatenate {
     public static void main(String[] args) {
         // First see if we should output anything useful.
         if(args == null || args.length == 0) {
-            flagError("Usage:\n\tConcatenate --input1 <input1_file_name> [--input2 <input2_file_name>] <output_file_name>\n\n\tNote that an existing output file will be silently overwritten!");
+            flagError("Usage:\n\tConcatenate [--newline] <input_file_name> [<input_file_name> ...] <output_file_name>\n\tConcatenate [--newline] --input1 <input1_file_name> [--input2 <input2_file_name>] <output_file_name>\n\n\tThe '--newline' option inserts a newline after each input file that does not end in one.\n\tNote that an existing output file will be silently overwritten!");
         }
         CommandLineParser clp = new CommandLineParser(args, new String[]{"input1", "input2"});
         String input1File = clp.getOptionParameter("input1");
         String input2File = clp.getOptionParameter("input2");
-        String outputFile = clp.getParameters()[0];
+        String[] params = clp.getParameters();
+
+        // Collect the input files and the output file.
+        String[] inputFiles = null;
+        String outputFile = null;
+        if(input1File != null) {
+            inputFiles = (input2File == null)?new String[] {input1File}:new String[] {input1File, input2File};
+            if(params != null && params.length > 0) {
+                outputFile = params[0];
+            }
+        } else if(params != null && params.length > 1) {
+            inputFiles = new String[params.length-1];
+            System.arraycopy(params, 0, inputFiles, 0, inputFiles.length);
+            outputFile = params[params.length-1];
+        }
 
         // See if all of this is correct.
-        if(input1File == null) {
-            flagError("You did not specify the '--input1 <input_file_name>' parameter!\n\nRun program without parameters for help.");
+        if(inputFiles == null) {
+            flagError("You did not specify any input files!\n\nRun program without parameters for help.");
         } else if(outputFile == null) {
             flagError("You did not specify an outputfile!\n\nRun program without parameters for help.");
         } else {
             // Parameters were all found. Let's see if we can access all files that should be accessed.
             // Note that an existing output_file will result in clean and silent overwrite of the file!
-            File input1 = new File(input1File);
-            File input2 = null;
-            if(input2File != null) {
-                input2 = new File(input2File);
+            File[] inputs = new File[inputFiles.length];
+            for(int i = 0; i < inputFiles.length; i++) {
+                inputs[i] = new File(inputFiles[i]);
+                if(!inputs[i].exists()) {
+                    flagError("The input file you specified (" + inputFiles[i] + ") does not exist!\nExiting...");
+                }
             }
             File output = new File(outputFile);
 
-            if(!input1.exists()) {
-                flagError("The input file you specified (" + input1File + ") does not exist!\nExiting...");
-            } else if((input2 != null) &&(!input2.exists())) {
-                 flagError("The input file you specified (" + input2File + ") could not be found!\nExiting...");
-            } else {
-                // If the output file does not yet exist, create it.
-                if(!output.exists()) {
-                    try {
-                        output.createNewFile();
-                    } catch(IOException ioe) {
-                        flagError("Could not create outputfile (" + outputFile + "): " + ioe.getMessage());
-                    }
+            // If the output file does not yet exist, create it.
+            if(!output.exists()) {
+                try {
+                    output.createNewFile();
+                } catch(IOException ioe) {
+                    flagError("Could not create outputfile (" + outputFile + "): " + ioe.getMessage());
                 }
-                // The stuff we've received as input seems to be OK.
-                ConcatenateThread ct = null;
-                if(input2 == null) {
-                    System.out.println("\n\nOnly one input file specified, copying file '" + input1File + "' to output file '" + outputFile + "'...");
-                    ct = new ConcatenateThread(input1, output);
-                } else {
-                    System.out.println("\n\nTwo input files specified, concatenating file '" + input2File + "' to  file '" + input1File + "' in output file '" + outputFile + "'...");
-                    ct = new ConcatenateThread(input1, input2, output);
-                }
-
-                long start = System.currentTimeMillis();
-                ct.run();
-                long end = System.currentTimeMillis();
-                System.out.println("Finished after " + ((end-start)/1000) + " seconds.");
             }
+            // The stuff we've received as input seems to be OK.
+            if(inputs.length == 1) {
+                System.out.println("\n\nOnly one input file specified, copying file '" + inputFiles[0] + "' to output file '" + outputFile + "'...");
+            } else {
+                System.out.println("\n\n" + inputs.length + " input files specified, concatenating them in output file '" + outputFile + "'...");
+            }
+            ConcatenateThread ct = new ConcatenateThread(inputs, output, null);
+            ct.setSeparateWithNewline(clp.hasOption("newline"));
+
+            long start = System.currentTimeMillis();
+            ct.run();
+            long end = System.currentTimeMillis();
+            System.out.println("Finished after " + ((end-start)/1000) + " seconds.");
         }
     }
 
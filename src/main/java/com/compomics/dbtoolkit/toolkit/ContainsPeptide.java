@@ -16,6 +16,7 @@ import com.compomics.util.protein.Protein;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.DBLoaderFactory;
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
+import com.compomics.dbtoolkit.io.StandardStreams;
 
 import java.io.File;
 import java.io.BufferedReader;
@@ -50,7 +51,7 @@ public class ContainsPeptide {
         }
         // First validate the database file.
         File dbFile = new File(args[1]);
-        if(!dbFile.exists()) {
+        if(!StandardStreams.exists(dbFile)) {
             printError("The database file you specified '" + args[1] + "' does not exist!");
         }
         // See if we are in 'file mode' or 'single sequence mode'.
@@ -168,7 +169,7 @@ public class ContainsPeptide {
      * error stream and exits with the error flag raised to '1'.
      */
     private static void printUsage() {
-        printError("Usage:\n\n\tContainsPeptide <peptide_sequence> <database_file>\n\n\t\tOR\n\n\tContainsPeptide @<file_with_multiple_sequences> <database_file>");
+        printError("Usage:\n\n\tContainsPeptide <peptide_sequence> <database_file>\n\n\t\tOR\n\n\tContainsPeptide @<file_with_multiple_sequences> <database_file>\n\n\tUse '-' as database_file to read from standard in.");
     }
 
     /**
@@ -15,7 +15,10 @@ package com.compomics.dbtoolkit.toolkit;
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
 import com.compomics.dbtoolkit.io.FilterLoader;
 import com.compomics.dbtoolkit.io.QueryParser;
+import com.compomics.dbtoolkit.io.StandardStreams;
+import com.compomics.dbtoolkit.io.implementations.DBLoaderIterator;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.EntryHandler;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.dbtoolkit.io.interfaces.ProteinFilter;
 import com.compomics.util.general.CommandLineParser;
@@ -44,18 +47,18 @@ import java.util.StringTokenizer;
 public class CountEntries {
 
     public static void main(String[] args) {
-        CommandLineParser clp = new CommandLineParser(args, new String[]{"query", "filter", "filterParam"});
+        CommandLineParser clp = new CommandLineParser(args, new String[]{"query", "filter", "filterParam", "threads"});
         if((args == null) || (args.length == 0)) {
-            System.err.println("\n\nUsage: CountEntries [--filter <filter_name> [--filterParam \"<filter_parameter>\"]] --query \"<comma_separated_list_of residues>\" <input_file>\n\n");
+            System.err.println("\n\nUsage: CountEntries [--filter <filter_name> [--filterParam \"<filter_parameter>\"]] [--threads <number_of_threads>] --query \"<comma_separated_list_of residues>\" <input_file>\n\n\tUse '-' as input_file to read from standard in.\n\n");
             System.exit(1);
         }
         File inputFile = null;
-        String[] temp = clp.getParameters();
+        String[] temp = StandardStreams.getParameters(args, clp);
         if(temp.length < 1) {
             CountEntries.flagError("You did not specify an outputfile!");
         } else {
             inputFile = new File(temp[0]);
-            if(!inputFile.exists()) {
+            if(!StandardStreams.exists(inputFile)) {
                 flagError("Inputfile '" + temp[0] + "' does not exist!");
             } else {
                 String query = clp.getOptionParameter("query");
@@ -93,11 +96,24 @@ public class CountEntries {
                         flagError("Unable to load filter: " + ioe.getMessage());
                     }
 
+                    // The number of threads to count with.
+                    int threads = 1;
+                    String threadCount = clp.getOptionParameter("threads");
+                    if(threadCount != null) {
+                        try {
+                            threads = Integer.parseInt(threadCount);
+                            if(threads < 1) {
+                                throw new NumberFormatException();
+                            }
+                        } catch(NumberFormatException nfe) {
+                            flagError("The number of threads should be a positive integer, not '" + threadCount + "'!");
+                        }
+                    }
+
                     // Okay, do our thing.
-                    Protein entry = null;
-                    int entryCounter = 0;
+                    long entryCounter = 0;
                     Set keySet = toCheck.keySet();
-                    String[] keys = new String[keySet.size()];
+                    final String[] keys = new String[keySet.size()];
                     keySet.toArray(keys);
                     System.out.println("\n\nCounting occurrances in DB, settings are:");
                     System.out.println("\t - Input DB file: '" + inputFile + "'.");
@@ -119,26 +135,18 @@ public class CountEntries {
                         System.out.println("\t\t # '" + lKey + "'" + ": " + ((Count)toCheck.get(lKey)).getFilter().toString());
                     }
                     System.out.println("\nCycling database...");
+                    final HashMap counts = toCheck;
+                    DBLoaderIterator iter = DBLoaderIterator.filteredProteins(loader, f);
                     try {
-                        if(f!= null) {
-                            entry = loader.nextFilteredProtein(f);
-                        } else {
-                            entry = loader.nextProtein();
-                        }
-                        while(entry != null) {
-                            entryCounter++;
-                            for(int i = 0; i < keys.length; i++) {
-                                String lKey = keys[i];
-                                Count c = (Count)toCheck.get(lKey);
-                                c.passesFilter(entry);
-                            }
-                            // Complete the cycle by advancing to the next element.
-                            if(f!= null) {
-                                entry = loader.nextFilteredProtein(f);
-                            } else {
-                                entry = loader.nextProtein();
+                        iter.process(new EntryHandler() {
+                            public void handle(Object aEntry) {
+                                for(int i = 0; i < keys.length; i++) {
+                                    Count c = (Count)counts.get(keys[i]);
+                                    c.passesFilter((Protein)aEntry);
+                                }
                             }
-                        }
+                        }, threads, DBLoaderIterator.DEFAULT_BATCH_SIZE);
+                        entryCounter = iter.getCount();
                     } catch(IOException ioe) {
                         flagError("IOException occurred while reading file!\n" + ioe.getMessage());
                     }
@@ -185,11 +193,13 @@ public class CountEntries {
 
         public void passesFilter(Protein aProtein) {
             if(iFilter.passesFilter(aProtein)) {
-                iCount++;
+                synchronized(this) {
+                    iCount++;
+                }
             }
         }
 
-        public int getCount() {
+        public synchronized int getCount() {
             return iCount;
         }
 
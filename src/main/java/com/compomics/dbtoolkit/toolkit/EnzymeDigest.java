@@ -14,8 +14,10 @@ package com.compomics.dbtoolkit.toolkit;
 
 import com.compomics.dbtoolkit.gui.workerthreads.ProcessThread;
 import com.compomics.dbtoolkit.io.EnzymeLoader;
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
 import com.compomics.dbtoolkit.io.implementations.AutoDBLoader;
+import com.compomics.dbtoolkit.io.implementations.ShardedFASTAWriter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.dbtoolkit.io.interfaces.ProteinFilter;
@@ -62,11 +64,11 @@ public class EnzymeDigest {
     public static void main(String[] args) {
         // First see if we should output anything useful.
         if(args == null || args.length == 0) {
-            flagError("Usage:\n\tEnzymeDigest [--enzymeFile <custom_enzyme_file>] [--enzyme <enzymeName> [--mc <number_of_missed_cleavages>]] [--filter <filter_name> [--filterParam \"<filter_parameter>\"]] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] --input <input_db_name> <output_db_name>\n\n\tNote that an existing output file will be silently overwritten!");
+            flagError("Usage:\n\tEnzymeDigest [--enzymeFile <custom_enzyme_file>] [--enzyme <enzymeName> [--mc <number_of_missed_cleavages>]] [--filter <filter_name> [--filterParam \"<filter_parameter>\"]] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] [--gzip] [--shards <number_of_shards> [--shardBy <roundrobin|residues|sequence|accession>]] --input <input_db_name> <output_db_name>\n\n\tNote that an existing output file will be silently overwritten!\n\tOutput files ending in '.gz' are always GZIP compressed.\n\t'--shards' splits the output over several files (balanced round-robin by default), listed in a '<output>.manifest' file.\n\tUse '-' as input_db_name to read from standard in, or as output_db_name to write to standard out.");
         }
-        CommandLineParser clp = new CommandLineParser(args, new String[]{"enzymeFile", "enzyme", "mc", "filter", "filterParam", "lowMass", "highMass", "input"});
+        CommandLineParser clp = new CommandLineParser(args, new String[]{"enzymeFile", "enzyme", "mc", "filter", "filterParam", "lowMass", "highMass", "input", "shards", "shardBy"});
         String inputFile = clp.getOptionParameter("input");
-        String[] temp = clp.getParameters();
+        String[] temp = StandardStreams.getParameters(args, clp);
         if((temp == null) || (temp.length == 0)) {
             flagError("You need to specify an output file!\n\nRun program without parameters for help.");
         }
@@ -97,14 +99,19 @@ public class EnzymeDigest {
             File input = new File(inputFile);
             File output = new File(outputFile);
 
-            if(!output.exists()) {
+            // Keep standard out clean for the DB when writing to it.
+            if(StandardStreams.isStandardStream(output)) {
+                StandardStreams.redirectMessages();
+            }
+
+            if(!StandardStreams.exists(output)) {
                 try {
                     output.createNewFile();
                 } catch(IOException ioe) {
                     flagError("Could not create outputfile (" + outputFile + "): " + ioe.getMessage());
                 }
             }
-            if(!input.exists()) {
+            if(!StandardStreams.exists(input)) {
                 flagError("The input file you specified (" + inputFile + ") could not be found!\nExiting...");
             } else {
                 // The stuff we've received as input seems to be OK.
@@ -137,7 +144,7 @@ public class EnzymeDigest {
                 AutoDBLoader adb = new AutoDBLoader(classNames);
                 DBLoader loader = null;
                 try {
-                    loader = adb.getLoaderForFile(input.getAbsolutePath());
+                    loader = adb.getLoaderForFile(StandardStreams.getPath(input));
                 } catch(IOException ioe) {
                 } catch(UnknownDBFormatException udfe) {
                 }
@@ -265,6 +272,23 @@ public class EnzymeDigest {
                 }
 
                 ProcessThread pt = ProcessThread.getSubsetTask(loader, output, null, f, enzyme, massLimits, minMass, maxMass, (ProteinFilter)null);
+                pt.setCompressedOutput(clp.hasOption("gzip"));
+                // Split the output over several files, if requested.
+                String shards = clp.getOptionParameter("shards");
+                if(shards != null) {
+                    try {
+                        int shardCount = Integer.parseInt(shards);
+                        if(shardCount < 1) {
+                            throw new NumberFormatException();
+                        }
+                        String shardBy = clp.getOptionParameter("shardBy");
+                        pt.setSharding(shardCount, (shardBy == null)?ShardedFASTAWriter.ROUND_ROBIN:ShardedFASTAWriter.parseStrategy(shardBy));
+                    } catch(NumberFormatException nfe) {
+                        flagError("The number of shards should be a positive integer, not '" + shards + "'!");
+                    } catch(IllegalArgumentException iae) {
+                        flagError(iae.getMessage());
+                    }
+                }
                 System.out.println("\nWriting enzymatic digest from entries in '" + inputFile + "'.");
                 System.out.println("\n\tParameters for this digest are:");
                 System.out.println("\t\t - Output file is: '" + outputFile + "'.");
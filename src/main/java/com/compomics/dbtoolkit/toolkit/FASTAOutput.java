@@ -15,6 +15,8 @@ package com.compomics.dbtoolkit.toolkit;
 import com.compomics.dbtoolkit.gui.workerthreads.FASTAOutputThread;
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
 import com.compomics.dbtoolkit.io.FilterLoader;
+import com.compomics.dbtoolkit.io.StandardStreams;
+import com.compomics.dbtoolkit.io.implementations.ShardedFASTAWriter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.util.general.CommandLineParser;
@@ -55,14 +57,15 @@ public class FASTAOutput {
         if(args == null || args.length == 0) {
             showUsage();
         }
-        CommandLineParser clp = new CommandLineParser(args, new String[]{"input", "filter", "filterParam", "lowMass", "highMass", "filterSet"});
+        CommandLineParser clp = new CommandLineParser(args, new String[]{"input", "filter", "filterParam", "lowMass", "highMass", "filterSet", "threads", "shards", "shardBy"});
         String inputFile = clp.getOptionParameter("input");
         String filterString = clp.getOptionParameter("filter");
         String filterParam = clp.getOptionParameter("filterParam");
         String filterSet = clp.getOptionParameter("filterSet");
         String lowMass =  clp.getOptionParameter("lowMass");
         String highMass  = clp.getOptionParameter("highMass");
-        String outputFile = clp.getParameters()[0];
+        String threadCount = clp.getOptionParameter("threads");
+        String outputFile = StandardStreams.getParameters(args, clp)[0];
 
         // FilterSet and filterName/filterParan are mutually exclusive.
         if(filterString != null && filterSet != null) {
@@ -99,6 +102,18 @@ public class FASTAOutput {
             }
         }
 
+        int threads = 1;
+        if(threadCount != null) {
+            try {
+                threads = Integer.parseInt(threadCount);
+                if(threads < 1) {
+                    throw new NumberFormatException();
+                }
+            } catch(Exception e) {
+                flagError("You need to specify a positive integer for the number of parser threads!\nYou provided '" + threadCount + "' instead!");
+            }
+        }
+
         if(inputFile == null) {
             flagError("You did not specify the '--input <input_file_name>' parameter!\n\nRun program without parameters for help.");
         } else if(outputFile == null) {
@@ -109,14 +124,19 @@ public class FASTAOutput {
             File output = new File(outputFile);
             File input = new File(inputFile);
 
-            if(!output.exists()) {
+            // Keep standard out clean for the DB when writing to it.
+            if(StandardStreams.isStandardStream(output)) {
+                StandardStreams.redirectMessages();
+            }
+
+            if(!StandardStreams.exists(output)) {
                 try {
                     output.createNewFile();
                 } catch(IOException ioe) {
                     flagError("Could not create outputfile (" + outputFile + "): " + ioe.getMessage());
                 }
             }
-            if(!input.exists()) {
+            if(!StandardStreams.exists(input)) {
                 flagError("The input file you specified (" + inputFile + ") could not be found!\nExiting...");
             } else {
                 // The stuff we've received as input seems to be OK.
@@ -130,6 +150,24 @@ public class FASTAOutput {
                         filter = FilterLoader.processFilterSetANDLogic(filterSet, loader);
                     }
                     FASTAOutputThread fot = new FASTAOutputThread(null, loader, output, filter, minMass, maxMass);
+                    fot.setParallelism(threads, true);
+                    fot.setCompressedOutput(clp.hasOption("gzip"));
+                    // Split the output over several files, if requested.
+                    String shards = clp.getOptionParameter("shards");
+                    if(shards != null) {
+                        try {
+                            int shardCount = Integer.parseInt(shards);
+                            if(shardCount < 1) {
+                                throw new NumberFormatException();
+                            }
+                            String shardBy = clp.getOptionParameter("shardBy");
+                            fot.setSharding(shardCount, (shardBy == null)?ShardedFASTAWriter.ROUND_ROBIN:ShardedFASTAWriter.parseStrategy(shardBy));
+                        } catch(NumberFormatException nfe) {
+                            flagError("The number of shards should be a positive integer, not '" + shards + "'!");
+                        } catch(IllegalArgumentException iae) {
+                            flagError(iae.getMessage());
+                        }
+                    }
                     System.out.println("\nOutputting DB in '" + inputFile + "' as FASTA DB in file '" + outputFile + "'...");
                     long start = System.currentTimeMillis();
                     fot.run();
@@ -158,11 +196,14 @@ public class FASTAOutput {
      * Show the usage of the software.
      */
     private static void showUsage() {
-        System.err.println("Usage:\n\tFASTAOutput [--filter <filter_name> [--filterParam <filter_parameter>]] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] --input <input_file_name> <output_db_name>\n");
+        System.err.println("Usage:\n\tFASTAOutput [--filter <filter_name> [--filterParam <filter_parameter>]] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] [--threads <number_of_parser_threads>] [--gzip] [--shards <number_of_shards> [--shardBy <roundrobin|residues|sequence|accession>]] --input <input_file_name> <output_db_name>\n");
         System.err.println("\t\tOR\n");
-        System.err.println("\tFASTAOutput [--filterSet \"<filter1_name=filter1_param;filter2_name;filter3_name=filter3_param;...>\"] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] --input <input_file_name> <output_db_name>\n");
+        System.err.println("\tFASTAOutput [--filterSet \"<filter1_name=filter1_param;filter2_name;filter3_name=filter3_param;...>\"] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] [--threads <number_of_parser_threads>] --input <input_file_name> <output_db_name>\n");
         System.err.println("\tThe former can be used to specify a single filter, and optionally its parameter, while the latter can be used to specify multiple filters. If the latter is used, parameters can be specified, separated by semicolons (;), and with (optional) parameters for each filter after an equals sign (=). Note that in a set, AND logic is used for all filters in the set.");
+        System.err.println("\n\tPlain-text FASTA and SwissProt databases can be parsed on several threads at once by specifying the '--threads' option.");
         System.err.println("\n\tNote that an existing output file will be silently overwritten in either mode!");
+        System.err.println("\t'--shards' splits the output over several files (balanced round-robin by default), listed in a '<output>.manifest' file.");
+        System.err.println("\tUse '-' as input_file_name to read from standard in, or as output_db_name to write to standard out.");
         System.exit(1);
     }
 }
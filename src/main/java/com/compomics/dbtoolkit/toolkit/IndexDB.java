@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 14:45:31
+ */
+package com.compomics.dbtoolkit.toolkit;
+
+import com.compomics.dbtoolkit.io.DBLoaderLoader;
+import com.compomics.dbtoolkit.io.implementations.DefaultDBLoader;
+import com.compomics.dbtoolkit.io.implementations.EntryIndex;
+import com.compomics.dbtoolkit.io.implementations.ZippedDBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+
+import java.io.File;
+import java.io.IOException;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 14:45:31 $
+ */
+
+/**
+ * This class creates the entry index sidecar file for a non-compressed or BGZF compressed
+ * FASTA or SwissProt database. All loaders subsequently opening the database will pick up the index,
+ * allowing instantaneous entry counts and direct retrieval of entries by accession number or position.
+ *
+ * @author Lennart Martens
+ */
+public class IndexDB {
+
+    /**
+     * The main method is the entry point for the application.
+     *
+     * @param args  String[] with the start-up parameters.
+     */
+    public static void main(String[] args) {
+        if(args == null || args.length != 1) {
+            System.err.println("\n\nUsage:\n\tIndexDB <input_database_file>\n");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        if(!input.exists()) {
+            System.err.println("\n\nInput database file '" + args[0] + "' does not exist!\n");
+            System.exit(1);
+        }
+        try {
+            DBLoader loader = DBLoaderLoader.loadDB(input);
+            long start = System.currentTimeMillis();
+            EntryIndex index = null;
+            if(loader instanceof DefaultDBLoader) {
+                index = ((DefaultDBLoader)loader).buildIndex(true);
+            } else if(loader instanceof ZippedDBLoader) {
+                index = ((ZippedDBLoader)loader).buildIndex(true);
+            } else {
+                System.err.println("\n\nUnable to index database '" + args[0] + "': this database format can not be indexed!\n");
+                System.exit(1);
+            }
+            loader.close();
+            System.out.println("\nIndexed " + index.size() + " " + loader.getDBName() + " entries in '" + input + "' (" + (System.currentTimeMillis()-start) + " ms).");
+            System.out.println("Index written to '" + EntryIndex.getIndexFile(input) + "'.\n");
+        } catch(IOException ioe) {
+            System.err.println("\n\nUnable to index database:\n" + ioe.getMessage() + "\n\n");
+            ioe.printStackTrace();
+        }
+    }
+}
@@ -6,6 +6,7 @@
  */
 package com.compomics.dbtoolkit.toolkit;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.util.general.CommandLineParser;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
@@ -51,7 +52,7 @@ public class MapPeptides {
     public static void main(String[] args) {
         // First see if we should output anything useful.
         if(args == null || args.length == 0) {
-            flagError("Usage:\n\tMapPeptides [--filter <filter_name> [--filterParam <filter_parameter>]] --reslength <number_of_flanking_residues> --input <input_file_name> --peptidesFile <peptides_file_name> <CSV_output_filename>\n\n\tThe peptides file should contain one peptide sequence per line.\n\n\tNote that an existing output file will be silently overwritten!");
+            flagError("Usage:\n\tMapPeptides [--filter <filter_name> [--filterParam <filter_parameter>]] --reslength <number_of_flanking_residues> --input <input_file_name> --peptidesFile <peptides_file_name> <CSV_output_filename>\n\n\tThe peptides file should contain one peptide sequence per line.\n\n\tNote that an existing output file will be silently overwritten!\n\tUse '-' as input_file_name to read from standard in, or as CSV_output_filename to write to standard out.");
         }
         CommandLineParser clp = new CommandLineParser(args, new String[]{"input", "peptidesFile", "filter", "filterParam", "reslength"});
         String inputFile = clp.getOptionParameter("input");
@@ -59,7 +60,7 @@ public class MapPeptides {
         String filterString = clp.getOptionParameter("filter");
         String filterParam = clp.getOptionParameter("filterParam");
         String resLength = clp.getOptionParameter("reslength");
-        String outputFile = clp.getParameters()[0];
+        String outputFile = StandardStreams.getParameters(args, clp)[0];
 
         // See if all of this is correct.
         if(inputFile == null) {
@@ -92,14 +93,19 @@ public class MapPeptides {
             File input = new File(inputFile);
             File peptidesFile = new File(peptideFile);
 
-            if(!output.exists()) {
+            // Keep standard out clean for the output when writing to it.
+            if(StandardStreams.isStandardStream(output)) {
+                StandardStreams.redirectMessages();
+            }
+
+            if(!StandardStreams.exists(output)) {
                 try {
                     output.createNewFile();
                 } catch(IOException ioe) {
                     flagError("Could not create outputfile (" + outputFile + "): " + ioe.getMessage());
                 }
             }
-            if(!input.exists()) {
+            if(!StandardStreams.exists(input)) {
                 flagError("The input file you specified (" + inputFile + ") could not be found!\nExiting...");
             } else if(!peptidesFile.exists()) {
                 flagError("The peptides input file you specified (" + peptideFile + ") could not be found!\nExiting...");
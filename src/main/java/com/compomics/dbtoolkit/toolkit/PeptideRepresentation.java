@@ -15,6 +15,7 @@ package com.compomics.dbtoolkit.toolkit;
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
 import com.compomics.dbtoolkit.io.EnzymeLoader;
 import com.compomics.dbtoolkit.io.FilterLoader;
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.implementations.ProteinMassFilter;
 import com.compomics.dbtoolkit.io.implementations.ProteinSequenceFilter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
@@ -49,14 +50,14 @@ public class PeptideRepresentation {
         }
         // Parse commandline.
         CommandLineParser clp = new CommandLineParser(args, new String[]{"filter", "filterParam", "enzyme", "mc", "lowMass", "highMass", "residue"});
-        String[] temp = clp.getParameters();
+        String[] temp = StandardStreams.getParameters(args, clp);
         if(temp == null || temp.length != 1) {
             printUsage();
         }
         // Verify existence of input file.
         String dbFile = temp[0];
         File input = new File(dbFile);
-        if(!input.exists()) {
+        if(!StandardStreams.exists(input)) {
             flagError("Input DB file '" + dbFile + "' was not found!");
         }
 
@@ -191,7 +192,7 @@ public class PeptideRepresentation {
      * This method prints the usage for this class to stderr and then exits.
      */
     private static void printUsage() {
-        System.err.println("\n\nUsage:\nPeptideRepresentation [--filter <filtername> [--filterParam <filter_parameter>]] [--enzyme <enzyme_name> [--mc <number_of_miscleavages>]] [--lowMass <lower_mass_threshold> --highMass <upper_mass_threshold>] --residue <residue_to_account_for> <source_DB>");
+        System.err.println("\n\nUsage:\nPeptideRepresentation [--filter <filtername> [--filterParam <filter_parameter>]] [--enzyme <enzyme_name> [--mc <number_of_miscleavages>]] [--lowMass <lower_mass_threshold> --highMass <upper_mass_threshold>] --residue <residue_to_account_for> <source_DB>\n\n\tUse '-' as source_DB to read from standard in.");
         System.exit(1);
     }
 
@@ -13,7 +13,11 @@ package com.compomics.dbtoolkit.toolkit;
  * $Date: 2008/11/25 16:43:53 $
  */
 
+import com.compomics.dbtoolkit.io.StandardStreams;
+import com.compomics.dbtoolkit.io.implementations.DBFormatSniffer;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
 import com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader;
+import com.compomics.dbtoolkit.io.implementations.SwissProtFormat;
 import com.compomics.dbtoolkit.io.implementations.ZippedSwissProtDBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.dbtoolkit.io.interfaces.SwissProtLoader;
@@ -23,56 +27,80 @@ import com.compomics.util.protein.Protein;
 
 import java.io.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.StringTokenizer;
+import java.util.concurrent.*;
 
 /**
  * This class reads a SwissProt formatted DB and processes all protein contained herein
- * into all their annotated chains. Output is written to the specified file.
+ * into all their annotated chains. Output is written to the specified file. <br />
+ * Several modes can be processed in a single pass over the DB, each writing to its own
+ * output file. Only the FT lines and the FASTA version of each entry are read, and the
+ * entries are processed in batches on a pool of worker threads, while the output is written
+ * in the order of the input DB.
  *
  * @author Lennart Martens
  * @version $Id: ProteinMaturationDevice.java,v 1.2 2008/11/25 16:43:53 lennart Exp $
  */
 public class ProteinMaturationDevice {
 
-    private static final int CHAIN_MODE = 1;
-    private static final int SIGNAL_PROPEP_MODE = 2;
-    private static final int EXCL_SIGNAL_PROPEP_MODE = 3;
+    public static final int CHAIN_MODE = 1;
+    public static final int SIGNAL_PROPEP_MODE = 2;
+    public static final int EXCL_SIGNAL_PROPEP_MODE = 3;
 
     private static final String CHAIN_MODE_STRING = "CHAIN";
     private static final String SIGNAL_PROPEP_MODE_STRING = "PROPEP";
     private static final String EXCL_SIGNAL_PROPEP_MODE_STRING = "EXCL_PROPEP";
 
+    /**
+     * The line keys that are read from each entry.
+     */
+    private static final String[] FEATURE_KEYS = new String[] {"FT"};
+
+    /**
+     * The number of entries handed to a worker at a time.
+     */
+    private static final int BATCH_SIZE = 256;
+
 
     public static void main(String[] args) {
-        CommandLineParser clp = new CommandLineParser(args, new String[]{"filterSet", "mode"});
+        CommandLineParser clp = new CommandLineParser(args, new String[]{"filterSet", "mode", "threads"});
 
-        String[] params = clp.getParameters();
+        String[] params = StandardStreams.getParameters(args, clp);
 
-        if((args == null) || (args.length < 2) || (params.length != 2)) {
+        if((args == null) || (args.length < 2) || (params.length < 2)) {
             printUsage();
         }
 
-        // Check mode.
+        // Check mode(s).
         String modeString = clp.getOptionParameter("mode");
-        int mode = -1;
+        int[] modes = null;
         if(modeString != null) {
-            // See if we recognize it.
-            if(modeString.trim().equalsIgnoreCase(CHAIN_MODE_STRING)) {
-                mode = ProteinMaturationDevice.CHAIN_MODE;
-            } else if(modeString.trim().equalsIgnoreCase(SIGNAL_PROPEP_MODE_STRING)) {
-                mode = ProteinMaturationDevice.SIGNAL_PROPEP_MODE;
-            } else if(modeString.trim().equalsIgnoreCase(EXCL_SIGNAL_PROPEP_MODE_STRING)) {
-                mode = ProteinMaturationDevice.EXCL_SIGNAL_PROPEP_MODE;
-            }  else {
-                System.err.println("\n\nThe operational mode you specified ('" + modeString + "') is unknown to me!\nSee below for valid options.");
-                printUsage();
+            // See if we recognize them.
+            StringTokenizer st = new StringTokenizer(modeString, ",");
+            modes = new int[st.countTokens()];
+            for(int i = 0; i < modes.length; i++) {
+                String token = st.nextToken();
+                modes[i] = parseMode(token);
+                if(modes[i] < 0) {
+                    System.err.println("\n\nThe operational mode you specified ('" + token.trim() + "') is unknown to me!\nSee below for valid options.");
+                    printUsage();
+                }
+                for(int j = 0; j < i; j++) {
+                    if(modes[j] == modes[i]) {
+                        printError("You specified the '" + token.trim() + "' mode more than once!");
+                    }
+                }
             }
-        } else {
+        }
+        if(modes == null || modes.length == 0) {
             System.err.println("\n\nNo operational mode was specified! See instructions below.");
             printUsage();
         }
+        if(params.length != modes.length + 1) {
+            printError("You specified " + modes.length + " mode(s), and " + (params.length - 1) + " output file(s); please specify one output file for each mode!\n\nRun the application without parameters to see full usage information.");
+        }
 
 
         // See if the flag to include original sequences in the output is set.
@@ -98,9 +126,23 @@ public class ProteinMaturationDevice {
             }
         }
 
+        // The number of worker threads.
+        int threads = Runtime.getRuntime().availableProcessors();
+        String threadString = clp.getOptionParameter("threads");
+        if(threadString != null) {
+            try {
+                threads = Integer.parseInt(threadString.trim());
+            } catch(NumberFormatException nfe) {
+                threads = -1;
+            }
+            if(threads < 1) {
+                printError("The number of threads should be a positive integer, not '" + threadString + "'!");
+            }
+        }
+
         // OK, see if the input database file exists.
         File database = new File(params[0]);
-        if(!database.exists()) {
+        if(!StandardStreams.exists(database)) {
             printError("The database file you specified ('" + params[0] + "') could not be found!");
         }
         // Check for directory.
@@ -111,83 +153,80 @@ public class ProteinMaturationDevice {
         // Check the presence of a taxID, and whether it is a number.
         String filterSet = clp.getOptionParameter("filterSet");
 
+        // Keep standard out clean for the DB when writing to it.
+        boolean standardOut = false;
+        for(int i = 1; i < params.length; i++) {
+            if(StandardStreams.isStandardStream(params[i])) {
+                if(standardOut) {
+                    printError("Only one output file can be written to standard out!");
+                }
+                standardOut = true;
+            }
+        }
+        if(standardOut) {
+            StandardStreams.redirectMessages();
+        }
+
+        FASTAWriter[] writers = new FASTAWriter[modes.length];
         try {
-            SwissProtLoader dbloader = new SwissProtDBLoader();
-            // Test whether the database file is indeed of the correct (SwissProt) format.
-            if(!dbloader.canReadFile(database)) {
-                // It could be zipped.
-                dbloader = new ZippedSwissProtDBLoader();
+            SwissProtLoader dbloader = null;
+            if(StandardStreams.isStandardStream(database)) {
+                // Determine the (SwissProt) format from the first bytes on standard in.
+                InputStream in = new BufferedInputStream(StandardStreams.getInput(), DBFormatSniffer.SNIFF_SIZE);
+                String format = DBFormatSniffer.sniff(in);
+                if(DBFormatSniffer.SWISSPROT.equals(format)) {
+                    dbloader = new SwissProtDBLoader();
+                } else if(DBFormatSniffer.ZIPPED_SWISSPROT.equals(format)) {
+                    dbloader = new ZippedSwissProtDBLoader();
+                } else {
+                    printError("The database on standard in is not recognized as a (compressed) Swiss-Prot formatted '.dat' file!");
+                }
+                dbloader.load(in, StandardStreams.NAME);
+            } else {
+                dbloader = new SwissProtDBLoader();
+                // Test whether the database file is indeed of the correct (SwissProt) format.
                 if(!dbloader.canReadFile(database)) {
-                    printError("The database file you specified ('" + database.getAbsolutePath() + "') is not recognized as a (compressed) Swiss-Prot formatted '.dat' file!");
+                    // It could be zipped.
+                    dbloader = new ZippedSwissProtDBLoader();
+                    if(!dbloader.canReadFile(database)) {
+                        printError("The database file you specified ('" + database.getAbsolutePath() + "') is not recognized as a (compressed) Swiss-Prot formatted '.dat' file!");
+                    }
+                }
+                // OK, in getting here, we should be able to load the DB file.
+                dbloader.load(database.getAbsolutePath());
+            }
+            // Assemble the info string and the filter (if required).
+            StringBuffer info = new StringBuffer("Processing input database ('" + StandardStreams.getPath(database) + "') in ");
+            for(int i = 0; i < modes.length; i++) {
+                if(i > 0) {
+                    info.append(", and in ");
                 }
+                info.append(getModeName(modes[i]) + " mode");
+                info.append(" (" + ( (includeOriginal && (modes[i] != ProteinMaturationDevice.EXCL_SIGNAL_PROPEP_MODE))?"including":"excluding") + " original sequences, and "
+                            + ((initMetRemoval || (modes[i] != ProteinMaturationDevice.CHAIN_MODE))?"removing":"ignoring") + " initiator methionines)");
             }
-            // OK, in getting here, we should be able to load the DB file.
-            // But first assemble the info string and the filter (if required).
-            StringBuffer info = new StringBuffer("Processing input database ('" + database.getAbsolutePath() + "') in " + modeString.trim().toUpperCase() + " mode");
-            info.append(", " + ( (includeOriginal && (mode != ProteinMaturationDevice.EXCL_SIGNAL_PROPEP_MODE))?"including":"excluding") + " original sequences, and "
-                        + ((initMetRemoval || (mode != ProteinMaturationDevice.CHAIN_MODE))?"removing":"ignoring") + " initiator methionines...");
-            // Now load the file.
-            dbloader.load(database.getAbsolutePath());
+            info.append(" on " + threads + " thread(s)...");
             Filter filter = null;
             if(filterSet != null) {
                 filter = FilterLoader.processFilterSetANDLogic(filterSet, dbloader);
             }
-            String rawEntry = null;
-            if(filter == null) {
-                rawEntry = dbloader.nextRawEntry();
-            } else {
-                rawEntry = dbloader.nextFilteredRawEntry(filter);
+            // Create the output writers.
+            for(int i = 0; i < modes.length; i++) {
+                writers[i] = FASTAWriter.open(new File(params[i + 1]), false);
             }
-            // Create the output printwriter.
-            PrintWriter pw = new PrintWriter(new FileWriter(new File(params[1])));
             // User info printout.
             System.out.println("\n\n" + info.toString() + "");
             // Counters.
-            int inputCounter = 0;
-            int outputCounter = 0;
-            int originalOutputCounter = 0;
-            // Cycle each entry.
-            while(rawEntry != null) {
-                inputCounter++;
-                HashMap parsed = dbloader.processRawData(rawEntry);
-                String features = (String)parsed.get("FT");
-                StringReader sr = new StringReader(features);
-                BufferedReader br = new BufferedReader(sr);
-                // Collect mature positions for each.
-                ArrayList positions = new ArrayList();
-                String line = null;
-                while((line = br.readLine()) != null) {
-                    line = line.trim();
-                    if(mode == ProteinMaturationDevice.CHAIN_MODE) {
-                        processChains(line, positions);
-                    } else if(mode == ProteinMaturationDevice.SIGNAL_PROPEP_MODE || mode == ProteinMaturationDevice.EXCL_SIGNAL_PROPEP_MODE) {
-                        processSignalPropep(line, positions, initMetRemoval);
-                    }
-                }
-                // OK, all positions collected.
-                // Determine action for output.
-                int[] result = null;
-                if(mode == ProteinMaturationDevice.CHAIN_MODE || mode == ProteinMaturationDevice.SIGNAL_PROPEP_MODE) {
-                    result = outputNormalMode(includeOriginal, positions, dbloader, rawEntry, pw);
-                } else {
-                    result = outputExclMode(includeOriginal, positions, dbloader, rawEntry, pw);
-                }
-
-                // Add tallies.
-                outputCounter += result[0];
-                originalOutputCounter += result[1];
-
-                // Move to next entry.
-                if(filter == null) {
-                    rawEntry = dbloader.nextRawEntry();
-                } else {
-                    rawEntry = dbloader.nextFilteredRawEntry(filter);
-                }
+            int[][] counts = new int[modes.length][2];
+            int inputCounter = mature(dbloader, filter, modes, writers, includeOriginal, initMetRemoval, threads, counts);
+            for(int i = 0; i < writers.length; i++) {
+                writers[i].close();
             }
-            pw.flush();
-            pw.close();
             // User-friendly feedback.
-            System.out.println("\n\nRead " + inputCounter + ((filter != null)?" filtered":"") + " proteins from the input database, and\nwrote " + originalOutputCounter + " original sequences, and " + outputCounter + " mature sequences to the output database.");
+            System.out.println("\n\nRead " + inputCounter + ((filter != null)?" filtered":"") + " proteins from the input database, and");
+            for(int i = 0; i < modes.length; i++) {
+                System.out.println("wrote " + counts[i][1] + " original sequences, and " + counts[i][0] + " mature sequences to the " + getModeName(modes[i]) + " output database ('" + params[i + 1] + "')" + ((i == modes.length - 1)?".":", and"));
+            }
             System.out.println("\nAll done.\nThank you for using the ProteinMaturationDevice.\n\n");
         } catch(IOException ioe) {
             ioe.printStackTrace();
@@ -195,6 +234,133 @@ public class ProteinMaturationDevice {
         }
     }
 
+    /**
+     * This method returns the mode with the specified name.
+     *
+     * @param   aName   String with the name of the mode ('CHAIN', 'PROPEP' or 'EXCL_PROPEP';
+     *                  case insensitive).
+     * @return  int with the mode, or -1 if the name is unknown.
+     */
+    public static int parseMode(String aName) {
+        int result = -1;
+        if(aName.trim().equalsIgnoreCase(CHAIN_MODE_STRING)) {
+            result = ProteinMaturationDevice.CHAIN_MODE;
+        } else if(aName.trim().equalsIgnoreCase(SIGNAL_PROPEP_MODE_STRING)) {
+            result = ProteinMaturationDevice.SIGNAL_PROPEP_MODE;
+        } else if(aName.trim().equalsIgnoreCase(EXCL_SIGNAL_PROPEP_MODE_STRING)) {
+            result = ProteinMaturationDevice.EXCL_SIGNAL_PROPEP_MODE;
+        }
+        return result;
+    }
+
+    /**
+     * This method returns the name of the specified mode.
+     *
+     * @param   aMode   int with the mode.
+     * @return  String  with the name of the mode.
+     */
+    private static String getModeName(int aMode) {
+        String result = EXCL_SIGNAL_PROPEP_MODE_STRING;
+        if(aMode == ProteinMaturationDevice.CHAIN_MODE) {
+            result = CHAIN_MODE_STRING;
+        } else if(aMode == ProteinMaturationDevice.SIGNAL_PROPEP_MODE) {
+            result = SIGNAL_PROPEP_MODE_STRING;
+        }
+        return result;
+    }
+
+    /**
+     * This method processes all (filtered) entries of the specified DB in each of the specified modes,
+     * writing the output for each mode to its own FASTAWriter. The entries are read on the calling
+     * thread, and handed in batches to the specified number of worker threads. The output is
+     * written in the order of the DB. Note that the writers are not closed.
+     *
+     * @param   aDBloader   SwissProtLoader to read the entries from.
+     * @param   aFilter Filter to apply to the entries (can be 'null').
+     * @param   aModes  int[] with the modes to process the entries in.
+     * @param   aWriters    FASTAWriter[] with a writer for each mode.
+     * @param   aIncludeOriginal    boolean to indicate inclusion of original sequence.
+     * @param   aInitMetRemoval boolean to indicate whether we should remove initiator methionines.
+     * @param   aThreads    int with the number of worker threads.
+     * @param   aCounts int[][] with, for each mode, as '0' element the number of processed entries
+     *                  written, and as '1' element the number of original entries written. Note that
+     *                  this is a reference parameter which is populated here.
+     * @return  int with the number of (filtered) entries read.
+     * @exception   IOException when reading, processing or writing failed.
+     */
+    public static int mature(SwissProtLoader aDBloader, Filter aFilter, int[] aModes, FASTAWriter[] aWriters, boolean aIncludeOriginal, boolean aInitMetRemoval, int aThreads, int[][] aCounts) throws IOException {
+        if(aThreads < 1) {
+            throw new IllegalArgumentException("The number of threads should be positive!");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(aThreads, new ThreadFactory() {
+            public Thread newThread(Runnable aRunnable) {
+                Thread t = new Thread(aRunnable, "Maturation worker");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        int inputCounter = 0;
+        LinkedList pending = new LinkedList();
+        try {
+            ArrayList batch = new ArrayList(BATCH_SIZE);
+            String rawEntry = null;
+            // Cycle each entry.
+            while((rawEntry = (aFilter == null)?aDBloader.nextRawEntry():aDBloader.nextFilteredRawEntry(aFilter)) != null) {
+                inputCounter++;
+                batch.add(rawEntry);
+                if(batch.size() == BATCH_SIZE) {
+                    // Write the oldest batches first if too many are pending.
+                    while(pending.size() >= 2*aThreads) {
+                        writeFirst(pending, aWriters, aCounts);
+                    }
+                    pending.add(executor.submit(new MaturationTask(batch, aModes, aIncludeOriginal, aInitMetRemoval, aDBloader)));
+                    batch = new ArrayList(BATCH_SIZE);
+                }
+            }
+            if(batch.size() > 0) {
+                pending.add(executor.submit(new MaturationTask(batch, aModes, aIncludeOriginal, aInitMetRemoval, aDBloader)));
+            }
+            while(pending.size() > 0) {
+                writeFirst(pending, aWriters, aCounts);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return inputCounter;
+    }
+
+    /**
+     * This method waits for the oldest pending batch and writes its output.
+     *
+     * @param   aPending    LinkedList with the Futures for the pending batches, in order.
+     * @param   aWriters    FASTAWriter[] with a writer for each mode.
+     * @param   aCounts int[][] with the counts for each mode, which are updated here.
+     * @exception   IOException when processing or writing failed.
+     */
+    private static void writeFirst(LinkedList aPending, FASTAWriter[] aWriters, int[][] aCounts) throws IOException {
+        Future future = (Future)aPending.removeFirst();
+        MaturationTask task = null;
+        try {
+            task = (MaturationTask)future.get();
+        } catch(InterruptedException ie) {
+            throw new InterruptedIOException("Interrupted while processing the entries!");
+        } catch(ExecutionException ee) {
+            if(ee.getCause() instanceof IOException) {
+                throw (IOException)ee.getCause();
+            }
+            throw new IOException("Unable to process the entries: " + ee.getCause());
+        }
+        for(int i = 0; i < aWriters.length; i++) {
+            ArrayList proteins = task.getOutput(i);
+            for(int j = 0; j < proteins.size(); j++) {
+                aWriters[i].write((Protein)proteins.get(j));
+            }
+            int[] counts = task.getCounts(i);
+            aCounts[i][0] += counts[0];
+            aCounts[i][1] += counts[1];
+        }
+    }
+
     /**
      * This method resolves all CHAIN features that are annotated in the FT lines.
      *
@@ -286,20 +452,18 @@ public class ProteinMaturationDevice {
      *
      * @param aIncludeOriginal  boolean to indicate inclusion of original sequence.
      * @param aPositions    ArrayLists with the InnerPosition objects for this protein.
-     * @param aDBloader SwissProtLoader with the DBLoader to the database.
-     * @param aRawEntry String with the raw entry.
-     * @param aPW   PrintWriter to write th output to.
+     * @param aFASTA    String with the FASTA version of the entry.
+     * @param aOutput   ArrayList to add the output Protein instances to.
      * @return  int[]   with as '0' element the number of processed entries written,
      *                  and '1' element the number of original entries written.
-     * @throws IOException  if the processing or writing field.
      */
-    private static int[] outputNormalMode(boolean aIncludeOriginal, ArrayList aPositions, SwissProtLoader aDBloader, String aRawEntry, PrintWriter aPW) throws IOException {
+    private static int[] outputNormalMode(boolean aIncludeOriginal, ArrayList aPositions, String aFASTA, ArrayList aOutput) {
         int originalOutputCounter = 0;
         int outputCounter = 0;
         // First see if we need to write out the original sequence.
         if(aIncludeOriginal) {
-            Protein protein = new Protein(aDBloader.toFASTAString(aRawEntry, false));
-            protein.writeToFASTAFile(aPW);
+            Protein protein = new Protein(aFASTA);
+            aOutput.add(protein);
             originalOutputCounter++;
         }
 
@@ -307,7 +471,7 @@ public class ProteinMaturationDevice {
         Iterator iter = aPositions.iterator();
         while (iter.hasNext()) {
             InnerPosition pos = (InnerPosition)iter.next();
-            Protein protein = new Protein(aDBloader.toFASTAString(aRawEntry, false));
+            Protein protein = new Protein(aFASTA);
             // If the stop position was '-1', we should consider the stop position to be the protein length.
             if(pos.getStop() == -1) {
                 pos.setStop(protein.getSequence().getLength());
@@ -323,7 +487,7 @@ public class ProteinMaturationDevice {
             String sequence = protein.getSequence().getSequence();
             sequence = sequence.substring(pos.getStart(), pos.getStop());
             protein.getSequence().setSequence(sequence);
-            protein.writeToFASTAFile(aPW);
+            aOutput.add(protein);
             outputCounter++;
         }
         return new int[]{outputCounter, originalOutputCounter};
@@ -335,21 +499,19 @@ public class ProteinMaturationDevice {
      *
      * @param aIncludeOriginal  boolean to indicate inclusion of original sequence.
      * @param aPositions    ArrayLists with the InnerPosition objects for this protein.
-     * @param aDBloader SwissProtLoader with the DBLoader to the database.
-     * @param aRawEntry String with the raw entry.
-     * @param aPW   PrintWriter to write th output to.
+     * @param aFASTA    String with the FASTA version of the entry.
+     * @param aOutput   ArrayList to add the output Protein instances to.
      * @return  int[]   with as '0' element the number of processed entries written,
      *                  and '1' element the number of original entries written.
-     * @throws IOException  if the processing or writing field.
      */
-    private static int[] outputExclMode(boolean aIncludeOriginal, ArrayList aPositions, SwissProtLoader aDBloader, String aRawEntry, PrintWriter aPW) throws IOException {
+    private static int[] outputExclMode(boolean aIncludeOriginal, ArrayList aPositions, String aFASTA, ArrayList aOutput) {
         int originalOutputCounter = 0;
         int outputCounter = 0;
 
         // Find the furthest processed protein.
         Iterator iter = aPositions.iterator();
         InnerPosition maxPosition = null;
-        Protein protein = new Protein(aDBloader.toFASTAString(aRawEntry, false));
+        Protein protein = new Protein(aFASTA);
         // Cycle all positions.
         while (iter.hasNext()) {
             InnerPosition pos = (InnerPosition)iter.next();
@@ -372,15 +534,15 @@ public class ProteinMaturationDevice {
         }
         // See if we have a position, if so, use it. If not, include original protein.
         if(maxPosition != null) {
-            protein = new Protein(aDBloader.toFASTAString(aRawEntry, false));
+            protein = new Protein(aFASTA);
             protein.getHeader().setLocation(maxPosition.getStart()+1, maxPosition.getStop());
             String sequence = protein.getSequence().getSequence();
             sequence = sequence.substring(maxPosition.getStart(), maxPosition.getStop());
             protein.getSequence().setSequence(sequence);
-            protein.writeToFASTAFile(aPW);
+            aOutput.add(protein);
             outputCounter++;
         } else {
-            protein.writeToFASTAFile(aPW);
+            aOutput.add(protein);
             originalOutputCounter++;
         }
 
@@ -393,12 +555,13 @@ public class ProteinMaturationDevice {
      */
     private static void printUsage() {
         printError("Usage:\n\n\tProteinMaturationDevice [--filterSet \"<filter1_name=filter1_param;filter2_name;filter3_name=filter3_param;...>\"]" +
-                                                       " --mode <CHAIN|PROPEP|EXCL_PROPEP>" +
+                                                       " --mode <CHAIN|PROPEP|EXCL_PROPEP>[,<CHAIN|PROPEP|EXCL_PROPEP>...]" +
+                                                       " [--threads <number_of_threads>]" +
                                                        " [-c]" +
                                                        " [-m]" +
                                                        " <swissprot_formatted_input_database>" +
-                                                       " <output_file>" +
-                   "\n\n\t * Three modes are available:\n\t\tCHAIN  -- which will resolve all annotated chains for each protein\n\n\t\tPROPEP -- which only resolves SIGNAL, TRANSIT and PROPEP features for each protein\n\n\t\tEXCL_PROPEP -- which resolves only the fully mature version of each protein, which is the original protein if no N-terminal processing is indicated. NOTE: the use of the '-c' option will be ignored in this mode!\n\n\t * The optional '-c' flag will prompt the software to copy in the original entries in the output file, along with the mature versions.\n\n\t * The optional '-m' flag will remove the initiator methiones from all non-truncated proteins.\n\n\tNote that existing output files will be silently overwritten!");
+                                                       " <output_file> [<output_file>...]" +
+                   "\n\n\t * Three modes are available:\n\t\tCHAIN  -- which will resolve all annotated chains for each protein\n\n\t\tPROPEP -- which only resolves SIGNAL, TRANSIT and PROPEP features for each protein\n\n\t\tEXCL_PROPEP -- which resolves only the fully mature version of each protein, which is the original protein if no N-terminal processing is indicated. NOTE: the use of the '-c' option will be ignored in this mode!\n\n\t * Several modes can be separated by commas to process them in a single pass; specify an output file for each mode, in the same order.\n\n\t * The optional '--threads' parameter sets the number of worker threads (defaults to the number of processors).\n\n\t * The optional '-c' flag will prompt the software to copy in the original entries in the output file, along with the mature versions.\n\n\t * The optional '-m' flag will remove the initiator methiones from all non-truncated proteins.\n\n\tNote that existing output files will be silently overwritten!\n\tUse '-' as input database to read from standard in, or as output file to write to standard out.");
     }
 
     /**
@@ -441,4 +604,81 @@ public class ProteinMaturationDevice {
             this.stop = stop;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * This class processes a batch of raw entries in each of the modes, and holds
+     * the resulting output until it is written.
+     */
+    private static class MaturationTask implements Callable {
+        private ArrayList iEntries = null;
+        private int[] iModes = null;
+        private boolean iIncludeOriginal = false;
+        private boolean iInitMetRemoval = false;
+        private SwissProtLoader iLoader = null;
+        private ArrayList[] iOutput = null;
+        private int[][] iCounts = null;
+
+        public MaturationTask(ArrayList aEntries, int[] aModes, boolean aIncludeOriginal, boolean aInitMetRemoval, SwissProtLoader aLoader) {
+            iEntries = aEntries;
+            iModes = aModes;
+            iIncludeOriginal = aIncludeOriginal;
+            iInitMetRemoval = aInitMetRemoval;
+            iLoader = aLoader;
+        }
+
+        public Object call() throws Exception {
+            iOutput = new ArrayList[iModes.length];
+            iCounts = new int[iModes.length][2];
+            for(int i = 0; i < iModes.length; i++) {
+                iOutput[i] = new ArrayList();
+            }
+            SwissProtFormat format = SwissProtFormat.getInstance();
+            for(int i = 0; i < iEntries.size(); i++) {
+                String rawEntry = (String)iEntries.get(i);
+                // Only the FT lines are read, and the entry is converted to FASTA once.
+                // Note that the conversion does not change the state of the loader.
+                String features = (String)format.extract(rawEntry, FEATURE_KEYS).get("FT");
+                String fasta = iLoader.toFASTAString(rawEntry, false);
+                ArrayList lines = new ArrayList();
+                StringTokenizer st = new StringTokenizer(features, "\n");
+                while(st.hasMoreTokens()) {
+                    lines.add(st.nextToken().trim());
+                }
+                for(int j = 0; j < iModes.length; j++) {
+                    // Collect mature positions for each.
+                    ArrayList positions = new ArrayList();
+                    for(int k = 0; k < lines.size(); k++) {
+                        String line = (String)lines.get(k);
+                        if(iModes[j] == ProteinMaturationDevice.CHAIN_MODE) {
+                            processChains(line, positions);
+                        } else {
+                            processSignalPropep(line, positions, iInitMetRemoval);
+                        }
+                    }
+                    // OK, all positions collected.
+                    // Determine action for output.
+                    int[] result = null;
+                    if(iModes[j] == ProteinMaturationDevice.CHAIN_MODE || iModes[j] == ProteinMaturationDevice.SIGNAL_PROPEP_MODE) {
+                        result = outputNormalMode(iIncludeOriginal, positions, fasta, iOutput[j]);
+                    } else {
+                        result = outputExclMode(iIncludeOriginal, positions, fasta, iOutput[j]);
+                    }
+                    // Add tallies.
+                    iCounts[j][0] += result[0];
+                    iCounts[j][1] += result[1];
+                }
+            }
+            // Release the raw entries.
+            iEntries = null;
+            return this;
+        }
+
+        public ArrayList getOutput(int aModeIndex) {
+            return iOutput[aModeIndex];
+        }
+
+        public int[] getCounts(int aModeIndex) {
+            return iCounts[aModeIndex];
+        }
+    }
+}
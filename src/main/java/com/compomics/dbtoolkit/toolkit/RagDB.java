@@ -13,8 +13,10 @@
 package com.compomics.dbtoolkit.toolkit;
 
 import com.compomics.dbtoolkit.gui.workerthreads.ProcessThread;
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
 import com.compomics.dbtoolkit.io.implementations.AutoDBLoader;
+import com.compomics.dbtoolkit.io.implementations.ShardedFASTAWriter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.util.general.CommandLineParser;
@@ -60,11 +62,11 @@ public class RagDB {
     public static void main(String[] args) {
         // First see if we should output anything useful.
         if(args == null || args.length == 0) {
-            flagError("Usage:\n\tRagDB -(N|C) [--enzyme <enzymeName> [--mc <number_of_missed_cleavages>]] [--filter <filter_name> [--filterParam \"<filter_parameter>\"]] [--truncate <number_of_residues>] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] --input <input_db_name> <output_db_name>\n\n\tNote that an existing output file will be silently overwritten!");
+            flagError("Usage:\n\tRagDB -(N|C) [--enzyme <enzymeName> [--mc <number_of_missed_cleavages>]] [--filter <filter_name> [--filterParam \"<filter_parameter>\"]] [--truncate <number_of_residues>] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] [--gzip] [--shards <number_of_shards> [--shardBy <roundrobin|residues|sequence|accession>]] --input <input_db_name> <output_db_name>\n\n\tNote that an existing output file will be silently overwritten!\n\tOutput files ending in '.gz' are always GZIP compressed.\n\t'--shards' splits the output over several files (balanced round-robin by default), listed in a '<output>.manifest' file.\n\tUse '-' as input_db_name to read from standard in, or as output_db_name to write to standard out.");
         }
-        CommandLineParser clp = new CommandLineParser(args, new String[]{"enzyme", "mc", "filter", "filterParam", "truncate", "lowMass", "highMass", "input"});
+        CommandLineParser clp = new CommandLineParser(args, new String[]{"enzyme", "mc", "filter", "filterParam", "truncate", "lowMass", "highMass", "input", "shards", "shardBy"});
         String inputFile = clp.getOptionParameter("input");
-        String[] temp = clp.getParameters();
+        String[] temp = StandardStreams.getParameters(args, clp);
         if((temp == null) || (temp.length == 0)) {
             flagError("You need to specify an output file!\n\nRun program without parameters for help.");
         }
@@ -95,6 +97,11 @@ public class RagDB {
             File input = new File(inputFile);
             File output = new File(outputFile);
 
+            // Keep standard out clean for the DB when writing to it.
+            if(StandardStreams.isStandardStream(output)) {
+                StandardStreams.redirectMessages();
+            }
+
             // The terminus.
             int term = -1;
             if(terminus.equalsIgnoreCase("N")) {
@@ -105,14 +112,14 @@ public class RagDB {
                 flagError("You need to specify a terminus to rag, and it can be either 'C' or 'N', but nothing else!");
             }
 
-            if(!output.exists()) {
+            if(!StandardStreams.exists(output)) {
                 try {
                     output.createNewFile();
                 } catch(IOException ioe) {
                     flagError("Could not create outputfile (" + outputFile + "): " + ioe.getMessage());
                 }
             }
-            if(!input.exists()) {
+            if(!StandardStreams.exists(input)) {
                 flagError("The input file you specified (" + inputFile + ") could not be found!\nExiting...");
             } else {
                 // The stuff we've received as input seems to be OK.
@@ -145,7 +152,7 @@ public class RagDB {
                 AutoDBLoader adb = new AutoDBLoader(classNames);
                 DBLoader loader = null;
                 try {
-                    loader = adb.getLoaderForFile(input.getAbsolutePath());
+                    loader = adb.getLoaderForFile(StandardStreams.getPath(input));
                 } catch(IOException ioe) {
                 } catch(UnknownDBFormatException udfe) {
                 }
@@ -275,6 +282,23 @@ public class RagDB {
                     doTrunc = true;
                 }
                 ProcessThread pt = ProcessThread.getRaggingTask(loader, output, null, f, enzyme, massLimits, minMass, maxMass, term, doTrunc, trunc);
+                pt.setCompressedOutput(clp.hasOption("gzip"));
+                // Split the output over several files, if requested.
+                String shards = clp.getOptionParameter("shards");
+                if(shards != null) {
+                    try {
+                        int shardCount = Integer.parseInt(shards);
+                        if(shardCount < 1) {
+                            throw new NumberFormatException();
+                        }
+                        String shardBy = clp.getOptionParameter("shardBy");
+                        pt.setSharding(shardCount, (shardBy == null)?ShardedFASTAWriter.ROUND_ROBIN:ShardedFASTAWriter.parseStrategy(shardBy));
+                    } catch(NumberFormatException nfe) {
+                        flagError("The number of shards should be a positive integer, not '" + shards + "'!");
+                    } catch(IllegalArgumentException iae) {
+                        flagError(iae.getMessage());
+                    }
+                }
                 System.out.println("\nPerforming " + terminus + "-terminal ragging in '" + inputFile + "'.");
                 System.out.println("\n\tParameters for this ragging are:");
                 System.out.println("\t\t - Output file is: '" + outputFile + "'.");
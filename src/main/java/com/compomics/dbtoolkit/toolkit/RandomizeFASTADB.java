@@ -20,10 +20,12 @@ package com.compomics.dbtoolkit.toolkit;
  * $Date: 2007/07/06 09:52:03 $
  */
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.implementations.FASTADBLoader;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
 import com.compomics.dbtoolkit.gui.workerthreads.ShuffleDBThread;
+import com.compomics.util.general.CommandLineParser;
 import com.compomics.util.protein.Protein;
 
 import java.io.*;
@@ -41,17 +43,28 @@ public class RandomizeFASTADB {
      * @param args  String[] with the start-up parameters.
      */
     public static void main(String[] args) {
-        if(args == null || args.length != 1) {
-            System.err.println("\n\nUsage:\n\tRandomizeFASTADB <input_database_file>\n");
+        String[] params = null;
+        CommandLineParser clp = null;
+        if(args != null && args.length > 0) {
+            clp = new CommandLineParser(args);
+            params = StandardStreams.getParameters(args, clp);
+        }
+        if(params == null || params.length < 1 || params.length > 2) {
+            System.err.println("\n\nUsage:\n\tRandomizeFASTADB [--gzip] <input_database_file> [<output_file>]\n\n\tThe output is written to standard out, unless an output file is specified.\n\tNote that an existing output file will be silently overwritten!\n\t'--gzip' compresses the output. Output files ending in '.gz' are always GZIP compressed.\n\tUse '-' as input_database_file to read from standard in, or as output_file to write to standard out.\n");
             System.exit(1);
         }
-        File input = new File(args[0]);
-        if(!input.exists()) {
-            System.err.println("\n\nInput database file '" + args[0] + "' does not exist!\n");
+        File input = new File(params[0]);
+        if(!StandardStreams.exists(input)) {
+            System.err.println("\n\nInput database file '" + params[0] + "' does not exist!\n");
             System.exit(1);
         }
+        File output = (params.length > 1)?new File(params[1]):null;
+        if(output == null || StandardStreams.isStandardStream(output)) {
+            // The DB is written to standard out, so keep any messages out of it.
+            StandardStreams.redirectMessages();
+        }
         try {
-            ShuffleDBThread sdt = new ShuffleDBThread(input);
+            ShuffleDBThread sdt = new ShuffleDBThread(input, output, ShuffleDBThread.SHUFFLE, clp.hasOption("gzip"));
             sdt.shuffle();
         } catch(IOException ioe) {
             System.err.println("\n\nUnable to randomize database:\n" + ioe.getMessage() + "\n\n");
@@ -6,6 +6,7 @@
  */
 package com.compomics.dbtoolkit.toolkit;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.util.general.CommandLineParser;
 import com.compomics.util.nucleotide.NucleotideSequence;
 import com.compomics.util.nucleotide.NucleotideSequenceImpl;
@@ -13,6 +14,7 @@ import com.compomics.util.protein.Header;
 import com.compomics.util.protein.Protein;
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
 
 import java.io.*;
 import java.util.Properties;
@@ -63,21 +65,24 @@ public class TranslateDB {
             printUsage();
         }
         File inputFile = new File(input);
-        if(!inputFile.exists() || inputFile.isDirectory()) {
+        if(!StandardStreams.exists(inputFile) || inputFile.isDirectory()) {
             printError("Unable to read the input file you specified ('" + input + "')!");
         }
-        String[] params = clp.getParameters();
+        String[] params = StandardStreams.getParameters(args, clp);
         if(params == null || params.length != 1) {
             printUsage();
         }
         File outputFile = new File(params[0]);
-        if(outputFile.exists()) {
+        if(StandardStreams.isStandardStream(outputFile)) {
+            // Keep standard out clean for the DB.
+            StandardStreams.redirectMessages();
+        } else if(outputFile.exists()) {
             printError("Output file exists.\nRefusing to overwrite.");
         }
         // Okay, start reading the DB.
         try {
             // Outputfile.
-            PrintWriter pw = null;
+            FASTAWriter pw = null;
             // Loading input DB.
             DBLoader loader = DBLoaderLoader.loadDB(inputFile);
             // Read all entries.
@@ -99,13 +104,12 @@ public class TranslateDB {
                 for (int i = 0; i < proteins.length; i++) {
                     Protein lProtein = proteins[i];
                     if(pw == null) {
-                        pw = new PrintWriter(new BufferedWriter(new FileWriter(outputFile)));
+                        pw = FASTAWriter.open(outputFile, false);
                     }
-                    lProtein.writeToFASTAFile(pw);
+                    pw.write(lProtein);
                     outCount++;
                 }
             }
-            pw.flush();
             pw.close();
             System.out.println("Finished translating " + inCount + " input sequences into " + outCount + " protein sequences" +
                                (cut != null?" employing codon usage table '" + cut + "'":"") );
@@ -154,7 +158,8 @@ public class TranslateDB {
      */
     private static void printUsage() {
         printError("Usage:\n\n\tTranslateDB [--cut <codon_usage_table>] --input <input_database> <output_database>\n\n" +
-                   "\t\t - With:\n\t\t\tcodon_usage_table file: <triplet> <amino acid> (1 pair per line)");
+                   "\t\t - With:\n\t\t\tcodon_usage_table file: <triplet> <amino acid> (1 pair per line)\n\n" +
+                   "\tUse '-' as input_database to read from standard in, or as output_database to write to standard out.");
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.compomics.dbtoolkit.toolkit;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.util.general.CommandLineParser;
 import com.compomics.util.nucleotide.NucleotideSequence;
 import com.compomics.util.nucleotide.NucleotideSequenceImpl;
@@ -8,6 +9,7 @@ import com.compomics.util.protein.Protein;
 import com.compomics.util.protein.AASequenceImpl;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
 
 import java.util.*;
 import java.io.*;
@@ -53,21 +55,24 @@ public class TranslateDBSeparateEntries {
             printUsage();
         }
         File inputFile = new File(input);
-        if(!inputFile.exists() || inputFile.isDirectory()) {
+        if(!StandardStreams.exists(inputFile) || inputFile.isDirectory()) {
             printError("Unabel to read the input file you specified ('" + input + "')!");
         }
-        String[] params = clp.getParameters();
+        String[] params = StandardStreams.getParameters(args, clp);
         if(params == null || params.length != 1) {
             printUsage();
         }
         File outputFile = new File(params[0]);
-        if(outputFile.exists()) {
+        if(StandardStreams.isStandardStream(outputFile)) {
+            // Keep standard out clean for the DB.
+            StandardStreams.redirectMessages();
+        } else if(outputFile.exists()) {
             printError("Output file exists.\nRefusing to overwrite.");
         }
         // Okay, start reading the DB.
         try {
             // Outputfile.
-            PrintWriter pw = null;
+            FASTAWriter pw = null;
             // Loading input DB.
             DBLoader loader = DBLoaderLoader.loadDB(inputFile);
             // Read all entries.
@@ -105,11 +110,10 @@ public class TranslateDBSeparateEntries {
                         Protein lProtein = new Protein(lHeader, new AASequenceImpl(lProteinSequence));
 
                         if(pw == null) {
-                            pw = new PrintWriter(new BufferedWriter(new FileWriter(outputFile)));
+                            pw = FASTAWriter.open(outputFile, false);
                         }
-                        lProtein.writeToFASTAFile(pw);
+                        pw.write(lProtein);
                         outCount++;
-                        pw.flush();
                     }
                 }
             }
@@ -163,7 +167,8 @@ public class TranslateDBSeparateEntries {
      */
     private static void printUsage() {
         printError("Usage:\n\n\tTranslateDBSeparateEntries [--cut <codon_usage_table>] --input <input_database> <output_database>\n\n" +
-                   "\t\t - With:\n\t\t\tcodon_usage_table file: <triplet> <amino acid> (1 pair per line)");
+                   "\t\t - With:\n\t\t\tcodon_usage_table file: <triplet> <amino acid> (1 pair per line)\n\n" +
+                   "\tUse '-' as input_database to read from standard in, or as output_database to write to standard out.");
     }
 
     /**
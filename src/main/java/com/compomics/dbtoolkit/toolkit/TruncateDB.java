@@ -12,8 +12,10 @@
  */
 package com.compomics.dbtoolkit.toolkit;
 
+import com.compomics.dbtoolkit.io.StandardStreams;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
 import com.compomics.dbtoolkit.io.implementations.AutoDBLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
 import com.compomics.dbtoolkit.io.implementations.ProteinMassFilter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
@@ -60,11 +62,11 @@ public class TruncateDB {
      */
     public static void main(String[] args) {
         if(args == null || args.length == 0) {
-            flagError("Usage:\n\tTruncateDB -(N|C) --truncate <number_of_residues> [--enzyme <enzymeName> [--mc <number_of_missed_cleavages>]] [--filter <filter_name> [--filterParam \"<filter_parameter>\"]] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] --input <input_db_name> <output_db_name>\n\n\tNote that an existing output file will be silently overwritten!");
+            flagError("Usage:\n\tTruncateDB -(N|C) --truncate <number_of_residues> [--enzyme <enzymeName> [--mc <number_of_missed_cleavages>]] [--filter <filter_name> [--filterParam \"<filter_parameter>\"]] [--lowMass <lower_mass_treshold> --highMass <higher_mass_treshold>] --input <input_db_name> <output_db_name>\n\n\tNote that an existing output file will be silently overwritten!\n\tUse '-' as input_db_name to read from standard in, or as output_db_name to write to standard out.");
         }
         CommandLineParser clp = new CommandLineParser(args, new String[]{"enzyme", "mc", "filter", "filterParam", "truncate", "lowMass", "highMass", "input"});
         String inputFile = clp.getOptionParameter("input");
-        String[] temp = clp.getParameters();
+        String[] temp = StandardStreams.getParameters(args, clp);
         if((temp == null) || (temp.length == 0)) {
             flagError("You need to specify an output file!\n\nRun program without parameters for help.");
         }
@@ -95,6 +97,11 @@ public class TruncateDB {
             File input = new File(inputFile);
             File output = new File(outputFile);
 
+            // Keep standard out clean for the DB when writing to it.
+            if(StandardStreams.isStandardStream(output)) {
+                StandardStreams.redirectMessages();
+            }
+
             // The terminus.
             int term = -1;
             if(terminus.equalsIgnoreCase("N")) {
@@ -106,8 +113,8 @@ public class TruncateDB {
             }
 
             // The outputstream.
-            PrintWriter out = null;
-            if(!output.exists()) {
+            FASTAWriter out = null;
+            if(!StandardStreams.exists(output)) {
                 try {
                     output.createNewFile();
                 } catch(IOException ioe) {
@@ -115,11 +122,11 @@ public class TruncateDB {
                 }
             }
             try {
-                out = new PrintWriter(new FileWriter(output));
+                out = FASTAWriter.open(output, false);
             } catch(IOException ioe) {
                 flagError("Could not open stream to outputfile (" + outputFile + "): " + ioe.getMessage());
             }
-            if(!input.exists()) {
+            if(!StandardStreams.exists(input)) {
                 flagError("The input file you specified (" + inputFile + ") could not be found!\nExiting...");
             } else {
                 // The stuff we've received as input seems to be OK.
@@ -152,7 +159,7 @@ public class TruncateDB {
                 AutoDBLoader adb = new AutoDBLoader(classNames);
                 DBLoader loader = null;
                 try {
-                    loader = adb.getLoaderForFile(input.getAbsolutePath());
+                    loader = adb.getLoaderForFile(StandardStreams.getPath(input));
                 } catch(IOException ioe) {
                 } catch(UnknownDBFormatException udfe) {
                 }
@@ -343,11 +350,11 @@ public class TruncateDB {
                             // At this point, we should see if we should check mass limits.
                             if(pmf != null) {
                                 if(pmf.passesFilter(result)) {
-                                    result.writeToFASTAFile(out);
+                                    out.write(result);
                                     lWritten++;
                                 }
                             } else {
-                                result.writeToFASTAFile(out);
+                                out.write(result);
                                 lWritten++;
                             }
                         }
@@ -359,7 +366,6 @@ public class TruncateDB {
                             protein = loader.nextProtein();
                         }
                     }
-                    out.flush();
                     out.close();
                 } catch(IOException ioe) {
                     ioe.printStackTrace();
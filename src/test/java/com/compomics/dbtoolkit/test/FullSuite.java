@@ -21,6 +21,7 @@ import com.compomics.dbtoolkit.test.gui.workerthreads.TestProcessThread;
 import com.compomics.dbtoolkit.test.io.*;
 import com.compomics.dbtoolkit.test.io.implementations.*;
 import com.compomics.dbtoolkit.test.toolkit.TestContainsPeptide;
+import com.compomics.dbtoolkit.test.toolkit.TestProteinMaturationDevice;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -54,6 +55,21 @@ public class FullSuite extends TestCase {
         ts.addTest(new TestSuite(TestZippedSwissProtDBLoader.class));
         ts.addTest(new TestSuite(TestFASTADBLoader.class));
         ts.addTest(new TestSuite(TestZippedFASTADBLoader.class));
+        ts.addTest(new TestSuite(TestMappedFASTADBLoader.class));
+        ts.addTest(new TestSuite(TestEntryIndex.class));
+        ts.addTest(new TestSuite(TestParallelDBLoader.class));
+        ts.addTest(new TestSuite(TestDBLoaderIterator.class));
+        ts.addTest(new TestSuite(TestProteinRecord.class));
+        ts.addTest(new TestSuite(TestBGZF.class));
+        ts.addTest(new TestSuite(TestReadAheadInputStream.class));
+        ts.addTest(new TestSuite(TestDBTKDBLoader.class));
+        ts.addTest(new TestSuite(TestParallelGZIPOutputStream.class));
+        ts.addTest(new TestSuite(TestFASTAWriter.class));
+        ts.addTest(new TestSuite(TestProgressInputStream.class));
+        ts.addTest(new TestSuite(TestDBFormatSniffer.class));
+        ts.addTest(new TestSuite(TestCompositeDBLoader.class));
+        ts.addTest(new TestSuite(TestShardedFASTAWriter.class));
+        ts.addTest(new TestSuite(TestSwissProtFormat.class));
         ts.addTest(new TestSuite(TestDBLoaderFactory.class));
         ts.addTest(new TestSuite(TestSwissProtTaxonomyFilter.class));
         ts.addTest(new TestSuite(TestSwissProtNCBITaxonomyFilter.class));
@@ -67,6 +83,8 @@ public class FullSuite extends TestCase {
         ts.addTest(new TestSuite(TestProteinResiduCountFilter.class));
         ts.addTest(new TestSuite(TestProteinMassFilter.class));
         ts.addTest(new TestSuite(TestProteinFilterCollection.class));
+        ts.addTest(new TestSuite(TestCompiledProteinFilter.class));
+        ts.addTest(new TestSuite(TestSequenceTermMatcher.class));
         ts.addTest(new TestSuite(TestAutoDBLoader.class));
         ts.addTest(new TestSuite(TestProcessThread.class));
         ts.addTest(new TestSuite(TestConcatenateThread.class));
@@ -80,7 +98,12 @@ public class FullSuite extends TestCase {
         ts.addTest(new TestSuite(TestDBLoaderLoader.class));
         ts.addTest(new TestSuite(TestFilterLoader.class));
         ts.addTest(new TestSuite(TestContainsPeptide.class));
+        ts.addTest(new TestSuite(TestProteinMaturationDevice.class));
         ts.addTest(new TestSuite(TestSwissProtAccessionFilter.class));
+        ts.addTest(new TestSuite(TestAccessionTable.class));
+        ts.addTest(new TestSuite(TestAccessionFilter.class));
+        ts.addTest(new TestSuite(TestTaxonomyTree.class));
+        ts.addTest(new TestSuite(TestTaxonomyTreeFilter.class));
 
         return ts;
     }
@@ -16,10 +16,7 @@ import com.compomics.dbtoolkit.gui.workerthreads.ConcatenateThread;
 import com.compomics.util.junit.TestCaseLM;
 import junit.framework.*;
 
-import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.*;
 
 /*
  * CVS information:
@@ -114,4 +111,57 @@ public class TestConcatenateThread extends TestCase {
             }
         }
     }
+
+    /**
+     * This method tests the concatenation of more than two files, with and without
+     * separating newlines.
+     */
+    public void testMultipleConcatenation() {
+        File[] inputs = new File[3];
+        File output = null;
+        try {
+            String[] contents = new String[] {">A\nMKL", ">B\nACD\n", ">C\nEFG"};
+            for(int i = 0; i < inputs.length; i++) {
+                inputs[i] = File.createTempFile("testConcat", ".fas");
+                FileOutputStream fos = new FileOutputStream(inputs[i]);
+                fos.write(contents[i].getBytes());
+                fos.close();
+            }
+            output = File.createTempFile("testConcatOutput", ".fas");
+
+            ConcatenateThread ct = new ConcatenateThread(inputs, output, null);
+            ct.run();
+            Assert.assertEquals(">A\nMKL>B\nACD\n>C\nEFG", this.readFile(output));
+
+            ct.setSeparateWithNewline(true);
+            ct.run();
+            Assert.assertEquals(">A\nMKL\n>B\nACD\n>C\nEFG", this.readFile(output));
+        } catch(IOException ioe) {
+            fail("IOException thrown when testing the concatenation of multiple files by a ConcatenateThread: " + ioe.getMessage());
+        } finally {
+            for(int i = 0; i < inputs.length; i++) {
+                if(inputs[i] != null) {
+                    inputs[i].delete();
+                }
+            }
+            if(output != null && output.exists()) {
+                output.delete();
+            }
+        }
+    }
+
+    /**
+     * This method reads the specified file into a String.
+     *
+     * @param   aFile   File to read.
+     * @return  String  with the file contents.
+     * @exception   IOException when the file could not be read.
+     */
+    private String readFile(File aFile) throws IOException {
+        byte[] contents = new byte[(int)aFile.length()];
+        DataInputStream dis = new DataInputStream(new FileInputStream(aFile));
+        dis.readFully(contents);
+        dis.close();
+        return new String(contents);
+    }
 }
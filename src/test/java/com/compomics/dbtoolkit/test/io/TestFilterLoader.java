@@ -14,6 +14,7 @@ package com.compomics.dbtoolkit.test.io;
 
 import com.compomics.dbtoolkit.io.DBLoaderLoader;
 import com.compomics.dbtoolkit.io.FilterLoader;
+import com.compomics.dbtoolkit.io.implementations.SwissProtAccessionFilter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.util.junit.TestCaseLM;
@@ -99,6 +100,25 @@ public class TestFilterLoader extends TestCase {
             // OK.
         }
 
+        try {
+            Filter f = FilterLoader.loadFilter("FASTAaccession", "P12345, Q12345", fastaLoader);
+            Assert.assertTrue(f.passesFilter(">sw|Q12345|TEST_HUMAN Test protein.\nLENNARTMARTENS"));
+            f = FilterLoader.loadFilter("SPaccession", "!P12345, Q12345", spLoader);
+            Assert.assertFalse(f.passesFilter("ID   TEST_HUMAN\nAC   P12345;\n//"));
+            // The original accession filter is still available under its own name.
+            f = FilterLoader.loadFilter("accession", "P12345", spLoader);
+            Assert.assertTrue(f instanceof SwissProtAccessionFilter);
+        } catch(IOException ioe) {
+            fail("IOException thrown when testing the loadFilter method: " + ioe.getMessage());
+        }
+
+        try {
+            FilterLoader.loadFilter("SPaccession", "@NotAVeryCommonNameForAnAccessionFile.txt", spLoader);
+            fail("No IOException thrown when testing the loadFilter method with an inexistant accession file!");
+        } catch(IOException ioe) {
+            Assert.assertTrue(ioe.getMessage().indexOf("NotAVeryCommonNameForAnAccessionFile.txt") >= 0);
+        }
+
         try {
             FilterLoader.loadFilter("NotAVeryCommonNameForAFilterFilter", null, spLoader);
             fail("No IOException thrown when testing the loadFilter method with an inexistant filter for the database!");
@@ -13,6 +13,7 @@
 package com.compomics.dbtoolkit.test.io;
 
 import com.compomics.dbtoolkit.io.QueryParser;
+import com.compomics.dbtoolkit.io.implementations.CompiledProteinFilter;
 import com.compomics.dbtoolkit.io.interfaces.ProteinFilter;
 import com.compomics.util.protein.Protein;
 import junit.framework.*;
@@ -464,4 +465,28 @@ public class TestQueryParser extends TestCase {
             // We expect this.
         }
     }
+
+    /**
+     * This method tests the compilation of queries with several sequence elements.
+     */
+    public void testCompiledQuery() {
+        try {
+            QueryParser qp = new QueryParser();
+            ProteinFilter pf = qp.parseQuery("(KR AND DE) OR NG");
+            Assert.assertTrue(pf instanceof CompiledProteinFilter);
+            Assert.assertEquals(3, ((CompiledProteinFilter)pf).getTermCount());
+            Assert.assertTrue(pf.passesFilter(new Protein(">Passes filter.", "AKRADEA")));
+            Assert.assertTrue(pf.passesFilter(new Protein(">Passes filter.", "ANGA")));
+            Assert.assertFalse(pf.passesFilter(new Protein(">Does not pass filter.", "AKRADA")));
+
+            // Initiator methionines and residu counts.
+            pf = qp.parseQuery("UK and !UR and 2K");
+            Assert.assertTrue(pf instanceof CompiledProteinFilter);
+            Assert.assertTrue(pf.passesFilter(new Protein(">Passes filter.", "MRAMKAK")));
+            Assert.assertFalse(pf.passesFilter(new Protein(">Does not pass filter.", "MKAK")));
+            Assert.assertFalse(pf.passesFilter(new Protein(">Does not pass filter.", "AMKAMRK")));
+        } catch(ParseException pe) {
+            fail("ParseException thrown when testing compiled query String: " + pe.getMessage());
+        }
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 12:06:48
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.DBLoaderFactory;
+import com.compomics.dbtoolkit.io.UnknownDBFormatException;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.util.junit.TestCaseLM;
+import junit.framework.Assert;
+
+import java.io.File;
+import java.io.IOException;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 12:06:48 $
+ */
+
+/**
+ * This class holds the checks shared by the test scenarios for the Filters that
+ * are run over the entries of a test DB.
+ *
+ * @author Lennart Martens
+ */
+public class FilterTestUtil {
+
+    /**
+     * This method checks the outcome of the filter for each of the entries in the specified test file,
+     * both on the raw entries and through the filtered reading of the entries.
+     *
+     * @param   aDBName String with the DB format of the file.
+     * @param   aFile   String with the name of the test file, or its absolute path.
+     * @param   aFilter Filter to check.
+     * @param   aExpected   boolean[] with the expected outcome for each entry.
+     * @throws IOException  when the test file could not be read.
+     */
+    public static void checkEntries(String aDBName, String aFile, Filter aFilter, boolean[] aExpected) throws IOException {
+        String path = new File(aFile).isAbsolute()?aFile:TestCaseLM.getFullFilePath(aFile);
+        DBLoader db = getLoader(aDBName);
+        db.load(path);
+        for(int i = 0; i < aExpected.length; i++) {
+            String entry = db.nextRawEntry();
+            Assert.assertNotNull(entry);
+            Assert.assertEquals("Entry " + (i + 1) + " of '" + aFile + "'", aExpected[i], aFilter.passesFilter(entry));
+        }
+        Assert.assertNull(db.nextRawEntry());
+        db.close();
+
+        // The filtered reading of the entries yields the same result.
+        db = getLoader(aDBName);
+        db.load(path);
+        for(int i = 0; i < aExpected.length; i++) {
+            if(aExpected[i]) {
+                String entry = db.nextFilteredRawEntry(aFilter);
+                Assert.assertNotNull(entry);
+                Assert.assertTrue(aFilter.passesFilter(entry));
+            }
+        }
+        Assert.assertNull(db.nextFilteredRawEntry(aFilter));
+        db.close();
+    }
+
+    /**
+     * This method returns a DBLoader for the specified DB format.
+     *
+     * @param   aDBName String with the DB format.
+     * @return  DBLoader    for the format.
+     */
+    public static DBLoader getLoader(String aDBName) {
+        DBLoader db = null;
+        try {
+            db = DBLoaderFactory.getDBLoader(aDBName);
+        } catch(UnknownDBFormatException udfe) {
+            Assert.fail("Unable to create a DBLoader for the '" + aDBName + "' format: " + udfe.getMessage());
+        }
+        return db;
+    }
+
+    /**
+     * This method inverts the specified outcomes.
+     *
+     * @param   aExpected   boolean[] with the outcomes.
+     * @return  boolean[]   with the inverted outcomes.
+     */
+    public static boolean[] invert(boolean[] aExpected) {
+        boolean[] result = new boolean[aExpected.length];
+        for(int i = 0; i < aExpected.length; i++) {
+            result[i] = !aExpected[i];
+        }
+        return result;
+    }
+}
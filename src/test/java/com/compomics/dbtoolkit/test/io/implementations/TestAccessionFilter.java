@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 09:58:07
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.HashMap;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 09:58:07 $
+ */
+
+/**
+ * This class implements the test scenario for the AccessionFilter class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.AccessionFilter
+ */
+public class TestAccessionFilter extends TestCase {
+
+    public TestAccessionFilter() {
+        this("Test scenario for the AccessionFilter class.");
+    }
+
+    public TestAccessionFilter(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the filter on SwissProt entries.
+     */
+    public void testSwissProt() {
+        try {
+            // Secondary accession of the second entry, primary and secondary of the last one.
+            Filter filter = new AccessionFilter("q9ujp7, Q62523,P70461");
+            Assert.assertTrue(filter instanceof FieldFilter);
+            boolean[] expected = new boolean[] {false, true, false, false, false, false, true};
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", filter, expected);
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", new AccessionFilter("q9ujp7, Q62523,P70461", true), FilterTestUtil.invert(expected));
+
+            // Matching on the extracted 'AC' field.
+            HashMap entry = new HashMap();
+            entry.put("AC", "P98168; Q9UJP7;");
+            Assert.assertTrue(filter.passesFilter(entry));
+            entry.put("AC", "P98169; Q9UBB3;");
+            Assert.assertFalse(filter.passesFilter(entry));
+
+            // Multiple 'AC' lines, and an entry without any.
+            Assert.assertTrue(filter.passesFilter("ID   TEST\nAC   P00001; P00002;\nAC   P00003; P70461;\nDE   Test.\n//"));
+            Assert.assertFalse(filter.passesFilter("ID   TEST\nAC   P00001; P00002;\nDE   P70461.\n//"));
+            Assert.assertFalse(filter.passesFilter("ID   TEST\nDE   Test.\n//"));
+            Assert.assertTrue(filter.passesFilter("AC   Q62523;\r\n"));
+        } catch(IOException ioe) {
+            fail("IOException while testing the AccessionFilter on SwissProt entries: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the filter on FASTA entries and headers.
+     */
+    public void testFASTA() {
+        try {
+            Filter filter = new AccessionFilter("P98169,zyx_chick");
+            boolean[] expected = new boolean[] {false, false, true, false, true, false, false};
+            FilterTestUtil.checkEntries(DBLoader.FASTA, "testFASTA.fas", filter, expected);
+            FilterTestUtil.checkEntries(DBLoader.FASTA, "testFASTA.fas", new AccessionFilter("P98169,zyx_chick", true), FilterTestUtil.invert(expected));
+
+            AccessionFilter af = new AccessionFilter("P98169, IPI00000001, Q12345");
+            Assert.assertTrue(af.isHeaderOnly());
+            Assert.assertTrue(af.passesHeader(">P98169"));
+            Assert.assertTrue(af.passesHeader(">P98169 Some description"));
+            Assert.assertTrue(af.passesHeader("  >sw|P98169|"));
+            Assert.assertTrue(af.passesHeader(">IPI:IPI00000001|SWISS-PROT:Q12345|REFSEQ:NP_00001 Some description"));
+            Assert.assertTrue(af.passesHeader(">IPI:IPI00000002|SWISS-PROT:Q12345 Some description"));
+            // Only the first word of the header is matched.
+            Assert.assertFalse(af.passesHeader(">sw|P98168|ZXDA_HUMAN Similar to P98169."));
+            Assert.assertFalse(af.passesHeader(">P9816"));
+            Assert.assertFalse(af.passesHeader(">"));
+            Assert.assertFalse(af.passesHeader(""));
+            Assert.assertTrue(af.passesFilter(">sw|P98169|ZXDB_HUMAN\r\nLENNARTMARTENS"));
+            Assert.assertFalse(af.passesFilter(">sw|P98168|ZXDB_HUMAN\nP98169"));
+
+            HashMap entry = new HashMap();
+            entry.put(FASTAHeaderFilter.HEADER, ">sw|P98169|ZXDB_HUMAN Zinc finger X-linked protein ZXDB.");
+            Assert.assertTrue(af.passesFilter(entry));
+            Assert.assertFalse(new AccessionFilter(af.getTable(), true).passesFilter(entry));
+        } catch(IOException ioe) {
+            fail("IOException while testing the AccessionFilter on FASTA entries: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests reading the accessions from a text file and a table file.
+     */
+    public void testFiles() {
+        File list = null;
+        File tableFile = null;
+        try {
+            list = File.createTempFile("testAccessionFilter", ".txt");
+            PrintWriter pw = new PrintWriter(new FileWriter(list));
+            pw.println("# Accessions to select.");
+            pw.println("P98169");
+            pw.println("Q04584   # ZYX_CHICK");
+            pw.close();
+            tableFile = File.createTempFile("testAccessionFilter", AccessionTable.EXTENSION);
+            AccessionTable.build(list, 0).write(tableFile);
+
+            boolean[] expected = new boolean[] {false, false, true, false, true, false, false};
+            AccessionFilter filter = new AccessionFilter("@" + list.getPath());
+            Assert.assertEquals(2, filter.getTable().size());
+            Assert.assertTrue(filter.getTable().hasBloomFilter());
+            FilterTestUtil.checkEntries(DBLoader.FASTA, "testFASTA.fas", filter, expected);
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", filter, expected);
+            filter = new AccessionFilter("@" + tableFile.getPath(), true);
+            Assert.assertEquals(2, filter.getTable().size());
+            Assert.assertFalse(filter.getTable().hasBloomFilter());
+            FilterTestUtil.checkEntries(DBLoader.FASTA, "testFASTA.fas", filter, FilterTestUtil.invert(expected));
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", filter, FilterTestUtil.invert(expected));
+
+            try {
+                new AccessionFilter("@" + list.getPath() + ".missing");
+                fail("No IOException thrown for a missing accession file!");
+            } catch(IOException ioe) {
+                // Expected.
+            }
+        } catch(IOException ioe) {
+            fail("IOException while testing the AccessionFilter with accession files: " + ioe.getMessage());
+        } finally {
+            if(list != null) {
+                list.delete();
+            }
+            if(tableFile != null) {
+                tableFile.delete();
+            }
+        }
+    }
+
+    /**
+     * This method tests the filter in a FilterCollection, on both FASTA and SwissProt entries.
+     */
+    public void testFilterCollection() {
+        try {
+            FilterCollection collection = new FilterCollection(FilterCollection.AND);
+            collection.add(new AccessionFilter("P98169, Q04584, Q15942"));
+            collection.add(new AccessionFilter("Q04584, Q15942, Q62523"));
+            Assert.assertTrue(collection.isHeaderOnly());
+            boolean[] expected = new boolean[] {false, false, false, false, true, true, false};
+            FilterTestUtil.checkEntries(DBLoader.FASTA, "testFASTA.fas", collection, expected);
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", collection, expected);
+            Assert.assertTrue(collection.passesHeader(">sw|Q04584|ZYX_CHICK Zyxin."));
+            Assert.assertFalse(collection.passesHeader(">sw|P98169|ZXDB_HUMAN"));
+        } catch(IOException ioe) {
+            fail("IOException while testing the AccessionFilter in a FilterCollection: " + ioe.getMessage());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 09:41:53
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.AccessionTable;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.Random;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 09:41:53 $
+ */
+
+/**
+ * This class implements the test scenario for the AccessionTable class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.AccessionTable
+ */
+public class TestAccessionTable extends TestCase {
+
+    public TestAccessionTable() {
+        this("Test scenario for the AccessionTable class.");
+    }
+
+    public TestAccessionTable(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests building a table from a String.
+     */
+    public void testBuild() {
+        try {
+            AccessionTable table = AccessionTable.build("Q62523, p70461;O54692\n\tP98168 Q62523,,", 0);
+            Assert.assertEquals(4, table.size());
+            Assert.assertEquals(6, table.getWidth());
+            Assert.assertFalse(table.hasBloomFilter());
+            // Sorted, distinct and in upper case.
+            Assert.assertEquals("O54692", table.getAccession(0));
+            Assert.assertEquals("P70461", table.getAccession(1));
+            Assert.assertEquals("P98168", table.getAccession(2));
+            Assert.assertEquals("Q62523", table.getAccession(3));
+
+            Assert.assertTrue(table.contains("Q62523"));
+            Assert.assertTrue(table.contains("p70461"));
+            Assert.assertTrue(table.contains("o54692"));
+            Assert.assertFalse(table.contains("Q6252"));
+            Assert.assertFalse(table.contains("Q625234"));
+            Assert.assertFalse(table.contains("A00000"));
+            Assert.assertFalse(table.contains("Z99999"));
+            Assert.assertFalse(table.contains(""));
+            Assert.assertFalse(table.contains("\u00c962523"));
+            // Part of a String.
+            Assert.assertTrue(table.contains("AC   P98168; Q9UJP7;", 5, 11));
+            Assert.assertFalse(table.contains("AC   P98168; Q9UJP7;", 13, 19));
+
+            // Accessions of varying lengths.
+            table = AccessionTable.build("IPI00000001, A, AB, ABC, P12345-2", 0);
+            Assert.assertEquals(5, table.size());
+            Assert.assertEquals(11, table.getWidth());
+            Assert.assertEquals("A", table.getAccession(0));
+            Assert.assertEquals("AB", table.getAccession(1));
+            Assert.assertTrue(table.contains("a"));
+            Assert.assertTrue(table.contains("Ab"));
+            Assert.assertTrue(table.contains("P12345-2"));
+            Assert.assertTrue(table.contains("IPI00000001"));
+            Assert.assertFalse(table.contains("P12345"));
+            Assert.assertFalse(table.contains("ABCD"));
+
+            // An empty table.
+            table = AccessionTable.build(" , ", 10);
+            Assert.assertEquals(0, table.size());
+            Assert.assertFalse(table.contains("A"));
+
+            // Non-ASCII accessions are refused.
+            try {
+                AccessionTable.build("P12345, \u00c912345", 0);
+                fail("No IOException thrown for a non-ASCII accession!");
+            } catch(IOException ioe) {
+                // Expected.
+            }
+        } catch(IOException ioe) {
+            fail("IOException while building an accession table: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests a large table, with and without Bloom filter, in memory and mapped
+     * from a table file, against a list of random accessions.
+     */
+    public void testLargeTable() {
+        File list = null;
+        File tableFile = null;
+        try {
+            Random random = new Random(42);
+            String[] accessions = new String[20000];
+            list = File.createTempFile("testAccessionTable", ".txt");
+            PrintWriter pw = new PrintWriter(new FileWriter(list));
+            pw.println("# Random accessions, the odd ones in lower case.");
+            for(int i = 0; i < accessions.length; i++) {
+                accessions[i] = randomAccession(random);
+                pw.println((i%2 == 0)?accessions[i]:accessions[i].toLowerCase());
+            }
+            pw.close();
+
+            AccessionTable plain = AccessionTable.build(list, 0);
+            Assert.assertFalse(plain.hasBloomFilter());
+            AccessionTable bloom = AccessionTable.load(list);
+            Assert.assertTrue(bloom.hasBloomFilter());
+            Assert.assertEquals(plain.size(), bloom.size());
+            // The comment is not read as accessions.
+            Assert.assertFalse(plain.contains("RANDOM"));
+
+            tableFile = File.createTempFile("testAccessionTable", AccessionTable.EXTENSION);
+            bloom.write(tableFile);
+            Assert.assertTrue(AccessionTable.isTableFile(tableFile));
+            Assert.assertFalse(AccessionTable.isTableFile(list));
+            AccessionTable mapped = AccessionTable.load(tableFile);
+            Assert.assertTrue(mapped.hasBloomFilter());
+            Assert.assertEquals(plain.size(), mapped.size());
+            Assert.assertEquals(plain.getWidth(), mapped.getWidth());
+
+            for(int i = 0; i < plain.size() - 1; i++) {
+                Assert.assertTrue(plain.getAccession(i).compareTo(plain.getAccession(i + 1)) < 0);
+                Assert.assertEquals(plain.getAccession(i), mapped.getAccession(i));
+            }
+            for(int i = 0; i < accessions.length; i++) {
+                Assert.assertTrue(plain.contains(accessions[i]));
+                Assert.assertTrue(bloom.contains(accessions[i].toLowerCase()));
+                Assert.assertTrue(mapped.contains(accessions[i]));
+            }
+            // Accessions that are not in the list are refused by all, and mostly by the Bloom filter.
+            for(int i = 0; i < 20000; i++) {
+                String accession = randomAccession(random);
+                boolean expected = plain.contains(accession);
+                Assert.assertEquals(expected, bloom.contains(accession));
+                Assert.assertEquals(expected, mapped.contains(accession));
+            }
+        } catch(IOException ioe) {
+            fail("IOException while testing a large accession table: " + ioe.getMessage());
+        } finally {
+            if(list != null) {
+                list.delete();
+            }
+            if(tableFile != null) {
+                tableFile.delete();
+            }
+        }
+    }
+
+    /**
+     * This method tests the detection of a truncated table file.
+     */
+    public void testTruncatedTable() {
+        File tableFile = null;
+        try {
+            tableFile = File.createTempFile("testAccessionTable", AccessionTable.EXTENSION);
+            AccessionTable.build("P12345, Q12345, O12345", AccessionTable.DEFAULT_BLOOM_BITS).write(tableFile);
+            RandomAccessFile raf = new RandomAccessFile(tableFile, "rw");
+            raf.setLength(raf.length() - 1);
+            raf.close();
+            try {
+                AccessionTable.load(tableFile);
+                fail("No IOException thrown for a truncated table file!");
+            } catch(IOException ioe) {
+                // Expected.
+            }
+        } catch(IOException ioe) {
+            fail("IOException while writing an accession table: " + ioe.getMessage());
+        } finally {
+            if(tableFile != null) {
+                tableFile.delete();
+            }
+        }
+    }
+
+    /**
+     * This method creates a random UniProt-like accession of six or ten characters.
+     *
+     * @param   aRandom Random to use.
+     * @return  String with the accession.
+     */
+    private static String randomAccession(Random aRandom) {
+        String letters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+        StringBuffer result = new StringBuffer();
+        result.append(letters.charAt(aRandom.nextInt(letters.length())));
+        int length = aRandom.nextBoolean()?5:9;
+        for(int i = 0; i < length; i++) {
+            result.append((i%2 == 0)?(char)('0' + aRandom.nextInt(10)):letters.charAt(aRandom.nextInt(letters.length())));
+        }
+        return result.toString();
+    }
+}
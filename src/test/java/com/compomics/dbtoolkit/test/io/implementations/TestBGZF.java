@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 20:44:19
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.toolkit.BGZipDB;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 20:44:19 $
+ */
+
+/**
+ * This class implements the test scenario for the BGZF streams and
+ * the BGZF support in the Zipped DBLoaders.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.BGZFInputStream
+ * @see com.compomics.dbtoolkit.io.implementations.BGZFOutputStream
+ */
+public class TestBGZF extends TestCase {
+
+    public TestBGZF() {
+        this("Test scenario for the BGZF streams and BGZF compressed databases.");
+    }
+
+    public TestBGZF(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests writing and reading back BGZF data, both sequentially
+     * on multiple threads and through virtual offsets.
+     */
+    public void testStreams() {
+        try {
+            File temp = File.createTempFile("testBGZF", ".gz");
+            temp.deleteOnExit();
+            byte[] data = new byte[300000];
+            for(int i = 0; i < data.length; i++) {
+                data[i] = (byte)('A' + ((i * 7) % 23));
+            }
+            BGZFOutputStream out = new BGZFOutputStream(new FileOutputStream(temp));
+            out.write(data, 0, 100000);
+            long marker = out.getVirtualOffset();
+            out.write(data, 100000, data.length - 100000);
+            out.close();
+            Assert.assertTrue(BGZFInputStream.isBGZF(temp));
+            Assert.assertFalse(BGZFInputStream.isBGZF(new File(TestCaseLM.getFullFilePath("testFASTA.fas.gz"))));
+
+            // Any GZIP reader should be able to read it.
+            Assert.assertTrue(java.util.Arrays.equals(data, this.readAll(new GZIPInputStream(new FileInputStream(temp)))));
+            // Single and multiple threads.
+            Assert.assertTrue(java.util.Arrays.equals(data, this.readAll(new BGZFInputStream(new FileInputStream(temp), 1))));
+            Assert.assertTrue(java.util.Arrays.equals(data, this.readAll(new BGZFInputStream(new FileInputStream(temp), 3))));
+
+            // Seeking.
+            BGZFInputStream in = new BGZFInputStream(temp);
+            in.seek(marker);
+            Assert.assertEquals(data[100000] & 0xff, in.read());
+            Assert.assertEquals(data[100001] & 0xff, in.read());
+            in.seek(0);
+            Assert.assertEquals(data[0] & 0xff, in.read());
+            in.close();
+
+            // Virtual offset translation.
+            in = new BGZFInputStream(new FileInputStream(temp), 2);
+            in.recordBlocks();
+            this.readAll(in);
+            long virtual = in.toVirtualOffset(100000);
+            in = new BGZFInputStream(temp);
+            in.seek(virtual);
+            Assert.assertEquals(data[100000] & 0xff, in.read());
+            in.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the BGZF streams: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the Zipped DBLoaders on BGZF compressed databases, with and without index.
+     */
+    public void testLoaders() {
+        try {
+            String[] files = new String[] {"testFASTA.fas", "test.spr"};
+            DBLoader[] plain = new DBLoader[] {new FASTADBLoader(), new SwissProtDBLoader()};
+            ZippedDBLoader[] zipped = new ZippedDBLoader[] {new ZippedFASTADBLoader(), new ZippedSwissProtDBLoader()};
+            for(int i = 0; i < files.length; i++) {
+                File temp = File.createTempFile("testBGZF", ".gz");
+                temp.deleteOnExit();
+                EntryIndex.getIndexFile(temp).deleteOnExit();
+                BGZipDB.compress(new File(TestCaseLM.getFullFilePath(files[i])), temp);
+
+                DBLoader control = plain[i];
+                control.load(TestCaseLM.getFullFilePath(files[i]));
+                ZippedDBLoader loader = zipped[i];
+                Assert.assertTrue(loader.canReadFile(temp));
+                loader.load(temp.getAbsolutePath());
+                Assert.assertFalse(loader.hasIndex());
+                String entry = null;
+                while((entry = control.nextFASTAEntry()) != null) {
+                    Assert.assertEquals(entry, loader.nextFASTAEntry());
+                }
+                Assert.assertNull(loader.nextFASTAEntry());
+
+                // Now with an index.
+                loader.buildIndex(true);
+                loader.close();
+                loader.load(temp.getAbsolutePath());
+                Assert.assertTrue(loader.hasIndex());
+                Assert.assertEquals(7, loader.countNumberOfEntries());
+                control.reset();
+                for(int j = 0; j < 7; j++) {
+                    Protein expected = control.nextProtein();
+                    Protein found = loader.getEntryAt(j);
+                    Assert.assertEquals(expected.getHeader().getAccession(), found.getHeader().getAccession());
+                    Assert.assertEquals(expected.getSequence().getSequence(), found.getSequence().getSequence());
+                    found = loader.getEntryByAccession(expected.getHeader().getAccession());
+                    Assert.assertEquals(expected.getSequence().getSequence(), found.getSequence().getSequence());
+                }
+                Assert.assertNull(loader.getEntryAt(7));
+                Assert.assertNull(loader.getEntryByAccession("NOT_THERE"));
+                loader.close();
+                control.close();
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the BGZF compressed databases: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method reads a stream to the end and closes it.
+     */
+    private byte[] readAll(InputStream aIn) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read = 0;
+        while((read = aIn.read(buffer)) >= 0) {
+            baos.write(buffer, 0, read);
+        }
+        aIn.close();
+        return baos.toByteArray();
+    }
+}
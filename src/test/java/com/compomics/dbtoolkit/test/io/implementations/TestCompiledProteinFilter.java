@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 08:06:12
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.ProteinFilter;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 08:06:12 $
+ */
+
+/**
+ * This class implements the test scenario for the CompiledProteinFilter class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.CompiledProteinFilter
+ */
+public class TestCompiledProteinFilter extends TestCase {
+
+    public TestCompiledProteinFilter() {
+        this("Test scenario for the CompiledProteinFilter class.");
+    }
+
+    public TestCompiledProteinFilter(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests that filters with fewer than two sequence elements are not compiled.
+     */
+    public void testCompile() {
+        ProteinFilter single = new ProteinSequenceFilter("KR");
+        Assert.assertSame(single, CompiledProteinFilter.compile(single));
+
+        ProteinFilterCollection pfc = new ProteinFilterCollection(ProteinFilterCollection.AND);
+        pfc.add(new ProteinSequenceFilter("K.R"));
+        pfc.add(new ProteinResiduCountFilter("K", 2, ProteinResiduCountFilter.GREATER_THAN));
+        pfc.add(new ProteinSequenceFilter("DE"));
+        Assert.assertSame(pfc, CompiledProteinFilter.compile(pfc));
+
+        pfc.add(new ProteinSequenceFilter("!NG"));
+        ProteinFilter compiled = CompiledProteinFilter.compile(pfc);
+        Assert.assertTrue(compiled instanceof CompiledProteinFilter);
+        Assert.assertEquals(2, ((CompiledProteinFilter)compiled).getTermCount());
+        Assert.assertTrue(compiled.passesFilter(new Protein(">Pass.", "KARKDEK")));
+        Assert.assertFalse(compiled.passesFilter(new Protein(">No pass.", "KARKDEKNG")));
+        compiled.setInversion(true);
+        Assert.assertTrue(compiled.passesFilter(new Protein(">Pass.", "KARKDEKNG")));
+    }
+
+    /**
+     * This method compares the results of compiled filters with those of the original filters
+     * for random sequences.
+     */
+    public void testEquivalence() {
+        ProteinFilter[] filters = new ProteinFilter[5];
+        // (KR AND DE) OR NG
+        ProteinFilterCollection and = this.collection(ProteinFilterCollection.AND, false, new ProteinFilter[] {new ProteinSequenceFilter("KR"), new ProteinSequenceFilter("DE")});
+        filters[0] = this.collection(ProteinFilterCollection.OR, false, new ProteinFilter[] {and, new ProteinSequenceFilter("NG")});
+        // !(MK OR UK) AND (!D OR RR) AND K.D
+        ProteinFilterCollection or = this.collection(ProteinFilterCollection.OR, true, new ProteinFilter[] {new ProteinSequenceFilter("MK"), new ProteinSequenceFilter("UK")});
+        ProteinFilterCollection or2 = this.collection(ProteinFilterCollection.OR, false, new ProteinFilter[] {new ProteinSequenceFilter("!D"), new ProteinSequenceFilter("RR")});
+        filters[1] = this.collection(ProteinFilterCollection.AND, false, new ProteinFilter[] {or, or2, new ProteinSequenceFilter("K.D")});
+        // UK OR !UR OR >1K OR MD, with a single leaf subsection inversion.
+        ProteinSequenceFilter inverted = new ProteinSequenceFilter("MD");
+        inverted.setInversion(false);
+        filters[2] = this.collection(ProteinFilterCollection.OR, false, new ProteinFilter[] {new ProteinSequenceFilter("UK"), new ProteinSequenceFilter("!UR"), new ProteinResiduCountFilter("K", 1, ProteinResiduCountFilter.GREATER_THAN), inverted});
+        // Nested, with many elements and an empty one.
+        ProteinFilterCollection inner = this.collection(ProteinFilterCollection.AND, false, new ProteinFilter[] {new ProteinSequenceFilter("!"), new ProteinSequenceFilter("KD"), new ProteinResiduCountFilter("R", 2, ProteinResiduCountFilter.LESS_THAN, true)});
+        filters[3] = this.collection(ProteinFilterCollection.OR, false, new ProteinFilter[] {new ProteinSequenceFilter("DDD"), inner, new ProteinSequenceFilter("MRK"), new ProteinSequenceFilter("RKM"), new ProteinSequenceFilter("!KKK")});
+        // An empty AND collection always passes.
+        filters[4] = this.collection(ProteinFilterCollection.AND, false, new ProteinFilter[] {new ProteinSequenceFilter("K"), new ProteinSequenceFilter("UM"), this.collection(ProteinFilterCollection.AND, false, new ProteinFilter[0])});
+
+        Random random = new Random(4321);
+        for(int i = 0; i < filters.length; i++) {
+            ProteinFilter compiled = CompiledProteinFilter.compile(filters[i]);
+            Assert.assertTrue(compiled instanceof CompiledProteinFilter);
+            for(int j = 0; j < 500; j++) {
+                StringBuffer sequence = new StringBuffer();
+                int length = random.nextInt(12);
+                for(int k = 0; k < length; k++) {
+                    sequence.append("MKRDNG".charAt(random.nextInt(6)));
+                }
+                Protein protein = new Protein(">Random protein " + j + ".", sequence.toString());
+                Assert.assertEquals("Filter " + i + " for " + sequence, filters[i].passesFilter(protein), compiled.passesFilter(protein));
+            }
+        }
+    }
+
+    /**
+     * This method creates a ProteinFilterCollection.
+     *
+     * @param   aMode   int with the mode.
+     * @param   aInvert boolean to invert the collection.
+     * @param   aFilters    ProteinFilter[] with the filters to add.
+     * @return  ProteinFilterCollection with the filters.
+     */
+    private ProteinFilterCollection collection(int aMode, boolean aInvert, ProteinFilter[] aFilters) {
+        ProteinFilterCollection result = new ProteinFilterCollection(aMode, aInvert);
+        for(int i = 0; i < aFilters.length; i++) {
+            result.add(aFilters[i]);
+        }
+        return result;
+    }
+}
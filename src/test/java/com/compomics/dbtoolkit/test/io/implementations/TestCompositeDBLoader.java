@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 03:58:17
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.DBLoaderLoader;
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.Vector;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 03:58:17 $
+ */
+
+/**
+ * This class implements the test scenario for the CompositeDBLoader class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.CompositeDBLoader
+ */
+public class TestCompositeDBLoader extends TestCase {
+
+    /**
+     * The directory with the shards.
+     */
+    private File iDir = null;
+
+    public TestCompositeDBLoader() {
+        this("Test scenario for the CompositeDBLoader class.");
+    }
+
+    public TestCompositeDBLoader(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method sets up a directory with two FASTA shards, a SwissProt shard and a README.
+     */
+    protected void setUp() throws Exception {
+        iDir = File.createTempFile("testComposite", "");
+        iDir.delete();
+        iDir.mkdir();
+        copy(TestCaseLM.getFullFilePath("testFASTA.fas"), new File(iDir, "a.fas"));
+        copy(TestCaseLM.getFullFilePath("testFASTA.fas.gz"), new File(iDir, "b.fas.gz"));
+        copy(TestCaseLM.getFullFilePath("test.spr"), new File(iDir, "c.spr"));
+        FileWriter fw = new FileWriter(new File(iDir, "README"));
+        fw.write("Not a DB.\n");
+        fw.close();
+        FileWriter list = new FileWriter(new File(iDir, "shards.txt"));
+        list.write("# Shards.\nb.fas.gz\n\n" + new File(iDir, "a.fas").getAbsolutePath() + "\n");
+        list.close();
+    }
+
+    protected void tearDown() throws Exception {
+        File[] files = iDir.listFiles();
+        for(int i = 0; i < files.length; i++) {
+            files[i].delete();
+        }
+        iDir.delete();
+    }
+
+    /**
+     * This method tests the listing of the shards.
+     */
+    public void testListShards() {
+        try {
+            Assert.assertTrue(CompositeDBLoader.isShardSet(iDir.getPath()));
+            Assert.assertTrue(CompositeDBLoader.isShardSet(new File(iDir, "*.fas*").getPath()));
+            Assert.assertTrue(CompositeDBLoader.isShardSet("@" + new File(iDir, "shards.txt").getPath()));
+            Assert.assertFalse(CompositeDBLoader.isShardSet(new File(iDir, "a.fas").getPath()));
+            Assert.assertFalse(CompositeDBLoader.isShardSet("-"));
+
+            File[] files = CompositeDBLoader.listShards(new File(iDir, "?.fas*").getPath());
+            Assert.assertEquals(2, files.length);
+            Assert.assertEquals("a.fas", files[0].getName());
+            Assert.assertEquals("b.fas.gz", files[1].getName());
+
+            // List files keep their order.
+            files = CompositeDBLoader.listShards("@" + new File(iDir, "shards.txt").getPath());
+            Assert.assertEquals(2, files.length);
+            Assert.assertEquals("b.fas.gz", files[0].getName());
+            Assert.assertEquals("a.fas", files[1].getName());
+
+            files = CompositeDBLoader.listShards(iDir.getPath());
+            Assert.assertEquals(5, files.length);
+
+            // Entry indices and hidden files are skipped, both in directories and for globs.
+            new File(iDir, "a.fas" + EntryIndex.EXTENSION).createNewFile();
+            new File(iDir, ".a.fas").createNewFile();
+            Assert.assertEquals(5, CompositeDBLoader.listShards(iDir.getPath()).length);
+            files = CompositeDBLoader.listShards(new File(iDir, "*.fas*").getPath());
+            Assert.assertEquals(2, files.length);
+            Assert.assertEquals("a.fas", files[0].getName());
+            Assert.assertEquals("b.fas.gz", files[1].getName());
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the listing of shards: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests reading a glob of FASTA shards sequentially.
+     */
+    public void testSequential() {
+        try {
+            DBLoader loader = DBLoaderLoader.loadDB(new File(iDir, "*.fas*"));
+            Assert.assertTrue(loader instanceof CompositeDBLoader);
+            Assert.assertEquals(2, ((CompositeDBLoader)loader).getShards().length);
+            Assert.assertEquals(DBLoader.FASTA, loader.getDBName());
+            Assert.assertEquals(new File(iDir, "a.fas").length() + new File(iDir, "b.fas.gz").length(), loader.getLongMaximum());
+            Assert.assertEquals(14, loader.countNumberOfEntries());
+            Vector first = readAll(loader);
+            Assert.assertEquals(14, first.size());
+            Assert.assertEquals(first.get(0), first.get(7));
+            Assert.assertEquals(loader.getLongMaximum(), loader.monitorLongProgress());
+
+            // A reset spans all the shards.
+            loader.reset();
+            Assert.assertEquals(first, readAll(loader));
+
+            // Direct access spans the shards as well.
+            Protein p = loader.getEntryAt(8);
+            Assert.assertEquals(new Protein((String)first.get(8)).getHeader().getAccession(), p.getHeader().getAccession());
+            Assert.assertNull(loader.getEntryAt(14));
+            Assert.assertEquals("P98168", loader.getEntryByAccession("P98168").getHeader().getAccession());
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the sequential reading of shards: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests reading a directory of shards with mixed formats.
+     */
+    public void testMixed() {
+        try {
+            DBLoader loader = DBLoaderLoader.loadDB(iDir);
+            Assert.assertEquals(3, ((CompositeDBLoader)loader).getShards().length);
+            Assert.assertEquals(DBLoader.FASTA, loader.getDBName());
+            Assert.assertEquals(21, loader.countNumberOfEntries());
+            // Raw entries of a mixed set are FASTA entries.
+            int count = 0;
+            String raw = null;
+            while((raw = loader.nextRawEntry()) != null) {
+                Assert.assertTrue(raw.startsWith(">"));
+                count++;
+            }
+            Assert.assertEquals(21, count);
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the reading of mixed shards: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests reading the shards concurrently.
+     */
+    public void testParallel() {
+        try {
+            DBLoader loader = DBLoaderLoader.loadDB(iDir);
+            Vector sequential = readAll(loader);
+            loader.reset();
+
+            // Ordered delivery gives the same entries in the same order.
+            Assert.assertSame(loader, ParallelDBLoader.wrap(loader, 3, true));
+            Assert.assertEquals(sequential, readAll(loader));
+            Assert.assertEquals(loader.getLongMaximum(), loader.monitorLongProgress());
+            loader.reset();
+            Assert.assertEquals(sequential, readAll(loader));
+            Assert.assertEquals(21, loader.countNumberOfEntries());
+
+            // Unordered delivery gives the same entries.
+            ((CompositeDBLoader)loader).setParallel(2, false);
+            Vector unordered = readAll(loader);
+            Collections.sort(sequential);
+            Collections.sort(unordered);
+            Assert.assertEquals(sequential, unordered);
+
+            // The kind of entry is fixed until the next reset.
+            loader.reset();
+            loader.nextFASTAEntry();
+            try {
+                loader.nextProtein();
+                fail("No IllegalStateException thrown when switching the kind of entry!");
+            } catch(IllegalStateException ise) {
+                // Okay.
+            }
+            loader.reset();
+            Assert.assertNotNull(loader.nextProtein());
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the parallel reading of shards: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method reads all the FASTA entries left in the loader.
+     *
+     * @param   aLoader DBLoader to read.
+     * @return  Vector  with the FASTA entries.
+     * @exception   IOException when the DB could not be read.
+     */
+    private static Vector readAll(DBLoader aLoader) throws IOException {
+        Vector result = new Vector();
+        String entry = null;
+        while((entry = aLoader.nextFASTAEntry()) != null) {
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * This method copies a file.
+     *
+     * @param   aSource String with the name of the file to copy.
+     * @param   aTarget File to copy to.
+     * @exception   IOException when the copy failed.
+     */
+    private static void copy(String aSource, File aTarget) throws IOException {
+        InputStream in = new FileInputStream(aSource);
+        OutputStream out = new FileOutputStream(aTarget);
+        byte[] buffer = new byte[4096];
+        int read = 0;
+        while((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        out.close();
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 03:06:21
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.DBConverter;
+import com.compomics.dbtoolkit.io.UnknownDBFormatException;
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.util.junit.TestCaseLM;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 03:06:21 $
+ */
+
+/**
+ * This class implements the test scenario for the DBFormatSniffer class, and for
+ * reading DB's from streams.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.DBFormatSniffer
+ */
+public class TestDBFormatSniffer extends TestCase {
+
+    public TestDBFormatSniffer() {
+        this("Test scenario for the DBFormatSniffer class.");
+    }
+
+    public TestDBFormatSniffer(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the detection of the DB formats.
+     */
+    public void testSniff() {
+        try {
+            Assert.assertEquals(DBFormatSniffer.FASTA, this.sniff("testFASTA.fas"));
+            Assert.assertEquals(DBFormatSniffer.SWISSPROT, this.sniff("test.spr"));
+            Assert.assertEquals(DBFormatSniffer.ZIPPED_FASTA, this.sniff("testFASTA.fas.gz"));
+            Assert.assertEquals(DBFormatSniffer.ZIPPED_FASTA, this.sniff("testFASTA.zip"));
+            Assert.assertEquals(DBFormatSniffer.ZIPPED_SWISSPROT, this.sniff("test_SPFormat.spr.gz"));
+            Assert.assertEquals(DBFormatSniffer.ZIPPED_SWISSPROT, this.sniff("test_SPFormat.zip"));
+            Assert.assertNull(this.sniff("testAutoEmpty.txt"));
+            Assert.assertNull(this.sniff("testAutoUnknown.txt"));
+            // Files are sniffed directly as well.
+            String[] files = new String[] {"testFASTA.fas", "test.spr", "testFASTA.zip", "test_SPFormat.spr.gz", "testAutoEmpty.txt"};
+            for(int i = 0; i < files.length; i++) {
+                Assert.assertEquals(this.sniff(files[i]), DBFormatSniffer.sniff(new File(getPath(files[i]))));
+            }
+            // Leading blank lines are skipped.
+            byte[] fasta = "\n\n  \n>sw|P00001|TEST test\nMKL\n".getBytes();
+            Assert.assertEquals(DBFormatSniffer.FASTA, DBFormatSniffer.sniff(fasta, fasta.length));
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the DBFormatSniffer: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the loading of DB's from a stream by the AutoDBLoader.
+     */
+    public void testLoaderForStream() {
+        try {
+            AutoDBLoader auto = new AutoDBLoader(new String[] {"com.compomics.dbtoolkit.io.implementations.FASTADBLoader"});
+            this.checkStream(auto, "testFASTA.fas", FASTADBLoader.class);
+            this.checkStream(auto, "test.spr", SwissProtDBLoader.class);
+            this.checkStream(auto, "testFASTA.fas.gz", ZippedFASTADBLoader.class);
+            this.checkStream(auto, "testFASTA.zip", ZippedFASTADBLoader.class);
+            this.checkStream(auto, "test_SPFormat.spr.gz", ZippedSwissProtDBLoader.class);
+            // A '.dbtk' store is spooled to a temporary file.
+            File temp = File.createTempFile("testDBTK", DBTKWriter.EXTENSION);
+            temp.deleteOnExit();
+            new DBConverter().toDBTKFile(TestCaseLM.getFullFilePath("testFASTA.fas"), temp.getAbsolutePath());
+            Assert.assertEquals(DBFormatSniffer.DBTK, this.sniff(temp.getAbsolutePath()));
+            this.checkStream(auto, temp.getAbsolutePath(), DBTKDBLoader.class);
+            try {
+                auto.getLoaderForStream(new FileInputStream(TestCaseLM.getFullFilePath("testAutoUnknown.txt")), "unknown");
+                fail("No UnknownDBFormatException thrown when reading a stream in an unknown format!");
+            } catch(UnknownDBFormatException udfe) {
+                // Okay.
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the loading of streams: " + ioe.getMessage());
+        } catch(UnknownDBFormatException udfe) {
+            fail("UnknownDBFormatException thrown while testing the loading of streams: " + udfe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the reset behaviour of a DBLoader that reads from a stream.
+     */
+    public void testStreamReset() {
+        try {
+            FASTADBLoader loader = new FASTADBLoader();
+            loader.load(new FileInputStream(TestCaseLM.getFullFilePath("testFASTA.fas")), "test");
+            // Resetting before reading has no effect.
+            loader.reset();
+            Assert.assertEquals(7, count(loader));
+            // Reading again after a reset fails.
+            loader.reset();
+            try {
+                loader.nextFASTAEntry();
+                fail("No IOException thrown when reading a consumed stream again!");
+            } catch(IOException ioe) {
+                Assert.assertTrue(ioe.getMessage().indexOf("'test'") >= 0);
+            }
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the reset of a stream: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests reading a multi-member GZIP stream.
+     */
+    public void testMultiMemberGZIP() {
+        try {
+            byte[] member = this.readFile("testFASTA.fas.gz");
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            baos.write(member);
+            baos.write(member);
+            ZippedFASTADBLoader loader = new ZippedFASTADBLoader();
+            loader.load(new ByteArrayInputStream(baos.toByteArray()), "members");
+            Assert.assertEquals(14, count(loader));
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing a multi-member GZIP stream: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the selection of file loaders on the sniffed (and cached) format.
+     */
+    public void testLoaderForFile() {
+        File temp = null;
+        try {
+            AutoDBLoader.clearCache();
+            AutoDBLoader auto = new AutoDBLoader(new String[] {"com.compomics.dbtoolkit.io.implementations.FASTADBLoader",
+                                                               "com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader"});
+            temp = File.createTempFile("testSniff", ".txt");
+            FileOutputStream fos = new FileOutputStream(temp);
+            fos.write(this.readFile("testFASTA.fas"));
+            fos.close();
+            DBLoader loader = auto.getLoaderForFile(temp.getPath());
+            Assert.assertTrue(loader instanceof FASTADBLoader);
+            Assert.assertEquals(7, count(loader));
+            loader.close();
+            Assert.assertTrue(auto.getLoaderForFile(temp.getPath(), false) instanceof FASTADBLoader);
+
+            // A changed file is sniffed again.
+            fos = new FileOutputStream(temp);
+            fos.write(this.readFile("test.spr"));
+            fos.close();
+            loader = auto.getLoaderForFile(temp.getPath());
+            Assert.assertTrue(loader instanceof SwissProtDBLoader);
+            loader.close();
+
+            // DBLoaders that are not built in are still asked whether they can read the file.
+            auto = new AutoDBLoader(new String[] {CustomLoader.class.getName(), "com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader"});
+            Assert.assertTrue(auto.getLoaderForFile(temp.getPath(), false) instanceof CustomLoader);
+            auto = new AutoDBLoader(new String[] {CustomLoader.class.getName()});
+            try {
+                auto.getLoaderForFile(getPath("testFASTA.fas"), false);
+                fail("No UnknownDBFormatException thrown for a file no loader could read!");
+            } catch(UnknownDBFormatException udfe) {
+                // Okay.
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the selection of file loaders: " + ioe.getMessage());
+        } catch(UnknownDBFormatException udfe) {
+            fail("UnknownDBFormatException thrown while testing the selection of file loaders: " + udfe.getMessage());
+        } finally {
+            if(temp != null) {
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * This method sniffs the specified test file.
+     *
+     * @param   aFile   String with the name of the test file, or an absolute path.
+     * @return  String  with the detected format.
+     * @exception   IOException when the file could not be read.
+     */
+    private String sniff(String aFile) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(getPath(aFile)));
+        String result = DBFormatSniffer.sniff(in);
+        in.close();
+        return result;
+    }
+
+    /**
+     * This method loads the specified test file as a stream, and checks the
+     * type of loader and the number of entries read.
+     *
+     * @param   aAuto   AutoDBLoader to use.
+     * @param   aFile   String with the name of the test file, or an absolute path.
+     * @param   aClass  Class of the expected DBLoader.
+     * @exception   IOException when the stream could not be read.
+     * @exception   UnknownDBFormatException when the format was not recognized.
+     */
+    private void checkStream(AutoDBLoader aAuto, String aFile, Class aClass) throws IOException, UnknownDBFormatException {
+        DBLoader loader = aAuto.getLoaderForStream(new FileInputStream(getPath(aFile)), aFile);
+        Assert.assertEquals(aFile, aClass, loader.getClass());
+        Assert.assertEquals(aFile, 7, count(loader));
+        loader.close();
+    }
+
+    /**
+     * This method returns the full path of a test file.
+     *
+     * @param   aFile   String with the name of the test file, or an absolute path.
+     * @return  String  with the full path.
+     */
+    private static String getPath(String aFile) {
+        return new File(aFile).isAbsolute()?aFile:TestCaseLM.getFullFilePath(aFile);
+    }
+
+    /**
+     * This method counts the entries left in the specified DBLoader.
+     *
+     * @param   aLoader DBLoader to read.
+     * @return  int with the number of entries read.
+     * @exception   IOException when the DB could not be read.
+     */
+    private static int count(DBLoader aLoader) throws IOException {
+        int count = 0;
+        while(aLoader.nextFASTAEntry() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * This method reads the specified test file into memory.
+     *
+     * @param   aFile   String with the name of the test file.
+     * @return  byte[]  with the contents of the file.
+     * @exception   IOException when the file could not be read.
+     */
+    private byte[] readFile(String aFile) throws IOException {
+        InputStream in = new FileInputStream(TestCaseLM.getFullFilePath(aFile));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read = 0;
+        while((read = in.read(buffer)) > 0) {
+            baos.write(buffer, 0, read);
+        }
+        in.close();
+        return baos.toByteArray();
+    }
+
+    /**
+     * A DBLoader that is not built in, and which only reads SwissProt files.
+     */
+    public static class CustomLoader extends SwissProtDBLoader {
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 18:21:04
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.DBLoaderIterator;
+import com.compomics.dbtoolkit.io.implementations.FASTADBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.EntryHandler;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.*;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 18:21:04 $
+ */
+
+/**
+ * This class implements the test scenario for the DBLoaderIterator class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.DBLoaderIterator
+ */
+public class TestDBLoaderIterator extends TestCase {
+
+    public TestDBLoaderIterator() {
+        this("Test scenario for the DBLoaderIterator class.");
+    }
+
+    public TestDBLoaderIterator(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the Iterator behaviour.
+     */
+    public void testIterator() {
+        try {
+            DBLoader loader = this.getLoader();
+            Iterator iter = DBLoaderIterator.proteins(loader);
+            int count = 0;
+            while(iter.hasNext()) {
+                Protein p = (Protein)iter.next();
+                Assert.assertNotNull(p.getHeader().getAccession());
+                count++;
+            }
+            Assert.assertEquals(7, count);
+            Assert.assertEquals(7l, ((DBLoaderIterator)iter).getCount());
+            try {
+                iter.next();
+                fail("DBLoaderIterator should have thrown a NoSuchElementException after the last entry!");
+            } catch(NoSuchElementException nsee) {
+                // Fine.
+            }
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the DBLoaderIterator: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the batches.
+     */
+    public void testBatches() {
+        try {
+            DBLoader loader = this.getLoader();
+            DBLoaderIterator iter = DBLoaderIterator.entries(loader);
+            // Mix the single entry access with batches.
+            Assert.assertTrue(iter.hasNext());
+            List batch = iter.nextBatch(3);
+            Assert.assertEquals(3, batch.size());
+            Assert.assertTrue(((String)batch.get(0)).startsWith(">sw|O54692|"));
+            Assert.assertEquals(3, iter.nextBatch(3).size());
+            Assert.assertEquals(1, iter.nextBatch(3).size());
+            Assert.assertEquals(0, iter.nextBatch(3).size());
+            Assert.assertFalse(iter.hasNext());
+            Assert.assertEquals(7l, iter.getCount());
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the DBLoaderIterator batches: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the parallel processing and the cancellation.
+     */
+    public void testProcess() {
+        try {
+            DBLoader loader = this.getLoader();
+            final Set accessions = Collections.synchronizedSet(new HashSet());
+            DBLoaderIterator iter = DBLoaderIterator.proteins(loader);
+            iter.process(new EntryHandler() {
+                public void handle(Object aEntry) {
+                    accessions.add(((Protein)aEntry).getHeader().getAccession());
+                }
+            }, 4, 2);
+            Assert.assertEquals(7, accessions.size());
+            Assert.assertTrue(accessions.contains("Q04584"));
+            Assert.assertEquals(7l, iter.getCount());
+
+            // Cancel after the first entry.
+            loader.reset();
+            final DBLoaderIterator cancelled = DBLoaderIterator.proteins(loader);
+            final int[] handled = new int[1];
+            cancelled.process(new EntryHandler() {
+                public void handle(Object aEntry) {
+                    handled[0]++;
+                    cancelled.cancel();
+                }
+            }, 1, 1);
+            Assert.assertTrue(cancelled.isCancelled());
+            Assert.assertEquals(1, handled[0]);
+            Assert.assertFalse(cancelled.hasNext());
+
+            // Exceptions in the handler should reach the caller.
+            loader.reset();
+            try {
+                DBLoaderIterator.proteins(loader).process(new EntryHandler() {
+                    public void handle(Object aEntry) {
+                        throw new IllegalArgumentException("Test");
+                    }
+                }, 3, 1);
+                fail("DBLoaderIterator should have passed on the exception thrown by the handler!");
+            } catch(IllegalArgumentException iae) {
+                Assert.assertEquals("Test", iae.getMessage());
+            }
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the DBLoaderIterator processing: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method returns a loader for the test FASTA DB.
+     */
+    private DBLoader getLoader() throws IOException {
+        DBLoader loader = new FASTADBLoader();
+        loader.load(TestCaseLM.getFullFilePath("testFASTA.fas"));
+        return loader;
+    }
+}
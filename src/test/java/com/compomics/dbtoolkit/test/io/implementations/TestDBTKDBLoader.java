@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 22:52:18
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.DBConverter;
+import com.compomics.dbtoolkit.io.DBLoaderLoader;
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 22:52:18 $
+ */
+
+/**
+ * This class implements the test scenario for the DBTKWriter and DBTKDBLoader classes.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.DBTKDBLoader
+ * @see com.compomics.dbtoolkit.io.implementations.DBTKWriter
+ */
+public class TestDBTKDBLoader extends TestCase {
+
+    public TestDBTKDBLoader() {
+        this("Test scenario for the DBTK store.");
+    }
+
+    public TestDBTKDBLoader(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the conversion of FASTA and SwissProt DBs into a store, and reading them back.
+     */
+    public void testConversion() {
+        try {
+            String[] files = new String[] {"testFASTA.fas", "test.spr"};
+            DBLoader[] controls = new DBLoader[] {new FASTADBLoader(), new SwissProtDBLoader()};
+            for(int i = 0; i < files.length; i++) {
+                File temp = File.createTempFile("testDBTK", DBTKWriter.EXTENSION);
+                temp.deleteOnExit();
+                new DBConverter().toDBTKFile(TestCaseLM.getFullFilePath(files[i]), temp.getAbsolutePath());
+
+                DBLoader loader = DBLoaderLoader.loadDB(temp);
+                Assert.assertTrue(loader instanceof DBTKDBLoader);
+                DBTKDBLoader store = (DBTKDBLoader)loader;
+                Assert.assertEquals(DBLoader.FASTA, store.getDBName());
+                Assert.assertTrue(store.hasIndex());
+                Assert.assertEquals(7, store.size());
+
+                DBLoader control = controls[i];
+                control.load(TestCaseLM.getFullFilePath(files[i]));
+                DBRecord expected = null;
+                int count = 0;
+                while((expected = control.nextRecord()) != null) {
+                    ProteinRecord found = store.nextRecord();
+                    Assert.assertEquals(expected.getHeaderLine(), found.getHeaderLine());
+                    Assert.assertEquals(expected.getSequence(), found.getSequence());
+                    Assert.assertEquals(expected.getLength(), store.getSequenceLength(count));
+                    Assert.assertEquals(expected.toProtein().getMass(), store.getMass(count), 0.0001);
+                    Protein direct = store.getEntryAt(count);
+                    Assert.assertEquals(expected.getSequence(), direct.getSequence().getSequence());
+                    Assert.assertEquals(expected.getSequence(), store.getEntryByAccession(expected.getAccession()).getSequence().getSequence());
+                    count++;
+                }
+                Assert.assertNull(store.nextRecord());
+                Assert.assertEquals(7, count);
+                Assert.assertNull(store.getEntryAt(7));
+                Assert.assertNull(store.getEntryByAccession("NOT_THERE"));
+
+                Assert.assertEquals(7, store.countNumberOfEntries());
+                control.reset();
+                Assert.assertEquals(control.nextProtein().getSequence().getSequence(), store.nextProtein().getSequence().getSequence());
+                store.close();
+                control.close();
+                // The store should be smaller than the text.
+                Assert.assertTrue(temp.length() < new File(TestCaseLM.getFullFilePath(files[i])).length());
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the DBTK store: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests loading a store from a stream, and the removal of its temporary copy.
+     */
+    public void testStream() {
+        try {
+            File temp = File.createTempFile("testDBTK", DBTKWriter.EXTENSION);
+            temp.deleteOnExit();
+            new DBConverter().toDBTKFile(TestCaseLM.getFullFilePath("testFASTA.fas"), temp.getAbsolutePath());
+            int copies = this.countCopies();
+
+            DBTKDBLoader store = new DBTKDBLoader();
+            InputStream in = new FileInputStream(temp);
+            store.load(in, "stream");
+            in.close();
+            Assert.assertEquals(copies + 1, this.countCopies());
+            Assert.assertEquals(7, store.countNumberOfEntries());
+            Assert.assertNotNull(store.nextRecord());
+
+            // Reloading removes the previous copy.
+            in = new FileInputStream(temp);
+            store.load(in, "stream");
+            in.close();
+            Assert.assertEquals(copies + 1, this.countCopies());
+            store.load(temp.getAbsolutePath());
+            Assert.assertEquals(copies, this.countCopies());
+            Assert.assertEquals(7, store.countNumberOfEntries());
+
+            in = new FileInputStream(temp);
+            store.load(in, "stream");
+            in.close();
+            store.close();
+            Assert.assertEquals(copies, this.countCopies());
+
+            // A stream that is not a store leaves no copy either.
+            try {
+                store.load(new ByteArrayInputStream("Not a store.".getBytes()), "text");
+                fail("No IOException thrown for a stream that is not a DBTK store!");
+            } catch(IOException ioe) {
+                Assert.assertTrue(ioe.getMessage().indexOf("text") >= 0);
+            }
+            Assert.assertEquals(copies, this.countCopies());
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the DBTK store from a stream: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method counts the temporary copies of stores in the temporary directory.
+     *
+     * @return  int with the number of copies.
+     */
+    private int countCopies() {
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles();
+        int result = 0;
+        for(int i = 0; i < files.length; i++) {
+            String name = files[i].getName();
+            if(name.startsWith("dbtk") && name.endsWith(DBTKWriter.EXTENSION)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method tests the storage of headers and sequences that can not be packed.
+     */
+    public void testEncoding() {
+        try {
+            File temp = File.createTempFile("testDBTK", DBTKWriter.EXTENSION);
+            temp.deleteOnExit();
+            String[] entries = new String[] {
+                ">sp|P00001|TEST_HUMAN Test protein OS=Homo sapiens\nMKLVACDEFGHIKLMNPQRSTVWYBZXUOJ*-",
+                ">sp|P00002|TEST_HUMAN Test protein OS=Homo sapiens\nMKLVmkl1",
+                ">sp|P00003|T\u00c9ST_MOUSE  Test protein| OS=Mus musculus \nM",
+                ">Empty\n"
+            };
+            DBTKWriter writer = new DBTKWriter(temp);
+            for(int i = 0; i < entries.length; i++) {
+                writer.addEntry(new ProteinRecord(entries[i]));
+            }
+            Assert.assertEquals(4, writer.getCount());
+            writer.close();
+
+            DBTKDBLoader loader = new DBTKDBLoader();
+            Assert.assertTrue(loader.canReadFile(temp));
+            Assert.assertFalse(loader.canReadFile(new File(TestCaseLM.getFullFilePath("testFASTA.fas"))));
+            loader.load(temp.getAbsolutePath());
+            for(int i = 0; i < entries.length; i++) {
+                ProteinRecord expected = new ProteinRecord(entries[i]);
+                Assert.assertEquals(expected.getHeaderLine() + "\n" + expected.getSequence(), loader.nextFASTAEntry());
+            }
+            Assert.assertNull(loader.nextFASTAEntry());
+            loader.reset();
+            Assert.assertEquals(entries[0], loader.nextFASTAEntry());
+            // Direct access does not disturb the sequential reading.
+            Assert.assertEquals("M", loader.getEntryAt(2).getSequence().getSequence());
+            Assert.assertEquals(entries[1].substring(0, entries[1].indexOf('\n')), loader.nextRecord().getHeaderLine());
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the DBTK encoding: " + ioe.getMessage());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 15:30:12
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 15:30:12 $
+ */
+
+/**
+ * This class implements the test scenario for the EntryIndex class and the
+ * indexed access it provides to the DBLoaders.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.EntryIndex
+ */
+public class TestEntryIndex extends TestCase {
+
+    public TestEntryIndex() {
+        this("Test scenario for the EntryIndex class.");
+    }
+
+    public TestEntryIndex(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the building of an index on a FASTA file.
+     */
+    public void testFASTAIndex() {
+        try {
+            File input = new File(TestCaseLM.getFullFilePath("testFASTA.fas"));
+            EntryIndex index = EntryIndex.build(input, DBLoader.FASTA);
+            Assert.assertEquals(7, index.size());
+            Assert.assertEquals(0l, index.getOffset(0));
+            Assert.assertEquals("O54692", index.getAccession(0));
+            Assert.assertEquals("Q62523", index.getAccession(6));
+            Assert.assertEquals(3, index.findOrdinal("P21541"));
+            Assert.assertEquals(-1, index.findOrdinal("NOT_THERE"));
+            // The entries should be contiguous and cover the file.
+            long total = 0;
+            for(int i = 0; i < index.size(); i++) {
+                Assert.assertEquals(total, index.getOffset(i));
+                total += index.getLength(i);
+            }
+            Assert.assertEquals(input.length(), total);
+            Assert.assertTrue(index.isValidFor(input));
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the FASTA index: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the building of an index on a SwissProt file.
+     */
+    public void testSwissProtIndex() {
+        try {
+            File input = new File(TestCaseLM.getFullFilePath("test.spr"));
+            EntryIndex index = EntryIndex.build(input, DBLoader.SWISSPROT);
+            Assert.assertEquals(7, index.size());
+            Assert.assertEquals("O54692", index.getAccession(0));
+            Assert.assertEquals("P98168", index.getAccession(1));
+            Assert.assertEquals(1, index.findOrdinal("P98168"));
+            // Secondary accessions are not indexed.
+            Assert.assertEquals(-1, index.findOrdinal("Q9UJP7"));
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the SwissProt index: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the storage of the index in a sidecar file, and
+     * the detection of stale indices.
+     */
+    public void testStoreAndLoad() {
+        File copy = null;
+        try {
+            copy = this.copyToTemp("testFASTA.fas");
+            DefaultDBLoader loader = new FASTADBLoader();
+            loader.load(copy.getAbsolutePath());
+            Assert.assertFalse(loader.hasIndex());
+            loader.buildIndex(true);
+            loader.close();
+            Assert.assertTrue(EntryIndex.getIndexFile(copy).exists());
+
+            // A fresh loader should pick up the index.
+            loader = new FASTADBLoader();
+            loader.load(copy.getAbsolutePath());
+            Assert.assertTrue(loader.hasIndex());
+            Assert.assertEquals(7, loader.countNumberOfEntries());
+            loader.close();
+
+            // So should the mapped loader, but not a SwissProt loader.
+            Assert.assertNotNull(EntryIndex.load(copy, DBLoader.FASTA));
+            Assert.assertNull(EntryIndex.load(copy, DBLoader.SWISSPROT));
+
+            // Changing the file should invalidate the index.
+            FileWriter fw = new FileWriter(copy, true);
+            fw.write(">sw|P00000|EXTRA_HUMAN Extra entry.\nMMMM\n");
+            fw.close();
+            copy.setLastModified(copy.lastModified() + 2000);
+            Assert.assertNull(EntryIndex.load(copy, DBLoader.FASTA));
+            loader = new MappedFASTADBLoader();
+            loader.load(copy.getAbsolutePath());
+            Assert.assertFalse(loader.hasIndex());
+            Assert.assertEquals(8, loader.countNumberOfEntries());
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the index storage: " + ioe.getMessage());
+        } finally {
+            if(copy != null) {
+                EntryIndex.getIndexFile(copy).delete();
+                copy.delete();
+            }
+        }
+    }
+
+    /**
+     * This method tests the random access to entries through the loaders.
+     */
+    public void testRandomAccess() {
+        try {
+            DBLoader[] loaders = new DBLoader[] {new FASTADBLoader(), new MappedFASTADBLoader(), new ZippedFASTADBLoader()};
+            String[] files = new String[] {"testFASTA.fas", "testFASTA.fas", "testFASTA.fas.gz"};
+            for(int i = 0; i < loaders.length; i++) {
+                DBLoader loader = loaders[i];
+                loader.load(TestCaseLM.getFullFilePath(files[i]));
+                Protein p = loader.getEntryByAccession("Q04584");
+                Assert.assertNotNull(p);
+                Assert.assertEquals("Q04584", p.getHeader().getAccession());
+                Assert.assertTrue(p.getSequence().getSequence().startsWith("MASPGTPGTRMTTTVSINISTPSFYNPQKKFAPVVAPKPKVNPFKTGGTSESSQPQPPGTGAQRAQIGRVGEIP"));
+                Assert.assertNull(loader.getEntryByAccession("NOT_THERE"));
+                p = loader.getEntryAt(0);
+                Assert.assertEquals("O54692", p.getHeader().getAccession());
+                p = loader.getEntryAt(6);
+                Assert.assertEquals("Q62523", p.getHeader().getAccession());
+                Assert.assertNull(loader.getEntryAt(7));
+                Assert.assertNull(loader.getEntryAt(-1));
+                // The sequential reading should not have been disturbed.
+                Assert.assertTrue(loader.nextRawEntry().startsWith(">sw|O54692|"));
+                loader.close();
+            }
+
+            DBLoader loader = new SwissProtDBLoader();
+            loader.load(TestCaseLM.getFullFilePath("test.spr"));
+            Protein p = loader.getEntryByAccession("P21541");
+            Assert.assertEquals("P21541", p.getHeader().getAccession());
+            p = loader.getEntryAt(1);
+            Assert.assertEquals("P98168", p.getHeader().getAccession());
+            Assert.assertTrue(loader.hasIndex());
+            Assert.assertEquals(7, loader.countNumberOfEntries());
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the random access to entries: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method copies the specified test resource to a temporary file.
+     *
+     * @param   aResource   String with the name of the resource.
+     * @return  File with the copy.
+     * @throws IOException  when the copy failed.
+     */
+    private File copyToTemp(String aResource) throws IOException {
+        File copy = File.createTempFile("testEntryIndex", ".fas");
+        InputStream in = new FileInputStream(TestCaseLM.getFullFilePath(aResource));
+        OutputStream out = new FileOutputStream(copy);
+        byte[] buffer = new byte[1024];
+        int read = 0;
+        while((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        out.close();
+        return copy;
+    }
+}
@@ -13,12 +13,16 @@
 package com.compomics.dbtoolkit.test.io.implementations;
 
 import com.compomics.dbtoolkit.io.implementations.FASTADBLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAHeaderFilter;
+import com.compomics.dbtoolkit.io.implementations.FilterCollection;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.util.junit.TestCaseLM;
 import com.compomics.util.protein.Protein;
 import junit.framework.*;
 
 import java.io.*;
+import java.util.HashMap;
 
 /*
  * CVS information:
@@ -196,4 +200,87 @@ public class TestFASTADBLoader extends TestCase {
             fail("An IOException was encountered while testing the FASTA DB nextProtein() method: '" + ioe.getMessage() + "'.");
         }
     }
+
+    /**
+     * This method tests that Filters that only need the header yield the same entries
+     * when they are evaluated on the header line, while the sequences of the other entries
+     * are skipped.
+     */
+    public void testHeaderFilter() {
+        File db = null;
+        try {
+            // Entries with long sequences, blank lines, DOS endlines and indented headers.
+            db = File.createTempFile("testHeaderFilter", ".fas");
+            StringBuffer sequence = new StringBuffer();
+            for(int i = 0; i < 20000; i++) {
+                sequence.append("ACDEFGHIKLMNPQRSTVWY".charAt(i%20));
+            }
+            PrintWriter pw = new PrintWriter(new FileWriter(db));
+            pw.print(">P1 first protein [Homo sapiens]\n" + sequence + "\n");
+            pw.print(">P2 second protein [Mus musculus]\n");
+            for(int i = 0; i < sequence.length(); i += 60) {
+                pw.print(sequence.substring(i, Math.min(i + 60, sequence.length())) + "\n");
+            }
+            pw.print("\n  >P3 third protein [HOMO SAPIENS]\r\nKRKR\r\n\r\nLENNART\r\n");
+            pw.print(">P4 fourth protein [mus musculus]\r\n" + sequence + "\r\n");
+            pw.print(" \t>P5 fifth protein [Homo sapiens]\nMARTENS");
+            pw.close();
+
+            String[] matches = new String[] {"homo sapiens", "P2", "fourth", "protein", "P5", "nothing"};
+            String[] inputs = new String[] {db.getPath(), TestCaseLM.getFullFilePath("testFASTA.fas"), TestCaseLM.getFullFilePath("redundantDB.fas")};
+            for(int i = 0; i < inputs.length; i++) {
+                for(int j = 0; j < matches.length; j++) {
+                    this.compareFiltered(inputs[i], new FASTAHeaderFilter(matches[j]));
+                    this.compareFiltered(inputs[i], new FASTAHeaderFilter(matches[j], true));
+                }
+                FilterCollection collection = new FilterCollection(FilterCollection.OR);
+                collection.add(new FASTAHeaderFilter("P2"));
+                collection.add(new FASTAHeaderFilter("P4"));
+                this.compareFiltered(inputs[i], collection);
+            }
+
+            FASTADBLoader loader = new FASTADBLoader();
+            loader.load(db.getPath());
+            Assert.assertEquals("  >P3 third protein [HOMO SAPIENS]\nKRKRLENNART", loader.nextFilteredRawEntry(new FASTAHeaderFilter("P3")));
+            Assert.assertTrue(loader.nextFilteredRawEntry(new FASTAHeaderFilter("Homo")).startsWith(" \t>P5"));
+            Assert.assertNull(loader.nextFilteredRawEntry(new FASTAHeaderFilter("P")));
+            loader.close();
+        } catch(IOException ioe) {
+            fail("An IOException was encountered while testing the FASTA DB header filtering: '" + ioe.getMessage() + "'.");
+        } finally {
+            if(db != null) {
+                db.delete();
+            }
+        }
+    }
+
+    /**
+     * This method compares the entries that pass the specified Filter with those that pass the same
+     * Filter when it has to be evaluated on the complete entries.
+     *
+     * @param   aInput  String with the FASTA file.
+     * @param   aFilter Filter to apply.
+     * @exception   IOException when the file could not be read.
+     */
+    private void compareFiltered(String aInput, final Filter aFilter) throws IOException {
+        Filter entireEntry = new Filter() {
+            public boolean passesFilter(String aEntry) {
+                return aFilter.passesFilter(aEntry);
+            }
+            public boolean passesFilter(HashMap aEntry) {
+                return aFilter.passesFilter(aEntry);
+            }
+        };
+        DBLoader control = new FASTADBLoader();
+        control.load(aInput);
+        DBLoader loader = new FASTADBLoader();
+        loader.load(aInput);
+        String expected = null;
+        while((expected = control.nextFilteredRawEntry(entireEntry)) != null) {
+            Assert.assertEquals(expected, loader.nextFilteredRawEntry(aFilter));
+        }
+        Assert.assertNull(loader.nextFilteredRawEntry(aFilter));
+        control.close();
+        loader.close();
+    }
 }
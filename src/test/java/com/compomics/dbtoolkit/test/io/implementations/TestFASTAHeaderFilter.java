@@ -13,6 +13,7 @@
 package com.compomics.dbtoolkit.test.io.implementations;
 
 import com.compomics.dbtoolkit.io.implementations.FASTAHeaderFilter;
+import com.compomics.dbtoolkit.io.implementations.FASTATaxonomyFilter;
 import com.compomics.dbtoolkit.io.interfaces.Filter;
 import junit.framework.*;
 
@@ -53,4 +54,26 @@ public class TestFASTAHeaderFilter extends TestCase {
         Assert.assertFalse(filter.passesFilter(entry));
         Assert.assertTrue(filter.passesFilter(falseEntry));
     }
+
+    /**
+     * Test scenario for the evaluation of the header line only.
+     */
+    public void testPassesHeader() {
+        FASTAHeaderFilter filter = new FASTAHeaderFilter("NuMber");
+        Assert.assertTrue(filter.isHeaderOnly());
+        Assert.assertTrue(filter.passesHeader(">FASTA header NUMBER 1"));
+        Assert.assertTrue(filter.passesHeader(">number"));
+        Assert.assertFalse(filter.passesHeader(">FASTA header numbe"));
+        Assert.assertFalse(filter.passesHeader(""));
+        // Entries without a sequence line.
+        Assert.assertTrue(filter.passesFilter(">FASTA header number 1"));
+        filter = new FASTAHeaderFilter("number", true);
+        Assert.assertFalse(filter.passesHeader(">FASTA header nUmBeR 1"));
+        Assert.assertTrue(filter.passesHeader(">FASTA header nummer 1"));
+
+        filter = new FASTATaxonomyFilter("Homo sapiens");
+        Assert.assertTrue(filter.passesHeader(">Protein [homo SAPIENS] [Mus musculus]"));
+        Assert.assertFalse(filter.passesHeader(">Protein from Homo sapiens"));
+        Assert.assertFalse(filter.passesFilter(">Protein from Homo sapiens\nLENNARTMARTENS"));
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 00:21:47
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.FASTADBLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
+import com.compomics.dbtoolkit.io.implementations.ProteinRecord;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 00:21:47 $
+ */
+
+/**
+ * This class implements the test scenario for the FASTAWriter class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.FASTAWriter
+ */
+public class TestFASTAWriter extends TestCase {
+
+    public TestFASTAWriter() {
+        this("Test scenario for the FASTAWriter class.");
+    }
+
+    public TestFASTAWriter(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests that the output is identical to that of Protein.writeToFASTAFile,
+     * both synchronously and with a background writer thread.
+     */
+    public void testOutput() {
+        try {
+            FASTADBLoader loader = new FASTADBLoader();
+            loader.load(TestCaseLM.getFullFilePath("testFASTA.fas"));
+            StringWriter control = new StringWriter();
+            PrintWriter pw = new PrintWriter(control);
+            Protein protein = null;
+            while((protein = loader.nextProtein()) != null) {
+                protein.writeToFASTAFile(pw);
+            }
+            pw.flush();
+            String expected = control.toString();
+
+            // Tiny buffers force many hand-overs.
+            int[] queueSizes = new int[] {0, 1, 3};
+            for(int i = 0; i < queueSizes.length; i++) {
+                loader.reset();
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                FASTAWriter writer = new FASTAWriter(baos, 7, queueSizes[i]);
+                while((protein = loader.nextProtein()) != null) {
+                    writer.write(protein);
+                }
+                Assert.assertEquals(7, writer.getEntryCount());
+                writer.close();
+                Assert.assertEquals(expected, baos.toString());
+                Assert.assertEquals(baos.size(), writer.getByteCount());
+            }
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the FASTAWriter: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the line wrapping and the writing of records.
+     */
+    public void testWrapping() {
+        try {
+            String nl = System.getProperty("line.separator");
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            FASTAWriter writer = new FASTAWriter(baos, 16, 2);
+            writer.setLineLength(4);
+            writer.write(new ProteinRecord(">sp|P00001|TEST Test protein\nMKLVA CDEF\nGH"));
+            writer.setLineLength(0);
+            writer.write(">Empty", "");
+            writer.write(">Unwrapped \u00e9", "MKLVACDEFGH");
+            writer.flush();
+            writer.close();
+            writer.close();
+            String expected = ">sp|P00001|TEST Test protein" + nl + "MKLV" + nl + "ACDE" + nl + "FGH" + nl
+                    + ">Empty" + nl
+                    + ">Unwrapped \u00e9" + nl + "MKLVACDEFGH" + nl;
+            // Non-ASCII characters are written in the platform encoding.
+            Assert.assertEquals(new String(expected.getBytes()), baos.toString());
+            Assert.assertEquals(3, writer.getEntryCount());
+            try {
+                writer.write(">Closed", "M");
+                fail("No IOException thrown when writing to a closed FASTAWriter!");
+            } catch(IOException ioe) {
+                // This is what should happen.
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the FASTAWriter wrapping: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests that errors on the writer thread are reported to the producer.
+     */
+    public void testError() {
+        OutputStream failing = new OutputStream() {
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full!");
+            }
+        };
+        FASTAWriter writer = new FASTAWriter(failing, 16, 2);
+        try {
+            for(int i = 0; i < 100; i++) {
+                writer.write(">Test " + i, "MKLVACDEFGHIKLMNPQRSTVWY");
+            }
+            writer.close();
+            fail("No IOException thrown when the underlying stream fails!");
+        } catch(IOException ioe) {
+            Assert.assertEquals("Disk full!", ioe.getMessage());
+        }
+    }
+}
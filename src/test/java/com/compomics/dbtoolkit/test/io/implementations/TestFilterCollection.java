@@ -14,10 +14,16 @@ package com.compomics.dbtoolkit.test.io.implementations;
 
 import com.compomics.dbtoolkit.io.DBLoaderFactory;
 import com.compomics.dbtoolkit.io.UnknownDBFormatException;
+import com.compomics.dbtoolkit.io.implementations.FASTAHeaderFilter;
 import com.compomics.dbtoolkit.io.implementations.FilterCollection;
+import com.compomics.dbtoolkit.io.implementations.SwissProtAccessionFilter;
 import com.compomics.dbtoolkit.io.implementations.SwissProtKeywordFilter;
+import com.compomics.dbtoolkit.io.implementations.SwissProtNCBITaxonomyFilter;
+import com.compomics.dbtoolkit.io.implementations.SwissProtProteinSequenceLengthFilter;
 import com.compomics.dbtoolkit.io.implementations.SwissProtTaxonomyFilter;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.dbtoolkit.io.interfaces.SwissProtLoader;
 import com.compomics.util.junit.TestCaseLM;
 import junit.framework.*;
 
@@ -268,4 +274,104 @@ public class TestFilterCollection extends TestCase {
             fail("IOException was thrown while testing for filtering with SwissProtKeywordFilter: " + ioe.getMessage());
         }
     }
+
+    /**
+     * This method tests the sharing of the extracted fields between the Filters.
+     */
+    public void testRequiredKeys() {
+        FilterCollection filter = new FilterCollection(FilterCollection.AND);
+        Assert.assertEquals(0, filter.getRequiredKeys().length);
+        filter.add(new SwissProtKeywordFilter("MiToSiS"));
+        filter.add(new SwissProtTaxonomyFilter("HumAn"));
+        FilterCollection inner = new FilterCollection(FilterCollection.OR);
+        inner.add(new SwissProtTaxonomyFilter("Mammalia"));
+        inner.add(new SwissProtAccessionFilter("O54692"));
+        filter.add(inner);
+        String[] keys = filter.getRequiredKeys();
+        Assert.assertEquals(4, keys.length);
+        Assert.assertEquals("KW", keys[0]);
+        Assert.assertEquals("OS", keys[1]);
+        Assert.assertEquals("OC", keys[2]);
+        Assert.assertEquals("AC", keys[3]);
+
+        // Any Filter that needs the entire entry disables the sharing.
+        inner.add(new FASTAHeaderFilter("test"));
+        Assert.assertNull(filter.getRequiredKeys());
+    }
+
+    /**
+     * This method tests that the shared extraction gives the same results as the individual Filters,
+     * also after the Filters have been reordered in adaptive mode.
+     */
+    public void testSharedExtraction() {
+        try {
+            Filter[] filters = new Filter[] {new SwissProtKeywordFilter("metal-BINDING"), new SwissProtTaxonomyFilter("HumAn"),
+                                             new SwissProtNCBITaxonomyFilter("9606"), new SwissProtAccessionFilter("O54692", true),
+                                             new SwissProtProteinSequenceLengthFilter(">300")};
+            FilterCollection and = new FilterCollection(FilterCollection.AND);
+            FilterCollection or = new FilterCollection(FilterCollection.OR);
+            FilterCollection adaptiveAnd = new FilterCollection(FilterCollection.AND);
+            FilterCollection adaptiveOr = new FilterCollection(FilterCollection.OR);
+            for(int i = 0; i < filters.length; i++) {
+                and.add(filters[i]);
+                or.add(filters[i]);
+                adaptiveAnd.add(filters[i]);
+                adaptiveOr.add(filters[i]);
+            }
+            adaptiveAnd.setAdaptive(3);
+            adaptiveOr.setAdaptive(3);
+            DBLoader db = DBLoaderFactory.getDBLoader(DBLoader.SWISSPROT);
+            db.load(TestCaseLM.getFullFilePath("test.spr"));
+            String entry = null;
+            int passedAnd = 0;
+            int passedOr = 0;
+            while((entry = db.nextRawEntry()) != null) {
+                boolean all = true;
+                boolean any = false;
+                for(int i = 0; i < filters.length; i++) {
+                    boolean passed = filters[i].passesFilter(entry);
+                    Assert.assertEquals(passed, filters[i].passesFilter(((SwissProtLoader)db).processRawData(entry)));
+                    all &= passed;
+                    any |= passed;
+                }
+                Assert.assertEquals(all, and.passesFilter(entry));
+                Assert.assertEquals(any, or.passesFilter(entry));
+                Assert.assertEquals(all, adaptiveAnd.passesFilter(entry));
+                Assert.assertEquals(any, adaptiveOr.passesFilter(entry));
+                passedAnd += all?1:0;
+                passedOr += any?1:0;
+            }
+            db.close();
+            Assert.assertTrue(adaptiveAnd.getStatistics().isComplete());
+            Assert.assertEquals(filters.length, adaptiveOr.getEvaluationOrder().length);
+            Assert.assertTrue(passedAnd > 0);
+            Assert.assertTrue(passedOr > passedAnd);
+        } catch(UnknownDBFormatException udfe) {
+            fail("Database 'SwissProt' reported as being unknown: " + udfe.getMessage());
+        } catch(IOException ioe) {
+            fail("IOException was thrown while testing the shared extraction of fields: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the evaluation of a collection on the header line only.
+     */
+    public void testHeaderOnly() {
+        FilterCollection filter = new FilterCollection(FilterCollection.AND);
+        Assert.assertTrue(filter.isHeaderOnly());
+        filter.add(new FASTAHeaderFilter("human"));
+        FilterCollection inner = new FilterCollection(FilterCollection.OR, true);
+        inner.add(new FASTAHeaderFilter("fragment"));
+        inner.add(new FASTAHeaderFilter("putative"));
+        filter.add(inner);
+        Assert.assertTrue(filter.isHeaderOnly());
+        Assert.assertTrue(filter.passesHeader(">P1 kinase (HUMAN)"));
+        Assert.assertFalse(filter.passesHeader(">P2 kinase fragment (human)"));
+        Assert.assertFalse(filter.passesHeader(">P3 kinase (mouse)"));
+        Assert.assertEquals(filter.passesFilter(">P1 kinase (HUMAN)\nLENNART"), filter.passesHeader(">P1 kinase (HUMAN)"));
+
+        // Any Filter that needs more than the header disables it.
+        inner.add(new SwissProtKeywordFilter("MiToSiS"));
+        Assert.assertFalse(filter.isHeaderOnly());
+    }
 }
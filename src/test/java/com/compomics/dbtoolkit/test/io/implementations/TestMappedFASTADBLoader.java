@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 11:02:18
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.FASTADBLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAHeaderFilter;
+import com.compomics.dbtoolkit.io.implementations.MappedFASTADBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.util.junit.TestCaseLM;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 11:02:18 $
+ */
+
+/**
+ * This class implements the test for the MappedFASTADBLoader class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.MappedFASTADBLoader
+ */
+public class TestMappedFASTADBLoader extends TestCase {
+
+    public TestMappedFASTADBLoader() {
+        this("Test for the MappedFASTADBLoader class.");
+    }
+
+    public TestMappedFASTADBLoader(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the behaviour of the class when the
+     * specified file does not exist.
+     */
+    public void testFileNotFoundBehaviour() {
+        final String wrongFile = "FileThatDoesNotExist";
+        try {
+            DBLoader db = new MappedFASTADBLoader();
+            db.load(wrongFile);
+            fail("MappedFASTADBLoader should have flagged an IOException when confronted with the erronous filename '"+wrongFile+"'.");
+        } catch(IOException ioe) {
+            // OK, this is EXACTLY what we want.
+        }
+    }
+
+    /**
+     * This method tests that the raw entries are identical to those
+     * reported by the FASTADBLoader, for normal and for tiny mapped windows.
+     */
+    public void testEntriesIdenticalToFASTADBLoader() {
+        final String[] inputFiles = new String[] {"testFASTA.fas", "testAutoFASTA.fas", "redundantDB.fas"};
+        final int[] windows = new int[] {MappedFASTADBLoader.DEFAULT_WINDOW_SIZE, 1, 7, 64};
+        try {
+            for(int i = 0; i < inputFiles.length; i++) {
+                String input = TestCaseLM.getFullFilePath(inputFiles[i]);
+                for(int j = 0; j < windows.length; j++) {
+                    DBLoader control = new FASTADBLoader();
+                    control.load(input);
+                    DBLoader db = new MappedFASTADBLoader(windows[j]);
+                    db.load(input);
+                    String expected = null;
+                    while((expected = control.nextRawEntry()) != null) {
+                        Assert.assertEquals(expected, db.nextRawEntry());
+                    }
+                    Assert.assertNull(db.nextRawEntry());
+                    control.close();
+                    db.close();
+                }
+            }
+        } catch(IOException ioe) {
+            fail("An IOException was encountered while comparing the MappedFASTADBLoader to the FASTADBLoader:\n" + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method test the counter.
+     */
+    public void testCounter() {
+        try {
+            String input = TestCaseLM.getFullFilePath("testFASTA.fas");
+            DBLoader db = new MappedFASTADBLoader(13);
+            db.load(input);
+            Assert.assertEquals(7l, db.countNumberOfEntries());
+            // The count should leave the loader at the start of the file.
+            Assert.assertEquals(0, db.monitorProgress());
+            Assert.assertEquals(new File(input).length(), db.getMaximum());
+            db.close();
+        } catch(IOException ioe) {
+            fail("An IOException was encountered while testing the mapped FASTA DB entrycounter:\n" + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the reset capability.
+     */
+    public void testReset() {
+        final String input = TestCaseLM.getFullFilePath("testFASTA.fas");
+
+        try {
+            DBLoader db = new MappedFASTADBLoader(100);
+            db.load(input);
+            String first = db.nextRawEntry();
+            int counter = 1;
+            while(db.nextRawEntry() != null) {
+                counter++;
+            }
+            Assert.assertEquals(7, counter);
+            Assert.assertEquals(db.getMaximum(), db.monitorProgress());
+
+            // Reset and re-cycle.
+            db.reset();
+            Assert.assertEquals(first, db.nextRawEntry());
+            counter = 1;
+            while(db.nextRawEntry() != null) {
+                counter++;
+            }
+            Assert.assertEquals(7, counter);
+            db.close();
+        } catch(IOException ioe) {
+            fail("An IOException was encountered while testing the mapped FASTA DB reset() method: '" + ioe.getMessage() + "'.");
+        }
+    }
+
+    /**
+     * This method tests the format detection.
+     */
+    public void testCanReadFile() {
+        DBLoader db = new MappedFASTADBLoader();
+        Assert.assertTrue(db.canReadFile(new File(TestCaseLM.getFullFilePath("testFASTA.fas"))));
+        Assert.assertTrue(db.canReadFile(new File(TestCaseLM.getFullFilePath("testAutoFASTA.fas"))));
+        Assert.assertFalse(db.canReadFile(new File(TestCaseLM.getFullFilePath("test.spr"))));
+        Assert.assertFalse(db.canReadFile(new File(TestCaseLM.getFullFilePath("testAutoEmpty.txt"))));
+    }
+
+    /**
+     * This method tests that Filters that only need the header yield the same entries
+     * as with the FASTADBLoader, for normal and for tiny mapped windows.
+     */
+    public void testHeaderFilter() {
+        final String[] inputFiles = new String[] {"testFASTA.fas", "testAutoFASTA.fas", "redundantDB.fas"};
+        final Filter[] filters = new Filter[] {new FASTAHeaderFilter("sp|"), new FASTAHeaderFilter("sp|", true), new FASTAHeaderFilter("nothing")};
+        final int[] windows = new int[] {MappedFASTADBLoader.DEFAULT_WINDOW_SIZE, 1, 7};
+        try {
+            for(int i = 0; i < inputFiles.length; i++) {
+                String input = TestCaseLM.getFullFilePath(inputFiles[i]);
+                for(int j = 0; j < windows.length; j++) {
+                    for(int k = 0; k < filters.length; k++) {
+                        DBLoader control = new FASTADBLoader();
+                        control.load(input);
+                        DBLoader db = new MappedFASTADBLoader(windows[j]);
+                        db.load(input);
+                        String expected = null;
+                        while((expected = control.nextFilteredRawEntry(filters[k])) != null) {
+                            Assert.assertEquals(expected, db.nextFilteredRawEntry(filters[k]));
+                        }
+                        Assert.assertNull(db.nextFilteredRawEntry(filters[k]));
+                        control.close();
+                        db.close();
+                    }
+                }
+            }
+        } catch(IOException ioe) {
+            fail("An IOException was encountered while comparing the header filtering to the FASTADBLoader:\n" + ioe.getMessage());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 17:05:51
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Vector;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 17:05:51 $
+ */
+
+/**
+ * This class implements the test scenario for the ParallelDBLoader class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.ParallelDBLoader
+ */
+public class TestParallelDBLoader extends TestCase {
+
+    /**
+     * The chunk sizes to test with; the small ones force records to straddle chunks.
+     */
+    private static final int[] CHUNKS = new int[] {1, 7, 64, 1000, ParallelDBLoader.DEFAULT_CHUNK_SIZE};
+
+    public TestParallelDBLoader() {
+        this("Test scenario for the ParallelDBLoader class.");
+    }
+
+    public TestParallelDBLoader(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the ordered delivery of raw and FASTA entries.
+     */
+    public void testOrdered() {
+        try {
+            this.compare(new FASTADBLoader(), "testFASTA.fas", false);
+            this.compare(new FASTADBLoader(), "redundantDB.fas", false);
+            this.compare(new MappedFASTADBLoader(), "testAutoFASTA.fas", false);
+            this.compare(new SwissProtDBLoader(), "test.spr", false);
+            this.compare(new SwissProtDBLoader(), "test.spr", true);
+            this.compare(new FASTADBLoader(), "testFASTA.fas", true);
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the ordered parallel parsing: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the unordered delivery of entries.
+     */
+    public void testUnordered() {
+        try {
+            String input = TestCaseLM.getFullFilePath("redundantDB.fas");
+            Vector expected = this.readAll(this.load(new FASTADBLoader(), input), false);
+            Collections.sort(expected);
+            for(int i = 0; i < CHUNKS.length; i++) {
+                DBLoader db = new ParallelDBLoader(this.load(new FASTADBLoader(), input), 4, false, CHUNKS[i]);
+                Vector found = this.readAll(db, false);
+                Collections.sort(found);
+                Assert.assertEquals(expected, found);
+                db.close();
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the unordered parallel parsing: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the delivery of filtered entries and of Protein instances.
+     */
+    public void testFilteredProteins() {
+        try {
+            String input = TestCaseLM.getFullFilePath("test.spr");
+            Filter filter = new Filter() {
+                public boolean passesFilter(String aEntry) {
+                    return aEntry.indexOf("HUMAN") >= 0;
+                }
+                public boolean passesFilter(java.util.HashMap aEntry) {
+                    return true;
+                }
+            };
+            DBLoader control = this.load(new SwissProtDBLoader(), input);
+            DBLoader db = new ParallelDBLoader(this.load(new SwissProtDBLoader(), input), 3, true, 100);
+            Protein expected = null;
+            int count = 0;
+            while((expected = control.nextFilteredProtein(filter)) != null) {
+                Protein found = db.nextFilteredProtein(filter);
+                Assert.assertEquals(expected.getHeader().getAccession(), found.getHeader().getAccession());
+                Assert.assertEquals(expected.getSequence().getSequence(), found.getSequence().getSequence());
+                count++;
+            }
+            Assert.assertTrue(count > 0);
+            Assert.assertNull(db.nextFilteredProtein(filter));
+            // Switching the kind of entry requires a reset.
+            try {
+                db.nextRawEntry();
+                fail("ParallelDBLoader should have refused to switch to raw entries without a reset!");
+            } catch(IllegalStateException ise) {
+                // Fine.
+            }
+            db.reset();
+            Assert.assertNotNull(db.nextRawEntry());
+            control.close();
+            db.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the parallel parsing of filtered proteins: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the progress reporting, the reset and the wrap method.
+     */
+    public void testProgressAndWrap() {
+        try {
+            String input = TestCaseLM.getFullFilePath("testFASTA.fas");
+            DBLoader loader = this.load(new FASTADBLoader(), input);
+            Assert.assertSame(loader, ParallelDBLoader.wrap(loader, 1, true));
+            DBLoader db = ParallelDBLoader.wrap(loader, 2, true);
+            Assert.assertTrue(db instanceof ParallelDBLoader);
+            Assert.assertEquals(DBLoader.FASTA, db.getDBName());
+            Assert.assertEquals(7, db.countNumberOfEntries());
+            Assert.assertEquals(0, db.monitorProgress());
+            Assert.assertEquals(new File(input).length(), db.getMaximum());
+            Vector first = this.readAll(db, false);
+            Assert.assertEquals(7, first.size());
+            Assert.assertEquals(db.getMaximum(), db.monitorProgress());
+            db.reset();
+            Assert.assertEquals(0, db.monitorProgress());
+            Assert.assertEquals(first, this.readAll(db, false));
+            db.close();
+
+            DBLoader zipped = new ZippedFASTADBLoader();
+            zipped.load(TestCaseLM.getFullFilePath("testFASTA.fas.gz"));
+            Assert.assertSame(zipped, ParallelDBLoader.wrap(zipped, 4, true));
+            zipped.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the parallel loader progress: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method compares the parallel loader with its sequential counterpart for all chunk sizes.
+     *
+     * @param   aLoader DBLoader to use as control.
+     * @param   aFile   String with the name of the test file.
+     * @param   aFASTA  boolean to compare FASTA entries rather than raw entries.
+     * @exception   IOException when reading failed.
+     */
+    private void compare(DefaultDBLoader aLoader, String aFile, boolean aFASTA) throws IOException {
+        String input = TestCaseLM.getFullFilePath(aFile);
+        Vector expected = this.readAll(this.load(aLoader, input), aFASTA);
+        Assert.assertTrue(expected.size() > 0);
+        for(int i = 0; i < CHUNKS.length; i++) {
+            DefaultDBLoader sequential = (aLoader instanceof SwissProtDBLoader)?(DefaultDBLoader)new SwissProtDBLoader():new FASTADBLoader();
+            DBLoader db = new ParallelDBLoader(this.load(sequential, input), 3, true, CHUNKS[i]);
+            Assert.assertEquals("Chunk size " + CHUNKS[i] + " on '" + aFile + "'.", expected, this.readAll(db, aFASTA));
+            db.close();
+        }
+    }
+
+    /**
+     * This method loads the specified file in the specified loader.
+     */
+    private DefaultDBLoader load(DefaultDBLoader aLoader, String aFilename) throws IOException {
+        aLoader.load(aFilename);
+        return aLoader;
+    }
+
+    /**
+     * This method reads all (raw or FASTA) entries from the specified loader.
+     */
+    private Vector readAll(DBLoader aLoader, boolean aFASTA) throws IOException {
+        Vector result = new Vector();
+        String entry = null;
+        while((entry = (aFASTA?aLoader.nextFASTAEntry():aLoader.nextRawEntry())) != null) {
+            result.add(entry);
+        }
+        return result;
+    }
+}
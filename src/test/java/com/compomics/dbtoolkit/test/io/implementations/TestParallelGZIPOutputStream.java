@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 23:41:09
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.ParallelGZIPOutputStream;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 23:41:09 $
+ */
+
+/**
+ * This class implements the test scenario for the ParallelGZIPOutputStream class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.ParallelGZIPOutputStream
+ */
+public class TestParallelGZIPOutputStream extends TestCase {
+
+    public TestParallelGZIPOutputStream() {
+        this("Test scenario for the ParallelGZIPOutputStream class.");
+    }
+
+    public TestParallelGZIPOutputStream(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the compression of data spanning many blocks.
+     */
+    public void testCompression() {
+        try {
+            byte[] data = new byte[10000];
+            for(int i = 0; i < data.length; i++) {
+                data[i] = (byte)("ACDEFGHIKLMNPQRSTVWY\n".charAt((i*7) % 21));
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(baos, 3, 128);
+            out.write(data, 0, 1000);
+            out.write(data[1000]);
+            out.flush();
+            // Only the complete blocks are written when flushing.
+            byte[] flushed = this.inflate(baos.toByteArray());
+            Assert.assertEquals(7*128, flushed.length);
+            for(int i = 0; i < flushed.length; i++) {
+                Assert.assertEquals(data[i], flushed[i]);
+            }
+            out.write(data, 1001, data.length - 1001);
+            out.close();
+            out.close();
+            try {
+                out.write(0);
+                fail("No IOException thrown when writing to a closed stream!");
+            } catch(IOException ioe) {
+                // Expected.
+            }
+
+            Assert.assertTrue(java.util.Arrays.equals(data, this.inflate(baos.toByteArray())));
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the ParallelGZIPOutputStream: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests that an empty stream still yields valid GZIP output.
+     */
+    public void testEmpty() {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            new ParallelGZIPOutputStream(baos, 2, 64).close();
+            Assert.assertTrue(baos.size() > 0);
+            Assert.assertEquals(0, this.inflate(baos.toByteArray()).length);
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the empty ParallelGZIPOutputStream: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the selection of compression when opening a file.
+     */
+    public void testOpen() {
+        try {
+            File plain = File.createTempFile("testPGZ", ".fas");
+            plain.deleteOnExit();
+            File zipped = File.createTempFile("testPGZ", ".fas" + ParallelGZIPOutputStream.EXTENSION);
+            zipped.deleteOnExit();
+            Assert.assertFalse(ParallelGZIPOutputStream.isCompressed(plain));
+            Assert.assertTrue(ParallelGZIPOutputStream.isCompressed(zipped));
+
+            byte[] data = ">Test\nMKL\n".getBytes();
+            OutputStream out = ParallelGZIPOutputStream.open(plain);
+            Assert.assertFalse(out instanceof ParallelGZIPOutputStream);
+            out.write(data);
+            out.close();
+            Assert.assertEquals(data.length, plain.length());
+
+            out = ParallelGZIPOutputStream.open(zipped);
+            Assert.assertTrue(out instanceof ParallelGZIPOutputStream);
+            out.write(data);
+            out.close();
+            Assert.assertTrue(java.util.Arrays.equals(data, this.inflate(this.readFile(zipped))));
+
+            out = ParallelGZIPOutputStream.open(plain, true);
+            Assert.assertTrue(out instanceof ParallelGZIPOutputStream);
+            out.write(data);
+            out.close();
+            Assert.assertTrue(java.util.Arrays.equals(data, this.inflate(this.readFile(plain))));
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the opening of output files: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method inflates the specified GZIP data.
+     *
+     * @param   aData   byte[] with the compressed data.
+     * @return  byte[]  with the inflated data.
+     * @exception   IOException when the data could not be inflated.
+     */
+    private byte[] inflate(byte[] aData) throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(aData));
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read = 0;
+        while((read = in.read(buffer)) >= 0) {
+            result.write(buffer, 0, read);
+        }
+        in.close();
+        return result.toByteArray();
+    }
+
+    /**
+     * This method reads the specified file.
+     *
+     * @param   aFile   File to read.
+     * @return  byte[]  with the file contents.
+     * @exception   IOException when the file could not be read.
+     */
+    private byte[] readFile(File aFile) throws IOException {
+        byte[] result = new byte[(int)aFile.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(aFile));
+        in.readFully(result);
+        in.close();
+        return result;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 01:52:13
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.gui.workerthreads.ThroughputMonitor;
+import com.compomics.dbtoolkit.io.implementations.ProgressInputStream;
+import com.compomics.dbtoolkit.io.implementations.ZippedFASTADBLoader;
+import com.compomics.util.junit.TestCaseLM;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 01:52:13 $
+ */
+
+/**
+ * This class implements the test scenario for the ProgressInputStream class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.ProgressInputStream
+ */
+public class TestProgressInputStream extends TestCase {
+
+    public TestProgressInputStream() {
+        this("Test scenario for the ProgressInputStream class.");
+    }
+
+    public TestProgressInputStream(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the counting of the bytes read.
+     */
+    public void testCounting() {
+        try {
+            ProgressInputStream pis = new ProgressInputStream(new ByteArrayInputStream(new byte[100]), 100);
+            Assert.assertEquals(100, pis.getLongMaximum());
+            Assert.assertEquals(100, pis.getMaximum());
+            Assert.assertEquals(0, pis.monitorLongProgress());
+            pis.read();
+            Assert.assertEquals(1, pis.monitorLongProgress());
+            pis.read(new byte[20]);
+            Assert.assertEquals(21, pis.monitorLongProgress());
+            pis.skip(9);
+            Assert.assertEquals(30, pis.monitorLongProgress());
+            Assert.assertEquals(30, pis.monitorProgress());
+            byte[] rest = new byte[200];
+            Assert.assertEquals(70, pis.read(rest));
+            Assert.assertEquals(-1, pis.read(rest));
+            Assert.assertEquals(-1, pis.read());
+            Assert.assertEquals(100, pis.monitorLongProgress());
+            Assert.assertFalse(pis.markSupported());
+            pis.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the ProgressInputStream: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the scaling of long progress to the int range.
+     */
+    public void testScale() {
+        // Small values are not scaled.
+        Assert.assertEquals(12345, ProgressInputStream.scale(12345, 100000));
+        Assert.assertEquals(12345, ProgressInputStream.scale(12345, -1));
+        Assert.assertEquals(0, ProgressInputStream.scale(-1, -1));
+
+        // Large values are, and stay proportional.
+        long max = 20L*1024*1024*1024;
+        int scaledMax = ProgressInputStream.scale(max, max);
+        Assert.assertTrue(scaledMax > 0);
+        Assert.assertTrue(scaledMax <= Integer.MAX_VALUE/2);
+        int scaledHalf = ProgressInputStream.scale(max/2, max);
+        Assert.assertTrue(Math.abs(scaledMax - 2*scaledHalf) <= 1);
+        Assert.assertEquals(0, ProgressInputStream.scale(0, max));
+    }
+
+    /**
+     * This method tests the compressed and uncompressed progress reported by a ZippedDBLoader.
+     */
+    public void testZippedProgress() {
+        try {
+            String input = TestCaseLM.getFullFilePath("testFASTA.fas.gz");
+            ZippedFASTADBLoader loader = new ZippedFASTADBLoader();
+            loader.load(input);
+            long length = new File(input).length();
+            Assert.assertEquals(length, loader.getLongMaximum());
+            ThroughputMonitor monitor = new ThroughputMonitor(loader);
+            int count = 0;
+            while(loader.nextRecord() != null) {
+                count++;
+            }
+            Assert.assertEquals(7, count);
+            Assert.assertEquals(length, loader.monitorLongProgress());
+            Assert.assertEquals(4842, loader.getUncompressedProgress());
+            Assert.assertEquals(monitor.getMaximum(), monitor.getProgress());
+            String note = monitor.getNote(count);
+            Assert.assertTrue(note, note.indexOf(" MB read, ") > 0);
+            Assert.assertTrue(note, note.indexOf(" MB inflated (") > 0);
+            Assert.assertTrue(note, note.indexOf("entries/s") > 0);
+            Assert.assertTrue(monitor.getNote(-1).indexOf("entries/s") < 0);
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the ZippedDBLoader progress: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the formatting of the time remaining.
+     */
+    public void testFormatTime() {
+        Assert.assertEquals("00:00:00", ThroughputMonitor.formatTime(0));
+        Assert.assertEquals("00:01:05", ThroughputMonitor.formatTime(65000));
+        Assert.assertEquals("27:46:40", ThroughputMonitor.formatTime(100000000));
+    }
+}
@@ -12,6 +12,8 @@
  */
 package com.compomics.dbtoolkit.test.io.implementations;
 
+import com.compomics.dbtoolkit.io.implementations.FilterEvaluator;
+import com.compomics.dbtoolkit.io.implementations.FilterStatistics;
 import com.compomics.dbtoolkit.io.implementations.ProteinFilterCollection;
 import com.compomics.dbtoolkit.io.implementations.ProteinMassFilter;
 import com.compomics.dbtoolkit.io.implementations.ProteinResiduCountFilter;
@@ -278,4 +280,152 @@ public class TestProteinFilterCollection extends TestCase {
         Assert.assertTrue(pfc.passesFilter(pass));
         Assert.assertFalse(pfc.passesFilter(noPass));
     }
+
+    /**
+     * This method tests that the evaluation stops as soon as the outcome is known.
+     */
+    public void testShortCircuit() {
+        Protein protein = new Protein(">Test sequence.\nLENNARTMARTENS");
+        CountingFilter pass = new CountingFilter(true);
+        CountingFilter fail = new CountingFilter(false);
+        CountingFilter last = new CountingFilter(true);
+
+        ProteinFilterCollection pfc = new ProteinFilterCollection(ProteinFilterCollection.AND);
+        pfc.add(pass);
+        pfc.add(fail);
+        pfc.add(last);
+        Assert.assertFalse(pfc.passesFilter(protein));
+        Assert.assertEquals(1, pass.iCount);
+        Assert.assertEquals(1, fail.iCount);
+        Assert.assertEquals(0, last.iCount);
+
+        pfc = new ProteinFilterCollection(ProteinFilterCollection.OR, true);
+        pfc.add(fail);
+        pfc.add(pass);
+        pfc.add(last);
+        Assert.assertFalse(pfc.passesFilter(protein));
+        Assert.assertEquals(2, pass.iCount);
+        Assert.assertEquals(2, fail.iCount);
+        Assert.assertEquals(0, last.iCount);
+
+        // Without a decisive Filter, all of them are evaluated.
+        pfc = new ProteinFilterCollection(ProteinFilterCollection.OR);
+        pfc.add(fail);
+        Assert.assertFalse(pfc.passesFilter(protein));
+        Assert.assertEquals(3, fail.iCount);
+    }
+
+    /**
+     * This method tests the reordering of the Filters in adaptive mode.
+     */
+    public void testAdaptive() {
+        Protein[] proteins = new Protein[] {new Protein(">Passes.\nLENNAR"), new Protein(">Does not pass.\nKRISGEVAERT")};
+        // The Filters advance the clock by their cost, so the timings do not depend on the machine.
+        TickingClock clock = new TickingClock();
+        CountingFilter never = new CountingFilter(true, clock, 1);
+        ProteinFilter half = new ProteinSequenceFilter("LENN");
+        CountingFilter expensive = new CountingFilter(false, clock, 1000);
+
+        ProteinFilterCollection pfc = new ProteinFilterCollection(ProteinFilterCollection.AND);
+        pfc.setClock(clock);
+        pfc.add(never);
+        pfc.add(expensive);
+        pfc.add(half);
+        Assert.assertNull(pfc.getStatistics());
+        pfc.setAdaptive(10);
+        Assert.assertEquals(0, pfc.getEvaluationOrder()[0]);
+        for(int i = 0; i < 10; i++) {
+            Assert.assertFalse(pfc.passesFilter(proteins[i%2]));
+        }
+        // All Filters were evaluated while sampling.
+        Assert.assertEquals(10, never.iCount);
+        Assert.assertEquals(10, expensive.iCount);
+        FilterStatistics statistics = pfc.getStatistics();
+        Assert.assertTrue(statistics.isComplete());
+        Assert.assertEquals(10, statistics.getPassCount(0));
+        Assert.assertEquals(0, statistics.getPassCount(1));
+        Assert.assertEquals(5, statistics.getPassCount(2));
+        Assert.assertEquals(0.5, statistics.getPassRate(2), 0.0);
+        Assert.assertEquals(1.0, statistics.getMeanTime(0), 0.0);
+        Assert.assertEquals(1000.0, statistics.getMeanTime(1), 0.0);
+        Assert.assertEquals(0.0, statistics.getMeanTime(2), 0.0);
+
+        // The cheap selective Filter goes first, the Filter that never rejects last.
+        int[] order = pfc.getEvaluationOrder();
+        Assert.assertEquals(2, order[0]);
+        Assert.assertEquals(1, order[1]);
+        Assert.assertEquals(0, order[2]);
+        Assert.assertFalse(pfc.passesFilter(proteins[1]));
+        Assert.assertEquals(10, expensive.iCount);
+        Assert.assertFalse(pfc.passesFilter(proteins[0]));
+        Assert.assertEquals(11, expensive.iCount);
+        Assert.assertEquals(10, never.iCount);
+
+        // Modifying the collection restarts the sampling.
+        pfc.remove(expensive);
+        Assert.assertNull(pfc.getStatistics());
+        Assert.assertEquals(1, pfc.getEvaluationOrder()[1]);
+        Assert.assertTrue(pfc.passesFilter(proteins[0]));
+        Assert.assertEquals(2, pfc.getStatistics().getFilterCount());
+        Assert.assertEquals(1, pfc.getStatistics().getSampledCount());
+
+        // OR collections put the Filters that pass most entries first.
+        pfc = new ProteinFilterCollection(ProteinFilterCollection.OR);
+        pfc.setClock(clock);
+        pfc.add(new CountingFilter(false, clock, 0));
+        pfc.add(half);
+        pfc.add(new CountingFilter(true, clock, 0));
+        pfc.setAdaptive(4);
+        for(int i = 0; i < 4; i++) {
+            Assert.assertTrue(pfc.passesFilter(proteins[i%2]));
+        }
+        order = pfc.getEvaluationOrder();
+        Assert.assertEquals(2, order[0]);
+        Assert.assertEquals(1, order[1]);
+        Assert.assertEquals(0, order[2]);
+    }
+
+    /**
+     * This class implements a clock that only moves when it is advanced.
+     */
+    private static class TickingClock implements FilterEvaluator.Clock {
+        private long iNow = 0;
+
+        public long nanoTime() {
+            return iNow;
+        }
+
+        public void advance(long aTime) {
+            iNow += aTime;
+        }
+    }
+
+    /**
+     * This class implements a ProteinFilter with a fixed outcome and cost that counts its evaluations.
+     */
+    private static class CountingFilter implements ProteinFilter {
+        private boolean iResult = false;
+        private TickingClock iClock = null;
+        private long iCost = 0;
+        private int iCount = 0;
+
+        public CountingFilter(boolean aResult) {
+            this(aResult, new TickingClock(), 0);
+        }
+
+        public CountingFilter(boolean aResult, TickingClock aClock, long aCost) {
+            iResult = aResult;
+            iClock = aClock;
+            iCost = aCost;
+        }
+
+        public boolean passesFilter(Protein aProtein) {
+            iCount++;
+            iClock.advance(iCost);
+            return iResult;
+        }
+
+        public void setInversion(boolean aInvert) {
+        }
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 19:20:44
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.FASTADBLoader;
+import com.compomics.dbtoolkit.io.implementations.ProteinRecord;
+import com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader;
+import com.compomics.dbtoolkit.io.implementations.ZippedFASTADBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.DBRecord;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 19:20:44 $
+ */
+
+/**
+ * This class implements the test scenario for the ProteinRecord class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.ProteinRecord
+ */
+public class TestProteinRecord extends TestCase {
+
+    public TestProteinRecord() {
+        this("Test scenario for the ProteinRecord class.");
+    }
+
+    public TestProteinRecord(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the lazy parsing of a record.
+     */
+    public void testParsing() {
+        ProteinRecord record = new ProteinRecord("  >sw|P12345|TEST_HUMAN Test protein.\nMKLV\nGGT \n");
+        Assert.assertEquals(">sw|P12345|TEST_HUMAN Test protein.", record.getHeaderLine());
+        Assert.assertEquals("MKLVGGT", record.getSequence());
+        Assert.assertEquals(7, record.getLength());
+        Assert.assertEquals("P12345", record.getAccession());
+
+        record = new ProteinRecord(">sw|P12345|TEST_HUMAN Test protein.\nMKLVGGT");
+        Assert.assertEquals("MKLVGGT", record.getSequence());
+        Assert.assertEquals(">sw|P12345|TEST_HUMAN Test protein.\nMKLVGGT", record.getFASTAEntry());
+
+        record = new ProteinRecord(">Header only");
+        Assert.assertEquals(">Header only", record.getHeaderLine());
+        Assert.assertEquals("", record.getSequence());
+
+        // Output.
+        StringBuffer sequence = new StringBuffer();
+        for(int i = 0; i < 130; i++) {
+            sequence.append('A');
+        }
+        record = new ProteinRecord(">Long\n" + sequence);
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        record.writeToFASTAFile(pw);
+        pw.flush();
+        String[] lines = sw.toString().split("\n");
+        Assert.assertEquals(4, lines.length);
+        Assert.assertEquals(">Long", lines[0].trim());
+        Assert.assertEquals(60, lines[1].trim().length());
+        Assert.assertEquals(10, lines[3].trim().length());
+    }
+
+    /**
+     * This method tests the records returned by the loaders against the Protein instances.
+     */
+    public void testLoaders() {
+        try {
+            DBLoader[] loaders = new DBLoader[] {new FASTADBLoader(), new SwissProtDBLoader(), new ZippedFASTADBLoader()};
+            String[] files = new String[] {"testFASTA.fas", "test.spr", "testFASTA.fas.gz"};
+            for(int i = 0; i < loaders.length; i++) {
+                DBLoader loader = loaders[i];
+                loader.load(TestCaseLM.getFullFilePath(files[i]));
+                DBRecord record = null;
+                int count = 0;
+                while((record = loader.nextRecord()) != null) {
+                    count++;
+                    Protein control = record.toProtein();
+                    Assert.assertEquals(control.getSequence().getSequence(), record.getSequence());
+                    Assert.assertEquals(control.getLength(), record.getLength());
+                    Assert.assertEquals(control.getHeader().getAccession(), record.getAccession());
+                }
+                Assert.assertEquals(7, count);
+                loader.reset();
+                Assert.assertEquals(loader.nextProtein().getSequence().getSequence(), loaders[i].getEntryAt(0).getSequence().getSequence());
+                loader.close();
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the ProteinRecords returned by the loaders: " + ioe.getMessage());
+        }
+    }
+}
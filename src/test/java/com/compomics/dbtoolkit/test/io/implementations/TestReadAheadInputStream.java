@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 17-okt-2026
+ * Time: 21:24:50
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.ReadAheadInputStream;
+import com.compomics.util.interfaces.Monitorable;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/17 21:24:50 $
+ */
+
+/**
+ * This class implements the test scenario for the ReadAheadInputStream class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.ReadAheadInputStream
+ */
+public class TestReadAheadInputStream extends TestCase {
+
+    public TestReadAheadInputStream() {
+        this("Test scenario for the ReadAheadInputStream class.");
+    }
+
+    public TestReadAheadInputStream(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests reading the data and the progress reporting.
+     */
+    public void testReading() {
+        try {
+            byte[] data = new byte[10000];
+            for(int i = 0; i < data.length; i++) {
+                data[i] = (byte)i;
+            }
+            final CountingStream source = new CountingStream(new ByteArrayInputStream(data));
+            ReadAheadInputStream in = new ReadAheadInputStream(source, source, 100, 4);
+            Assert.assertEquals(data.length, in.getMaximum());
+            Assert.assertEquals(0, in.monitorProgress());
+            byte[] read = new byte[data.length];
+            int total = 0;
+            read[total++] = (byte)in.read();
+            // The first buffer has been delivered.
+            Assert.assertEquals(100, in.monitorProgress());
+            int count = 0;
+            while((count = in.read(read, total, Math.min(37, read.length - total))) > 0) {
+                total += count;
+                // The progress never runs ahead of the data delivered by more than a buffer.
+                Assert.assertTrue(in.monitorProgress() >= total);
+                Assert.assertTrue(in.monitorProgress() <= total + 100);
+            }
+            Assert.assertEquals(data.length, total);
+            Assert.assertEquals(-1, in.read());
+            Assert.assertEquals(data.length, in.monitorProgress());
+            for(int i = 0; i < data.length; i++) {
+                Assert.assertEquals(data[i], read[i]);
+            }
+            in.close();
+            Assert.assertTrue(source.iClosed);
+
+            // Closing before the end.
+            CountingStream unread = new CountingStream(new ByteArrayInputStream(data));
+            in = new ReadAheadInputStream(unread, null, 10, 2);
+            Assert.assertEquals(0, in.read());
+            in.close();
+            Assert.assertTrue(unread.iClosed);
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the ReadAheadInputStream: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the passing on of errors in the read-ahead thread.
+     */
+    public void testError() {
+        InputStream failing = new InputStream() {
+            private int iCount = 0;
+            public int read() throws IOException {
+                if(iCount++ >= 50) {
+                    throw new IOException("Test");
+                }
+                return 'A';
+            }
+        };
+        ReadAheadInputStream in = new ReadAheadInputStream(failing, null, 20, 2);
+        int count = 0;
+        try {
+            while(in.read() >= 0) {
+                count++;
+            }
+            fail("ReadAheadInputStream should have passed on the IOException thrown while reading ahead!");
+        } catch(IOException ioe) {
+            Assert.assertEquals("Test", ioe.getMessage());
+            Assert.assertEquals(50, count);
+        }
+    }
+
+    /**
+     * Stream that counts the bytes read from it.
+     */
+    private static class CountingStream extends InputStream implements Monitorable {
+        private InputStream iIn = null;
+        private int iCount = 0;
+        private int iMax = 0;
+        private boolean iClosed = false;
+
+        public CountingStream(InputStream aIn) throws IOException {
+            iIn = aIn;
+            iMax = aIn.available();
+        }
+
+        public int read() throws IOException {
+            int result = iIn.read();
+            if(result >= 0) {
+                iCount++;
+            }
+            return result;
+        }
+
+        public int read(byte[] aBytes, int aOffset, int aLength) throws IOException {
+            int result = iIn.read(aBytes, aOffset, aLength);
+            if(result > 0) {
+                iCount += result;
+            }
+            return result;
+        }
+
+        public void close() {
+            iClosed = true;
+        }
+
+        public int getMaximum() {
+            return iMax;
+        }
+
+        public int monitorProgress() {
+            return iCount;
+        }
+    }
+}
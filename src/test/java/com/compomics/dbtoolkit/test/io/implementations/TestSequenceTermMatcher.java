@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 07:52:39
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.SequenceTermMatcher;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 07:52:39 $
+ */
+
+/**
+ * This class implements the test scenario for the SequenceTermMatcher class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.SequenceTermMatcher
+ */
+public class TestSequenceTermMatcher extends TestCase {
+
+    public TestSequenceTermMatcher() {
+        this("Test scenario for the SequenceTermMatcher class.");
+    }
+
+    public TestSequenceTermMatcher(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the matching of overlapping and nested terms.
+     */
+    public void testMatch() {
+        String[] terms = new String[] {"KR", "DE", "NG", "ARTM", "RTMAR", "R", "LENNARTS", "MA"};
+        SequenceTermMatcher matcher = new SequenceTermMatcher(terms);
+        Assert.assertEquals(terms.length, matcher.getTermCount());
+
+        BitSet result = matcher.match("LENNARTMARTENS");
+        boolean[] expected = new boolean[] {false, false, false, true, true, true, false, true};
+        for(int i = 0; i < terms.length; i++) {
+            Assert.assertEquals(terms[i], expected[i], result.get(i));
+            Assert.assertEquals(terms[i], expected[i], result.get(terms.length + i));
+        }
+
+        // Matches at the very start only set the first bit.
+        result = matcher.match("MAKRXDE?");
+        expected = new boolean[] {true, true, false, false, false, true, false, true};
+        for(int i = 0; i < terms.length; i++) {
+            Assert.assertEquals(terms[i], expected[i], result.get(i));
+            Assert.assertEquals(terms[i], expected[i] && i != 7, result.get(terms.length + i));
+        }
+        Assert.assertTrue(matcher.match("").isEmpty());
+
+        // Non-ASCII characters are part of the alphabet as well.
+        matcher = new SequenceTermMatcher(new String[] {"A\u00c9", "\u00c9B"});
+        result = matcher.match("XA\u00c9BX");
+        Assert.assertTrue(result.get(0));
+        Assert.assertTrue(result.get(1));
+        Assert.assertFalse(matcher.match("XA\u00c8BX").get(0));
+
+        try {
+            new SequenceTermMatcher(new String[] {"K", ""});
+            fail("No IllegalArgumentException thrown for an empty term!");
+        } catch(IllegalArgumentException iae) {
+            // Okay.
+        }
+    }
+
+    /**
+     * This method compares the matches with those found by 'indexOf' for random terms and sequences.
+     */
+    public void testRandom() {
+        Random random = new Random(1234);
+        String alphabet = "MKRDEA";
+        for(int i = 0; i < 50; i++) {
+            String[] terms = new String[1 + random.nextInt(20)];
+            for(int j = 0; j < terms.length; j++) {
+                terms[j] = this.randomSequence(random, alphabet, 1 + random.nextInt(4));
+            }
+            SequenceTermMatcher matcher = new SequenceTermMatcher(terms);
+            for(int j = 0; j < 20; j++) {
+                String sequence = this.randomSequence(random, alphabet + "X", random.nextInt(40));
+                BitSet result = matcher.match(sequence);
+                for(int k = 0; k < terms.length; k++) {
+                    Assert.assertEquals(sequence.indexOf(terms[k]) >= 0, result.get(k));
+                    Assert.assertEquals(sequence.indexOf(terms[k], 1) >= 0, result.get(terms.length + k));
+                }
+            }
+        }
+    }
+
+    /**
+     * This method creates a random sequence.
+     *
+     * @param   aRandom Random to use.
+     * @param   aAlphabet   String with the residues to choose from.
+     * @param   aLength int with the length of the sequence.
+     * @return  String  with the sequence.
+     */
+    private String randomSequence(Random aRandom, String aAlphabet, int aLength) {
+        StringBuffer result = new StringBuffer(aLength);
+        for(int i = 0; i < aLength; i++) {
+            result.append(aAlphabet.charAt(aRandom.nextInt(aAlphabet.length())));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 04:40:06
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.DBLoaderLoader;
+import com.compomics.dbtoolkit.io.implementations.*;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Vector;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 04:40:06 $
+ */
+
+/**
+ * This class implements the test scenario for the ShardedFASTAWriter class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.ShardedFASTAWriter
+ */
+public class TestShardedFASTAWriter extends TestCase {
+
+    /**
+     * The directory the shards are written to.
+     */
+    private File iDir = null;
+
+    public TestShardedFASTAWriter() {
+        this("Test scenario for the ShardedFASTAWriter class.");
+    }
+
+    public TestShardedFASTAWriter(String aName) {
+        super(aName);
+    }
+
+    protected void setUp() throws Exception {
+        iDir = File.createTempFile("testSharded", "");
+        iDir.delete();
+        iDir.mkdir();
+    }
+
+    protected void tearDown() throws Exception {
+        File[] files = iDir.listFiles();
+        for(int i = 0; i < files.length; i++) {
+            files[i].delete();
+        }
+        iDir.delete();
+    }
+
+    /**
+     * This method tests the naming of the shards and the manifest.
+     */
+    public void testNames() {
+        File output = new File(iDir, "db.fas");
+        Assert.assertEquals("db.01.fas", ShardedFASTAWriter.getShardFile(output, 0, 4).getName());
+        Assert.assertEquals("db.04.fas", ShardedFASTAWriter.getShardFile(output, 3, 4).getName());
+        Assert.assertEquals("db.007.fas", ShardedFASTAWriter.getShardFile(output, 6, 120).getName());
+        Assert.assertEquals("db.02.fasta.gz", ShardedFASTAWriter.getShardFile(new File(iDir, "db.fasta.gz"), 1, 2).getName());
+        Assert.assertEquals("db.02", ShardedFASTAWriter.getShardFile(new File(iDir, "db"), 1, 2).getName());
+        Assert.assertEquals(iDir.getAbsoluteFile(), ShardedFASTAWriter.getShardFile(output, 0, 2).getParentFile());
+        Assert.assertEquals("db.fas.manifest", ShardedFASTAWriter.getManifestFile(output).getName());
+
+        Assert.assertEquals(ShardedFASTAWriter.ROUND_ROBIN, ShardedFASTAWriter.parseStrategy("roundrobin"));
+        Assert.assertEquals(ShardedFASTAWriter.RESIDUES, ShardedFASTAWriter.parseStrategy("Residues"));
+        Assert.assertEquals(ShardedFASTAWriter.SEQUENCE_HASH, ShardedFASTAWriter.parseStrategy(" sequence"));
+        Assert.assertEquals(ShardedFASTAWriter.ACCESSION_HASH, ShardedFASTAWriter.parseStrategy("accession"));
+        try {
+            ShardedFASTAWriter.parseStrategy("random");
+            fail("No IllegalArgumentException thrown for an unknown strategy!");
+        } catch(IllegalArgumentException iae) {
+            // Okay.
+        }
+    }
+
+    /**
+     * This method tests the round-robin strategy, and reading the shards back through the manifest.
+     */
+    public void testRoundRobin() {
+        try {
+            Vector original = this.readAll(TestCaseLM.getFullFilePath("testFASTA.fas"));
+            File output = new File(iDir, "db.fas");
+            ShardedFASTAWriter writer = this.write(original, output, 3, ShardedFASTAWriter.ROUND_ROBIN);
+            Assert.assertEquals(7, writer.getEntryCount());
+
+            File[] shards = writer.getShardFiles();
+            Assert.assertEquals(3, shards.length);
+            Assert.assertFalse(output.exists());
+            Assert.assertEquals(3, this.readAll(shards[0].getPath()).size());
+            Assert.assertEquals(2, this.readAll(shards[1].getPath()).size());
+            Assert.assertEquals(2, this.readAll(shards[2].getPath()).size());
+            Assert.assertEquals(original.get(1), this.readAll(shards[1].getPath()).get(0));
+
+            // The manifest reads back as the complete DB.
+            File manifest = ShardedFASTAWriter.getManifestFile(output);
+            Assert.assertTrue(manifest.exists());
+            Vector copy = this.readAll("@" + manifest.getPath());
+            Collections.sort(original);
+            Collections.sort(copy);
+            Assert.assertEquals(original, copy);
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing round-robin sharding: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the balancing of the residue counts.
+     */
+    public void testResidues() {
+        try {
+            Vector original = this.readAll(TestCaseLM.getFullFilePath("testFASTA.fas"));
+            File output = new File(iDir, "db.fas.gz");
+            ShardedFASTAWriter writer = this.write(original, output, 2, ShardedFASTAWriter.RESIDUES);
+            File[] shards = writer.getShardFiles();
+            long[] residues = new long[shards.length];
+            long longest = 0;
+            int total = 0;
+            for(int i = 0; i < shards.length; i++) {
+                Vector entries = this.readAll(shards[i].getPath());
+                total += entries.size();
+                for(int j = 0; j < entries.size(); j++) {
+                    long length = new Protein((String)entries.get(j)).getLength();
+                    residues[i] += length;
+                    longest = Math.max(longest, length);
+                }
+            }
+            Assert.assertEquals(7, total);
+            // Greedy assignment keeps the difference below the length of the longest entry.
+            Assert.assertTrue(Math.abs(residues[0] - residues[1]) <= longest);
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing residue-balanced sharding: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the hash strategies: identical keys always end up in the same shard.
+     */
+    public void testHash() {
+        try {
+            Vector original = this.readAll(TestCaseLM.getFullFilePath("testFASTA.fas"));
+            Vector doubled = new Vector(original);
+            doubled.addAll(original);
+            int[] strategies = new int[] {ShardedFASTAWriter.SEQUENCE_HASH, ShardedFASTAWriter.ACCESSION_HASH};
+            for(int i = 0; i < strategies.length; i++) {
+                File output = new File(iDir, "hash" + i + ".fas");
+                ShardedFASTAWriter writer = this.write(doubled, output, 3, strategies[i]);
+                File[] shards = writer.getShardFiles();
+                HashMap seen = new HashMap();
+                int total = 0;
+                for(int j = 0; j < shards.length; j++) {
+                    Vector entries = this.readAll(shards[j].getPath());
+                    total += entries.size();
+                    for(int k = 0; k < entries.size(); k++) {
+                        Object previous = seen.put(entries.get(k), new Integer(j));
+                        Assert.assertTrue(previous == null || previous.equals(new Integer(j)));
+                    }
+                }
+                Assert.assertEquals(14, total);
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing hash-based sharding: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method writes the specified FASTA entries to the shards.
+     *
+     * @param   aEntries    Vector with the FASTA entries.
+     * @param   aOutput File the shards are named after.
+     * @param   aShards int with the number of shards.
+     * @param   aStrategy   int with the sharding strategy.
+     * @return  ShardedFASTAWriter  that has been closed.
+     * @exception   IOException when writing failed.
+     */
+    private ShardedFASTAWriter write(Vector aEntries, File aOutput, int aShards, int aStrategy) throws IOException {
+        FASTAWriter writer = ShardedFASTAWriter.open(aOutput, false, aShards, aStrategy);
+        Assert.assertTrue(writer instanceof ShardedFASTAWriter);
+        for(int i = 0; i < aEntries.size(); i++) {
+            writer.write(new Protein((String)aEntries.get(i)));
+        }
+        writer.close();
+        return (ShardedFASTAWriter)writer;
+    }
+
+    /**
+     * This method reads all entries from the specified DB as FASTA entries
+     * with their sequence on a single line.
+     *
+     * @param   aName   String with the DB to read.
+     * @return  Vector  with the FASTA entries.
+     * @exception   IOException when the DB could not be read.
+     */
+    private Vector readAll(String aName) throws IOException {
+        DBLoader loader = DBLoaderLoader.loadDB(new File(aName));
+        Vector result = new Vector();
+        Protein p = null;
+        while((p = loader.nextProtein()) != null) {
+            result.add(p.getHeader().getFullHeaderWithAddenda() + "\n" + p.getSequence().getSequence());
+        }
+        loader.close();
+        return result;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 05:37:19
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader;
+import com.compomics.dbtoolkit.io.implementations.SwissProtFormat;
+import com.compomics.util.junit.TestCaseLM;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 05:37:19 $
+ */
+
+/**
+ * This class implements the test scenario for the SwissProtFormat class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.SwissProtFormat
+ */
+public class TestSwissProtFormat extends TestCase {
+
+    public TestSwissProtFormat() {
+        this("Test scenario for the SwissProtFormat class.");
+    }
+
+    public TestSwissProtFormat(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the parsing of the entries in a SwissProt file with the format from the classpath.
+     */
+    public void testParse() {
+        try {
+            SwissProtFormat format = SwissProtFormat.getInstance();
+            Assert.assertSame(format, SwissProtFormat.getInstance());
+            Assert.assertEquals(0, format.getIndex("ID"));
+            Assert.assertTrue(format.getIndex("[RN]") > 0);
+            Assert.assertEquals(-1, format.getIndex("RN"));
+
+            SwissProtDBLoader loader = new SwissProtDBLoader();
+            loader.load(TestCaseLM.getFullFilePath("test.spr"));
+            String raw = loader.nextRawEntry();
+            SwissProtFormat.Entry entry = format.parse(raw);
+            Assert.assertEquals("ZW10_MOUSE     STANDARD;      PRT;   258 AA.", entry.get("ID"));
+            Assert.assertEquals("O54692;", entry.get("AC"));
+            Assert.assertEquals(3, entry.get("DT").split("\n").length);
+            Assert.assertEquals("", entry.get("OG"));
+            Assert.assertNull(entry.get("[RN]"));
+            Assert.assertTrue(entry.get("  ").startsWith("VVPTYHKENL RKLPQLAAIH"));
+
+            ArrayList references = (ArrayList)entry.get(format.getIndex("[RN]"));
+            Assert.assertEquals(1, references.size());
+            HashMap reference = (HashMap)references.get(0);
+            Assert.assertEquals("[1]", reference.get("RN"));
+            Assert.assertEquals("J. Cell Biol. 138:1289-1301(1997).", reference.get("RL"));
+
+            // The HashMap view holds the same values.
+            HashMap map = loader.processRawData(raw);
+            Assert.assertEquals(entry.get("DE"), map.get("DE"));
+            Assert.assertEquals(references, map.get("[RN]"));
+
+            // Entries can be re-used.
+            String second = loader.nextRawEntry();
+            format.parse(second, entry);
+            Assert.assertEquals(loader.processRawData(second).get("AC"), entry.get("AC"));
+            Assert.assertFalse("O54692;".equals(entry.get("AC")));
+            loader.close();
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the parsing of SwissProt entries: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the extraction of a few fields.
+     */
+    public void testExtract() {
+        try {
+            SwissProtFormat format = SwissProtFormat.getInstance();
+            SwissProtDBLoader loader = new SwissProtDBLoader();
+            loader.load(TestCaseLM.getFullFilePath("test.spr"));
+            String[] keys = new String[] {"OX", "AC", "KW", "OC", "OG", "  "};
+            String raw = null;
+            while((raw = loader.nextRawEntry()) != null) {
+                HashMap full = loader.processRawData(raw);
+                HashMap extracted = format.extract(raw, keys);
+                Assert.assertEquals(keys.length, extracted.size());
+                for(int i = 0; i < keys.length; i++) {
+                    Assert.assertEquals(full.get(keys[i]), extracted.get(keys[i]));
+                }
+            }
+            loader.close();
+
+            // Lines after the last requested key are not read, so they need not conform to the format.
+            String partial = "ID   TEST\nAC   P1; P2;\nAC   P3;\nDT   one\nXX   unknown\n";
+            HashMap extracted = format.extract(partial, new String[] {"AC", "ID"});
+            Assert.assertEquals("P1; P2;\nP3;", extracted.get("AC"));
+            Assert.assertEquals("TEST", extracted.get("ID"));
+            // Subsections require the entire entry.
+            try {
+                format.extract(partial, new String[] {"AC", "[RN]"});
+                fail("No IOException thrown when parsing an invalid entry!");
+            } catch(IOException ioe) {
+                // Okay.
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the extraction of SwissProt fields: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the copying and wrapping of the sequence.
+     */
+    public void testAppendSequence() {
+        try {
+            // Sequences of up to 59 residues are not wrapped, longer ones every 58 residues.
+            int[] lengths = new int[] {1, 58, 59, 60, 116, 117};
+            for(int i = 0; i < lengths.length; i++) {
+                String sequence = this.residues(lengths[i]);
+                String expected = sequence;
+                if(lengths[i] == 60) {
+                    expected = sequence.substring(0, 58) + "\n" + sequence.substring(58);
+                } else if(lengths[i] > 60) {
+                    expected = sequence.substring(0, 58) + "\n" + sequence.substring(58, 116) + "\n" + sequence.substring(116);
+                }
+                StringBuffer raw = new StringBuffer("ID   TEST\nSQ   SEQUENCE\n");
+                for(int j = 0; j < sequence.length(); j += 10) {
+                    raw.append("     " + sequence.substring(j, Math.min(j + 10, sequence.length())) + " \n");
+                }
+                StringBuffer result = new StringBuffer(">");
+                SwissProtFormat.appendSequence(raw.toString(), result, false);
+                Assert.assertEquals(">" + sequence, result.toString());
+                result = new StringBuffer();
+                SwissProtFormat.appendSequence(raw.toString(), result, true);
+                Assert.assertEquals(expected, result.toString());
+            }
+
+            // The sequence ends at the first line that is not a sequence line.
+            StringBuffer result = new StringBuffer();
+            SwissProtFormat.appendSequence("ID   TEST\nSQ   SEQUENCE\n     ABC DEF\n     GHI\n]]\n     KLM", result, false);
+            Assert.assertEquals("ABCDEFGHI", result.toString());
+
+            try {
+                SwissProtFormat.appendSequence("ID   TEST\n     ABC\n", result, false);
+                fail("No IOException thrown for an entry without an 'SQ' line!");
+            } catch(IOException ioe) {
+                // Okay.
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the appending of the sequence: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the interpretation of the coded occurrences and (nested) subsections.
+     */
+    public void testDefinition() {
+        try {
+            SwissProtFormat format = new SwissProtFormat(new BufferedReader(new StringReader(
+                    "ID,1\n\nDT,2\nCC,0\n[RN,-1\n[RA,0\nRB,1]\nRL,1]\n  ,-1\n")));
+            SwissProtFormat.Entry entry = format.parse("ID   TEST\nDT   one\nDT   two\nRN   [1]\nRA   first\nRB   x\nRA   second\nRB   y\n" +
+                    "RL   ref1\nRN   [2]\nRL   ref2\n     ABC DEF\n     GHI\n");
+            Assert.assertEquals("TEST", entry.get("ID"));
+            Assert.assertEquals("one\ntwo", entry.get("DT"));
+            Assert.assertEquals("", entry.get("CC"));
+            Assert.assertEquals("ABC DEF\nGHI", entry.get("  "));
+
+            ArrayList references = (ArrayList)entry.toHashMap().get("[RN]");
+            Assert.assertEquals(2, references.size());
+            HashMap first = (HashMap)references.get(0);
+            Assert.assertEquals("[1]", first.get("RN"));
+            Assert.assertEquals("ref1", first.get("RL"));
+            ArrayList authors = (ArrayList)first.get("[RA]");
+            Assert.assertEquals(2, authors.size());
+            Assert.assertEquals("second", ((HashMap)authors.get(1)).get("RA"));
+            Assert.assertEquals("y", ((HashMap)authors.get(1)).get("RB"));
+            Assert.assertEquals(0, ((ArrayList)((HashMap)references.get(1)).get("[RA]")).size());
+
+            // Required keys should be present.
+            try {
+                format.parse("DT   one\nDT   two\n     ABC\n");
+                fail("No IOException thrown for a missing required key!");
+            } catch(IOException ioe) {
+                Assert.assertTrue(ioe.getMessage().indexOf("'ID'") >= 0);
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the SwissProt format definition: " + ioe.getMessage());
+        }
+
+        try {
+            new SwissProtFormat(new BufferedReader(new StringReader("ID,1\n[RN,-1\nRL,1\n")));
+            fail("No IOException thrown for an unbalanced subsection!");
+        } catch(IOException ioe) {
+            // Okay.
+        }
+    }
+
+    /**
+     * This method tests matching the lines with a line key in place.
+     */
+    public void testMatchesLines() {
+        final ArrayList parts = new ArrayList();
+        SwissProtFormat.LineMatcher matcher = new SwissProtFormat.LineMatcher() {
+            public boolean matches(String aRaw, int aStart, int aEnd, boolean aHeader) {
+                String part = aRaw.substring(aStart, aEnd);
+                parts.add((aHeader?"H:":"L:") + part);
+                return part.indexOf("MATCH") >= 0;
+            }
+        };
+        // Only the first run of lines with the key is read, and no lines with a longer key.
+        Assert.assertFalse(SwissProtFormat.matchesLines("ID   TEST\nACX  NOPE\nAC   P1;\nAC   P2;\nDE   Test.\nAC   P3;\n//", "AC   ", matcher));
+        Assert.assertEquals(2, parts.size());
+        Assert.assertEquals("L:P1;", parts.get(0));
+        Assert.assertEquals("L:P2;", parts.get(1));
+        // Matching stops at the first matching line.
+        parts.clear();
+        Assert.assertTrue(SwissProtFormat.matchesLines("AC   MATCH;\r\nAC   P2;\n", "AC   ", matcher));
+        Assert.assertEquals(1, parts.size());
+        Assert.assertEquals("L:MATCH;\r", parts.get(0));
+        parts.clear();
+        Assert.assertFalse(SwissProtFormat.matchesLines("ID   TEST\nDE   AC   MATCH\n//", "AC   ", matcher));
+        Assert.assertEquals(0, parts.size());
+        // For a FASTA entry, only the header line is matched.
+        Assert.assertTrue(SwissProtFormat.matchesLines("  >sw|P1|MATCH_HUMAN\nAC   P2;", "AC   ", matcher));
+        Assert.assertEquals(1, parts.size());
+        Assert.assertEquals("H:>sw|P1|MATCH_HUMAN", parts.get(0));
+        Assert.assertFalse(SwissProtFormat.matchesLines("", "AC   ", matcher));
+    }
+
+    /**
+     * This method creates a sequence of the specified length.
+     *
+     * @param   aLength int with the number of residues.
+     * @return  String  with the residues 'A', 'B', 'C', ...
+     */
+    private String residues(int aLength) {
+        StringBuffer result = new StringBuffer(aLength);
+        for(int i = 0; i < aLength; i++) {
+            result.append((char)('A' + i%20));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 10:59:31
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.TaxonomyTree;
+import com.compomics.util.junit.TestCaseLM;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.BitSet;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 10:59:31 $
+ */
+
+/**
+ * This class implements the test scenario for the TaxonomyTree class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.TaxonomyTree
+ */
+public class TestTaxonomyTree extends TestCase {
+
+    public TestTaxonomyTree() {
+        this("Test scenario for the TaxonomyTree class.");
+    }
+
+    public TestTaxonomyTree(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests reading the tree and walking it.
+     */
+    public void testTree() {
+        try {
+            File nodes = new File(TestCaseLM.getFullFilePath("nodes.dmp"));
+            TaxonomyTree tree = TaxonomyTree.load(nodes);
+            Assert.assertEquals(19, tree.size());
+            // The tree is only read once, also when specified by its directory.
+            Assert.assertSame(tree, TaxonomyTree.load(nodes));
+            Assert.assertSame(tree, TaxonomyTree.load(nodes.getParentFile()));
+
+            Assert.assertEquals(1, tree.getParent(1));
+            Assert.assertEquals(40674, tree.getParent(9606));
+            Assert.assertEquals(0, tree.getParent(9605));
+            Assert.assertEquals(0, tree.getParent(-1));
+            Assert.assertEquals(0, tree.getParent(Integer.MAX_VALUE));
+            Assert.assertTrue(tree.contains(10090));
+            Assert.assertFalse(tree.contains(10091));
+            Assert.assertEquals(0, tree.getDepth(1));
+            Assert.assertEquals(2, tree.getDepth(2));
+            Assert.assertEquals(7, tree.getDepth(9606));
+            Assert.assertEquals(-1, tree.getDepth(9605));
+
+            BitSet mammals = tree.getDescendants(new int[] {40674});
+            Assert.assertEquals(3, mammals.cardinality());
+            Assert.assertTrue(mammals.get(40674));
+            Assert.assertTrue(mammals.get(9606));
+            Assert.assertTrue(mammals.get(10090));
+            Assert.assertFalse(mammals.get(9031));
+
+            BitSet selection = tree.getDescendants(new int[] {2, 8782, 6231, 12345678});
+            Assert.assertEquals(7, selection.cardinality());
+            Assert.assertTrue(selection.get(562));
+            Assert.assertTrue(selection.get(9031));
+            Assert.assertTrue(selection.get(6239));
+            Assert.assertFalse(selection.get(9606));
+            Assert.assertFalse(selection.get(1340384));
+
+            Assert.assertEquals(tree.size(), tree.getDescendants(new int[] {1}).cardinality());
+            Assert.assertEquals(0, tree.getDescendants(new int[0]).cardinality());
+        } catch(IOException ioe) {
+            fail("IOException while reading the taxonomy tree: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests looking up clades by name.
+     */
+    public void testFindTaxIDs() {
+        try {
+            TaxonomyTree tree = TaxonomyTree.load(new File(TestCaseLM.getFullFilePath("nodes.dmp")));
+            int[] found = tree.findTaxIDs(new String[] {"mammalia", "Homo sapiens", "Bacteria", "Bacteria <walking sticks>", "VERTEBRATA"});
+            Assert.assertEquals(40674, found[0]);
+            Assert.assertEquals(9606, found[1]);
+            // The shared name goes to the taxon closest to the root.
+            Assert.assertEquals(2, found[2]);
+            Assert.assertEquals(1340384, found[3]);
+            Assert.assertEquals(7742, found[4]);
+
+            try {
+                tree.findTaxIDs(new String[] {"Mammalia", "mammals"});
+                fail("No IOException thrown for a name that is not a scientific name!");
+            } catch(IOException ioe) {
+                Assert.assertTrue(ioe.getMessage().indexOf("mammals") >= 0);
+            }
+            try {
+                tree.findTaxIDs(new String[] {""});
+                fail("No IOException thrown for an empty name!");
+            } catch(IOException ioe) {
+                // Expected.
+            }
+        } catch(IOException ioe) {
+            fail("IOException while looking up taxonomy names: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the detection of invalid 'nodes.dmp' files.
+     */
+    public void testInvalidNodes() {
+        File temp = null;
+        try {
+            temp = File.createTempFile("testTaxonomyTree", ".dmp");
+            PrintWriter pw = new PrintWriter(new FileWriter(temp));
+            pw.print("1\t|\t1\t|\tno rank\t|\r\n\r\n2\t|\t1\t|\tsuperkingdom\t|\r\n3\t|\t|\tspecies\t|\r\n");
+            pw.close();
+            try {
+                TaxonomyTree.load(temp);
+                fail("No IOException thrown for a node without parent!");
+            } catch(IOException ioe) {
+                Assert.assertTrue(ioe.getMessage().indexOf("Line 3") >= 0);
+            }
+
+            pw = new PrintWriter(new FileWriter(temp));
+            pw.print("2\t|\t1\t|\tsuperkingdom\t|\n");
+            pw.close();
+            temp.setLastModified(temp.lastModified() + 2000);
+            try {
+                TaxonomyTree.load(temp);
+                fail("No IOException thrown for a tree without root!");
+            } catch(IOException ioe) {
+                // Expected.
+            }
+
+            try {
+                TaxonomyTree.load(new File(temp.getPath() + ".missing"));
+                fail("No IOException thrown for a missing nodes file!");
+            } catch(IOException ioe) {
+                // Expected.
+            }
+        } catch(IOException ioe) {
+            fail("IOException while writing a nodes file: " + ioe.getMessage());
+        } finally {
+            if(temp != null) {
+                temp.delete();
+            }
+        }
+    }
+}
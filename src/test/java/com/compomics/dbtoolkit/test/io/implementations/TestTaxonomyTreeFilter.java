@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 11:14:52
+ */
+package com.compomics.dbtoolkit.test.io.implementations;
+
+import com.compomics.dbtoolkit.io.implementations.FASTAHeaderFilter;
+import com.compomics.dbtoolkit.io.implementations.FilterCollection;
+import com.compomics.dbtoolkit.io.implementations.TaxonomyTree;
+import com.compomics.dbtoolkit.io.implementations.TaxonomyTreeFilter;
+import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.FieldFilter;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
+import com.compomics.util.junit.TestCaseLM;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.HashMap;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 11:14:52 $
+ */
+
+/**
+ * This class implements the test scenario for the TaxonomyTreeFilter class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.io.implementations.TaxonomyTreeFilter
+ */
+public class TestTaxonomyTreeFilter extends TestCase {
+
+    public TestTaxonomyTreeFilter() {
+        this("Test scenario for the TaxonomyTreeFilter class.");
+    }
+
+    public TestTaxonomyTreeFilter(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the filter on SwissProt entries.
+     */
+    public void testSwissProt() {
+        try {
+            String nodes = TestCaseLM.getFullFilePath("nodes.dmp");
+            Filter filter = new TaxonomyTreeFilter("Mammalia@" + nodes);
+            Assert.assertTrue(filter instanceof FieldFilter);
+            boolean[] expected = new boolean[] {true, true, true, false, false, true, true};
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", filter, expected);
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", new TaxonomyTreeFilter("Mammalia@" + nodes, true), FilterTestUtil.invert(expected));
+
+            // Clades by name and by taxonomy ID, the directory instead of the file.
+            String dir = new File(nodes).getParent();
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", new TaxonomyTreeFilter(" Vertebrata @" + dir),
+                              new boolean[] {true, true, true, false, true, true, true});
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", new TaxonomyTreeFilter("6231; 8782, bacteria@" + nodes),
+                              new boolean[] {false, false, false, true, true, false, false});
+
+            // Matching on the extracted 'OX' field.
+            TaxonomyTreeFilter ttf = new TaxonomyTreeFilter("9606@" + nodes);
+            Assert.assertEquals(1, ttf.getTaxonCount());
+            HashMap entry = new HashMap();
+            entry.put("OX", "NCBI_TaxID=9606;");
+            Assert.assertTrue(ttf.passesFilter(entry));
+            entry.put("OX", "NCBI_TaxID=10090;");
+            Assert.assertFalse(ttf.passesFilter(entry));
+
+            // Multiple 'OX' lines and taxonomy IDs, and an entry without any.
+            Assert.assertTrue(ttf.passesFilter("ID   TEST\nOX   NCBI_TaxID=10090;\nOX   NCBI_TaxID=562, 9606;\n//"));
+            Assert.assertFalse(ttf.passesFilter("ID   TEST\nOX   NCBI_TaxID=10090;\nDE   NCBI_TaxID=9606.\n//"));
+            Assert.assertFalse(ttf.passesFilter("ID   TEST\nDE   Test.\n//"));
+            Assert.assertTrue(ttf.passesFilter("OX   NCBI_TaxID=9606;\r\n"));
+        } catch(IOException ioe) {
+            fail("IOException while testing the TaxonomyTreeFilter on SwissProt entries: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests the filter on FASTA entries and headers.
+     */
+    public void testFASTA() {
+        File fasta = null;
+        try {
+            fasta = File.createTempFile("testTaxonomyTreeFilter", ".fas");
+            PrintWriter pw = new PrintWriter(new FileWriter(fasta));
+            pw.println(">sp|O54692|ZW10_MOUSE Centromere/kinetochore protein zw10 homolog OS=Mus musculus OX=10090 GN=Zw10 PE=1 SV=1");
+            pw.println("MASFVTEVLAHSGRLEKEDLGTRISRLTRRVEEIKGEVCNMISKKYSEFLPSMQSAQGLITQVDKLSEDIDLLKSRIESEV");
+            pw.println(">UniRef50_P21541 Early embryogenesis ZYG-11 protein n=2 Tax=Caenorhabditis elegans TaxID=6239 RepID=ZY11_CAEEL");
+            pw.println("MSEVEQFANDLFLQQTKDVVLASNMLEEVLRGGNQKNIVEMLQTRLFLFVRTSRAQTYVDALVHFCKLAAEHENLLLLVDES");
+            pw.println(">IPI:IPI00000001.1|SWISS-PROT:Q04584|Tax_Id=9031 Zyxin");
+            pw.println("MAAPRPSPAISVSVSAPAFYAPQKKFGPVVAPKPKVNPFRPGDSEPPVAAGAQRAQMGRVGEIPPPPPEDFPLPPPPLAGDG");
+            pw.println(">sw|Q15942|ZYX_HUMAN Zyxin (Zyxin 2).");
+            pw.println("MAAPRPSPAISVSVSAPAFYAPQKKFGPVVAPKPKVNPFRPGDSEPPPAPGAQRAQMGRVGEIPPPPPEDFPLPPPPLAGDG");
+            pw.close();
+
+            String nodes = TestCaseLM.getFullFilePath("nodes.dmp");
+            boolean[] expected = new boolean[] {false, true, true, false};
+            FilterTestUtil.checkEntries(DBLoader.FASTA, fasta.getPath(), new TaxonomyTreeFilter("Nematoda, 8782@" + nodes), expected);
+            FilterTestUtil.checkEntries(DBLoader.FASTA, fasta.getPath(), new TaxonomyTreeFilter("6231, Aves@" + nodes), expected);
+            // An entry without a taxonomy tag is never in the clades.
+            FilterTestUtil.checkEntries(DBLoader.FASTA, fasta.getPath(), new TaxonomyTreeFilter("6231, Aves@" + nodes, true), FilterTestUtil.invert(expected));
+
+            TaxonomyTreeFilter ttf = new TaxonomyTreeFilter("Mammalia@" + nodes);
+            Assert.assertTrue(ttf.isHeaderOnly());
+            Assert.assertTrue(ttf.passesHeader(">sp|P12345|X_HUMAN Desc OS=Homo sapiens OX=9606 GN=X"));
+            Assert.assertTrue(ttf.passesHeader(">UniRef90_P12345 Desc n=2 Tax=Mus musculus TaxID=10090 RepID=X_MOUSE"));
+            Assert.assertTrue(ttf.passesHeader(">IPI:IPI00000001.1|Tax_Id=9606 Desc"));
+            Assert.assertTrue(ttf.passesHeader(">X ox=9031 OX=40674"));
+            Assert.assertTrue(ttf.passesHeader(">X NCBI_TaxID=9031, 9606;"));
+            // Not a tag, or not a taxonomy ID.
+            Assert.assertFalse(ttf.passesHeader(">X BOX=9606"));
+            Assert.assertFalse(ttf.passesHeader(">X OX=Homo 9606"));
+            Assert.assertFalse(ttf.passesHeader(">X OX=99999999999999 9606"));
+            Assert.assertFalse(ttf.passesHeader(">X Homo sapiens 9606"));
+            Assert.assertFalse(ttf.passesHeader(""));
+            Assert.assertTrue(ttf.passesFilter(">X OX=9606\r\nLENNARTMARTENS"));
+            Assert.assertFalse(ttf.passesFilter(">X OX=9031\nOX=9606"));
+
+            HashMap entry = new HashMap();
+            entry.put(FASTAHeaderFilter.HEADER, ">sp|P12345|X_HUMAN Desc OS=Homo sapiens OX=9606 GN=X");
+            Assert.assertTrue(ttf.passesFilter(entry));
+            TaxonomyTree tree = TaxonomyTree.load(new File(nodes));
+            Assert.assertFalse(new TaxonomyTreeFilter(tree, new int[] {40674}, true).passesFilter(entry));
+            Assert.assertFalse(new TaxonomyTreeFilter(tree, new int[] {8782}, false).passesFilter(entry));
+        } catch(IOException ioe) {
+            fail("IOException while testing the TaxonomyTreeFilter on FASTA entries: " + ioe.getMessage());
+        } finally {
+            if(fasta != null) {
+                fasta.delete();
+            }
+        }
+    }
+
+    /**
+     * This method tests the detection of invalid parameters.
+     */
+    public void testParameters() {
+        String nodes = TestCaseLM.getFullFilePath("nodes.dmp");
+        String[] invalid = new String[] {"Mammalia", "@" + nodes, " , @" + nodes, "9605@" + nodes,
+                                         "Mammals@" + nodes, "Mammalia@" + nodes + ".missing"};
+        for(int i = 0; i < invalid.length; i++) {
+            try {
+                new TaxonomyTreeFilter(invalid[i]);
+                fail("No IOException thrown for the invalid parameter '" + invalid[i] + "'!");
+            } catch(IOException ioe) {
+                // Expected.
+            }
+        }
+    }
+
+    /**
+     * This method tests the filter in a FilterCollection, on both FASTA and SwissProt entries.
+     */
+    public void testFilterCollection() {
+        try {
+            String nodes = TestCaseLM.getFullFilePath("nodes.dmp");
+            FilterCollection collection = new FilterCollection(FilterCollection.AND);
+            collection.add(new TaxonomyTreeFilter("Vertebrata@" + nodes));
+            collection.add(new TaxonomyTreeFilter("Mammalia@" + nodes, true));
+            Assert.assertTrue(collection.isHeaderOnly());
+            FilterTestUtil.checkEntries(DBLoader.SWISSPROT, "test.spr", collection, new boolean[] {false, false, false, false, true, false, false});
+            Assert.assertTrue(collection.passesFilter(">sw|Q04584|ZYX_CHICK Zyxin OX=9031\nMAAPRPSPAIS"));
+            Assert.assertFalse(collection.passesFilter(">sw|Q15942|ZYX_HUMAN Zyxin OX=9606\nMAAPRPSPAIS"));
+            Assert.assertTrue(collection.passesHeader(">sw|Q04584|ZYX_CHICK Zyxin OX=9031"));
+            Assert.assertFalse(collection.passesHeader(">sw|P21541|ZY11_CAEEL OX=6239"));
+        } catch(IOException ioe) {
+            fail("IOException while testing the TaxonomyTreeFilter in a FilterCollection: " + ioe.getMessage());
+        }
+    }
+}
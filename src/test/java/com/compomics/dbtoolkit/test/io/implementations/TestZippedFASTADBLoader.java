@@ -12,8 +12,11 @@
  */
 package com.compomics.dbtoolkit.test.io.implementations;
 
+import com.compomics.dbtoolkit.io.implementations.FASTADBLoader;
+import com.compomics.dbtoolkit.io.implementations.FASTAHeaderFilter;
 import com.compomics.dbtoolkit.io.implementations.ZippedFASTADBLoader;
 import com.compomics.dbtoolkit.io.interfaces.DBLoader;
+import com.compomics.dbtoolkit.io.interfaces.Filter;
 import com.compomics.util.junit.TestCaseLM;
 import com.compomics.util.protein.Protein;
 import junit.framework.*;
@@ -303,4 +306,32 @@ public class TestZippedFASTADBLoader extends TestCase {
             fail("An IOException was encountered while testing the GZIP FASTA DB nextProtein() method: '" + ioe.getMessage() + "'.");
         }
     }
+
+    /**
+     * This method tests that Filters that only need the header yield the same entries
+     * as with the FASTADBLoader on the unzipped DB.
+     */
+    public void testHeaderFilter() {
+        final String[] inputFiles = new String[] {"testFASTA.zip", "testFASTA.fas.gz"};
+        final Filter[] filters = new Filter[] {new FASTAHeaderFilter("ZYG-11"), new FASTAHeaderFilter("zyg-11", true), new FASTAHeaderFilter("nothing")};
+        try {
+            for(int i = 0; i < inputFiles.length; i++) {
+                for(int j = 0; j < filters.length; j++) {
+                    DBLoader control = new FASTADBLoader();
+                    control.load(TestCaseLM.getFullFilePath("testFASTA.fas"));
+                    DBLoader db = new ZippedFASTADBLoader();
+                    db.load(TestCaseLM.getFullFilePath(inputFiles[i]));
+                    String expected = null;
+                    while((expected = control.nextFilteredRawEntry(filters[j])) != null) {
+                        Assert.assertEquals(expected, db.nextFilteredRawEntry(filters[j]));
+                    }
+                    Assert.assertNull(db.nextFilteredRawEntry(filters[j]));
+                    control.close();
+                    db.close();
+                }
+            }
+        } catch(IOException ioe) {
+            fail("An IOException was encountered while testing the header filtering of the zipped FASTA DB:\n" + ioe.getMessage());
+        }
+    }
 }
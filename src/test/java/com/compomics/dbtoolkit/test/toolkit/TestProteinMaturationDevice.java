@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) Lennart Martens
+ *
+ * Contact: lennart.martens AT UGent.be (' AT ' to be replaced with '@')
+ */
+
+/*
+ * Created by IntelliJ IDEA.
+ * User: Lennart
+ * Date: 18-okt-2026
+ * Time: 06:14:52
+ */
+package com.compomics.dbtoolkit.test.toolkit;
+
+import com.compomics.dbtoolkit.io.implementations.FASTAWriter;
+import com.compomics.dbtoolkit.io.implementations.SwissProtDBLoader;
+import com.compomics.dbtoolkit.toolkit.ProteinMaturationDevice;
+import com.compomics.util.junit.TestCaseLM;
+import com.compomics.util.protein.Protein;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.StringTokenizer;
+
+/*
+ * CVS information:
+ *
+ * $Revision: 1.1 $
+ * $Date: 2026/10/18 06:14:52 $
+ */
+
+/**
+ * This class implements the test scenario for the ProteinMaturationDevice class.
+ *
+ * @author Lennart Martens
+ * @see com.compomics.dbtoolkit.toolkit.ProteinMaturationDevice
+ */
+public class TestProteinMaturationDevice extends TestCase {
+
+    /**
+     * All the modes.
+     */
+    private static final int[] MODES = new int[] {ProteinMaturationDevice.CHAIN_MODE, ProteinMaturationDevice.SIGNAL_PROPEP_MODE, ProteinMaturationDevice.EXCL_SIGNAL_PROPEP_MODE};
+
+    public TestProteinMaturationDevice() {
+        this("Test scenario for the ProteinMaturationDevice class.");
+    }
+
+    public TestProteinMaturationDevice(String aName) {
+        super(aName);
+    }
+
+    /**
+     * This method tests the parsing of the mode names.
+     */
+    public void testParseMode() {
+        Assert.assertEquals(ProteinMaturationDevice.CHAIN_MODE, ProteinMaturationDevice.parseMode("CHAIN"));
+        Assert.assertEquals(ProteinMaturationDevice.SIGNAL_PROPEP_MODE, ProteinMaturationDevice.parseMode(" propep"));
+        Assert.assertEquals(ProteinMaturationDevice.EXCL_SIGNAL_PROPEP_MODE, ProteinMaturationDevice.parseMode("Excl_Propep "));
+        Assert.assertEquals(-1, ProteinMaturationDevice.parseMode("SIGNAL"));
+    }
+
+    /**
+     * This method tests the processing of all modes in a single pass.
+     */
+    public void testMature() {
+        try {
+            String[][] output = new String[MODES.length][];
+            int[][] counts = new int[MODES.length][2];
+            Assert.assertEquals(3, this.mature(TestCaseLM.getFullFilePath("testMaturation.spr"), MODES, false, false, 2, output, counts));
+
+            // Chains, but not those with an unknown start.
+            Assert.assertEquals(3, counts[0][0]);
+            Assert.assertEquals(0, counts[0][1]);
+            Assert.assertEquals(3, output[0].length);
+            Assert.assertEquals("MKLVAAGHTRSEPQWLLNDCFIKYAGTREV", new Protein(output[0][0]).getSequence().getSequence());
+            Assert.assertEquals("AAGHTRSEPQWLLNDC", new Protein(output[0][1]).getSequence().getSequence());
+            Assert.assertEquals("LLKPWEGHIKCDNV", new Protein(output[0][2]).getSequence().getSequence());
+            Assert.assertEquals("P00003", new Protein(output[0][2]).getHeader().getAccession());
+
+            // Signal peptides, transit peptides and propeptides removed.
+            Assert.assertEquals(3, counts[1][0]);
+            Assert.assertEquals("AAGHTRSEPQWLLNDCFIKYAGTREV", new Protein(output[1][0]).getSequence().getSequence());
+            Assert.assertEquals("RSTLLKPWEGHIKCDNV", new Protein(output[1][1]).getSequence().getSequence());
+            Assert.assertEquals("LLKPWEGHIKCDNV", new Protein(output[1][2]).getSequence().getSequence());
+
+            // Only the most processed form, or the original protein.
+            Assert.assertEquals(2, counts[2][0]);
+            Assert.assertEquals(1, counts[2][1]);
+            Assert.assertEquals("AAGHTRSEPQWLLNDCFIKYAGTREV", new Protein(output[2][0]).getSequence().getSequence());
+            Assert.assertEquals("MSTNPKPQRKTKRNTNRRPQDVKFP", new Protein(output[2][1]).getSequence().getSequence());
+            Assert.assertEquals("RSTLLKPWEGHIKCDNV", new Protein(output[2][2]).getSequence().getSequence());
+
+            // Including the original sequences, and removing initiator methionines.
+            output = new String[1][];
+            counts = new int[1][2];
+            this.mature(TestCaseLM.getFullFilePath("testMaturation.spr"), new int[] {ProteinMaturationDevice.SIGNAL_PROPEP_MODE}, true, true, 1, output, counts);
+            Assert.assertEquals(4, counts[0][0]);
+            Assert.assertEquals(3, counts[0][1]);
+            Assert.assertEquals(7, output[0].length);
+            Assert.assertEquals("MKLVAAGHTRSEPQWLLNDCFIKYAGTREV", new Protein(output[0][0]).getSequence().getSequence());
+            Assert.assertEquals("KLVAAGHTRSEPQWLLNDCFIKYAGTREV", new Protein(output[0][2]).getSequence().getSequence());
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the maturation of proteins: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * This method tests that processing on several threads yields the same output,
+     * in the same order, as processing each mode on a single thread.
+     */
+    public void testThreads() {
+        File db = null;
+        try {
+            // Repeat the entries to fill several batches.
+            db = File.createTempFile("testMaturation", ".spr");
+            BufferedReader br = new BufferedReader(new FileReader(TestCaseLM.getFullFilePath("testMaturation.spr")));
+            StringBuffer entries = new StringBuffer();
+            String line = null;
+            while((line = br.readLine()) != null) {
+                entries.append(line + "\n");
+            }
+            br.close();
+            PrintWriter pw = new PrintWriter(new FileWriter(db));
+            for(int i = 0; i < 300; i++) {
+                pw.print(entries.toString().replaceAll("AC   P0000", "AC   P" + (1000 + i)));
+            }
+            pw.close();
+
+            String[][] parallel = new String[MODES.length][];
+            Assert.assertEquals(900, this.mature(db.getPath(), MODES, true, true, 3, parallel, new int[MODES.length][2]));
+            for(int i = 0; i < MODES.length; i++) {
+                String[][] single = new String[1][];
+                this.mature(db.getPath(), new int[] {MODES[i]}, true, true, 1, single, new int[1][2]);
+                Assert.assertEquals(single[0].length, parallel[i].length);
+                for(int j = 0; j < single[0].length; j++) {
+                    Assert.assertEquals(single[0][j], parallel[i][j]);
+                }
+            }
+        } catch(IOException ioe) {
+            fail("IOException thrown while testing the parallel maturation of proteins: " + ioe.getMessage());
+        } finally {
+            if(db != null) {
+                db.delete();
+            }
+        }
+    }
+
+    /**
+     * This method matures the entries in the specified SwissProt DB.
+     *
+     * @param   aDB String with the DB file.
+     * @param   aModes  int[] with the modes.
+     * @param   aIncludeOriginal    boolean to include the original sequences.
+     * @param   aInitMetRemoval boolean to remove the initiator methionines.
+     * @param   aThreads    int with the number of worker threads.
+     * @param   aOutput String[][] that receives the FASTA entries written for each mode.
+     * @param   aCounts int[][] that receives the counts for each mode.
+     * @return  int with the number of entries read.
+     * @exception   IOException when the maturation failed.
+     */
+    private int mature(String aDB, int[] aModes, boolean aIncludeOriginal, boolean aInitMetRemoval, int aThreads, String[][] aOutput, int[][] aCounts) throws IOException {
+        SwissProtDBLoader loader = new SwissProtDBLoader();
+        loader.load(aDB);
+        ByteArrayOutputStream[] baos = new ByteArrayOutputStream[aModes.length];
+        FASTAWriter[] writers = new FASTAWriter[aModes.length];
+        for(int i = 0; i < aModes.length; i++) {
+            baos[i] = new ByteArrayOutputStream();
+            writers[i] = new FASTAWriter(baos[i]);
+        }
+        int result = ProteinMaturationDevice.mature(loader, null, aModes, writers, aIncludeOriginal, aInitMetRemoval, aThreads, aCounts);
+        loader.close();
+        for(int i = 0; i < aModes.length; i++) {
+            writers[i].close();
+            ArrayList entries = new ArrayList();
+            StringTokenizer st = new StringTokenizer(baos[i].toString(), ">");
+            while(st.hasMoreTokens()) {
+                entries.add(">" + st.nextToken());
+            }
+            aOutput[i] = (String[])entries.toArray(new String[entries.size()]);
+        }
+        return result;
+    }
+}